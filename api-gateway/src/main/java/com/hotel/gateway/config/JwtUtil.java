@@ -1,13 +1,18 @@
 package com.hotel.gateway.config;
 
+import com.hotel.gateway.jfr.JwtVerificationEvent;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
 
 @Component
 public class JwtUtil {
@@ -15,6 +20,8 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
+    private volatile JwtParser parser;
+
     private SecretKey getSigningKey() {
         if (secret.length() < 32) {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters long");
@@ -22,35 +29,50 @@ public class JwtUtil {
         return Keys.hmacShaKeyFor(secret.getBytes());
     }
 
-    public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    public boolean isTokenExpired(String token) {
-        try {
-            return extractAllClaims(token).getExpiration().before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
-    }
-
-    public String extractUsername(String token) {
-        try {
-            return extractAllClaims(token).getSubject();
-        } catch (Exception e) {
-            return null;
+    // Парсер неизменяемый и потокобезопасный: ключ и парсер строятся один раз
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
         }
+        return current;
     }
 
-    public String extractRole(String token) {
+    /**
+     * Разбор токена и проверка подписи и срока - один раз на запрос, одно JwtVerificationEvent
+     *
+     * @return claims действительного токена; null, если токен поддельный, испорчен, истек или без срока
+     */
+    public Claims verify(String token) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        Claims claims = null;
+        String outcome = "error";
         try {
-            return extractAllClaims(token).get("role", String.class);
-        } catch (Exception e) {
-            return null;
+            claims = parser().parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                outcome = "no-expiration";
+                claims = null;
+            } else {
+                outcome = "valid";
+            }
+        } catch (ExpiredJwtException e) {
+            outcome = "expired";
+        } catch (SignatureException e) {
+            outcome = "invalid-signature";
+        } catch (MalformedJwtException e) {
+            outcome = "malformed";
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = "error";
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.subject = claims != null ? claims.getSubject() : null;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
+        return claims;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package com.hotel.gateway.filter;
+
+import com.hotel.common.concurrency.AdaptiveConcurrencyLimiter;
+import com.hotel.common.concurrency.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Адаптивное ограничение одновременных запросов к backend-у и ранний сброс нагрузки
+ *
+ * Лимит считается по наблюдаемой задержке, один на backend (аргумент backend маршрута,
+ * по умолчанию URI маршрута): маршруты к одному backend-у делят один лимит. Запросы сверх
+ * лимита сразу получают 503, не занимая соединения и очередь backend-а.
+ *
+ * Изменяющие запросы на criticalPaths маршрута могут занимать весь лимит, остальные -
+ * только read-share backend-а (gateway.concurrency.backends.<backend>.read-share, иначе
+ * gateway.concurrency.read-share). Так запись бронирований вытесняет чтение истории
+ * в booking-service. С чтением каталога запись бронирований конкурирует в hotel-service:
+ * шаги саги booking-service вызывает напрямую, минуя gateway, поэтому этот приоритет
+ * держит LoadSheddingFilter hotel-service, а лимиту hotel-service здесь резерв не нужен.
+ */
+@Component
+public class ConcurrencyLimitFilter extends AbstractGatewayFilterFactory<ConcurrencyLimitFilter.Config> {
+
+    private static final byte[] OVERLOADED_BODY =
+            "{\"error\":\"Service overloaded, please retry\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.concurrency.initial-limit:50}")
+    private int initialLimit;
+
+    @Value("${gateway.concurrency.min-limit:10}")
+    private int minLimit;
+
+    @Value("${gateway.concurrency.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${gateway.concurrency.read-share:0.8}")
+    private double defaultReadShare;
+
+    private final Environment environment;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry, Environment environment) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String backend = config.getBackend() != null ? config.getBackend()
+                    : route != null ? route.getUri().toString() : "default";
+            AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(backend, this::createLimiter);
+
+            Priority priority = priorityOf(exchange.getRequest(), config.getCriticalPaths());
+            if (!limiter.tryAcquire(priority)) {
+                rejectedCounter(backend, priority).increment();
+                return reject(exchange.getResponse());
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limiter.onIgnore();
+                            return;
+                        }
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        boolean dropped = signal == SignalType.ON_ERROR
+                                || (status != null && status.is5xxServerError());
+                        limiter.onComplete(System.nanoTime() - start, dropped);
+                    });
+        };
+    }
+
+    private Priority priorityOf(ServerHttpRequest request, List<String> criticalPaths) {
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+            return Priority.NORMAL;
+        }
+        String path = request.getPath().value();
+        for (String prefix : criticalPaths) {
+            if (path.startsWith(prefix)) {
+                return Priority.CRITICAL;
+            }
+        }
+        return Priority.NORMAL;
+    }
+
+    // Доля лимита для обычных запросов - свойство backend-а, а не маршрута, создавшего лимит первым
+    private AdaptiveConcurrencyLimiter createLimiter(String backend) {
+        double readShare = environment.getProperty("gateway.concurrency.backends." + backend + ".read-share",
+                Double.class, defaultReadShare);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, readShare);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("backend", backend)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("backend", backend)
+                .register(meterRegistry);
+        System.out.println("🚦 Concurrency limiter created for " + backend + " (initial limit " + initialLimit
+                + ", read share " + readShare + ")");
+        return limiter;
+    }
+
+    // Отказы идут всплесками при перегрузке - счетчик регистрируется один раз, как и gauge-и лимита
+    private Counter rejectedCounter(String backend, Priority priority) {
+        return rejectedCounters.computeIfAbsent(backend + '|' + priority, key ->
+                Counter.builder("gateway.concurrency.rejected")
+                        .tag("backend", backend)
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(meterRegistry));
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(OVERLOADED_BODY)));
+    }
+
+    public static class Config {
+        // Имя общего лимита backend-а; пусто - URI маршрута
+        private String backend;
+        // Изменяющие запросы на эти пути считаются критичными (выручка); пусто - все запросы обычные
+        private List<String> criticalPaths = List.of();
+
+        public String getBackend() {
+            return backend;
+        }
+
+        public void setBackend(String backend) {
+            this.backend = backend;
+        }
+
+        public List<String> getCriticalPaths() {
+            return criticalPaths;
+        }
+
+        public void setCriticalPaths(List<String> criticalPaths) {
+            this.criticalPaths = criticalPaths;
+        }
+    }
+}
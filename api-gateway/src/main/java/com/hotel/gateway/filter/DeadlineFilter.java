@@ -0,0 +1,108 @@
+package com.hotel.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Дедлайн запроса: бюджет времени задается здесь и передается backend-ам
+ *
+ * Бюджет - X-Request-Timeout-Ms клиента (не больше max-timeout) или default-timeout.
+ * В backend уходит тот же заголовок: booking-service отсчитывает от него таймауты вызовов
+ * hotel-service, retry и запросы к базе. По истечении бюджета gateway отвечает 504 и отменяет
+ * запрос к backend-у. Маршруты с response-timeout: -1 (SSE) без дедлайна.
+ */
+@Component
+public class DeadlineFilter implements GlobalFilter, Ordered {
+
+    // Сразу после TraceFilter: в бюджет входит и аутентификация, а 504 попадает в трассу
+    public static final int ORDER = JwtAuthFilter.ORDER - 1;
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final byte[] DEADLINE_BODY = "{\"error\":\"Deadline exceeded\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final long defaultTimeoutMillis;
+    private final long maxTimeoutMillis;
+    private final MeterRegistry meterRegistry;
+
+    public DeadlineFilter(@Value("${gateway.deadline.default-timeout:PT10S}") Duration defaultTimeout,
+                          @Value("${gateway.deadline.max-timeout:PT30S}") Duration maxTimeout,
+                          MeterRegistry meterRegistry) {
+        this.defaultTimeoutMillis = defaultTimeout.toMillis();
+        this.maxTimeoutMillis = maxTimeout.toMillis();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null && "-1".equals(String.valueOf(route.getMetadata().get("response-timeout")))) {
+            return chain.filter(exchange);
+        }
+
+        long timeoutMillis = timeoutOf(exchange.getRequest());
+        ServerHttpRequest bounded = exchange.getRequest().mutate()
+                .headers(headers -> headers.set(TIMEOUT_HEADER, String.valueOf(timeoutMillis)))
+                .build();
+
+        return chain.filter(exchange.mutate().request(bounded).build())
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .onErrorResume(TimeoutException.class, e -> {
+                    String routeId = route != null ? route.getId() : "none";
+                    Counter.builder("gateway.deadline.exceeded")
+                            .tag("route", routeId)
+                            .register(meterRegistry)
+                            .increment();
+                    System.out.println("⏱️ Deadline of " + timeoutMillis + " ms exceeded: "
+                            + exchange.getRequest().getMethod() + " " + exchange.getRequest().getPath().value());
+                    return deadlineExceeded(exchange.getResponse());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private long timeoutOf(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) {
+                    return Math.min(requested, maxTimeoutMillis);
+                }
+            } catch (NumberFormatException e) {
+                // Некорректный заголовок - бюджет по умолчанию
+            }
+        }
+        return defaultTimeoutMillis;
+    }
+
+    private Mono<Void> deadlineExceeded(ServerHttpResponse response) {
+        // Ответ backend-а уже начал уходить клиенту - остается только оборвать его
+        if (response.isCommitted()) {
+            return Mono.error(new TimeoutException("Deadline exceeded after response was committed"));
+        }
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(DEADLINE_BODY)));
+    }
+}
@@ -1,7 +1,10 @@
 package com.hotel.gateway.filter;
 
 import com.hotel.gateway.config.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
@@ -20,6 +23,12 @@ import java.nio.charset.StandardCharsets;
 @Component
 public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Config> {
 
+    // Аутентификация должна отработать раньше фильтров, которые декорируют ответ
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+
+    // Пользователь проверенного токена; на публичных endpoints атрибута нет
+    public static final String USER_ATTR = JwtAuthFilter.class.getName() + ".user";
+
     private final JwtUtil jwtUtil;
 
     public JwtAuthFilter(JwtUtil jwtUtil) {
@@ -29,7 +38,7 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
 
     @Override
     public GatewayFilter apply(Config config) {
-        return (exchange, chain) -> {
+        return new OrderedGatewayFilter((exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
             String path = request.getPath().toString();
 
@@ -85,14 +94,15 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
                             String token = authHeader.substring(7);
 
                             try {
-                                if (jwtUtil.isTokenExpired(token)) {
-                                    System.out.println("❌ EXPIRED TOKEN");
+                                Claims claims = jwtUtil.verify(token);
+                                if (claims == null) {
+                                    System.out.println("❌ INVALID OR EXPIRED TOKEN");
                                     exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
                                     return exchange.getResponse().setComplete();
                                 }
 
-                                String username = jwtUtil.extractUsername(token);
-                                String role = jwtUtil.extractRole(token);
+                                String username = claims.getSubject();
+                                String role = claims.get("role", String.class);
 
                                 System.out.println("✅ VALID TOKEN - User: " + username + ", Role: " + role);
 
@@ -125,6 +135,8 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
                                 System.out.println("   📦 Body preserved: " + (bytes.length > 0 ? "YES" : "NO"));
                                 System.out.println("=".repeat(100));
 
+                                exchange.getAttributes().put(USER_ATTR, username);
+
                                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
 
                             } catch (Exception e) {
@@ -154,14 +166,15 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
                 String token = authHeader.substring(7);
 
                 try {
-                    if (jwtUtil.isTokenExpired(token)) {
-                        System.out.println("❌ EXPIRED TOKEN");
+                    Claims claims = jwtUtil.verify(token);
+                    if (claims == null) {
+                        System.out.println("❌ INVALID OR EXPIRED TOKEN");
                         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
                         return exchange.getResponse().setComplete();
                     }
 
-                    String username = jwtUtil.extractUsername(token);
-                    String role = jwtUtil.extractRole(token);
+                    String username = claims.getSubject();
+                    String role = claims.get("role", String.class);
 
                     System.out.println("✅ VALID TOKEN - User: " + username + ", Role: " + role);
 
@@ -182,6 +195,7 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
                     System.out.println("   🎭 X-User-Role: " + role);
                     System.out.println("=".repeat(100));
 
+                    exchange.getAttributes().put(USER_ATTR, username);
                     return chain.filter(exchange.mutate().request(modifiedRequest).build());
 
                 } catch (Exception e) {
@@ -190,7 +204,7 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
                     return exchange.getResponse().setComplete();
                 }
             }
-        };
+        }, ORDER);
     }
 
     public static class Config {
@@ -0,0 +1,221 @@
+package com.hotel.gateway.filter;
+
+import com.hotel.gateway.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Локальный rate limiting без Redis
+ *
+ * Для каждого маршрута держим два token bucket-а: общий на маршрут и на пользователя
+ * (subject проверенного JwtAuthFilter токена). Для публичных endpoints вместо пользователя
+ * используется только IP клиента: заголовкам запроса здесь не доверяем.
+ * Полностью пополненные bucket-ы удаляются, поэтому память зависит только от числа
+ * активных в данный момент клиентов. Пока клиентских bucket-ов max-buckets, новые клиенты
+ * делят один overflow bucket маршрута, а очистка запускается вне event loop.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    // Сразу после аутентификации и до схлопывания запросов
+    public static final int ORDER = JwtAuthFilter.ORDER + 1;
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // Bucket-ы маршрутов и общие bucket-ы для клиентов сверх max-buckets: по одному на маршрут
+    private final Map<String, TokenBucket> routeBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter userRejected;
+    private final Counter routeRejected;
+
+    @Value("${gateway.rate-limit.user.replenish-rate:20}")
+    private double defaultUserRate;
+
+    @Value("${gateway.rate-limit.user.burst-capacity:40}")
+    private int defaultUserBurst;
+
+    @Value("${gateway.rate-limit.route.replenish-rate:1000}")
+    private double defaultRouteRate;
+
+    @Value("${gateway.rate-limit.route.burst-capacity:2000}")
+    private int defaultRouteBurst;
+
+    @Value("${gateway.rate-limit.max-buckets:1000000}")
+    private int maxBuckets;
+
+    public RateLimitFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.userRejected = Counter.builder("gateway.ratelimit.rejected")
+                .tag("scope", "user")
+                .register(meterRegistry);
+        this.routeRejected = Counter.builder("gateway.ratelimit.rejected")
+                .tag("scope", "route")
+                .register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Map::size)
+                .description("Token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Limit userLimit = new Limit(
+                config.getUserReplenishRate() != null ? config.getUserReplenishRate() : defaultUserRate,
+                config.getUserBurstCapacity() != null ? config.getUserBurstCapacity() : defaultUserBurst);
+        Limit routeLimit = new Limit(
+                config.getRouteReplenishRate() != null ? config.getRouteReplenishRate() : defaultRouteRate,
+                config.getRouteBurstCapacity() != null ? config.getRouteBurstCapacity() : defaultRouteBurst);
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+            long now = System.nanoTime();
+
+            long waitNanos = acquireClient(routeId, clientKey(exchange), userLimit, now);
+            if (waitNanos > 0) {
+                userRejected.increment();
+                return reject(exchange.getResponse(), waitNanos, "user");
+            }
+
+            waitNanos = routeBuckets.computeIfAbsent(routeId, k -> new TokenBucket(now))
+                    .tryAcquire(now, routeLimit.emissionInterval(), routeLimit.burstTolerance());
+            if (waitNanos > 0) {
+                routeRejected.increment();
+                return reject(exchange.getResponse(), waitNanos, "route");
+            }
+
+            return chain.filter(exchange);
+        }, ORDER);
+    }
+
+    private long acquireClient(String routeId, String clientKey, Limit limit, long now) {
+        String key = routeId + '|' + clientKey;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                // Таблица заполнена: O(n) очистку не делаем на event loop, новый клиент пока
+                // ограничивается общим overflow bucket-ом маршрута
+                scheduleEviction();
+                bucket = overflowBuckets.computeIfAbsent(routeId, k -> new TokenBucket(now));
+            } else {
+                bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(now));
+            }
+        }
+        return bucket.tryAcquire(now, limit.emissionInterval(), limit.burstTolerance());
+    }
+
+    private String clientKey(ServerWebExchange exchange) {
+        String username = exchange.getAttribute(JwtAuthFilter.USER_ATTR);
+        if (username != null) {
+            return "user:" + username;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? "ip:" + remoteAddress.getAddress().getHostAddress()
+                : "anonymous";
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, long waitNanos, String scope) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.getHeaders().set("X-RateLimit-Scope", scope);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+    }
+
+    private void scheduleEviction() {
+        if (!evicting.get()) {
+            Schedulers.boundedElastic().schedule(this::evictIdleBuckets);
+        }
+    }
+
+    /**
+     * Удаление простаивающих bucket-ов
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.eviction-interval-ms:10000}")
+    public void evictIdleBuckets() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+            overflowBuckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Limit(long emissionInterval, long burstTolerance) {
+        Limit(double replenishRate, int burstCapacity) {
+            this((long) (TimeUnit.SECONDS.toNanos(1) / replenishRate),
+                    (long) (TimeUnit.SECONDS.toNanos(1) / replenishRate) * Math.max(0, burstCapacity - 1));
+        }
+    }
+
+    public static class Config {
+        // Пустые значения берутся из gateway.rate-limit.*
+        private Double userReplenishRate;
+        private Integer userBurstCapacity;
+        private Double routeReplenishRate;
+        private Integer routeBurstCapacity;
+
+        public Double getUserReplenishRate() {
+            return userReplenishRate;
+        }
+
+        public void setUserReplenishRate(Double userReplenishRate) {
+            this.userReplenishRate = userReplenishRate;
+        }
+
+        public Integer getUserBurstCapacity() {
+            return userBurstCapacity;
+        }
+
+        public void setUserBurstCapacity(Integer userBurstCapacity) {
+            this.userBurstCapacity = userBurstCapacity;
+        }
+
+        public Double getRouteReplenishRate() {
+            return routeReplenishRate;
+        }
+
+        public void setRouteReplenishRate(Double routeReplenishRate) {
+            this.routeReplenishRate = routeReplenishRate;
+        }
+
+        public Integer getRouteBurstCapacity() {
+            return routeBurstCapacity;
+        }
+
+        public void setRouteBurstCapacity(Integer routeBurstCapacity) {
+            this.routeBurstCapacity = routeBurstCapacity;
+        }
+    }
+}
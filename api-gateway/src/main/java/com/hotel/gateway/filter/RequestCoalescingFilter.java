@@ -0,0 +1,197 @@
+package com.hotel.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Single-flight фильтр для идемпотентных запросов
+ *
+ * Одинаковые одновременные GET запросы (путь + query + роль) схлопываются
+ * в один вызов backend-а, ответ раздается всем ожидающим клиентам.
+ * Подключается только на маршруты, ответ которых не зависит от конкретного пользователя.
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    // Декоратор ответа должен быть установлен до NettyWriteResponseFilter, но после JwtAuthFilter
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaderRequests;
+    private final Counter coalescedRequests;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.leaderRequests = Counter.builder("gateway.coalescing.requests")
+                .tag("role", "leader")
+                .description("Requests forwarded to the backend by the coalescing filter")
+                .register(meterRegistry);
+        this.coalescedRequests = Counter.builder("gateway.coalescing.requests")
+                .tag("role", "follower")
+                .description("Requests served from another in-flight request")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.ratio", this, RequestCoalescingFilter::coalescingRatio)
+                .description("Share of eligible requests that did not reach the backend")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in.flight", inFlight, Map::size)
+                .description("Distinct requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration maxWait = Duration.ofMillis(config.getMaxWaitMillis());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET && request.getMethod() != HttpMethod.HEAD) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(request);
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, sink);
+
+            if (existing != null) {
+                // Такой же запрос уже выполняется - ждем его ответ
+                coalescedRequests.increment();
+                return existing.asMono()
+                        .timeout(maxWait)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .onErrorReturn(Optional.empty())
+                        .flatMap(cached -> cached.isPresent()
+                                ? writeCached(exchange, cached.get())
+                                : chain.filter(exchange));
+            }
+
+            leaderRequests.increment();
+            ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), cached -> {
+                // Сначала убираем ключ, чтобы новые запросы не получили устаревший ответ
+                inFlight.remove(key, sink);
+                sink.tryEmitValue(cached);
+            });
+
+            return chain.filter(exchange.mutate().response(capturing).build())
+                    .doFinally(signal -> {
+                        // Ответ не закэширован (ошибка, не 2xx, стрим) - ожидающие пойдут в backend сами
+                        inFlight.remove(key, sink);
+                        sink.tryEmitEmpty();
+                    });
+        }, ORDER);
+    }
+
+    private String coalescingKey(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(128)
+                .append(request.getMethod().name())
+                .append(' ')
+                .append(request.getPath().value());
+
+        // Порядок параметров не должен влиять на ключ
+        Map<String, List<String>> params = new TreeMap<>(request.getQueryParams());
+        char separator = '?';
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+
+        String role = request.getHeaders().getFirst("X-User-Role");
+        return key.append('|').append(role).toString();
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set("X-Coalesced", "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private double coalescingRatio() {
+        double followers = coalescedRequests.count();
+        double total = followers + leaderRequests.count();
+        return total == 0 ? 0.0 : followers / total;
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * Декоратор ответа лидера: буферизует тело, отдает копию ожидающим и пишет его клиенту
+     */
+    private static class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final Consumer<CachedResponse> onCaptured;
+
+        CapturingResponse(ServerHttpResponse delegate, Consumer<CachedResponse> onCaptured) {
+            super(delegate);
+            this.onCaptured = onCaptured;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || !status.is2xxSuccessful()) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.putAll(getHeaders());
+                        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                        onCaptured.accept(new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+    }
+
+    public static class Config {
+        // Сколько ожидающий запрос готов ждать ответ лидера, после чего идет в backend сам
+        private long maxWaitMillis = 5000;
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hotel.gateway.filter;
+
+import com.hotel.gateway.tracing.TraceFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Удаление заголовков X-User-* клиента
+ *
+ * X-User-Name и X-User-Role выставляет только JwtAuthFilter по проверенному токену;
+ * присланные клиентом значения иначе дошли бы до backend-ов и до rate limiting
+ * на публичных endpoints, где JwtAuthFilter заголовки не трогает.
+ */
+@Component
+public class UserHeaderStripFilter implements GlobalFilter, Ordered {
+
+    // Первым, до трассировки и аутентификации
+    public static final int ORDER = TraceFilter.ORDER - 1;
+
+    private static final String PREFIX = "x-user-";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        List<String> spoofed = exchange.getRequest().getHeaders().keySet().stream()
+                .filter(name -> name.toLowerCase().startsWith(PREFIX))
+                .toList();
+        if (spoofed.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        System.out.println("🧹 Dropping client identity headers " + spoofed + ": "
+                + exchange.getRequest().getMethod() + " " + exchange.getRequest().getPath().value());
+        ServerHttpRequest stripped = exchange.getRequest().mutate()
+                .headers(headers -> spoofed.forEach(headers::remove))
+                .build();
+        return chain.filter(exchange.mutate().request(stripped).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,52 @@
+package com.hotel.gateway.jfr;
+
+import com.hotel.gateway.config.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * /actuator/jfr на gateway доступен только с JWT роли ADMIN
+ *
+ * В gateway нет Spring Security, а actuator обслуживается на том же порту, что и API:
+ * дамп JFR содержит имена пользователей и параметры запросов.
+ */
+@Component
+public class JfrAccessFilter implements WebFilter {
+
+    private static final String JFR_PATH = "/actuator/jfr";
+
+    private final JwtUtil jwtUtil;
+
+    public JfrAccessFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(JFR_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+
+        Claims claims = jwtUtil.verify(authHeader.substring(7));
+        if (claims == null) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        if (!"ADMIN".equals(claims.get("role", String.class))) {
+            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+}
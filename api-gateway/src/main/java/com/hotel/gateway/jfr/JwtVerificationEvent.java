@@ -0,0 +1,25 @@
+package com.hotel.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Разбор и проверка JWT (одно событие на запрос: токен разбирается один раз)
+ */
+@Name("com.hotel.gateway.JwtVerification")
+@Label("JWT Verification")
+@Category({"Hotel Booking", "API Gateway"})
+@Description("JWT parsing and signature verification")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Subject")
+    public String subject;
+
+    @Label("Outcome")
+    public String outcome;
+}
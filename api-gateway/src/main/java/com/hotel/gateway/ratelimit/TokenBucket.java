@@ -0,0 +1,52 @@
+package com.hotel.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Token bucket без блокировок
+ *
+ * Реализован как GCRA: вместо счетчика токенов и времени пополнения хранится одно значение -
+ * "теоретическое время прибытия" (TAT) следующего запроса в наносекундах.
+ * Поведение эквивалентно token bucket с rate = 1 / emissionInterval и емкостью burst.
+ * Параметры лимита передаются при вызове, поэтому сам bucket - это объект с одним long полем.
+ */
+public final class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> TAT =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "tat");
+
+    private volatile long tat;
+
+    public TokenBucket(long now) {
+        this.tat = now;
+    }
+
+    /**
+     * Попытка взять токен
+     *
+     * @param now              текущее время (System.nanoTime)
+     * @param emissionInterval интервал между токенами в наносекундах
+     * @param burstTolerance   допустимое опережение графика ((burst - 1) * emissionInterval)
+     * @return 0 если запрос разрешен, иначе сколько наносекунд ждать следующего токена
+     */
+    public long tryAcquire(long now, long emissionInterval, long burstTolerance) {
+        while (true) {
+            long current = tat;
+            long base = Math.max(current, now);
+            long waitNanos = base - burstTolerance - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (TAT.compareAndSet(this, current, base + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Bucket полностью пополнен - его можно удалить, новый будет в том же состоянии
+     */
+    public boolean isIdle(long now) {
+        return tat - now <= 0;
+    }
+}
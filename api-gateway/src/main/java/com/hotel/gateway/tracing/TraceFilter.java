@@ -0,0 +1,92 @@
+package com.hotel.gateway.tracing;
+
+import com.hotel.common.tracing.Span;
+import com.hotel.common.tracing.SpanBuffer;
+import com.hotel.common.tracing.TraceContext;
+import com.hotel.gateway.filter.DeadlineFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+
+/**
+ * Начало трассы: корневой span на каждый запрос через gateway
+ *
+ * traceId всегда новый: значение клиента не должно склеивать чужие запросы в одну трассу
+ * или переполнять ее span-ами. X-Request-Id клиента остается тегом корневого span-а и
+ * возвращается ему как есть; traceId клиент получает в X-Trace-Id (и в X-Request-Id,
+ * если свой не передал). В backend traceId уходит как X-Trace-Id вместе с X-Parent-Span-Id,
+ * а X-Request-Id не меняется: booking-service использует его как ключ идемпотентности
+ * подтверждения номера.
+ */
+@Component
+public class TraceFilter implements GlobalFilter, Ordered {
+
+    // Раньше дедлайна и аутентификации, чтобы в трассу попадали и отказы 401/429/503/504
+    public static final int ORDER = DeadlineFilter.ORDER - 1;
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final String SERVICE = "api-gateway";
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final SpanBuffer spanBuffer;
+
+    public TraceFilter(SpanBuffer spanBuffer) {
+        this.spanBuffer = spanBuffer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestId = request.getHeaders().getFirst(REQUEST_ID_HEADER);
+        Map<String, String> tags = requestId != null && !requestId.isBlank() && requestId.length() <= MAX_REQUEST_ID_LENGTH
+                ? Map.of("requestId", requestId)
+                : Map.of();
+        String traceId = TraceContext.newId();
+        String spanId = TraceContext.newId();
+
+        ServerHttpRequest traced = request.mutate()
+                .headers(headers -> {
+                    headers.set(TraceContext.TRACE_ID_HEADER, traceId);
+                    headers.set(TraceContext.PARENT_SPAN_ID_HEADER, spanId);
+                })
+                .build();
+        // Перед отправкой: заголовки ответа backend-а (его X-Trace-Id) к этому моменту уже скопированы
+        exchange.getResponse().beforeCommit(() -> {
+            exchange.getResponse().getHeaders().set(TraceContext.TRACE_ID_HEADER, traceId);
+            exchange.getResponse().getHeaders().set(REQUEST_ID_HEADER, tags.getOrDefault("requestId", traceId));
+            return Mono.empty();
+        });
+
+        long startEpochMs = System.currentTimeMillis();
+        long start = System.nanoTime();
+        return chain.filter(exchange.mutate().request(traced).build())
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    spanBuffer.record(new Span(traceId, spanId, null, SERVICE,
+                            request.getMethod() + " " + request.getPath().value()
+                                    + (route != null ? " -> " + route.getId() : ""),
+                            startEpochMs, (System.nanoTime() - start) / 1000,
+                            signal == SignalType.CANCEL ? "cancelled"
+                                    : signal == SignalType.ON_ERROR || status == null ? "error"
+                                    : String.valueOf(status.value()),
+                            tags));
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hotel.gateway.tracing;
+
+import com.hotel.common.tracing.Span;
+import com.hotel.common.tracing.SpanBuffer;
+import com.hotel.common.tracing.TraceView;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * /actuator/traces - самые долгие трассы (?limit=N) по всем сервисам
+ *
+ * Медленные трассы выбираются по корневому span-у gateway, затем к ним добавляются span-ы
+ * backend-ов из их /actuator/traces?ids=... Опрашиваются backend-ы с http URI маршрутов
+ * (lb:// адреса пропускаются), недоступный backend просто не добавляет span-ов.
+ */
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+    private static final Duration BACKEND_TIMEOUT = Duration.ofSeconds(2);
+    private static final ParameterizedTypeReference<List<TraceView>> TRACE_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final SpanBuffer spanBuffer;
+    private final RouteLocator routeLocator;
+    private final WebClient webClient;
+
+    public TracesEndpoint(SpanBuffer spanBuffer, RouteLocator routeLocator, WebClient.Builder webClientBuilder) {
+        this.spanBuffer = spanBuffer;
+        this.routeLocator = routeLocator;
+        this.webClient = webClientBuilder.build();
+    }
+
+    @ReadOperation
+    public Mono<List<TraceView>> traces(@Nullable Integer limit) {
+        List<TraceView> slowest = spanBuffer.slowest(Math.min(MAX_LIMIT, limit != null ? limit : DEFAULT_LIMIT));
+        if (slowest.isEmpty()) {
+            return Mono.just(slowest);
+        }
+        String ids = slowest.stream().map(TraceView::traceId).collect(Collectors.joining(","));
+
+        return routeLocator.getRoutes()
+                .map(Route::getUri)
+                .filter(uri -> "http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))
+                .distinct()
+                .flatMap(uri -> fetch(uri, ids))
+                .collectMultimap(TraceView::traceId)
+                .map(backendTraces -> slowest.stream()
+                        .map(trace -> merge(trace, backendTraces.getOrDefault(trace.traceId(), List.of())))
+                        .toList());
+    }
+
+    private Flux<TraceView> fetch(URI backend, String ids) {
+        return webClient.get()
+                .uri(backend.resolve("/actuator/traces?ids=" + ids))
+                .retrieve()
+                .bodyToMono(TRACE_LIST)
+                .timeout(BACKEND_TIMEOUT)
+                .flatMapMany(Flux::fromIterable)
+                .onErrorResume(e -> {
+                    System.out.println("⚠️ Traces not available from " + backend + ": " + e.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    private static TraceView merge(TraceView gatewayTrace, Collection<TraceView> backendTraces) {
+        List<Span> spans = new ArrayList<>(gatewayTrace.spans());
+        backendTraces.forEach(trace -> spans.addAll(trace.spans()));
+        spans.sort(Comparator.comparingLong(Span::startEpochMs));
+        return new TraceView(gatewayTrace.traceId(), gatewayTrace.durationMicros(), spans);
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotel.gateway.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hs256!";
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    JwtUtilTest() {
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+    }
+
+    private static String token(String secret, Date expiration) {
+        return Jwts.builder()
+                .setSubject("alice")
+                .claim("role", "USER")
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    private static Date inMinutes(int minutes) {
+        return new Date(System.currentTimeMillis() + minutes * 60_000L);
+    }
+
+    @Test
+    void verifiesOnceAndRecordsOneEventPerToken() throws Exception {
+        Path dump = Files.createTempFile("jwt-", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hotel.gateway.JwtVerification");
+            recording.start();
+
+            Claims claims = jwtUtil.verify(token(SECRET, inMinutes(5)));
+            assertEquals("alice", claims.getSubject());
+            assertEquals("USER", claims.get("role", String.class));
+
+            assertNull(jwtUtil.verify(token(SECRET, inMinutes(-5))));
+            assertNull(jwtUtil.verify(token("another-secret-that-is-long-enough-for-hs256", inMinutes(5))));
+            assertNull(jwtUtil.verify(token(SECRET, null)));
+            assertNull(jwtUtil.verify("not-a-token"));
+
+            recording.stop();
+            recording.dump(dump);
+        }
+        try {
+            List<String> outcomes = RecordingFile.readAllEvents(dump).stream()
+                    .map(event -> event.getString("outcome"))
+                    .toList();
+            assertEquals(List.of("valid", "expired", "invalid-signature", "no-expiration", "malformed"), outcomes);
+            RecordedEvent valid = RecordingFile.readAllEvents(dump).get(0);
+            assertEquals("alice", valid.getString("subject"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.hotel.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Лимит не адаптируется (min = max), чтобы проверять только отказы
+    private GatewayFilter limitOf(int limit, double readShare) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, new MockEnvironment());
+        ReflectionTestUtils.setField(filter, "initialLimit", limit);
+        ReflectionTestUtils.setField(filter, "minLimit", limit);
+        ReflectionTestUtils.setField(filter, "maxLimit", limit);
+        ReflectionTestUtils.setField(filter, "defaultReadShare", readShare);
+        ConcurrencyLimitFilter.Config config = new ConcurrencyLimitFilter.Config();
+        config.setBackend("booking");
+        config.setCriticalPaths(List.of("/api/booking"));
+        return filter.apply(config);
+    }
+
+    // Запрос, который держит место в лимите, пока не отменен
+    private static Disposable hold(GatewayFilter filter, MockServerHttpRequest request) {
+        return filter.filter(MockServerWebExchange.from(request), e -> Mono.never()).subscribe();
+    }
+
+    private static MockServerWebExchange send(GatewayFilter filter, MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, e -> Mono.empty()).block();
+        return exchange;
+    }
+
+    private double rejected(String priority) {
+        Counter counter = meterRegistry.find("gateway.concurrency.rejected")
+                .tags("backend", "booking", "priority", priority).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void testRequestsBeyondLimitGet503WithRetryAfter() {
+        GatewayFilter filter = limitOf(1, 1.0);
+        Disposable inFlight = hold(filter, MockServerHttpRequest.get("/api/bookings").build());
+
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = send(filter, MockServerHttpRequest.get("/api/bookings").build());
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+            assertEquals("1", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        }
+
+        assertEquals(3, rejected("normal"));
+        assertEquals(1, meterRegistry.find("gateway.concurrency.rejected").counters().size());
+
+        // Отмененный запрос освобождает место
+        inFlight.dispose();
+        assertNull(send(filter, MockServerHttpRequest.get("/api/bookings").build()).getResponse().getStatusCode());
+    }
+
+    @Test
+    void testCriticalWritesUseCapacityClosedToReads() {
+        GatewayFilter filter = limitOf(2, 0.5);
+        Disposable read = hold(filter, MockServerHttpRequest.get("/api/bookings").build());
+
+        MockServerWebExchange secondRead = send(filter, MockServerHttpRequest.get("/api/bookings").build());
+        MockServerWebExchange booking = send(filter, MockServerHttpRequest.post("/api/booking").build());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, secondRead.getResponse().getStatusCode());
+        assertNull(booking.getResponse().getStatusCode());
+        assertEquals(1, rejected("normal"));
+        assertEquals(0, rejected("critical"));
+        read.dispose();
+    }
+}
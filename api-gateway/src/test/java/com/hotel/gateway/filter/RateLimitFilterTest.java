@@ -0,0 +1,112 @@
+package com.hotel.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final UserHeaderStripFilter stripFilter = new UserHeaderStripFilter();
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GatewayFilter rateLimit = limitOf(2, 1000);
+
+    private GatewayFilter limitOf(int burst, int maxBuckets) {
+        RateLimitFilter.Config config = new RateLimitFilter.Config();
+        config.setUserReplenishRate(0.001);
+        config.setUserBurstCapacity(burst);
+        config.setRouteReplenishRate(1000.0);
+        config.setRouteBurstCapacity(1000);
+        RateLimitFilter filter = new RateLimitFilter(meterRegistry);
+        ReflectionTestUtils.setField(filter, "maxBuckets", maxBuckets);
+        return filter.apply(config);
+    }
+
+    // Заголовки клиента удаляются, затем rate limiting; аутентифицированный пользователь - атрибут JwtAuthFilter
+    private HttpStatus send(MockServerHttpRequest request, String authenticatedUser) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain backend = e -> Mono.empty();
+        stripFilter.filter(exchange, stripped -> {
+            if (authenticatedUser != null) {
+                stripped.getAttributes().put(JwtAuthFilter.USER_ATTR, authenticatedUser);
+            }
+            return rateLimit.filter(stripped, backend);
+        }).block();
+        return exchange.getResponse().getStatusCode() != null
+                ? HttpStatus.valueOf(exchange.getResponse().getStatusCode().value())
+                : HttpStatus.OK;
+    }
+
+    private static MockServerHttpRequest login(String ip, String userHeader) {
+        return MockServerHttpRequest.post("/api/user/auth")
+                .remoteAddress(new InetSocketAddress(ip, 40000))
+                .header("X-User-Name", userHeader)
+                .build();
+    }
+
+    @Test
+    void rotatingUserHeaderDoesNotBypassLoginLimit() {
+        assertEquals(HttpStatus.OK, send(login("10.0.0.1", "a"), null));
+        assertEquals(HttpStatus.OK, send(login("10.0.0.1", "b"), null));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(login("10.0.0.1", "c"), null));
+        // Другой адрес - свой bucket
+        assertEquals(HttpStatus.OK, send(login("10.0.0.2", "c"), null));
+    }
+
+    @Test
+    void spoofedUserHeaderDoesNotDrainVictimBucket() {
+        for (int i = 0; i < 5; i++) {
+            send(login("10.0.0.9", "victim"), null);
+        }
+        MockServerHttpRequest victimRequest = MockServerHttpRequest.get("/api/bookings")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 40000))
+                .build();
+        assertEquals(HttpStatus.OK, send(victimRequest, "victim"));
+    }
+
+    @Test
+    void clientsBeyondMaxBucketsShareOverflowBucket() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimit = limitOf(2, 1);
+        assertEquals(HttpStatus.OK, send(login("10.0.1.1", "a"), null));
+
+        // Таблица заполнена: новые адреса делят один overflow bucket
+        assertEquals(HttpStatus.OK, send(login("10.0.1.2", "a"), null));
+        assertEquals(HttpStatus.OK, send(login("10.0.1.3", "a"), null));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(login("10.0.1.4", "a"), null));
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.buckets").gauge().value());
+
+        // Уже известный клиент продолжает пользоваться своим bucket-ом
+        assertEquals(HttpStatus.OK, send(login("10.0.1.1", "a"), null));
+    }
+
+    @Test
+    void clientIdentityHeadersAreRemoved() {
+        AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels")
+                .header("X-User-Name", "admin")
+                .header("x-user-role", "ADMIN")
+                .header("X-Request-Id", "abc")
+                .build());
+
+        stripFilter.filter(exchange, e -> {
+            forwarded.set(e);
+            return Mono.empty();
+        }).block();
+
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst("X-User-Name"));
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst("X-User-Role"));
+        assertEquals("abc", forwarded.get().getRequest().getHeaders().getFirst("X-Request-Id"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.hotel.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingFilterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    // Лидер ждет открытия gate, чтобы остальные запросы успели к нему присоединиться
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    private static GatewayFilter filter(long maxWaitMillis) {
+        RequestCoalescingFilter.Config config = new RequestCoalescingFilter.Config();
+        config.setMaxWaitMillis(maxWaitMillis);
+        return new RequestCoalescingFilter(new SimpleMeterRegistry()).apply(config);
+    }
+
+    private static MockServerWebExchange get(String uri, String role) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri).header("X-User-Role", role).build());
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String body) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    // Backend отвечает status/body после открытия gate
+    private GatewayFilterChain backend(HttpStatus status, String body) {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            return gate.asMono().then(Mono.defer(() -> write(exchange, status, body)));
+        };
+    }
+
+    private static CompletableFuture<Void> start(GatewayFilter filter, ServerWebExchange exchange, GatewayFilterChain chain) {
+        return filter.filter(exchange, chain).toFuture();
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(TIMEOUT);
+    }
+
+    private static String coalescedHeader(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst("X-Coalesced");
+    }
+
+    @Test
+    void followersReceiveLeaderSuccessfulBody() throws Exception {
+        GatewayFilter filter = filter(5000);
+        MockServerWebExchange leader = get("/api/hotels", "USER");
+        MockServerWebExchange follower = get("/api/hotels", "USER");
+
+        CompletableFuture<Void> leaderDone = start(filter, leader, backend(HttpStatus.OK, "[\"hotel\"]"));
+        CompletableFuture<Void> followerDone = start(filter, follower, backend(HttpStatus.OK, "from-backend"));
+        gate.tryEmitEmpty();
+        leaderDone.get(5, TimeUnit.SECONDS);
+        followerDone.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, backendCalls.get());
+        assertEquals("[\"hotel\"]", body(leader));
+        assertNull(coalescedHeader(leader));
+        assertEquals(HttpStatus.OK, follower.getResponse().getStatusCode());
+        assertEquals("[\"hotel\"]", body(follower));
+        assertEquals("true", coalescedHeader(follower));
+    }
+
+    @Test
+    void followersCallBackendThemselvesAfterLeaderError() throws Exception {
+        GatewayFilter filter = filter(5000);
+        MockServerWebExchange leader = get("/api/hotels", "USER");
+        MockServerWebExchange follower = get("/api/hotels", "USER");
+
+        CompletableFuture<Void> leaderDone = start(filter, leader, backend(HttpStatus.SERVICE_UNAVAILABLE, "down"));
+        CompletableFuture<Void> followerDone = start(filter, follower, backend(HttpStatus.OK, "fresh"));
+        gate.tryEmitEmpty();
+        leaderDone.get(5, TimeUnit.SECONDS);
+        followerDone.get(5, TimeUnit.SECONDS);
+
+        // Ответ не 2xx не раздается: ожидающий получил свой ответ backend-а
+        assertEquals(2, backendCalls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, leader.getResponse().getStatusCode());
+        assertEquals("fresh", body(follower));
+        assertNull(coalescedHeader(follower));
+    }
+
+    @Test
+    void followersCallBackendThemselvesWhenLeaderFails() throws Exception {
+        GatewayFilter filter = filter(5000);
+        MockServerWebExchange leader = get("/api/hotels", "USER");
+        MockServerWebExchange follower = get("/api/hotels", "USER");
+
+        GatewayFilterChain failing = exchange -> {
+            backendCalls.incrementAndGet();
+            return gate.asMono().then(Mono.error(new IllegalStateException("connection reset")));
+        };
+        CompletableFuture<Void> leaderDone = start(filter, leader, failing);
+        CompletableFuture<Void> followerDone = start(filter, follower, backend(HttpStatus.OK, "fresh"));
+        gate.tryEmitEmpty();
+
+        assertThrows(Exception.class, () -> leaderDone.get(5, TimeUnit.SECONDS));
+        followerDone.get(5, TimeUnit.SECONDS);
+        assertEquals(2, backendCalls.get());
+        assertEquals("fresh", body(follower));
+    }
+
+    @Test
+    void followerFallsBackToBackendAfterMaxWait() throws Exception {
+        GatewayFilter filter = filter(50);
+        MockServerWebExchange leader = get("/api/hotels", "USER");
+        MockServerWebExchange follower = get("/api/hotels", "USER");
+
+        // Лидер так и не дождется ответа backend-а
+        CompletableFuture<Void> leaderDone = start(filter, leader, backend(HttpStatus.OK, "late"));
+        GatewayFilterChain immediate = exchange -> {
+            backendCalls.incrementAndGet();
+            return write(exchange, HttpStatus.OK, "own");
+        };
+        start(filter, follower, immediate).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, backendCalls.get());
+        assertEquals("own", body(follower));
+        assertNull(coalescedHeader(follower));
+        assertFalse(leaderDone.isDone());
+        leaderDone.cancel(true);
+    }
+
+    @Test
+    void queryParameterOrderDoesNotChangeKey() throws Exception {
+        GatewayFilter filter = filter(5000);
+        MockServerWebExchange leader = get("/api/rooms/available?startDate=2030-01-01&endDate=2030-01-03", "USER");
+        MockServerWebExchange follower = get("/api/rooms/available?endDate=2030-01-03&startDate=2030-01-01", "USER");
+
+        CompletableFuture<Void> leaderDone = start(filter, leader, backend(HttpStatus.OK, "[1,2]"));
+        CompletableFuture<Void> followerDone = start(filter, follower, backend(HttpStatus.OK, "other"));
+        gate.tryEmitEmpty();
+        leaderDone.get(5, TimeUnit.SECONDS);
+        followerDone.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, backendCalls.get());
+        assertEquals("[1,2]", body(follower));
+        assertEquals("true", coalescedHeader(follower));
+    }
+
+    @Test
+    void differentRolesAreNotMerged() throws Exception {
+        GatewayFilter filter = filter(5000);
+        MockServerWebExchange user = get("/api/hotels", "USER");
+        MockServerWebExchange admin = get("/api/hotels", "ADMIN");
+
+        CompletableFuture<Void> userDone = start(filter, user, backend(HttpStatus.OK, "user view"));
+        CompletableFuture<Void> adminDone = start(filter, admin, backend(HttpStatus.OK, "admin view"));
+        gate.tryEmitEmpty();
+        userDone.get(5, TimeUnit.SECONDS);
+        adminDone.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, backendCalls.get());
+        assertEquals("user view", body(user));
+        assertEquals("admin view", body(admin));
+        assertNull(coalescedHeader(admin));
+    }
+}
@@ -0,0 +1,48 @@
+package com.hotel.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100); // 10 запросов в секунду
+    private static final long BURST_TOLERANCE = INTERVAL * 4;                // всплеск до 5 запросов
+
+    @Test
+    void testBurstIsAllowedThenRejected() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now, INTERVAL, BURST_TOLERANCE));
+        }
+
+        long wait = bucket.tryAcquire(now, INTERVAL, BURST_TOLERANCE);
+        assertEquals(INTERVAL, wait);
+    }
+
+    @Test
+    void testTokensAreReplenishedOverTime() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now, INTERVAL, BURST_TOLERANCE);
+        }
+
+        assertTrue(bucket.tryAcquire(now + INTERVAL / 2, INTERVAL, BURST_TOLERANCE) > 0);
+        assertEquals(0, bucket.tryAcquire(now + INTERVAL, INTERVAL, BURST_TOLERANCE));
+    }
+
+    @Test
+    void testBucketBecomesIdleWhenFull() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+        bucket.tryAcquire(now, INTERVAL, BURST_TOLERANCE);
+
+        assertFalse(bucket.isIdle(now));
+        assertTrue(bucket.isIdle(now + INTERVAL));
+    }
+}
@@ -0,0 +1,67 @@
+package com.hotel.gateway.tracing;
+
+import com.hotel.common.tracing.Span;
+import com.hotel.common.tracing.SpanBuffer;
+import com.hotel.common.tracing.TraceContext;
+import com.hotel.common.tracing.TraceView;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceFilterTest {
+
+    private final SpanBuffer spanBuffer = new SpanBuffer(100, 10);
+    private final TraceFilter traceFilter = new TraceFilter(spanBuffer);
+
+    private MockServerWebExchange send(MockServerHttpRequest request, AtomicReference<ServerHttpRequest> forwarded) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        traceFilter.filter(exchange, e -> {
+            forwarded.set(e.getRequest());
+            return e.getResponse().setComplete();
+        }).block();
+        return exchange;
+    }
+
+    @Test
+    void clientRequestIdIsOnlyATag() {
+        AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/hotels")
+                .header(TraceFilter.REQUEST_ID_HEADER, "same-id").build(), forwarded);
+        String traceId = forwarded.get().getHeaders().getFirst(TraceContext.TRACE_ID_HEADER);
+        send(MockServerHttpRequest.get("/api/hotels")
+                .header(TraceFilter.REQUEST_ID_HEADER, "same-id").build(), forwarded);
+
+        assertNotEquals("same-id", traceId);
+        assertEquals("same-id", forwarded.get().getHeaders().getFirst(TraceFilter.REQUEST_ID_HEADER));
+        assertEquals(traceId, first.getResponse().getHeaders().getFirst(TraceContext.TRACE_ID_HEADER));
+        assertEquals("same-id", first.getResponse().getHeaders().getFirst(TraceFilter.REQUEST_ID_HEADER));
+
+        // Одинаковый X-Request-Id не склеивает запросы в одну трассу
+        List<TraceView> traces = spanBuffer.slowest(10);
+        assertEquals(2, traces.size());
+        for (TraceView trace : traces) {
+            Span root = trace.spans().get(0);
+            assertNull(root.parentId());
+            assertEquals(Map.of("requestId", "same-id"), root.tags());
+        }
+    }
+
+    @Test
+    void requestWithoutIdGetsTraceIdBack() {
+        AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+        MockServerWebExchange exchange = send(MockServerHttpRequest.get("/api/hotels").build(), forwarded);
+
+        String traceId = forwarded.get().getHeaders().getFirst(TraceContext.TRACE_ID_HEADER);
+        assertNotNull(traceId);
+        assertNull(forwarded.get().getHeaders().getFirst(TraceFilter.REQUEST_ID_HEADER));
+        assertEquals(traceId, exchange.getResponse().getHeaders().getFirst(TraceFilter.REQUEST_ID_HEADER));
+        assertEquals(Map.of(), spanBuffer.find(traceId).get(0).spans().get(0).tags());
+    }
+}
@@ -0,0 +1,32 @@
+package com.hotel.benchmarks;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * Общие настройки бенчмарков
+ */
+final class BenchmarkSupport {
+
+    // Тот же секрет, что в application.yml сервисов
+    static final String JWT_SECRET = "mySuperSecretKeyForHotelBookingSystem2024ThatIsLongEnoughForJWT!";
+
+    // Фиксированный seed - одинаковые данные между запусками и релизами
+    static final long SEED = 42L;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Заполнение поля, которое в приложении внедряется через @Value
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalStateException("Field " + fieldName + " not found in " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
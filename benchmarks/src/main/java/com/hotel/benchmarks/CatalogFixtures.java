@@ -0,0 +1,49 @@
+package com.hotel.benchmarks;
+
+import com.hotel.hotel.entity.Hotel;
+import com.hotel.hotel.entity.Room;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Синтетический каталог отелей в памяти (без базы данных)
+ */
+final class CatalogFixtures {
+
+    private static final String[] ROOM_TYPES = {"STANDARD", "DELUXE", "SUITE"};
+
+    private CatalogFixtures() {
+    }
+
+    static List<Hotel> hotels(int hotelCount, int roomsPerHotel) {
+        Random random = new Random(BenchmarkSupport.SEED);
+        List<Hotel> hotels = new ArrayList<>(hotelCount);
+        long roomId = 1;
+        for (long hotelId = 1; hotelId <= hotelCount; hotelId++) {
+            Hotel hotel = new Hotel();
+            hotel.setId(hotelId);
+            hotel.setName("Hotel " + hotelId);
+            hotel.setAddress("City " + (hotelId % 50) + ", Street " + hotelId);
+            for (int i = 0; i < roomsPerHotel; i++) {
+                hotel.getRooms().add(room(roomId++, hotel, random));
+            }
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+
+    private static Room room(long id, Hotel hotel, Random random) {
+        Room room = new Room();
+        room.setId(id);
+        room.setNumber(String.valueOf(100 + id % 900));
+        room.setType(ROOM_TYPES[random.nextInt(ROOM_TYPES.length)]);
+        room.setPrice(3000.0 + random.nextInt(20) * 500);
+        room.setDescription("Room " + id);
+        room.setAvailable(random.nextInt(10) > 0);
+        room.setTimesBooked(random.nextInt(100));
+        room.setHotel(hotel);
+        return room;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotel.benchmarks;
+
+import com.hotel.hotel.dto.HotelDTO;
+import com.hotel.hotel.entity.Hotel;
+import com.hotel.hotel.mapper.HotelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HotelMapper.toDTO / toDTOList на больших каталогах (GET /api/hotels)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotelMapperBenchmark {
+
+    @Param({"100", "1000"})
+    private int hotelCount;
+
+    @Param({"50"})
+    private int roomsPerHotel;
+
+    private final HotelMapper mapper = new HotelMapper();
+    private List<Hotel> hotels;
+    private Hotel singleHotel;
+
+    @Setup
+    public void setUp() {
+        hotels = CatalogFixtures.hotels(hotelCount, roomsPerHotel);
+        singleHotel = hotels.get(0);
+    }
+
+    @Benchmark
+    public HotelDTO toDTO() {
+        return mapper.toDTO(singleHotel);
+    }
+
+    @Benchmark
+    public List<HotelDTO> toDTOList() {
+        return mapper.toDTOList(hotels);
+    }
+}
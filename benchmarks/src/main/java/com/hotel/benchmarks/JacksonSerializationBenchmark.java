@@ -0,0 +1,99 @@
+package com.hotel.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hotel.booking.entity.Booking;
+import com.hotel.hotel.dto.HotelDTO;
+import com.hotel.hotel.dto.RoomDTO;
+import com.hotel.hotel.mapper.HotelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов API в JSON
+ *
+ * ObjectMapper-ы настроены как в сервисах: booking-service - snake_case и даты строкой,
+ * hotel-service - настройки Spring Boot по умолчанию.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonSerializationBenchmark {
+
+    private ObjectMapper bookingMapper;
+    private ObjectMapper hotelMapper;
+
+    private Booking booking;
+    private List<Booking> userBookings;
+    private RoomDTO room;
+    private List<RoomDTO> rooms;
+    private List<HotelDTO> hotels;
+
+    @Setup
+    public void setUp() {
+        bookingMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        hotelMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        booking = booking(1);
+        userBookings = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            userBookings.add(booking(i));
+        }
+
+        hotels = new HotelMapper().toDTOList(CatalogFixtures.hotels(100, 50));
+        rooms = hotels.stream().flatMap(hotel -> hotel.getRooms().stream()).toList();
+        room = rooms.get(0);
+    }
+
+    private static Booking booking(long id) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUserId(7L);
+        booking.setRoomId(id % 40 + 1);
+        booking.setStartDate(LocalDate.of(2025, 1, 1).plusDays(id * 3));
+        booking.setEndDate(LocalDate.of(2025, 1, 3).plusDays(id * 3));
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setCreatedAt(LocalDateTime.of(2024, 12, 1, 12, 0));
+        return booking;
+    }
+
+    @Benchmark
+    public byte[] booking() throws Exception {
+        return bookingMapper.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] userBookings() throws Exception {
+        return bookingMapper.writeValueAsBytes(userBookings);
+    }
+
+    @Benchmark
+    public byte[] roomDTO() throws Exception {
+        return hotelMapper.writeValueAsBytes(room);
+    }
+
+    @Benchmark
+    public byte[] roomList() throws Exception {
+        return hotelMapper.writeValueAsBytes(rooms);
+    }
+
+    @Benchmark
+    public byte[] hotelCatalog() throws Exception {
+        return hotelMapper.writeValueAsBytes(hotels);
+    }
+}
@@ -0,0 +1,63 @@
+package com.hotel.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil: выдача токена в booking-service и разбор токена в gateway
+ *
+ * gatewayAuthFilterPath повторяет работу JwtAuthFilter на каждый запрос
+ * (один verify, затем subject и role из claims).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private com.hotel.booking.util.JwtUtil bookingJwtUtil;
+    private com.hotel.gateway.config.JwtUtil gatewayJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        bookingJwtUtil = new com.hotel.booking.util.JwtUtil();
+        BenchmarkSupport.inject(bookingJwtUtil, "secret", BenchmarkSupport.JWT_SECRET);
+        gatewayJwtUtil = new com.hotel.gateway.config.JwtUtil();
+        BenchmarkSupport.inject(gatewayJwtUtil, "secret", BenchmarkSupport.JWT_SECRET);
+
+        token = bookingJwtUtil.generateToken("benchmark-user", "USER");
+    }
+
+    @Benchmark
+    public String bookingGenerateToken() {
+        return bookingJwtUtil.generateToken("benchmark-user", "USER");
+    }
+
+    @Benchmark
+    public Claims bookingExtractAllClaims() {
+        return bookingJwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean bookingValidateToken() {
+        return bookingJwtUtil.validateToken(token, "benchmark-user");
+    }
+
+    @Benchmark
+    public Claims gatewayVerify() {
+        return gatewayJwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public void gatewayAuthFilterPath(Blackhole blackhole) {
+        Claims claims = gatewayJwtUtil.verify(token);
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(claims.get("role", String.class));
+    }
+}
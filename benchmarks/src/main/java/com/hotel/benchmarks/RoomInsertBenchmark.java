@@ -0,0 +1,101 @@
+package com.hotel.benchmarks;
+
+import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.repository.RoomRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетная вставка номеров через RoomRepository.saveAll (одна транзакция на вызов)
+ *
+ * batchSize = 0 - каждый INSERT отдельным обращением к базе, 50 - как в application.yml сервисов.
+ * id выдаются из pooled sequence, поэтому INSERT откладываются до commit в обоих случаях.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomInsertBenchmark {
+
+    private static final int ROOMS_PER_CALL = 1000;
+
+    @Param({"0", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private RoomRepository roomRepository;
+
+    @Configuration
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class
+    })
+    @EntityScan(basePackageClasses = Room.class)
+    @EnableJpaRepositories(basePackageClasses = RoomRepository.class)
+    static class JpaConfig {
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(
+                        // Не подхватывать application.yml сервисов из их jar
+                        "spring.config.name=benchmarks",
+                        "spring.datasource.url=jdbc:h2:mem:insertdb;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        // Измеряется работа с базой: второй уровень кэша hotel-service не подключается
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "logging.level.root=WARN")
+                .run();
+        roomRepository = context.getBean(RoomRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        roomRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Room> saveAll() {
+        List<Room> rooms = new ArrayList<>(ROOMS_PER_CALL);
+        for (int i = 0; i < ROOMS_PER_CALL; i++) {
+            Room room = new Room();
+            room.setNumber(String.valueOf(100 + i));
+            room.setAvailable(true);
+            room.setTimesBooked(0);
+            room.setType("STANDARD");
+            room.setPrice(3000.0);
+            rooms.add(room);
+        }
+        return roomRepository.saveAll(rooms);
+    }
+}
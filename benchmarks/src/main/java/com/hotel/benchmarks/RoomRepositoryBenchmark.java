@@ -0,0 +1,157 @@
+package com.hotel.benchmarks;
+
+import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.repository.RoomRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы доступности RoomRepository на заполненной H2
+ *
+ * Поднимается только JPA часть hotel-service (без web, Eureka и DataLoader) на отдельной
+ * in-memory базе. Схему создает Hibernate, данные вставляются пакетами через JDBC с явными id:
+ * отели по roomsPerHotel номеров и история бронирований (в основном CONFIRMED) на полгода вперед.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomRepositoryBenchmark {
+
+    private static final int ROOMS_PER_HOTEL = 40;
+    private static final int BOOKINGS_PER_ROOM = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000"})
+    private int roomCount;
+
+    private ConfigurableApplicationContext context;
+    private RoomRepository roomRepository;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Configuration
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class
+    })
+    @EntityScan(basePackageClasses = Room.class)
+    @EnableJpaRepositories(basePackageClasses = RoomRepository.class)
+    static class JpaConfig {
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(
+                        // Не подхватывать application.yml сервисов из их jar
+                        "spring.config.name=benchmarks",
+                        "spring.datasource.url=jdbc:h2:mem:benchdb;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        // Измеряется работа с базой: второй уровень кэша hotel-service не подключается
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "logging.level.root=WARN")
+                .run();
+        roomRepository = context.getBean(RoomRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+
+        startDate = LocalDate.now().plusDays(30);
+        endDate = startDate.plusDays(3);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(BenchmarkSupport.SEED);
+        int hotelCount = Math.max(1, roomCount / ROOMS_PER_HOTEL);
+
+        List<Object[]> hotels = new ArrayList<>(hotelCount);
+        for (int i = 1; i <= hotelCount; i++) {
+            hotels.add(new Object[]{(long) i, "Hotel " + i, "City " + i % 50});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO hotels (id, name, address) VALUES (?, ?, ?)", hotels);
+
+        List<Object[]> rooms = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Object[]{(long) i + 1, String.valueOf(100 + i % 900), random.nextInt(20) > 0, random.nextInt(100),
+                    "STANDARD", 3000.0, (long) (i % hotelCount + 1)});
+            if (rooms.size() == BATCH_SIZE) {
+                insertRooms(jdbcTemplate, rooms);
+            }
+        }
+        insertRooms(jdbcTemplate, rooms);
+
+        // Заезды сдвинуты к ближайшим неделям: чем дальше дата, тем меньше бронирований
+        LocalDate today = LocalDate.now();
+        List<Object[]> bookings = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < roomCount * BOOKINGS_PER_ROOM; i++) {
+            long roomId = random.nextInt(roomCount) + 1;
+            int offset = (int) Math.abs(random.nextGaussian() * 60);
+            LocalDate start = today.plusDays(offset % 180);
+            LocalDate end = start.plusDays(1 + random.nextInt(7));
+            String status = random.nextInt(10) < 8 ? "CONFIRMED" : "CANCELLED";
+            bookings.add(new Object[]{(long) i + 1, roomId, status, Date.valueOf(start), Date.valueOf(end)});
+            if (bookings.size() == BATCH_SIZE) {
+                insertBookings(jdbcTemplate, bookings);
+            }
+        }
+        insertBookings(jdbcTemplate, bookings);
+    }
+
+    private static void insertRooms(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (id, number, available, times_booked, type, price, hotel_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private static void insertBookings(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, room_id, status, start_date, end_date) VALUES (?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Room> findAvailableRooms() {
+        return roomRepository.findAvailableRooms(startDate, endDate);
+    }
+
+    @Benchmark
+    public List<Room> findRecommendedRooms() {
+        return roomRepository.findRecommendedRooms(startDate, endDate);
+    }
+
+    @Benchmark
+    public List<Room> findByAvailableTrue() {
+        return roomRepository.findByAvailableTrue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.Booking;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingService.isDateRangeOverlapping на истории бронирований одного номера
+ *
+ * Повторяет проверку из createBooking: перебор PENDING/CONFIRMED бронирований номера
+ * до первого пересечения. История - последовательные заезды по 1-7 ночей с промежутками,
+ * запрос - свободный интервал в конце (полный перебор) или занятый в середине.
+ * Лежит в пакете сервиса, так как метод package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateRangeOverlapBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int historySize;
+
+    private List<Booking> history;
+    private LocalDate freeStart;
+    private LocalDate freeEnd;
+    private LocalDate busyStart;
+    private LocalDate busyEnd;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        history = new ArrayList<>(historySize);
+        LocalDate date = LocalDate.now().minusYears(1);
+        for (int i = 0; i < historySize; i++) {
+            date = date.plusDays(random.nextInt(5));
+            Booking booking = new Booking();
+            booking.setId((long) i);
+            booking.setRoomId(1L);
+            booking.setStartDate(date);
+            booking.setEndDate(date.plusDays(1 + random.nextInt(7)));
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+            history.add(booking);
+            date = booking.getEndDate().plusDays(1);
+        }
+
+        freeStart = date.plusDays(10);
+        freeEnd = freeStart.plusDays(3);
+        Booking middle = history.get(historySize / 2);
+        busyStart = middle.getStartDate();
+        busyEnd = middle.getEndDate();
+    }
+
+    @Benchmark
+    public boolean noOverlapFullScan() {
+        return hasOverlap(freeStart, freeEnd);
+    }
+
+    @Benchmark
+    public boolean overlapInTheMiddle() {
+        return hasOverlap(busyStart, busyEnd);
+    }
+
+    private boolean hasOverlap(LocalDate start, LocalDate end) {
+        return history.stream()
+                .anyMatch(booking -> BookingService.isDateRangeOverlapping(
+                        booking.getStartDate(), booking.getEndDate(), start, end));
+    }
+}
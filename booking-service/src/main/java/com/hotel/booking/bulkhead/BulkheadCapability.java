@@ -0,0 +1,56 @@
+package com.hotel.booking.bulkhead;
+
+import com.hotel.common.concurrency.AdaptiveConcurrencyLimiter;
+import com.hotel.common.deadline.DeadlineExceededException;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+/**
+ * Вызов Feign через bulkhead своего метода
+ *
+ * Время до ответа hotel-service подстраивает лимит метода; 5xx, ошибки соединения и таймауты
+ * его уменьшают. Вызов, не начатый из-за исчерпанного дедлайна, на лимит не влияет.
+ */
+public class BulkheadCapability implements Capability {
+
+    private final HotelClientBulkheads bulkheads;
+
+    public BulkheadCapability(HotelClientBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            if (!bulkheads.isEnabled()) {
+                return client.execute(request, options);
+            }
+
+            AdaptiveConcurrencyLimiter limiter = bulkheads.acquire(methodOf(request));
+            long start = System.nanoTime();
+            boolean dropped = true;
+            try {
+                Response response = client.execute(request, options);
+                dropped = response.status() >= 500;
+                return response;
+            } catch (DeadlineExceededException e) {
+                limiter.onIgnore();
+                limiter = null;
+                throw e;
+            } finally {
+                if (limiter != null) {
+                    limiter.onComplete(System.nanoTime() - start, dropped);
+                }
+            }
+        };
+    }
+
+    private static String methodOf(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().method().getName();
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotel.booking.bulkhead;
+
+/**
+ * Лимит одновременных вызовов метода hotel-service исчерпан: вызов отклонен без обращения к сервису
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.hotel.booking.bulkhead;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Лимиты одновременных вызовов hotel-service по методам HotelServiceClient
+ */
+@Data
+@ConfigurationProperties(prefix = "hotel.service.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    // Для методов без собственной настройки
+    private Limits defaults = new Limits();
+
+    // Имя метода HotelServiceClient -> лимиты
+    private Map<String, Limits> methods = new HashMap<>();
+
+    public Limits limitsFor(String method) {
+        return methods.getOrDefault(method, defaults);
+    }
+
+    @Data
+    public static class Limits {
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 100;
+    }
+}
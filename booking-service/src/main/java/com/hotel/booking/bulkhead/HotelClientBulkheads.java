@@ -0,0 +1,86 @@
+package com.hotel.booking.bulkhead;
+
+import com.hotel.booking.client.HotelServiceClient;
+import com.hotel.common.concurrency.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Изоляция методов HotelServiceClient друг от друга (bulkhead на семафоре)
+ *
+ * У каждого метода свой адаптивный лимит одновременных вызовов: медленный getRecommendedRooms
+ * упирается в собственный лимит и получает отказ, не занимая потоки, нужные confirmAvailability.
+ * Вызов сверх лимита сразу отклоняется (BulkheadFullException) - очередь перед медленным
+ * сервисом только увеличила бы задержку.
+ *
+ * Метрики по тегу method: hotel.client.bulkhead.limit, .in.flight, .saturation (доля занятого лимита)
+ * и счетчик отказов hotel.client.bulkhead.rejected.
+ */
+@Component
+public class HotelClientBulkheads {
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    public HotelClientBulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        // Все методы клиента сразу, чтобы метрики были видны до первого вызова
+        for (Method method : HotelServiceClient.class.getMethods()) {
+            limiter(method.getName());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Занять место в лимите метода
+     *
+     * @return лимитер, которому после вызова нужно сообщить onComplete или onIgnore
+     * @throws BulkheadFullException лимит метода исчерпан
+     */
+    public AdaptiveConcurrencyLimiter acquire(String method) {
+        AdaptiveConcurrencyLimiter limiter = limiter(method);
+        if (!limiter.tryAcquire()) {
+            rejected.computeIfAbsent(method, m -> Counter.builder("hotel.client.bulkhead.rejected")
+                    .description("Calls to hotel-service rejected by the method bulkhead")
+                    .tag("method", m)
+                    .register(meterRegistry)).increment();
+            System.out.println("🚧 Bulkhead full for " + method + ": " + limiter.getInFlight() + "/" + limiter.getLimit());
+            throw new BulkheadFullException("Hotel service bulkhead is full for " + method);
+        }
+        return limiter;
+    }
+
+    public AdaptiveConcurrencyLimiter limiter(String method) {
+        return limiters.computeIfAbsent(method, this::createLimiter);
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String method) {
+        BulkheadProperties.Limits limits = properties.limitsFor(method);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                limits.getInitialLimit(), limits.getMinLimit(), limits.getMaxLimit());
+        Gauge.builder("hotel.client.bulkhead.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Adaptive concurrency limit of the hotel-service method bulkhead")
+                .tag("method", method)
+                .register(meterRegistry);
+        Gauge.builder("hotel.client.bulkhead.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("method", method)
+                .register(meterRegistry);
+        Gauge.builder("hotel.client.bulkhead.saturation", limiter, AdaptiveConcurrencyLimiter::getSaturation)
+                .description("Share of the bulkhead limit in use")
+                .tag("method", method)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -1,7 +1,17 @@
 package com.hotel.booking.client;
 
+import com.hotel.booking.bulkhead.BulkheadCapability;
+import com.hotel.booking.bulkhead.BulkheadProperties;
+import com.hotel.booking.bulkhead.HotelClientBulkheads;
+import com.hotel.booking.deadline.DeadlineCapability;
+import com.hotel.booking.tracing.TracingCapability;
+import com.hotel.common.deadline.Deadline;
+import com.hotel.common.tracing.SpanBuffer;
+import com.hotel.common.tracing.TraceContext;
+import feign.Capability;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -9,6 +19,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import jakarta.servlet.http.HttpServletRequest;
 
 @Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
 public class FeignConfig {
 
     @Bean
@@ -16,10 +27,38 @@ public class FeignConfig {
         return new FeignRequestInterceptor();
     }
 
+    @Bean
+    public Capability tracingCapability(SpanBuffer spanBuffer) {
+        return new TracingCapability(spanBuffer);
+    }
+
+    @Bean
+    public Capability deadlineCapability() {
+        return new DeadlineCapability();
+    }
+
+    @Bean
+    public Capability bulkheadCapability(HotelClientBulkheads bulkheads) {
+        return new BulkheadCapability(bulkheads);
+    }
+
     public static class FeignRequestInterceptor implements RequestInterceptor {
 
         @Override
         public void apply(RequestTemplate template) {
+            // Дедлайн: hotel-service получает остаток бюджета, исчерпанный бюджет - вызова не будет
+            if (Deadline.current() != null) {
+                Deadline.check(template.method() + " " + template.path());
+                template.header(Deadline.TIMEOUT_HEADER, String.valueOf(Deadline.remainingMillis()));
+            }
+
+            // Трассировка: span этого вызова становится родителем для span-а hotel-service
+            TraceContext traceContext = TraceContext.current();
+            if (traceContext != null) {
+                template.header(TraceContext.TRACE_ID_HEADER, traceContext.traceId());
+                template.header(TraceContext.PARENT_SPAN_ID_HEADER, TraceContext.newId());
+            }
+
             ServletRequestAttributes attributes = (ServletRequestAttributes)
                     RequestContextHolder.getRequestAttributes();
 
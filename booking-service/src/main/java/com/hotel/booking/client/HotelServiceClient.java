@@ -1,5 +1,6 @@
 package com.hotel.booking.client;
 
+import com.hotel.booking.dto.RoomInfo;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
@@ -19,10 +20,26 @@ public interface HotelServiceClient {
                                 @RequestParam("endDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,      // ← ДОБАВЬТЕ АННОТАЦИЮ
                                 @RequestHeader("X-Request-Id") String requestId);
 
+    // Пустой ответ (null) - свободных номеров типа на даты нет
+    @PostMapping("/api/hotels/{hotelId}/room-types/{type}/confirm-availability")
+    RoomInfo confirmRoomType(@PathVariable("hotelId") Long hotelId,
+                             @PathVariable("type") String type,
+                             @RequestParam("startDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+                             @RequestParam("endDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+                             @RequestHeader("X-Request-Id") String requestId);
+
+    @PostMapping("/api/rooms/{roomId}/release-stay")
+    void releaseStay(@PathVariable("roomId") Long roomId,
+                     @RequestParam("startDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+                     @RequestParam("endDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate);
+
     @PostMapping("/api/rooms/{roomId}/release")
     void releaseRoom(@PathVariable("roomId") Long roomId,  // ← Исправлено
                      @RequestHeader("X-Request-Id") String requestId);
 
+    @GetMapping("/api/rooms/{roomId}/info")
+    RoomInfo getRoomInfo(@PathVariable("roomId") Long roomId);
+
     @PostMapping("/api/rooms/{roomId}/increment-bookings")
     void incrementTimesBooked(@PathVariable("roomId") Long roomId);  // ← Исправлено
 }
\ No newline at end of file
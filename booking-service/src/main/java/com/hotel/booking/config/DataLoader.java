@@ -2,14 +2,22 @@ package com.hotel.booking.config;
 
 import com.hotel.booking.entity.Booking;
 import com.hotel.booking.entity.User;
+import com.hotel.booking.entity.UserBooking;
 import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.UserBookingRepository;
 import com.hotel.booking.repository.UserRepository;
+import com.hotel.booking.repository.WaitlistEntryRepository;
+import com.hotel.booking.shard.BookingShards;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -17,49 +25,68 @@ public class DataLoader implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final UserBookingRepository userBookingRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
     private final PasswordEncoder passwordEncoder;
+    private final BookingShards bookingShards;
+
+    // В профиле prod база файловая: данные не очищаются, начальные данные загружаются только в пустую базу
+    @Value("${data-loader.reset-on-startup:true}")
+    private boolean resetOnStartup;
 
     @Override
     public void run(String... args) throws Exception {
-        // Очищаем базу
-        bookingRepository.deleteAll();
-        userRepository.deleteAll();
-
-        // Создаем пользователей
-        User user1 = new User();
-        user1.setUsername("user1");
-        user1.setPassword(passwordEncoder.encode("password123"));
-        user1.setRole("USER");
-        user1 = userRepository.save(user1);
+        if (!resetOnStartup && userRepository.count() > 0) {
+            System.out.println("ℹ️ Existing data found, skipping initial data load");
+            return;
+        }
 
-        User user2 = new User();
-        user2.setUsername("user2");
-        user2.setPassword(passwordEncoder.encode("password123"));
-        user2.setRole("USER");
-        user2 = userRepository.save(user2);
+        // Очищаем базу: по одному DELETE на таблицу вместо загрузки и удаления каждой строки
+        for (int shard = 0; shard < bookingShards.shardCount(); shard++) {
+            bookingShards.onShard(shard, () -> {
+                bookingRepository.deleteAllInBatch();
+                userBookingRepository.deleteAllInBatch();
+                return null;
+            });
+        }
+        waitlistEntryRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
 
-        User admin = new User();
-        admin.setUsername("admin");
-        admin.setPassword(passwordEncoder.encode("admin123"));
-        admin.setRole("ADMIN");
-        admin = userRepository.save(admin);
+        // Создаем пользователей
+        User user1 = createUser("user1", "password123", "USER");
+        User user2 = createUser("user2", "password123", "USER");
+        User admin = createUser("admin", "admin123", "ADMIN");
+        userRepository.saveAll(List.of(user1, user2, admin));
 
-        // Создаем тестовые бронирования
-        createBooking(user1, 1L, "2024-01-10", "2024-01-15", Booking.BookingStatus.CONFIRMED);
-        createBooking(user1, 2L, "2024-02-01", "2024-02-05", Booking.BookingStatus.CONFIRMED);
-        createBooking(user2, 3L, "2024-01-20", "2024-01-25", Booking.BookingStatus.CONFIRMED);
+        // Создаем тестовые бронирования (id пользователей уже выданы из sequence), каждое в шарде своего номера
+        Map<Integer, List<Booking>> bookingsByShard = List.of(
+                        createBooking(user1, 1L, "2024-01-10", "2024-01-15", Booking.BookingStatus.CONFIRMED),
+                        createBooking(user1, 2L, "2024-02-01", "2024-02-05", Booking.BookingStatus.CONFIRMED),
+                        createBooking(user2, 3L, "2024-01-20", "2024-01-25", Booking.BookingStatus.CONFIRMED))
+                .stream()
+                .collect(Collectors.groupingBy(booking -> bookingShards.shardOf(booking.getRoomId())));
+        bookingsByShard.forEach((shard, bookings) -> bookingShards.onShard(shard, () ->
+                userBookingRepository.saveAll(bookingRepository.saveAll(bookings).stream().map(UserBooking::of).toList())));
 
         System.out.println("✅ Initial data loaded successfully!");
         System.out.println("👤 Users created: user1/password123, user2/password123, admin/admin123");
     }
 
-    private void createBooking(User user, Long roomId, String startDate, String endDate, Booking.BookingStatus status) {
+    private User createUser(String username, String password, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setRole(role);
+        return user;
+    }
+
+    private Booking createBooking(User user, Long roomId, String startDate, String endDate, Booking.BookingStatus status) {
         Booking booking = new Booking();
         booking.setUserId(user.getId());
         booking.setRoomId(roomId);
         booking.setStartDate(LocalDate.parse(startDate));
         booking.setEndDate(LocalDate.parse(endDate));
         booking.setStatus(status);
-        bookingRepository.save(booking);
+        return booking;
     }
 }
\ No newline at end of file
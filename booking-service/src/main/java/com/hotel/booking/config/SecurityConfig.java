@@ -28,6 +28,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/user/register", "/api/user/auth").permitAll()
+                        // Метрики и health для мониторинга (порт сервиса не публикуется через gateway)
+                        .requestMatchers("/actuator/health", "/actuator/info", "/actuator/metrics/**", "/actuator/traces/**").permitAll()
+                        .requestMatchers("/actuator/jfr/**").hasRole("ADMIN")
                         .anyRequest().authenticated()  // ТРЕБУЕМ АУТЕНТИФИКАЦИЮ ДЛЯ ВСЕХ ОСТАЛЬНЫХ
                 )
                 .addFilterBefore(userHeaderFilter, org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
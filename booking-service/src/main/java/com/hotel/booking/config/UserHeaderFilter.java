@@ -46,4 +46,10 @@ public class UserHeaderFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Завершение SSE потока (SseEmitter) - повторный ASYNC dispatch, он тоже проверяется Spring Security
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -1,17 +1,28 @@
 package com.hotel.booking.controller;
 
 import com.hotel.booking.dto.AuthRequest;
+import com.hotel.booking.dto.BookingPage;
 import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.WaitlistRequest;
 import com.hotel.booking.entity.Booking;
 import com.hotel.booking.entity.User;
+import com.hotel.booking.entity.WaitlistEntry;
+import com.hotel.booking.events.BookingEventBus;
+import com.hotel.booking.service.BookingMetrics;
+import com.hotel.booking.service.BookingRejectedException;
 import com.hotel.booking.service.BookingService;
 import com.hotel.booking.util.JwtUtil;
+import com.hotel.booking.waitlist.WaitlistService;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
@@ -26,6 +37,9 @@ public class BookingController {
 
     private final BookingService bookingService;
     private final JwtUtil jwtUtil;
+    private final BookingMetrics bookingMetrics;
+    private final BookingEventBus bookingEventBus;
+    private final WaitlistService waitlistService;
 
     @PostMapping("/user/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -88,11 +102,14 @@ public class BookingController {
         System.out.println("=== CONTROLLER - MAP DATA ===");
         System.out.println("Raw map: " + requestMap);
 
+        // Замер начинается после разбора запроса: ошибки формата не доходят до саги
+        Timer.Sample saga = null;
         try {
-            // ✅ Валидация обязательных полей
-            if (!requestMap.containsKey("roomId") || !requestMap.containsKey("startDate") ||
+            // ✅ Валидация обязательных полей: номер (roomId) или тип номера в отеле (hotelId + roomType)
+            boolean byType = requestMap.containsKey("hotelId") && requestMap.containsKey("roomType");
+            if ((!requestMap.containsKey("roomId") && !byType) || !requestMap.containsKey("startDate") ||
                     !requestMap.containsKey("endDate")) {
-                Map<String, String> errorResponse = Map.of("error", "Missing required fields: roomId, startDate, endDate");
+                Map<String, String> errorResponse = Map.of("error", "Missing required fields: roomId (or hotelId and roomType), startDate, endDate");
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
@@ -100,9 +117,14 @@ public class BookingController {
             BookingRequest request = new BookingRequest();
 
             try {
-                request.setRoomId(Long.valueOf(requestMap.get("roomId").toString()));
+                if (requestMap.containsKey("roomId")) {
+                    request.setRoomId(Long.valueOf(requestMap.get("roomId").toString()));
+                } else {
+                    request.setHotelId(Long.valueOf(requestMap.get("hotelId").toString()));
+                    request.setRoomType(requestMap.get("roomType").toString().toUpperCase());
+                }
             } catch (NumberFormatException e) {
-                Map<String, String> errorResponse = Map.of("error", "Invalid roomId format");
+                Map<String, String> errorResponse = Map.of("error", byType ? "Invalid hotelId format" : "Invalid roomId format");
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
@@ -134,6 +156,7 @@ public class BookingController {
 
             System.out.println("Manual BookingRequest:");
             System.out.println("roomId: " + request.getRoomId());
+            System.out.println("hotelId/roomType: " + request.getHotelId() + "/" + request.getRoomType());
             System.out.println("startDate: " + request.getStartDate());
             System.out.println("endDate: " + request.getEndDate());
             System.out.println("autoSelect: " + request.getAutoSelect());
@@ -141,7 +164,9 @@ public class BookingController {
             System.out.println("guestEmail: " + request.getGuestEmail());
 
             Long userId = getCurrentUserId(username);
+            saga = bookingMetrics.start();
             Booking booking = bookingService.createBooking(request, userId, username);
+            bookingMetrics.stopSaga(saga, BookingMetrics.OUTCOME_SUCCESS);
             return ResponseEntity.ok(booking);
 
         } catch (RuntimeException e) {
@@ -150,28 +175,57 @@ public class BookingController {
             Map<String, String> errorResponse = Map.of("error", errorMessage);
 
             // ✅ Детальная обработка бизнес-ошибок
-            if (errorMessage.contains("Room ID is required") ||
+            HttpStatus status;
+            String outcome;
+            if (BookingMetrics.OUTCOME_DEADLINE_EXCEEDED.equals(BookingMetrics.outcomeOf(e))) {
+                status = HttpStatus.GATEWAY_TIMEOUT; // 504: вызывающий уже не ждет ответа
+                outcome = BookingMetrics.OUTCOME_DEADLINE_EXCEEDED;
+            }
+            else if (BookingMetrics.OUTCOME_BULKHEAD_FULL.equals(BookingMetrics.outcomeOf(e))) {
+                status = HttpStatus.SERVICE_UNAVAILABLE; // 503: вызовы hotel-service этого типа на пределе
+                outcome = BookingMetrics.OUTCOME_BULKHEAD_FULL;
+            }
+            else if (e instanceof BookingRejectedException rejected) {
+                outcome = rejected.getOutcome();
+                status = switch (outcome) {
+                    case BookingMetrics.OUTCOME_INVALID -> HttpStatus.BAD_REQUEST; // 400
+                    case BookingMetrics.OUTCOME_NOT_FOUND -> HttpStatus.NOT_FOUND; // 404
+                    default -> HttpStatus.CONFLICT; // 409
+                };
+            }
+            else if (errorMessage.contains("Room ID is required") ||
                     errorMessage.contains("Start date and end date are required") ||
                     errorMessage.contains("cannot be after") ||
                     errorMessage.contains("cannot be in the past") ||
                     errorMessage.contains("cannot exceed") ||
                     errorMessage.contains("cannot be the same") ||
                     errorMessage.contains("Invalid")) {
-                return ResponseEntity.badRequest().body(errorResponse); // 400
+                status = HttpStatus.BAD_REQUEST; // 400
+                outcome = BookingMetrics.OUTCOME_INVALID;
             }
             else if (errorMessage.contains("already booked") ||
                     errorMessage.contains("not available")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse); // 409 Conflict
+                status = HttpStatus.CONFLICT; // 409 Conflict
+                outcome = BookingMetrics.OUTCOME_CONFLICT;
             }
             else if (errorMessage.contains("No available rooms")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse); // 404
+                status = HttpStatus.NOT_FOUND; // 404
+                outcome = BookingMetrics.OUTCOME_NOT_FOUND;
             }
             else if (errorMessage.contains("Service temporarily unavailable")) {
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse); // 503
+                status = HttpStatus.SERVICE_UNAVAILABLE; // 503
+                outcome = BookingMetrics.OUTCOME_CIRCUIT_OPEN.equals(BookingMetrics.outcomeOf(e))
+                        ? BookingMetrics.OUTCOME_CIRCUIT_OPEN
+                        : BookingMetrics.OUTCOME_FALLBACK;
             }
             else {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse); // 500
+                status = HttpStatus.INTERNAL_SERVER_ERROR; // 500
+                outcome = BookingMetrics.OUTCOME_ERROR;
+            }
+            if (saga != null) {
+                bookingMetrics.stopSaga(saga, outcome);
             }
+            return ResponseEntity.status(status).body(errorResponse);
         } catch (Exception e) {
             System.out.println("Unexpected error in createBooking: " + e.getMessage());
             Map<String, String> errorResponse = Map.of("error", "Booking creation failed");
@@ -179,22 +233,34 @@ public class BookingController {
         }
     }
 
+    // Постранично по дате заезда: следующая страница - ?cursor=<next_cursor предыдущей>.
+    // status - через запятую; from/to - бронирования, пересекающиеся с периодом
     @GetMapping("/bookings")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> getUserBookings(@AuthenticationPrincipal String username) {
+    public ResponseEntity<?> getUserBookings(@AuthenticationPrincipal String username,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) List<Booking.BookingStatus> status,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(defaultValue = "false") boolean includeArchived) {
         System.out.println("📅 GET /bookings - User: " + username);
 
         try {
             Long userId = getCurrentUserId(username);
             System.out.println("📅 Found user ID: " + userId);
 
-            List<Booking> bookings = bookingService.getUserBookings(userId);
-            System.out.println("📅 Found " + bookings.size() + " bookings");
+            BookingPage page = bookingService.getUserBookingsPage(userId, cursor, limit, status, from, to, includeArchived);
+            System.out.println("📅 Returning " + page.getItems().size() + " bookings"
+                    + (page.getNextCursor() != null ? ", more available" : ""));
 
-            return ResponseEntity.ok(bookings);
+            return ResponseEntity.ok(page);
         } catch (RuntimeException e) {
             System.out.println("❌ Error getting bookings: " + e.getMessage());
             Map<String, String> errorResponse = Map.of("error", e.getMessage());
+            if (e.getMessage().startsWith("Invalid")) {
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
         } catch (Exception e) {
             System.out.println("❌ Unexpected error getting bookings: " + e.getMessage());
@@ -203,6 +269,28 @@ public class BookingController {
         }
     }
 
+    // Поток изменений статуса бронирований пользователя (text/event-stream) вместо опроса GET /booking/{id}
+    @GetMapping(value = "/bookings/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<SseEmitter> streamBookingEvents(@AuthenticationPrincipal String username) {
+        System.out.println("📡 GET /bookings/events - User: " + username);
+
+        // Тело ошибки в text/event-stream не передать, клиенту достается только статус
+        Long userId;
+        try {
+            userId = getCurrentUserId(username);
+        } catch (RuntimeException e) {
+            System.out.println("❌ Event stream rejected: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(bookingEventBus.subscribe(userId));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Event stream rejected: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
     @GetMapping("/booking/{id}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> getBooking(@PathVariable Long id,
@@ -295,6 +383,102 @@ public class BookingController {
         }
     }
 
+    // Лист ожидания: номер отеля hotelId и/или типа roomType на даты; бронирование создается
+    // автоматически, когда такие даты освобождаются отменой
+    @PostMapping("/waitlist")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> joinWaitlist(@RequestBody Map<String, Object> requestMap,
+                                          @AuthenticationPrincipal String username) {
+        System.out.println("⏳ POST /waitlist - User: " + username + ", body: " + requestMap);
+
+        try {
+            WaitlistRequest request = new WaitlistRequest();
+            try {
+                if (requestMap.get("hotelId") != null) {
+                    request.setHotelId(Long.valueOf(requestMap.get("hotelId").toString()));
+                }
+            } catch (NumberFormatException e) {
+                Map<String, String> errorResponse = Map.of("error", "Invalid hotelId format");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+            if (requestMap.get("roomType") != null) {
+                request.setRoomType(requestMap.get("roomType").toString());
+            }
+            try {
+                if (requestMap.get("startDate") != null) {
+                    request.setStartDate(LocalDate.parse(requestMap.get("startDate").toString()));
+                }
+                if (requestMap.get("endDate") != null) {
+                    request.setEndDate(LocalDate.parse(requestMap.get("endDate").toString()));
+                }
+            } catch (DateTimeParseException e) {
+                Map<String, String> errorResponse = Map.of("error", "Invalid date format. Use YYYY-MM-DD");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            Long userId = getCurrentUserId(username);
+            WaitlistEntry entry = waitlistService.join(request, userId);
+            return ResponseEntity.ok(entry);
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error joining waitlist: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+            if (e.getMessage().startsWith("Failed to get user ID")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+            }
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            System.out.println("❌ Unexpected error joining waitlist: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", "Failed to join waitlist");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/waitlist")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> getWaitlist(@AuthenticationPrincipal String username) {
+        System.out.println("⏳ GET /waitlist - User: " + username);
+
+        try {
+            Long userId = getCurrentUserId(username);
+            return ResponseEntity.ok(waitlistService.getUserEntries(userId));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error getting waitlist: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        } catch (Exception e) {
+            System.out.println("❌ Unexpected error getting waitlist: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", "Failed to retrieve waitlist");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long id,
+                                           @AuthenticationPrincipal String username) {
+        System.out.println("⏳ DELETE /waitlist/" + id + " - User: " + username);
+
+        try {
+            Long userId = getCurrentUserId(username);
+            waitlistService.leave(id, userId);
+            Map<String, String> successResponse = Map.of("message", "Waitlist entry cancelled successfully");
+            return ResponseEntity.ok(successResponse);
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error leaving waitlist: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+            if (e.getMessage().contains("not found")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            } else if (e.getMessage().startsWith("Waitlist entry is already")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        } catch (Exception e) {
+            System.out.println("❌ Unexpected error leaving waitlist: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", "Failed to leave waitlist");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     // Административные endpoints
     @PostMapping("/user")
     @PreAuthorize("hasRole('ADMIN')")
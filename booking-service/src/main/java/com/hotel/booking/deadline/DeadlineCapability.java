@@ -0,0 +1,37 @@
+package com.hotel.booking.deadline;
+
+import com.hotel.common.deadline.Deadline;
+import com.hotel.common.deadline.DeadlineExceededException;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймауты вызова Feign не длиннее остатка дедлайна запроса
+ *
+ * Вызов, начатый за 300 мс до дедлайна, ждет ответа не больше 300 мс, а не полный
+ * настроенный таймаут; без дедлайна используются обычные таймауты клиента.
+ */
+public class DeadlineCapability implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return client.execute(request, options);
+            }
+            long remaining = deadline.remaining();
+            if (remaining <= 0) {
+                throw new DeadlineExceededException("Deadline exceeded before " + request.httpMethod() + " " + request.url());
+            }
+            Request.Options bounded = new Request.Options(
+                    Math.min(options.connectTimeoutMillis(), remaining), TimeUnit.MILLISECONDS,
+                    Math.min(options.readTimeoutMillis(), remaining), TimeUnit.MILLISECONDS,
+                    options.isFollowRedirects());
+            return client.execute(request, bounded);
+        };
+    }
+}
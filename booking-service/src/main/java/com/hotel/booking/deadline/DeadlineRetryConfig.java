@@ -0,0 +1,57 @@
+package com.hotel.booking.deadline;
+
+import com.hotel.common.deadline.Deadline;
+import com.hotel.common.deadline.DeadlineExceededException;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Retry hotelService только в пределах дедлайна запроса
+ *
+ * Повтор не начинается, если бюджета не хватает даже на паузу перед ним (waitDuration):
+ * иначе клиент, отключившийся через 3 секунды, оставлял бы за собой еще две попытки.
+ * Исчерпанный дедлайн не повторяется вовсе. Пропущенные повторы считает
+ * hotel.client.retry.skipped{reason=deadline}.
+ */
+@Slf4j
+@Configuration
+public class DeadlineRetryConfig {
+
+    @Bean
+    public RetryConfigCustomizer hotelServiceRetryDeadline(
+            @Value("${resilience4j.retry.instances.hotelService.waitDuration:2s}") Duration waitDuration,
+            MeterRegistry meterRegistry) {
+        long waitMillis = waitDuration.toMillis();
+        Counter skipped = Counter.builder("hotel.client.retry.skipped")
+                .tag("reason", "deadline")
+                .description("hotelService retries skipped because the request deadline is too close")
+                .register(meterRegistry);
+
+        Predicate<Throwable> retryWithinDeadline = e -> {
+            if (e instanceof DeadlineExceededException) {
+                return false;
+            }
+            long remaining = Deadline.remainingMillis();
+            if (remaining <= waitMillis) {
+                skipped.increment();
+                log.debug("Retry skipped: {} ms left, wait is {} ms", remaining, waitMillis);
+                return false;
+            }
+            return true;
+        };
+        return RetryConfigCustomizer.of("hotelService", builder -> {
+            // Customizer отдает raw Builder; через Builder<?> вызов типизирован
+            RetryConfig.Builder<?> typed = builder;
+            typed.retryOnException(retryWithinDeadline);
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.hotel.booking.dto;
+
+import com.hotel.booking.entity.UserBooking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница GET /api/bookings; nextCursor == null - страница последняя
+ */
+@Data
+@AllArgsConstructor
+public class BookingPage {
+    private List<UserBooking> items;
+    private String nextCursor;
+}
@@ -11,4 +11,7 @@ public class BookingRequest {
     private String guestName;
     private String guestEmail;
     private Boolean autoSelect = false;
+    // Бронирование по типу номера вместо roomId: номер выбирает hotel-service при подтверждении
+    private Long hotelId;
+    private String roomType;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.hotel.booking.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+/**
+ * Номер из GET /api/rooms/{id}/info hotel-service (ответ hotel-service в camelCase)
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.LowerCamelCaseStrategy.class)
+public class RoomInfo {
+    private Long id;
+    private Long hotelId;
+    private String type;
+}
@@ -0,0 +1,13 @@
+package com.hotel.booking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class WaitlistRequest {
+    private Long hotelId;
+    private String roomType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,45 @@
+package com.hotel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование, перенесенное BookingArchiver из горячей таблицы bookings
+ */
+@Data
+@Entity
+@Table(name = "bookings_archive", indexes =
+        @Index(name = "idx_bookings_archive_user", columnList = "user_id"))
+public class ArchivedBooking {
+    // id из bookings, не генерируется
+    @Id
+    private Long id;
+
+    private Long userId;
+    private Long roomId;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private Booking.BookingStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    // Для ответов API архивное бронирование выглядит как обычное
+    public Booking toBooking() {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUserId(userId);
+        booking.setRoomId(roomId);
+        booking.setStartDate(startDate);
+        booking.setEndDate(endDate);
+        booking.setStatus(status);
+        booking.setCreatedAt(createdAt);
+        return booking;
+    }
+}
@@ -7,10 +7,14 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_room_status_dates", columnList = "room_id, status, start_date, end_date"),
+        @Index(name = "idx_bookings_user", columnList = "user_id")
+})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
@@ -24,6 +28,9 @@ public class Booking {
 
     private LocalDateTime createdAt;
 
+    // Отменено, но даты еще не освобождены в hotel-service (StayReleaser)
+    private boolean releasePending;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -33,6 +40,7 @@ public class Booking {
     }
 
     public enum BookingStatus {
-        PENDING, CONFIRMED, CANCELLED
+        // COMPLETED - только в архиве: подтвержденное бронирование после даты выезда
+        PENDING, CONFIRMED, CANCELLED, COMPLETED
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.hotel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Строка представления "бронирования пользователя" для постраничной выдачи GET /api/bookings
+ *
+ * Ведется BookingService при создании и отмене бронирования в той же транзакции и в том же шарде,
+ * что и само бронирование; BookingArchiver только помечает строку archived и не удаляет ее.
+ * Индекс (user_id, start_date, booking_id) совпадает с порядком выдачи, страница читается без сортировки.
+ */
+@Data
+@Entity
+@Table(name = "user_bookings", indexes =
+        @Index(name = "idx_user_bookings_user_start", columnList = "user_id, start_date, booking_id"))
+public class UserBooking {
+    // id бронирования, не генерируется
+    @Id
+    private Long bookingId;
+
+    private Long userId;
+    private Long roomId;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private Booking.BookingStatus status;
+
+    // Бронирование перенесено в bookings_archive
+    private boolean archived;
+
+    public static UserBooking of(Booking booking) {
+        UserBooking view = new UserBooking();
+        view.setBookingId(booking.getId());
+        view.setUserId(booking.getUserId());
+        view.setRoomId(booking.getRoomId());
+        view.setStartDate(booking.getStartDate());
+        view.setEndDate(booking.getEndDate());
+        view.setStatus(booking.getStatus());
+        return view;
+    }
+}
@@ -0,0 +1,57 @@
+package com.hotel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Заявка в листе ожидания: любой номер отеля и/или типа на даты [startDate, endDate]
+ *
+ * При отмене бронирования WaitlistMatcher подбирает заявки, помещающиеся в освободившиеся даты,
+ * и создает по ним бронирования обычной сагой.
+ */
+@Data
+@Entity
+@Table(name = "waitlist_entries", indexes =
+        @Index(name = "idx_waitlist_entries_user", columnList = "user_id"))
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "waitlist_entries_seq")
+    @SequenceGenerator(name = "waitlist_entries_seq", sequenceName = "waitlist_entries_seq", allocationSize = 50)
+    private Long id;
+
+    private Long userId;
+
+    // null - любой отель / любой тип, но хотя бы одно из условий задано
+    private Long hotelId;
+    private String roomType;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private WaitlistStatus status;
+
+    // Бронирование, созданное по заявке
+    private Long bookingId;
+
+    // Когда заявка перешла в MATCHING; по нему находятся заявки, сага которых не завершилась
+    private LocalDateTime matchingSince;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = WaitlistStatus.WAITING;
+        }
+    }
+
+    public enum WaitlistStatus {
+        // MATCHING - заявка захвачена одним из экземпляров сервиса, идет сага бронирования
+        WAITING, MATCHING, FULFILLED, CANCELLED, EXPIRED
+    }
+}
@@ -0,0 +1,226 @@
+package com.hotel.booking.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Доставка изменений статуса бронирований подписчикам GET /api/bookings/events (SSE)
+ *
+ * У каждого подписчика своя ограниченная очередь. Публикация только кладет событие в очереди
+ * подписчиков пользователя и никогда не ждет сеть; в соединения пишут потоки booking-events-N,
+ * по одному потоку на подписчика в каждый момент. Если клиент не успевает читать и очередь
+ * переполнена, старые события отбрасываются, а клиенту отправляется событие resync:
+ * актуальное состояние нужно перечитать через GET /api/bookings.
+ */
+@Component
+public class BookingEventBus implements DisposableBean {
+
+    static final String STATUS_EVENT = "booking-status";
+    static final String RESYNC_EVENT = "resync";
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService senders;
+    private final Counter published;
+    private final Counter dropped;
+
+    @Value("${booking.events.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${booking.events.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${booking.events.max-subscribers-per-user:5}")
+    private int maxSubscribersPerUser;
+
+    @Value("${booking.events.timeout:PT30M}")
+    private Duration timeout;
+
+    public BookingEventBus(MeterRegistry meterRegistry,
+                           @Value("${booking.events.sender-threads:4}") int senderThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "booking-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("booking.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open booking status streams")
+                .register(meterRegistry);
+        this.published = Counter.builder("booking.events.published")
+                .description("Booking status changes delivered to subscriber buffers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("booking.events.dropped")
+                .description("Booking status events dropped because a subscriber buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Новый поток событий пользователя
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("Too many event streams, please retry later");
+        }
+        Subscription subscription = new Subscription(userId, new SseEmitter(timeout.toMillis()));
+        Set<Subscription> userSubscriptions = subscriptions.compute(userId, (id, current) -> {
+            Set<Subscription> set = current != null ? current : ConcurrentHashMap.newKeySet();
+            if (set.size() < maxSubscribersPerUser) {
+                set.add(subscription);
+            }
+            return set;
+        });
+        if (!userSubscriptions.contains(subscription)) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("Too many event streams for user " + userId);
+        }
+
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        // По timeout поток закрывается штатно, клиент переподключится
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+        System.out.println("📡 Booking event stream opened for user " + userId);
+        return emitter;
+    }
+
+    // Событие приходит после commit транзакции изменения, без транзакции - сразу
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(event.userId());
+        if (userSubscriptions == null) {
+            return;
+        }
+        long id = eventIds.incrementAndGet();
+        for (Subscription subscription : userSubscriptions) {
+            subscription.offer(new Outgoing(id, STATUS_EVENT, event));
+        }
+    }
+
+    // Комментарий в пустой поток: прокси не закрывают соединение по простою,
+    // а разорванное клиентом соединение обнаруживается ошибкой записи
+    @Scheduled(fixedDelayString = "${booking.events.heartbeat:PT15S}")
+    public void heartbeat() {
+        subscriptions.values().forEach(set -> set.forEach(Subscription::heartbeat));
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.values().forEach(set -> set.forEach(subscription -> subscription.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscription.closed.compareAndSet(false, true)) {
+            subscriptions.computeIfPresent(subscription.userId, (id, set) -> {
+                set.remove(subscription);
+                return set.isEmpty() ? null : set;
+            });
+            subscriberCount.decrementAndGet();
+            System.out.println("📡 Booking event stream closed for user " + subscription.userId);
+        }
+    }
+
+    private record Outgoing(long id, String name, Object data) {
+    }
+
+    private class Subscription {
+        final Long userId;
+        final SseEmitter emitter;
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Запись в соединение запланирована или идет
+        final AtomicBoolean draining = new AtomicBoolean();
+        final ArrayDeque<Outgoing> buffer = new ArrayDeque<>();
+        boolean overflowed;
+        boolean heartbeatDue;
+
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Outgoing event) {
+            synchronized (this) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    overflowed = true;
+                    dropped.increment();
+                }
+                buffer.addLast(event);
+            }
+            published.increment();
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (!buffer.isEmpty()) {
+                    return;
+                }
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Outgoing next;
+                    boolean resync;
+                    boolean ping;
+                    synchronized (this) {
+                        next = buffer.pollFirst();
+                        resync = overflowed;
+                        ping = heartbeatDue && next == null;
+                        overflowed = false;
+                        heartbeatDue = false;
+                        if (next == null && !resync && !ping) {
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(Map.of("reason", "buffer overflow")));
+                    }
+                    if (ping) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    if (next != null) {
+                        emitter.send(SseEmitter.event().id(String.valueOf(next.id())).name(next.name()).data(next.data()));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или поток уже завершен
+                emitter.completeWithError(e);
+                unsubscribe(this);
+            }
+        }
+    }
+}
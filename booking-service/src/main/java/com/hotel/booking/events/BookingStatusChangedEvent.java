@@ -0,0 +1,30 @@
+package com.hotel.booking.events;
+
+import com.hotel.booking.entity.Booking;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование создано или его статус изменился
+ *
+ * Публикуется через ApplicationEventPublisher в транзакции изменения;
+ * подписчикам BookingEventBus доставляется только после ее commit.
+ */
+public record BookingStatusChangedEvent(Long bookingId,
+                                        Long userId,
+                                        Long roomId,
+                                        LocalDate startDate,
+                                        LocalDate endDate,
+                                        Booking.BookingStatus status,
+                                        LocalDateTime changedAt) {
+
+    public static BookingStatusChangedEvent of(Booking booking) {
+        return of(booking, booking.getStatus());
+    }
+
+    public static BookingStatusChangedEvent of(Booking booking, Booking.BookingStatus status) {
+        return new BookingStatusChangedEvent(booking.getId(), booking.getUserId(), booking.getRoomId(),
+                booking.getStartDate(), booking.getEndDate(), status, LocalDateTime.now());
+    }
+}
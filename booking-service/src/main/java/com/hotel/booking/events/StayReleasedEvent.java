@@ -0,0 +1,15 @@
+package com.hotel.booking.events;
+
+import java.time.LocalDate;
+
+/**
+ * Даты отмененного бронирования освобождены в hotel-service и снова в продаже
+ *
+ * Публикуется StayReleaser в транзакции снятия флага release_pending;
+ * WaitlistMatcher получает его после commit этой транзакции.
+ */
+public record StayReleasedEvent(Long bookingId,
+                                Long roomId,
+                                LocalDate startDate,
+                                LocalDate endDate) {
+}
@@ -0,0 +1,25 @@
+package com.hotel.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Аутентификация по паролю (BCrypt намеренно медленный, обычно основная часть времени)
+ */
+@Name("com.hotel.booking.Authenticate")
+@Label("Authenticate")
+@Category({"Hotel Booking", "Booking Service"})
+@Description("Password authentication including BCrypt check")
+@StackTrace(false)
+public class AuthenticateEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,37 @@
+package com.hotel.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Одна попытка createBooking целиком (повторы retry - отдельные события)
+ */
+@Name("com.hotel.booking.Saga")
+@Label("Booking Saga")
+@Category({"Hotel Booking", "Booking Service"})
+@Description("One createBooking attempt")
+@StackTrace(false)
+public class BookingSagaEvent extends Event {
+
+    @Label("Room Id")
+    public long roomId;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Start Date")
+    public String startDate;
+
+    @Label("End Date")
+    public String endDate;
+
+    @Label("Nights")
+    public long nights;
+
+    @Label("Outcome")
+    public String outcome;
+}
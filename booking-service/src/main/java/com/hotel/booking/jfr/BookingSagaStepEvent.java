@@ -0,0 +1,28 @@
+package com.hotel.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Шаг саги бронирования (те же шаги, что и в таймере booking.saga.step)
+ */
+@Name("com.hotel.booking.SagaStep")
+@Label("Booking Saga Step")
+@Category({"Hotel Booking", "Booking Service"})
+@Description("Single step of the booking saga")
+@StackTrace(false)
+public class BookingSagaStepEvent extends Event {
+
+    @Label("Step")
+    public String step;
+
+    @Label("Room Id")
+    public long roomId;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,24 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.ArchivedBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    List<ArchivedBooking> findByUserId(Long userId);
+
+    // Копия строк bookings одним INSERT ... SELECT; подтвержденные бронирования переносятся
+    // только после даты выезда и получают статус COMPLETED
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, user_id, room_id, start_date, end_date, status, created_at, archived_at) " +
+            "SELECT id, user_id, room_id, start_date, end_date, " +
+            "CASE WHEN status = 'CONFIRMED' THEN 'COMPLETED' ELSE status END, created_at, CURRENT_TIMESTAMP " +
+            "FROM bookings WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") List<Long> ids);
+}
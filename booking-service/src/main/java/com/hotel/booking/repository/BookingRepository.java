@@ -2,12 +2,16 @@ package com.hotel.booking.repository;
 
 import com.hotel.booking.entity.Booking;
 import feign.Param;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -17,6 +21,15 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // ✅ Метод для проверки дублирующих бронирований
     List<Booking> findByRoomIdAndStatusIn(Long roomId, List<Booking.BookingStatus> statuses);
 
+    // Бронирования номера с указанными статусами, пересекающиеся с датами (включительно);
+    // все условия укладываются в индекс idx_bookings_room_status_dates
+    @Query("SELECT b FROM Booking b WHERE b.roomId = :roomId AND b.status IN :statuses " +
+            "AND b.startDate <= :endDate AND b.endDate >= :startDate")
+    List<Booking> findOverlapping(@Param("roomId") Long roomId,
+                                  @Param("statuses") List<Booking.BookingStatus> statuses,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
+
     // ✅ Метод для поиска бронирований пользователя на конкретные даты
     @Query("SELECT b FROM Booking b WHERE b.userId = :userId AND b.status IN ('PENDING', 'CONFIRMED') " +
             "AND ((b.startDate BETWEEN :startDate AND :endDate) OR " +
@@ -24,4 +37,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findUserBookingsForDates(@Param("userId") Long userId,
                                            @Param("startDate") LocalDate startDate,
                                            @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+
+    // Следующая пачка для архивации: keyset по id, без OFFSET
+    @Query("SELECT b.id FROM Booking b WHERE b.id > :afterId " +
+            "AND (b.endDate < :today OR b.status = :cancelled) AND b.releasePending = false ORDER BY b.id")
+    List<Long> findArchivableIds(@Param("afterId") Long afterId,
+                                 @Param("today") LocalDate today,
+                                 @Param("cancelled") Booking.BookingStatus cancelled,
+                                 Pageable page);
+
+    // Блокировка строк пачки перед переносом: условие проверяется еще раз, строка могла измениться
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND (b.endDate < :today OR b.status = :cancelled) " +
+            "AND b.releasePending = false")
+    List<Booking> lockArchivable(@Param("ids") List<Long> ids,
+                                 @Param("today") LocalDate today,
+                                 @Param("cancelled") Booking.BookingStatus cancelled);
+
+    // Отмененные бронирования, даты которых еще не освобождены в hotel-service
+    @Query("SELECT b.id FROM Booking b WHERE b.releasePending = true ORDER BY b.id")
+    List<Long> findReleasePendingIds(Pageable page);
+
+    // Блокировка на время release-stay: другой экземпляр сервиса не освободит те же даты повторно
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id AND b.releasePending = true")
+    Optional<Booking> lockReleasePending(@Param("id") Long id);
+}
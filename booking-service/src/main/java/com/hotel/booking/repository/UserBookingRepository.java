@@ -0,0 +1,43 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.UserBooking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserBookingRepository extends JpaRepository<UserBooking, Long> {
+
+    // Страница после курсора (afterDate, afterId) в порядке индекса idx_user_bookings_user_start:
+    // startFrom и startTo ограничивают диапазон индекса, остальные условия проверяются по строкам диапазона
+    @Query("SELECT u FROM UserBooking u WHERE u.userId = :userId " +
+            "AND u.startDate >= :startFrom AND u.startDate <= :startTo " +
+            "AND (u.startDate > :afterDate OR (u.startDate = :afterDate AND u.bookingId > :afterId)) " +
+            "AND u.endDate >= :endFrom AND u.status IN :statuses " +
+            "AND (:includeArchived = true OR u.archived = false) " +
+            "ORDER BY u.startDate, u.bookingId")
+    List<UserBooking> findPage(@Param("userId") Long userId,
+                               @Param("startFrom") LocalDate startFrom,
+                               @Param("startTo") LocalDate startTo,
+                               @Param("afterDate") LocalDate afterDate,
+                               @Param("afterId") Long afterId,
+                               @Param("endFrom") LocalDate endFrom,
+                               @Param("statuses") Collection<Booking.BookingStatus> statuses,
+                               @Param("includeArchived") boolean includeArchived,
+                               Pageable page);
+
+    // Бронирования перенесены в архив: статус как в bookings_archive (см. ArchivedBookingRepository)
+    @Modifying
+    @Query(value = "UPDATE user_bookings SET archived = TRUE, " +
+            "status = CASE WHEN status = 'CONFIRMED' THEN 'COMPLETED' ELSE status END " +
+            "WHERE booking_id IN (:ids)", nativeQuery = true)
+    int markArchived(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,62 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    List<WaitlistEntry> findByUserIdOrderByIdDesc(Long userId);
+
+    List<WaitlistEntry> findByStatus(WaitlistEntry.WaitlistStatus status);
+
+    // Смена статуса только из ожидаемого: заявку захватывает один экземпляр сервиса
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = :to WHERE w.id = :id AND w.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") WaitlistEntry.WaitlistStatus from,
+                   @Param("to") WaitlistEntry.WaitlistStatus to);
+
+    // Захват заявки под сагу бронирования: WAITING -> MATCHING с отметкой времени
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'MATCHING', w.matchingSince = :now " +
+            "WHERE w.id = :id AND w.status = 'WAITING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Сага не удалась: заявка снова ждет
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'WAITING', w.matchingSince = null " +
+            "WHERE w.id = :id AND w.status = 'MATCHING'")
+    int unclaim(@Param("id") Long id);
+
+    // Заявки, захваченные раньше :before и так и не завершенные (экземпляр сервиса упал,
+    // fulfill или возврат в WAITING не прошли); без отметки - захваченные до ее появления
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'WAITING', w.matchingSince = null " +
+            "WHERE w.status = 'MATCHING' AND (w.matchingSince IS NULL OR w.matchingSince < :before)")
+    int recoverStale(@Param("before") LocalDateTime before);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'FULFILLED', w.bookingId = :bookingId " +
+            "WHERE w.id = :id AND w.status = 'MATCHING'")
+    int fulfill(@Param("id") Long id, @Param("bookingId") Long bookingId);
+
+    // Заявки, даты которых уже начались: бронирование на прошедшие даты сага не создаст
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED' WHERE w.status = 'WAITING' AND w.startDate < :today")
+    int expire(@Param("today") LocalDate today);
+}
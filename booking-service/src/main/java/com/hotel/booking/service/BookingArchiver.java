@@ -0,0 +1,223 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.events.BookingStatusChangedEvent;
+import com.hotel.booking.repository.ArchivedBookingRepository;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перенос завершенных и отмененных бронирований из горячей таблицы в bookings_archive
+ *
+ * Таблица просматривается по возрастанию id пачками (keyset, без OFFSET), каждая пачка
+ * переносится короткой транзакцией: строки блокируются, копируются в архив и удаляются.
+ * Проход, не уложившийся в max-run-time, продолжается со следующего id при следующем запуске.
+ *
+ * Архиватор уступает живой нагрузке: после пачки он простаивает так, чтобы работать
+ * не больше max-duty-cycle времени, и не начинает пачку, пока в пулах соединений
+ * есть потоки, ожидающие соединения. Паузы не выходят за max-run-time прохода.
+ *
+ * Проходы выполняются в собственном потоке booking-archiver: паузы архиватора не задерживают
+ * задачи общего планировщика Spring (heartbeat SSE, перестроение листа ожидания).
+ */
+@Component
+public class BookingArchiver implements DisposableBean {
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final UserBookingView userBookingView;
+    private final BookingShards bookingShards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter archivedRows;
+    private final Counter throttled;
+
+    private final ScheduledExecutorService archiverThread;
+
+    // Последний обработанный id каждого шарда; 0 - следующий проход с начала таблицы
+    private final long[] cursors;
+
+    // false - проходы не запускаются по расписанию
+    @Value("${booking.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.archive.initial-delay:PT1M}")
+    private Duration initialDelay;
+
+    @Value("${booking.archive.interval:PT5M}")
+    private Duration interval;
+
+    @Value("${booking.archive.batch-size:200}")
+    private int batchSize;
+
+    @Value("${booking.archive.max-duty-cycle:0.1}")
+    private double maxDutyCycle;
+
+    @Value("${booking.archive.max-run-time:PT10S}")
+    private Duration maxRunTime;
+
+    @Value("${booking.archive.busy-backoff:PT1S}")
+    private Duration busyBackoff;
+
+    public BookingArchiver(BookingRepository bookingRepository, ArchivedBookingRepository archivedBookingRepository,
+                           UserBookingView userBookingView, BookingShards bookingShards,
+                           PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.userBookingView = userBookingView;
+        this.bookingShards = bookingShards;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.cursors = new long[bookingShards.shardCount()];
+        this.archiverThread = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "booking-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.archivedRows = Counter.builder("booking.archive.rows")
+                .description("Bookings moved to bookings_archive")
+                .register(meterRegistry);
+        this.throttled = Counter.builder("booking.archive.throttled")
+                .description("Archive batches postponed because of waiting database connections")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void validate() {
+        // Пауза после пачки - busy * (1 - d) / d: при d = 0 она бесконечна
+        if (!(maxDutyCycle > 0 && maxDutyCycle <= 1)) {
+            throw new IllegalArgumentException("booking.archive.max-duty-cycle must be in (0, 1]: " + maxDutyCycle);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        archiverThread.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Booking archive run failed: " + e.getMessage());
+            }
+        }, initialDelay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Один проход по всем шардам, не дольше max-run-time
+     */
+    public long archive() {
+        LocalDate today = LocalDate.now();
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        long moved = 0;
+        for (int shard = 0; shard < bookingShards.shardCount(); shard++) {
+            moved += archiveShard(shard, today, deadline);
+        }
+        if (moved > 0) {
+            System.out.println("🗄️ Archived " + moved + " finished or cancelled bookings");
+        }
+        return moved;
+    }
+
+    private long archiveShard(int shard, LocalDate today, long deadline) {
+        long moved = 0;
+        while (System.nanoTime() < deadline) {
+            if (connectionsAwaited()) {
+                throttled.increment();
+                if (!sleep(busyBackoff.toNanos(), deadline)) {
+                    return moved;
+                }
+                continue;
+            }
+
+            long started = System.nanoTime();
+            long afterId = cursors[shard];
+            List<Long> ids = bookingShards.onShard(shard, () -> bookingRepository.findArchivableIds(
+                    afterId, today, Booking.BookingStatus.CANCELLED, PageRequest.of(0, batchSize)));
+            if (ids.isEmpty()) {
+                // Проход по шарду завершен, следующий начнется с начала таблицы
+                cursors[shard] = 0;
+                return moved;
+            }
+
+            Integer batchMoved = bookingShards.onShard(shard,
+                    () -> transactionTemplate.execute(status -> moveBatch(ids, today)));
+            cursors[shard] = ids.get(ids.size() - 1);
+            moved += batchMoved != null ? batchMoved : 0;
+
+            long busy = System.nanoTime() - started;
+            if (!sleep((long) (busy * (1 - maxDutyCycle) / maxDutyCycle), deadline)) {
+                return moved;
+            }
+        }
+        return moved;
+    }
+
+    private int moveBatch(List<Long> ids, LocalDate today) {
+        List<Booking> locked = bookingRepository.lockArchivable(ids, today, Booking.BookingStatus.CANCELLED);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<Long> lockedIds = locked.stream().map(Booking::getId).toList();
+        archivedBookingRepository.copyFromBookings(lockedIds);
+        userBookingView.markArchived(locked);
+        // Подписчики узнают о завершении подтвержденных бронирований; отмененные статус не меняют
+        locked.stream()
+                .filter(booking -> booking.getStatus() == Booking.BookingStatus.CONFIRMED)
+                .forEach(booking -> eventPublisher.publishEvent(
+                        BookingStatusChangedEvent.of(booking, Booking.BookingStatus.COMPLETED)));
+        bookingRepository.deleteAllByIdInBatch(lockedIds);
+        archivedRows.increment(lockedIds.size());
+        return lockedIds.size();
+    }
+
+    @Override
+    public void destroy() {
+        archiverThread.shutdownNow();
+    }
+
+    private boolean connectionsAwaited() {
+        return meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum() > 0;
+    }
+
+    // Пауза не дольше оставшегося времени прохода; false - проход пора закончить
+    private static boolean sleep(long nanos, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.min(nanos, remaining));
+            return nanos < remaining;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.bulkhead.BulkheadFullException;
+import com.hotel.booking.jfr.BookingSagaStepEvent;
+import com.hotel.common.deadline.DeadlineExceededException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Таймеры саги бронирования (Micrometer)
+ *
+ * booking.saga.step - каждый шаг createBooking (step, outcome),
+ * booking.saga      - бронирование целиком вместе с retry и fallback (outcome).
+ * Оба таймера публикуют гистограмму для перцентилей, доступны через /actuator/metrics.
+ * Каждый шаг также пишет JFR событие com.hotel.booking.SagaStep (см. /actuator/jfr).
+ */
+@Component
+public class BookingMetrics {
+
+    public static final String STEP_VALIDATION = "validation";
+    public static final String STEP_OVERLAP_CHECK = "overlap-check";
+    public static final String STEP_RECOMMEND = "recommend";
+    public static final String STEP_CONFIRM_AVAILABILITY = "confirm-availability";
+    public static final String STEP_SAVE_CONFIRMED = "save-confirmed";
+    public static final String STEP_INCREMENT = "increment";
+    public static final String STEP_COMPENSATE = "compensate";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_CONFLICT = "conflict";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_NOT_FOUND = "not-found";
+    public static final String OUTCOME_FALLBACK = "fallback";
+    public static final String OUTCOME_CIRCUIT_OPEN = "circuit-open";
+    public static final String OUTCOME_DEADLINE_EXCEEDED = "deadline-exceeded";
+    public static final String OUTCOME_BULKHEAD_FULL = "bulkhead-full";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Начало шага: таймер и JFR событие (почти бесплатно, если JFR запись не идет)
+     */
+    public StepSample startStep() {
+        BookingSagaStepEvent event = new BookingSagaStepEvent();
+        event.begin();
+        return new StepSample(start(), event);
+    }
+
+    public void stopStep(StepSample sample, String step, Long roomId, String outcome) {
+        sample.timer().stop(stepTimer(step, outcome));
+        BookingSagaStepEvent event = sample.event();
+        event.end();
+        if (event.shouldCommit()) {
+            event.step = step;
+            event.roomId = roomId != null ? roomId : -1;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * Выполнить шаг саги с замером; исход определяется по результату шага,
+     * исключения записываются как error (или circuit-open)
+     */
+    public <T> T step(String step, Long roomId, Supplier<T> action, Function<T, String> outcomeOf) {
+        StepSample sample = startStep();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = action.get();
+            outcome = outcomeOf.apply(result);
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            stopStep(sample, step, roomId, outcome);
+        }
+    }
+
+    public <T> T step(String step, Long roomId, Supplier<T> action) {
+        return step(step, roomId, action, result -> OUTCOME_SUCCESS);
+    }
+
+    public void run(String step, Long roomId, Runnable action) {
+        step(step, roomId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void stopSaga(Timer.Sample sample, String outcome) {
+        sample.stop(timers.computeIfAbsent("saga|" + outcome, key -> Timer.builder("booking.saga")
+                .description("Booking creation end to end, including retries and fallback")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)));
+    }
+
+    public static String outcomeOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallNotPermittedException) {
+                return OUTCOME_CIRCUIT_OPEN;
+            }
+            if (cause instanceof DeadlineExceededException) {
+                return OUTCOME_DEADLINE_EXCEEDED;
+            }
+            if (cause instanceof BulkheadFullException) {
+                return OUTCOME_BULKHEAD_FULL;
+            }
+        }
+        return OUTCOME_ERROR;
+    }
+
+    public record StepSample(Timer.Sample timer, BookingSagaStepEvent event) {
+    }
+
+    private Timer stepTimer(String step, String outcome) {
+        return timers.computeIfAbsent(step + '|' + outcome, key -> Timer.builder("booking.saga.step")
+                .description("Single step of the booking saga")
+                .tag("step", step)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,122 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Последние запрошенные страницы бронирований пользователей (в памяти экземпляра сервиса)
+ *
+ * Страницы пользователя сбрасываются после commit каждого изменения его бронирований.
+ * Страница, прочитанная из базы до сброса, но сохраняемая после него, отбрасывается:
+ * put проверяет поколение записи пользователя, полученное перед чтением.
+ * Изменения, сделанные другими экземплярами сервиса, видны не позже чем через ttl.
+ */
+@Component
+public class BookingPageCache {
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${booking.view.cache.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${booking.view.cache.pages-per-user:4}")
+    private int pagesPerUser;
+
+    @Value("${booking.view.cache.ttl:PT30S}")
+    private Duration ttl;
+
+    // LRU по пользователям: access-order LinkedHashMap, доступ под synchronized
+    private final Map<Long, UserPages> users = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserPages> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    public BookingPageCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("booking.view.cache")
+                .tag("result", "hit")
+                .description("Booking history pages served from memory")
+                .register(meterRegistry);
+        this.misses = Counter.builder("booking.view.cache")
+                .tag("result", "miss")
+                .description("Booking history pages read from the database")
+                .register(meterRegistry);
+    }
+
+    public synchronized BookingPage get(Long userId, String key) {
+        UserPages pages = users.get(userId);
+        CachedPage cached = pages != null ? pages.pages.get(key) : null;
+        if (cached == null || cached.expiresAt - System.nanoTime() < 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.page;
+    }
+
+    /**
+     * Поколение страниц пользователя; передается в put после чтения страницы из базы
+     */
+    public synchronized long generation(Long userId) {
+        return users.computeIfAbsent(userId, id -> new UserPages(pagesPerUser)).generation;
+    }
+
+    public synchronized void put(Long userId, long generation, String key, BookingPage page) {
+        UserPages pages = users.get(userId);
+        if (pages != null && pages.generation == generation) {
+            pages.pages.put(key, new CachedPage(page, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    /**
+     * Сбросить страницы пользователя; внутри транзакции - после ее commit,
+     * иначе страница могла бы заново заполниться еще не зафиксированными данными
+     */
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        } else {
+            evictNow(userId);
+        }
+    }
+
+    private synchronized void evictNow(Long userId) {
+        users.remove(userId);
+    }
+
+    private record CachedPage(BookingPage page, long expiresAt) {
+    }
+
+    private static class UserPages {
+        final long generation = GENERATIONS.incrementAndGet();
+        final Map<String, CachedPage> pages;
+
+        UserPages(int maxPages) {
+            this.pages = new LinkedHashMap<>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                    return size() > maxPages;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotel.booking.service;
+
+/**
+ * Бронирование отклонено по существу запроса: неверные данные, номер занят или свободных номеров нет
+ *
+ * Это не отказ hotel-service: исключение не повторяется, не учитывается circuit breaker-ом
+ * и проходит через fallback createBooking без изменений. outcome - исход саги для метрик
+ * (BookingMetrics.OUTCOME_INVALID, OUTCOME_CONFLICT или OUTCOME_NOT_FOUND).
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    private final String outcome;
+
+    public BookingRejectedException(String outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+}
@@ -1,15 +1,28 @@
 package com.hotel.booking.service;
 
+import com.hotel.booking.bulkhead.BulkheadFullException;
 import com.hotel.booking.client.HotelServiceClient;
+import com.hotel.booking.dto.BookingPage;
 import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.RoomInfo;
+import com.hotel.booking.entity.ArchivedBooking;
 import com.hotel.booking.entity.Booking;
 import com.hotel.booking.entity.User;
+import com.hotel.booking.events.BookingStatusChangedEvent;
+import com.hotel.booking.repository.ArchivedBookingRepository;
 import com.hotel.booking.repository.BookingRepository;
 import com.hotel.booking.repository.UserRepository;
+import com.hotel.booking.shard.BookingShards;
+import com.hotel.common.deadline.Deadline;
+import com.hotel.common.deadline.DeadlineExceededException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import com.hotel.booking.jfr.AuthenticateEvent;
+import com.hotel.booking.jfr.BookingSagaEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,10 +38,26 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BookingService {
 
+    // Максимальная длительность бронирования, дней
+    static final int MAX_BOOKING_DAYS = 30;
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final UserRepository userRepository;
     private final HotelServiceClient hotelServiceClient;
     private final PasswordEncoder passwordEncoder;
+    private final BookingMetrics bookingMetrics;
+    private final BookingShards bookingShards;
+    private final UserBookingView userBookingView;
+    private final BookingPageCache bookingPageCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StayReleaser stayReleaser;
+
+    @Value("${booking.view.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${booking.view.max-page-size:100}")
+    private int maxPageSize;
 
     @Transactional
     @CircuitBreaker(name = "hotelService", fallbackMethod = "fallbackCreateBooking")
@@ -40,91 +69,89 @@ public class BookingService {
         System.out.println("   - User ID: " + userId);
         System.out.println("   - Username: " + username);
         System.out.println("   - Room ID: " + request.getRoomId());
+        System.out.println("   - Room type: " + request.getRoomType() + " (hotel " + request.getHotelId() + ")");
         System.out.println("   - Dates: " + request.getStartDate() + " to " + request.getEndDate());
         System.out.println("   - Auto-select: " + request.getAutoSelect());
 
         String requestId = UUID.randomUUID().toString();
         Long roomId = request.getRoomId();
+        BookingSagaEvent sagaEvent = new BookingSagaEvent();
+        sagaEvent.begin();
+        String sagaOutcome = null;
+        BookingShards.Binding shardBinding = null;
+        // Бронирование по типу: номер удерживается hotel-service уже при выборе
+        boolean confirmedByType = false;
 
         try {
-            // ✅ ВАЛИДАЦИЯ 1: Проверка обязательных полей
-            System.out.println("🔍 Step 1: Validating required fields");
-            if (request.getRoomId() == null) {
-                throw new RuntimeException("Room ID is required");
-            }
-            if (request.getStartDate() == null || request.getEndDate() == null) {
-                throw new RuntimeException("Start date and end date are required");
-            }
-            if (userId == null) {
-                throw new RuntimeException("User ID is required");
-            }
+            // Повтор (retry) мог начаться, когда вызывающий уже не ждет ответа
+            Deadline.check("booking saga");
 
-            // ✅ ВАЛИДАЦИЯ 2: Проверка корректности дат
-            System.out.println("🔍 Step 2: Validating dates");
-            if (request.getStartDate().isAfter(request.getEndDate())) {
-                throw new RuntimeException("Start date cannot be after end date");
-            }
-            if (request.getStartDate().isBefore(LocalDate.now())) {
-                throw new RuntimeException("Start date cannot be in the past");
+            // ✅ ВАЛИДАЦИЯ 1-3: обязательные поля, даты, длительность
+            BookingMetrics.StepSample validation = bookingMetrics.startStep();
+            try {
+                validateRequest(request, userId);
+                bookingMetrics.stopStep(validation, BookingMetrics.STEP_VALIDATION, roomId, BookingMetrics.OUTCOME_SUCCESS);
+            } catch (RuntimeException e) {
+                bookingMetrics.stopStep(validation, BookingMetrics.STEP_VALIDATION, roomId, BookingMetrics.OUTCOME_INVALID);
+                sagaOutcome = BookingMetrics.OUTCOME_INVALID;
+                throw e;
             }
-            if (request.getStartDate().equals(request.getEndDate())) {
-                throw new RuntimeException("Start date and end date cannot be the same");
+
+            // ✅ ВАЛИДАЦИЯ 4: Автоподбор комнаты если нужно
+            // Номер выбирается до первого обращения к базе: от него зависит шард бронирования
+            if (Boolean.TRUE.equals(request.getAutoSelect())) {
+                System.out.println("🔍 Step 3: Auto-selecting room");
+                List<Object> recommendedRooms = bookingMetrics.step(BookingMetrics.STEP_RECOMMEND, roomId,
+                        () -> hotelServiceClient.getRecommendedRooms(request.getStartDate(), request.getEndDate()),
+                        rooms -> rooms.isEmpty() ? BookingMetrics.OUTCOME_NOT_FOUND : BookingMetrics.OUTCOME_SUCCESS);
+
+                if (!recommendedRooms.isEmpty()) {
+                    roomId = Long.valueOf(recommendedRooms.get(0).toString());
+                    System.out.println("✅ Auto-selected room ID: " + roomId);
+                } else {
+                    sagaOutcome = BookingMetrics.OUTCOME_NOT_FOUND;
+                    throw new RuntimeException("No available rooms found for auto-selection");
+                }
             }
 
-            // ✅ ВАЛИДАЦИЯ 3: Проверка максимальной длительности бронирования
-            long bookingDays = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate());
-            if (bookingDays > 30) {
-                throw new RuntimeException("Booking cannot exceed 30 days");
+            // Бронирование по типу: конкретный номер назначает hotel-service при подтверждении,
+            // поэтому подтверждение идет до первого обращения к базе (шард зависит от номера)
+            if (roomId == null && request.getRoomType() != null) {
+                System.out.println("🔍 Step 3: Confirming any " + request.getRoomType() + " room in hotel " + request.getHotelId());
+                RoomInfo allocated = bookingMetrics.step(BookingMetrics.STEP_CONFIRM_AVAILABILITY, null,
+                        () -> hotelServiceClient.confirmRoomType(request.getHotelId(), request.getRoomType(),
+                                request.getStartDate(), request.getEndDate(), requestId),
+                        room -> room != null ? BookingMetrics.OUTCOME_SUCCESS : BookingMetrics.OUTCOME_NOT_FOUND);
+                if (allocated == null) {
+                    sagaOutcome = BookingMetrics.OUTCOME_NOT_FOUND;
+                    throw new RuntimeException("No available rooms of type " + request.getRoomType() + " for the selected dates");
+                }
+                roomId = allocated.getId();
+                confirmedByType = true;
+                System.out.println("✅ Allocated room ID: " + roomId);
             }
 
-            // ✅ ВАЛИДАЦИЯ 4: Проверка существующих бронирований (защита от дубликатов)
-            System.out.println("🔍 Step 3: Checking for overlapping bookings");
-            List<Booking> existingBookings = bookingRepository.findByRoomIdAndStatusIn(
-                    roomId, List.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED));
+            // Все запросы саги к базе - в шарде номера, одной транзакцией
+            shardBinding = bookingShards.bind(bookingShards.shardOf(roomId));
 
-            boolean hasOverlap = existingBookings.stream()
-                    .anyMatch(booking -> isDateRangeOverlapping(
-                            booking.getStartDate(), booking.getEndDate(),
-                            request.getStartDate(), request.getEndDate()));
+            // ✅ ВАЛИДАЦИЯ 5: Проверка существующих бронирований (защита от дубликатов)
+            System.out.println("🔍 Step 4: Checking for overlapping bookings");
+            List<Booking> overlappingBookings = findOverlappingBookings(roomId, request.getStartDate(), request.getEndDate());
 
-            if (hasOverlap) {
+            if (!overlappingBookings.isEmpty()) {
+                sagaOutcome = BookingMetrics.OUTCOME_CONFLICT;
                 System.out.println("❌ CONFLICT: Room already booked for these dates");
-                existingBookings.forEach(booking ->
+                overlappingBookings.forEach(booking ->
                         System.out.println("   - Existing: ID=" + booking.getId() +
                                 ", " + booking.getStartDate() + " to " + booking.getEndDate())
                 );
                 throw new RuntimeException("Room is already booked for the selected dates");
             }
 
-            // ✅ ВАЛИДАЦИЯ 5: Автоподбор комнаты если нужно
-            if (Boolean.TRUE.equals(request.getAutoSelect())) {
-                System.out.println("🔍 Step 4: Auto-selecting room");
-                List<Object> recommendedRooms = hotelServiceClient.getRecommendedRooms(
-                        request.getStartDate(), request.getEndDate());
-
-                if (!recommendedRooms.isEmpty()) {
-                    roomId = Long.valueOf(recommendedRooms.get(0).toString());
-                    System.out.println("✅ Auto-selected room ID: " + roomId);
-
-                    // Повторная проверка для автовыбранной комнаты
-                    List<Booking> autoExistingBookings = bookingRepository.findByRoomIdAndStatusIn(
-                            roomId, List.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED));
-
-                    boolean autoHasOverlap = autoExistingBookings.stream()
-                            .anyMatch(booking -> isDateRangeOverlapping(
-                                    booking.getStartDate(), booking.getEndDate(),
-                                    request.getStartDate(), request.getEndDate()));
-
-                    if (autoHasOverlap) {
-                        throw new RuntimeException("Auto-selected room is not available for the selected dates");
-                    }
-                } else {
-                    throw new RuntimeException("No available rooms found for auto-selection");
-                }
-            }
-
-            // ✅ Шаг 6: Создание бронирования в статусе PENDING
-            System.out.println("🔍 Step 5: Creating booking in PENDING state");
+            // ✅ Шаг 6: Бронирование в статусе PENDING
+            // Сага целиком идет в одной транзакции: PENDING строка не видна другим транзакциям
+            // и откатывается при любой ошибке, поэтому бронирование пишется один раз, уже с итоговым статусом
+            System.out.println("🔍 Step 5: Preparing booking in PENDING state");
             Booking booking = new Booking();
             booking.setUserId(userId);
             booking.setRoomId(roomId);
@@ -132,79 +159,193 @@ public class BookingService {
             booking.setEndDate(request.getEndDate());
             booking.setStatus(Booking.BookingStatus.PENDING);
 
-            booking = bookingRepository.save(booking);
-            System.out.println("✅ Booking created with ID: " + booking.getId() + " in PENDING state");
-
             // ✅ Шаг 7: Подтверждение доступности в Hotel Service
             System.out.println("🔍 Step 6: Confirming availability with hotel service");
             System.out.println("   - Request ID: " + requestId);
             System.out.println("   - Room ID: " + roomId);
             System.out.println("   - Dates: " + request.getStartDate() + " to " + request.getEndDate());
 
-            boolean isAvailable = hotelServiceClient.confirmAvailability(
-                    roomId, request.getStartDate(), request.getEndDate(), requestId);
+            Long confirmedRoomId = roomId;
+            boolean isAvailable = confirmedByType || bookingMetrics.step(BookingMetrics.STEP_CONFIRM_AVAILABILITY, confirmedRoomId,
+                    () -> Boolean.TRUE.equals(hotelServiceClient.confirmAvailability(
+                            confirmedRoomId, request.getStartDate(), request.getEndDate(), requestId)),
+                    available -> available ? BookingMetrics.OUTCOME_SUCCESS : BookingMetrics.OUTCOME_CONFLICT);
 
             if (isAvailable) {
                 // ✅ Шаг 8: Подтверждение бронирования
                 System.out.println("✅ Room is available, confirming booking");
                 booking.setStatus(Booking.BookingStatus.CONFIRMED);
-                booking = bookingRepository.save(booking);
+                Booking confirmed = booking;
+                // Один INSERT сразу, а не при commit: ошибка записи должна попасть в компенсацию ниже
+                booking = bookingMetrics.step(BookingMetrics.STEP_SAVE_CONFIRMED, confirmedRoomId, () -> bookingRepository.saveAndFlush(confirmed));
+                System.out.println("✅ Booking saved with ID: " + booking.getId());
+                userBookingView.record(booking);
+                eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking));
 
                 // ✅ Шаг 9: Инкремент счетчика бронирований
                 try {
-                    hotelServiceClient.incrementTimesBooked(roomId);
+                    bookingMetrics.run(BookingMetrics.STEP_INCREMENT, confirmedRoomId, () -> hotelServiceClient.incrementTimesBooked(confirmedRoomId));
                     System.out.println("✅ Booking counter incremented for room: " + roomId);
                 } catch (Exception e) {
                     System.out.println("⚠️ Failed to increment booking counter: " + e.getMessage());
                     // Не прерываем процесс, т.к. бронирование уже создано
                 }
 
+                sagaOutcome = BookingMetrics.OUTCOME_SUCCESS;
                 System.out.println("🎉 SUCCESS: Booking " + booking.getId() + " confirmed successfully");
                 return booking;
             } else {
                 // ✅ КОМПЕНСАЦИЯ: отмена бронирования если комната недоступна
+                sagaOutcome = BookingMetrics.OUTCOME_CONFLICT;
+                // Бронирование еще не записано, а транзакция все равно откатится - сохранять CANCELLED незачем
                 System.out.println("❌ Room not available, cancelling booking");
-                booking.setStatus(Booking.BookingStatus.CANCELLED);
-                bookingRepository.save(booking);
                 throw new RuntimeException("Room not available at hotel service");
             }
 
         } catch (Exception e) {
+            if (sagaOutcome == null) {
+                sagaOutcome = BookingMetrics.outcomeOf(e);
+            }
             System.out.println("💥 ERROR in createBooking:");
             System.out.println("   - Exception: " + e.getClass().getName());
             System.out.println("   - Message: " + e.getMessage());
 
             // ✅ КОМПЕНСАЦИЯ ПРИ ОШИБКАХ: снятие блокировки в Hotel Service
+            // Вне дедлайна запроса: удержание нужно снять, даже если вызывающий уже не ждет
             try {
-                hotelServiceClient.releaseRoom(roomId, requestId);
+                Long releasedRoomId = roomId;
+                Deadline.detached(() -> bookingMetrics.run(BookingMetrics.STEP_COMPENSATE, releasedRoomId,
+                        () -> hotelServiceClient.releaseRoom(releasedRoomId, requestId)));
                 System.out.println("🔓 Room lock released for room: " + roomId);
             } catch (Exception ex) {
                 System.out.println("⚠️ Error releasing room lock: " + ex.getMessage());
             }
 
-            throw new RuntimeException("Booking failed: " + e.getMessage());
+            // Тип исключения сохраняется: дедлайн не учитывают retry и circuit breaker, переполненный bulkhead - retry
+            if (e instanceof DeadlineExceededException || e instanceof BulkheadFullException) {
+                throw (RuntimeException) e;
+            }
+            // Отказ по существу запроса - не сбой hotel-service: без retry, circuit breaker и fallback
+            if (BookingMetrics.OUTCOME_INVALID.equals(sagaOutcome)
+                    || BookingMetrics.OUTCOME_CONFLICT.equals(sagaOutcome)
+                    || BookingMetrics.OUTCOME_NOT_FOUND.equals(sagaOutcome)) {
+                throw new BookingRejectedException(sagaOutcome, "Booking failed: " + e.getMessage());
+            }
+            throw new RuntimeException("Booking failed: " + e.getMessage(), e);
         } finally {
+            if (shardBinding != null) {
+                shardBinding.close();
+            }
+            sagaEvent.end();
+            if (sagaEvent.shouldCommit()) {
+                sagaEvent.roomId = roomId != null ? roomId : -1;
+                sagaEvent.userId = userId != null ? userId : -1;
+                sagaEvent.startDate = String.valueOf(request.getStartDate());
+                sagaEvent.endDate = String.valueOf(request.getEndDate());
+                sagaEvent.nights = request.getStartDate() != null && request.getEndDate() != null
+                        ? ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate())
+                        : 0;
+                sagaEvent.outcome = sagaOutcome != null ? sagaOutcome : BookingMetrics.OUTCOME_ERROR;
+                sagaEvent.commit();
+            }
             System.out.println("🎯 BOOKING SERVICE - createBooking END");
             System.out.println("=".repeat(80));
         }
     }
 
+    private void validateRequest(BookingRequest request, Long userId) {
+        // ✅ ВАЛИДАЦИЯ 1: Проверка обязательных полей
+        System.out.println("🔍 Step 1: Validating required fields");
+        if (request.getRoomId() == null && (request.getHotelId() == null || request.getRoomType() == null)) {
+            throw new RuntimeException("Room ID is required");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new RuntimeException("Start date and end date are required");
+        }
+        if (userId == null) {
+            throw new RuntimeException("User ID is required");
+        }
+
+        // ✅ ВАЛИДАЦИЯ 2: Проверка корректности дат
+        System.out.println("🔍 Step 2: Validating dates");
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new RuntimeException("Start date cannot be after end date");
+        }
+        if (request.getStartDate().isBefore(LocalDate.now())) {
+            throw new RuntimeException("Start date cannot be in the past");
+        }
+        if (request.getStartDate().equals(request.getEndDate())) {
+            throw new RuntimeException("Start date and end date cannot be the same");
+        }
+
+        // ✅ ВАЛИДАЦИЯ 3: Проверка максимальной длительности бронирования
+        long bookingDays = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate());
+        if (bookingDays > MAX_BOOKING_DAYS) {
+            throw new RuntimeException("Booking cannot exceed " + MAX_BOOKING_DAYS + " days");
+        }
+    }
+
+    // Активные (PENDING/CONFIRMED) бронирования номера, пересекающиеся с запрошенными датами
+    private List<Booking> findOverlappingBookings(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return bookingMetrics.step(BookingMetrics.STEP_OVERLAP_CHECK, roomId,
+                () -> bookingRepository.findOverlapping(roomId,
+                        List.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED), startDate, endDate),
+                overlapping -> overlapping.isEmpty() ? BookingMetrics.OUTCOME_SUCCESS : BookingMetrics.OUTCOME_CONFLICT);
+    }
+
     // ✅ ВСПОМОГАТЕЛЬНЫЙ МЕТОД: Проверка пересечения дат
-    private boolean isDateRangeOverlapping(LocalDate start1, LocalDate end1, LocalDate start2, LocalDate end2) {
+    static boolean isDateRangeOverlapping(LocalDate start1, LocalDate end1, LocalDate start2, LocalDate end2) {
         return !(end1.isBefore(start2) || start1.isAfter(end2));
     }
 
     public Booking fallbackCreateBooking(BookingRequest request, Long userId, String username, Exception e) {
         System.out.println("🔄 FALLBACK: createBooking fallback activated");
         System.out.println("   - Error: " + e.getMessage());
-        throw new RuntimeException("Service temporarily unavailable");
+        if (e instanceof DeadlineExceededException || e instanceof BulkheadFullException
+                || e instanceof BookingRejectedException) {
+            throw (RuntimeException) e;
+        }
+        // Причина нужна для метрик: circuit-open отличается от обычного fallback
+        throw new RuntimeException("Service temporarily unavailable", e);
     }
 
-    public List<Booking> getUserBookings(Long userId) {
-        System.out.println("🔍 Getting bookings for user ID: " + userId);
-        List<Booking> bookings = bookingRepository.findByUserId(userId);
-        System.out.println("✅ Found " + bookings.size() + " bookings for user " + userId);
-        return bookings;
+    /**
+     * Страница бронирований пользователя из представления user_bookings
+     *
+     * Недавно запрошенные страницы отдаются из BookingPageCache без обращения к базе;
+     * при чтении из базы в профиле replica используется реплика, если она отстает не больше
+     * replica.max-lag.history. includeArchived - вместе с перенесенными в bookings_archive.
+     */
+    public BookingPage getUserBookingsPage(Long userId, String cursor, Integer limit,
+                                           List<Booking.BookingStatus> statuses, LocalDate from, LocalDate to,
+                                           boolean includeArchived) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new RuntimeException("Invalid limit: must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range: from cannot be after to");
+        }
+        List<Booking.BookingStatus> statusFilter = statuses == null || statuses.isEmpty()
+                ? List.of(Booking.BookingStatus.values())
+                : statuses.stream().distinct().sorted().toList();
+
+        String key = cursor + "|" + pageSize + "|" + statusFilter + "|" + from + "|" + to + "|" + includeArchived;
+        BookingPage page = bookingPageCache.get(userId, key);
+        if (page != null) {
+            return page;
+        }
+        long generation = bookingPageCache.generation(userId);
+        page = userBookingView.loadPage(userId, cursor, pageSize, statusFilter, from, to, includeArchived);
+        bookingPageCache.put(userId, generation, key, page);
+        System.out.println("📄 Loaded page of " + page.getItems().size() + " bookings for user " + userId);
+        return page;
+    }
+
+    // Завершенное или отмененное бронирование могло уже уйти в архив (BookingArchiver)
+    private Optional<Booking> findBookingOrArchived(Long id) {
+        return bookingShards.findAny(() -> bookingRepository.findById(id))
+                .or(() -> bookingShards.findAny(() -> archivedBookingRepository.findById(id)).map(ArchivedBooking::toBooking));
     }
 
     public Booking getBooking(Long id, Long userId) {
@@ -217,12 +358,12 @@ public class BookingService {
         try {
             // Шаг 1: Ищем бронирование по ID
             System.out.println("🔍 Step 1: Searching for booking with ID: " + id);
-            Optional<Booking> bookingOpt = bookingRepository.findById(id);
+            Optional<Booking> bookingOpt = findBookingOrArchived(id);
 
             if (bookingOpt.isEmpty()) {
                 System.out.println("❌ FAIL: No booking found with ID: " + id);
                 System.out.println("   📋 All bookings in database:");
-                List<Booking> allBookings = bookingRepository.findAll();
+                List<Booking> allBookings = bookingShards.scatterGather(bookingRepository::findAll);
                 if (allBookings.isEmpty()) {
                     System.out.println("   💡 No bookings found in database at all!");
                 } else {
@@ -255,7 +396,7 @@ public class BookingService {
 
                 // Покажем все бронирования текущего пользователя для помощи
                 System.out.println("   📋 Your bookings (user ID: " + userId + "):");
-                List<Booking> userBookings = bookingRepository.findByUserId(userId);
+                List<Booking> userBookings = bookingShards.scatterGather(() -> bookingRepository.findByUserId(userId));
                 if (userBookings.isEmpty()) {
                     System.out.println("      💡 You have no bookings");
                 } else {
@@ -292,7 +433,7 @@ public class BookingService {
         try {
             // Шаг 1: Находим бронирование
             System.out.println("🔍 Step 1: Finding booking with ID: " + id);
-            Optional<Booking> bookingOpt = bookingRepository.findById(id)
+            Optional<Booking> bookingOpt = findBookingOrArchived(id)
                     .filter(b -> b.getUserId().equals(userId));
 
             if (bookingOpt.isEmpty()) {
@@ -310,7 +451,17 @@ public class BookingService {
             if (booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
                 System.out.println("🔍 Step 2: Cancelling confirmed booking");
                 booking.setStatus(Booking.BookingStatus.CANCELLED);
-                bookingRepository.save(booking);
+                booking.setReleasePending(true);
+                // Изменение - в транзакции этого метода, на шарде номера бронирования
+                bookingShards.onShard(bookingShards.shardOf(booking.getRoomId()), () -> {
+                    userBookingView.record(booking);
+                    eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking));
+                    return bookingRepository.save(booking);
+                });
+
+                // Даты снова в продаже в hotel-service только после commit отмены; при ошибке
+                // освобождение повторяется, пока не пройдет (флаг release_pending)
+                stayReleaser.releaseAfterCommit(booking);
                 System.out.println("✅ SUCCESS: Booking " + id + " cancelled by user " + userId);
             } else {
                 System.out.println("⚠️ Booking is already in status: " + booking.getStatus());
@@ -332,6 +483,9 @@ public class BookingService {
         System.out.println("🔐 BOOKING SERVICE - authenticate START");
         System.out.println("   📥 Username: " + username);
 
+        AuthenticateEvent event = new AuthenticateEvent();
+        event.begin();
+        String outcome = "error";
         try {
             System.out.println("🔍 Step 1: Finding user by username");
             User user = userRepository.findByUsername(username)
@@ -353,10 +507,12 @@ public class BookingService {
             System.out.println("   - Password matches: " + passwordMatches);
 
             if (!passwordMatches) {
+                outcome = "invalid-password";
                 System.out.println("❌ Password mismatch for user: " + username);
                 throw new RuntimeException("Invalid password");
             }
 
+            outcome = "success";
             System.out.println("✅ SUCCESS: Authentication successful for: " + username);
             return user;
 
@@ -366,6 +522,12 @@ public class BookingService {
             System.out.println("   - Message: " + e.getMessage());
             throw e;
         } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = username;
+                event.outcome = outcome;
+                event.commit();
+            }
             System.out.println("🔐 BOOKING SERVICE - authenticate END");
             System.out.println("=".repeat(80));
         }
@@ -0,0 +1,158 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.client.HotelServiceClient;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.events.StayReleasedEvent;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Освобождение дат отмененных бронирований в hotel-service (release-stay)
+ *
+ * Отмена ставит флаг release_pending в своей транзакции; даты освобождаются только после
+ * ее commit, в потоке stay-release. Освобождение идет под блокировкой строки бронирования,
+ * флаг снимается той же транзакцией, поэтому отмена, не дошедшая до commit, ничего не
+ * освобождает, а одни и те же даты не освобождаются дважды, в том числе разными экземплярами
+ * сервиса. Неудачное освобождение повторяется раз в retry-interval, пока не пройдет;
+ * такие бронирования видны в метрике booking.release.pending и не уходят в архив.
+ *
+ * Лист ожидания получает освободившиеся даты (StayReleasedEvent) только после освобождения:
+ * раньше confirm-availability в hotel-service их бы не подтвердил.
+ */
+@Component
+public class StayReleaser implements DisposableBean {
+
+    private final BookingRepository bookingRepository;
+    private final HotelServiceClient hotelServiceClient;
+    private final BookingShards bookingShards;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService releaseThread;
+    private final Counter released;
+    private final Counter failed;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int batchSize;
+
+    public StayReleaser(BookingRepository bookingRepository, HotelServiceClient hotelServiceClient,
+                        BookingShards bookingShards, PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                        @Value("${booking.release.batch-size:100}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.hotelServiceClient = hotelServiceClient;
+        this.bookingShards = bookingShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.releaseThread = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "stay-release");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.released = Counter.builder("booking.release.released")
+                .description("Cancelled stays released in hotel service")
+                .register(meterRegistry);
+        this.failed = Counter.builder("booking.release.failed")
+                .description("Failed attempts to release a cancelled stay in hotel service")
+                .register(meterRegistry);
+        Gauge.builder("booking.release.pending", pending, AtomicInteger::get)
+                .description("Cancelled bookings whose dates are still held in hotel service after the last retry pass")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Освободить даты отменяемого бронирования после commit текущей транзакции
+     *
+     * Флаг releasePending бронирования должен быть выставлен в этой же транзакции.
+     */
+    public void releaseAfterCommit(Booking booking) {
+        Long bookingId = booking.getId();
+        int shard = bookingShards.shardOf(booking.getRoomId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseThread.execute(() -> release(shard, bookingId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                releaseThread.execute(() -> release(shard, bookingId));
+            }
+        });
+    }
+
+    // Повтор неудавшихся освобождений; сами вызовы hotel-service - в потоке stay-release
+    @Scheduled(initialDelayString = "${booking.release.retry-interval:PT15S}",
+            fixedDelayString = "${booking.release.retry-interval:PT15S}")
+    public void retryPending() {
+        releaseThread.execute(this::releasePending);
+    }
+
+    void releasePending() {
+        int stillPending = 0;
+        for (int shard = 0; shard < bookingShards.shardCount(); shard++) {
+            List<Long> ids = bookingShards.onShard(shard,
+                    () -> bookingRepository.findReleasePendingIds(PageRequest.of(0, batchSize)));
+            for (Long id : ids) {
+                if (!release(shard, id)) {
+                    stillPending++;
+                }
+            }
+        }
+        pending.set(stillPending);
+        if (stillPending > 0) {
+            System.out.println("⚠️ " + stillPending + " cancelled bookings still hold dates in hotel service");
+        }
+    }
+
+    /**
+     * @return true, если даты освобождены (этим или другим вызовом)
+     */
+    boolean release(int shard, Long bookingId) {
+        try {
+            Optional<Booking> releasedBooking = bookingShards.onShard(shard, () -> transactionTemplate.execute(status -> {
+                Optional<Booking> locked = bookingRepository.lockReleasePending(bookingId);
+                locked.ifPresent(booking -> {
+                    hotelServiceClient.releaseStay(booking.getRoomId(), booking.getStartDate(), booking.getEndDate());
+                    booking.setReleasePending(false);
+                    eventPublisher.publishEvent(new StayReleasedEvent(booking.getId(), booking.getRoomId(),
+                            booking.getStartDate(), booking.getEndDate()));
+                });
+                return locked;
+            }));
+            if (releasedBooking != null && releasedBooking.isPresent()) {
+                released.increment();
+                System.out.println("🔓 Room " + releasedBooking.get().getRoomId() + " released in hotel service"
+                        + " for cancelled booking " + bookingId);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            failed.increment();
+            System.out.println("⚠️ Failed to release cancelled booking " + bookingId + " in hotel service, will retry: "
+                    + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        releaseThread.shutdown();
+    }
+}
@@ -0,0 +1,110 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingPage;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.UserBooking;
+import com.hotel.booking.repository.UserBookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ведение и чтение представления user_bookings (см. UserBooking)
+ *
+ * Строки пишутся вызывающим кодом в текущей транзакции и текущем шарде бронирования.
+ * Страница выдается по курсору (start_date, booking_id) последней строки предыдущей страницы:
+ * чтение идет по индексу с места курсора, без OFFSET и без подсчета общего числа строк.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserBookingView {
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final Comparator<UserBooking> ORDER =
+            Comparator.comparing(UserBooking::getStartDate).thenComparing(UserBooking::getBookingId);
+
+    private final UserBookingRepository userBookingRepository;
+    private final BookingPageCache bookingPageCache;
+    private final BookingShards bookingShards;
+
+    /**
+     * Создание или изменение статуса бронирования
+     */
+    public void record(Booking booking) {
+        userBookingRepository.save(UserBooking.of(booking));
+        bookingPageCache.evict(booking.getUserId());
+    }
+
+    /**
+     * Бронирования перенесены BookingArchiver в bookings_archive
+     */
+    public void markArchived(List<Booking> bookings) {
+        userBookingRepository.markArchived(bookings.stream().map(Booking::getId).toList());
+        bookings.stream().map(Booking::getUserId).distinct().forEach(bookingPageCache::evict);
+    }
+
+    /**
+     * Страница бронирований пользователя по возрастанию даты заезда
+     *
+     * @param from бронирования, заканчивающиеся не раньше этой даты; null - без ограничения
+     * @param to   бронирования, начинающиеся не позже этой даты; null - без ограничения
+     */
+    @Transactional(readOnly = true, label = "replica:history")
+    public BookingPage loadPage(Long userId, String cursor, int limit, Collection<Booking.BookingStatus> statuses,
+                                LocalDate from, LocalDate to, boolean includeArchived) {
+        // Бронирование длится не больше MAX_BOOKING_DAYS, поэтому условие по дате выезда
+        // превращается в нижнюю границу диапазона индекса по дате заезда
+        LocalDate startFrom = from != null ? from.minusDays(BookingService.MAX_BOOKING_DAYS) : MIN_DATE;
+        LocalDate startTo = to != null ? to : MAX_DATE;
+        LocalDate endFrom = from != null ? from : MIN_DATE;
+        Cursor after = cursor != null ? Cursor.decode(cursor) : new Cursor(MIN_DATE, 0L);
+
+        // С каждого шарда limit + 1 строк: после слияния лишняя строка говорит, что страница не последняя
+        List<UserBooking> rows = new ArrayList<>(bookingShards.scatterGather(() -> userBookingRepository.findPage(
+                userId, startFrom, startTo, after.startDate(), after.bookingId(), endFrom, statuses, includeArchived,
+                PageRequest.of(0, limit + 1))));
+        rows.sort(ORDER);
+
+        if (rows.size() <= limit) {
+            return new BookingPage(rows, null);
+        }
+        List<UserBooking> items = List.copyOf(rows.subList(0, limit));
+        return new BookingPage(items, Cursor.of(items.get(limit - 1)).encode());
+    }
+
+    // Позиция в порядке выдачи; в API передается как непрозрачная base64url строка
+    record Cursor(LocalDate startDate, Long bookingId) {
+
+        static Cursor of(UserBooking row) {
+            return new Cursor(row.getStartDate(), row.getBookingId());
+        }
+
+        String encode() {
+            String position = startDate + "_" + bookingId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = position.indexOf('_');
+                return new Cursor(LocalDate.parse(position.substring(0, separator)),
+                        Long.valueOf(position.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.hotel.booking.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Размещение бронирований по шардам
+ *
+ * Шард бронирования определяется номером комнаты (jump consistent hash от roomId): все
+ * бронирования номера лежат в одной базе, поэтому проверка пересечений и сага бронирования
+ * не выходят за пределы одного шарда. Выборки не по номеру (по пользователю, по id)
+ * выполняются на всех шардах параллельно.
+ *
+ * Текущий шард потока хранится в ThreadLocal и должен быть выбран до первого SQL запроса
+ * транзакции: ShardRoutingDataSource за LazyConnectionDataSourceProxy берет соединение
+ * нужной базы только в этот момент. Пользователи всегда в шарде 0 (шард по умолчанию).
+ */
+public class BookingShards {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService scatterExecutor;
+
+    public BookingShards(int shardCount, ExecutorService scatterExecutor) {
+        if (shardCount > 1 && scatterExecutor == null) {
+            throw new IllegalArgumentException("Executor is required for " + shardCount + " shards");
+        }
+        this.shardCount = shardCount;
+        this.scatterExecutor = scatterExecutor;
+    }
+
+    /**
+     * Одна база без шардирования: все вызовы выполняются в текущем потоке
+     */
+    public static BookingShards single() {
+        return new BookingShards(1, null);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(Long roomId) {
+        return JumpConsistentHash.bucket(roomId, shardCount);
+    }
+
+    public static int currentShard() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * Выбрать шард для текущего потока до закрытия возвращенной привязки
+     */
+    public Binding bind(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Shard " + shard + " is out of range [0, " + shardCount + ")");
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        try (Binding ignored = bind(shard)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Выполнить запрос на каждом шарде (параллельно, в своей транзакции) и объединить результаты
+     *
+     * С одним шардом запрос выполняется в текущем потоке, внутри транзакции вызывающего.
+     */
+    public <T> List<T> scatterGather(Supplier<List<T>> query) {
+        if (shardCount == 1) {
+            return query.get();
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, query), scatterExecutor));
+        }
+
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            try {
+                results.addAll(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Найти строку на любом шарде, например по id
+     */
+    public <T> Optional<T> findAny(Supplier<Optional<T>> query) {
+        return scatterGather(() -> query.get().map(List::of).orElse(List.of())).stream().findFirst();
+    }
+
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
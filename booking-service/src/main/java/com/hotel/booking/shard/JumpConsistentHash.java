@@ -0,0 +1,27 @@
+package com.hotel.booking.shard;
+
+/**
+ * Jump consistent hash (Lamping, Veach): номер корзины из [0, buckets) для ключа
+ *
+ * Не требует таблицы соответствия и при увеличении числа корзин с n до m переносит
+ * в новые корзины только (m - n) / m ключей; остальные ключи остаются на месте.
+ */
+public final class JumpConsistentHash {
+
+    private JumpConsistentHash() {
+    }
+
+    public static int bucket(long key, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Bucket count must be positive: " + buckets);
+        }
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
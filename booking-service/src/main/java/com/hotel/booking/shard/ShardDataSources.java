@@ -0,0 +1,30 @@
+package com.hotel.booking.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Пулы соединений всех настроенных шардов, включая выводимые из работы
+ */
+public class ShardDataSources {
+
+    private final List<HikariDataSource> dataSources;
+
+    public ShardDataSources(List<HikariDataSource> dataSources) {
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,204 @@
+package com.hotel.booking.shard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Перенос бронирований между шардами после изменения их числа
+ *
+ * Запускается при старте сервиса (booking.sharding.rebalance-on-startup) до приема запросов:
+ * пока строки номера не перенесены, проверка пересечений в новом шарде их не видит.
+ * Каждый шард просматривается по возрастанию id пачками; строки, чей шард по roomId
+ * изменился, записываются в новый шард (MERGE по id) и только затем удаляются из старого,
+ * поэтому прерванный перенос можно просто запустить повторно.
+ * Вместе с bookings переносятся строки представления user_bookings: они лежат в шарде своего бронирования.
+ */
+public class ShardRebalancer implements SmartLifecycle {
+
+    private final ShardDataSources dataSources;
+    private final BookingShards shards;
+    private final ShardingProperties properties;
+    private final Counter movedRows;
+    private volatile boolean running;
+
+    public ShardRebalancer(ShardDataSources dataSources, BookingShards shards, ShardingProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.dataSources = dataSources;
+        this.shards = shards;
+        this.properties = properties;
+        this.movedRows = Counter.builder("booking.shard.rebalanced.rows")
+                .description("Bookings moved to another shard by the rebalancer")
+                .register(meterRegistry);
+    }
+
+    public record ShardStats(int shard, boolean active, long bookings, long misplaced) {
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (properties.isRebalanceOnStartup()) {
+            rebalance();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Раньше веб-сервера: запросы приходят, когда строки уже в своих шардах
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Число бронирований и строк не в своем шарде по каждому настроенному шарду
+     */
+    public List<ShardStats> report() {
+        List<ShardStats> stats = new ArrayList<>();
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            long bookings = 0;
+            long misplaced = 0;
+            try (Connection conn = dataSources.get(shard).getConnection();
+                 ResultSet rs = conn.createStatement().executeQuery(
+                         "SELECT room_id, COUNT(*) FROM bookings GROUP BY room_id")) {
+                while (rs.next()) {
+                    long count = rs.getLong(2);
+                    bookings += count;
+                    if (shards.shardOf(rs.getLong(1)) != shard) {
+                        misplaced += count;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to inspect shard " + shard + ": " + e.getMessage(), e);
+            }
+            stats.add(new ShardStats(shard, shard < shards.shardCount(), bookings, misplaced));
+        }
+        return stats;
+    }
+
+    /**
+     * Перенести все строки в шарды по текущему числу активных шардов
+     *
+     * @return сколько строк перенесено
+     */
+    public long rebalance() {
+        System.out.println("🔀 Rebalancing bookings across " + shards.shardCount() + " of "
+                + dataSources.size() + " configured shards");
+        long total = 0;
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            try {
+                long moved = drain(shard, "bookings", "id");
+                drain(shard, "user_bookings", "booking_id");
+                movedRows.increment(moved);
+                total += moved;
+                System.out.println("   - shard " + shard + ": moved " + moved + " bookings");
+            } catch (SQLException e) {
+                throw new RuntimeException("Rebalancing of shard " + shard + " failed: " + e.getMessage(), e);
+            }
+        }
+        System.out.println("✅ Rebalancing finished, moved " + total + " bookings");
+        return total;
+    }
+
+    private long drain(int source, String table, String key) throws SQLException {
+        long moved = 0;
+        long lastId = 0;
+        int batchSize = properties.getRebalanceBatchSize();
+
+        try (Connection from = dataSources.get(source).getConnection();
+             PreparedStatement select = from.prepareStatement(
+                     "SELECT * FROM " + table + " WHERE " + key + " > ? ORDER BY " + key + " LIMIT ?")) {
+            while (true) {
+                select.setLong(1, lastId);
+                select.setInt(2, batchSize);
+
+                List<String> columns = new ArrayList<>();
+                Map<Integer, List<Object[]>> rowsByTarget = new TreeMap<>();
+                int rowsRead = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        columns.add(meta.getColumnName(i));
+                    }
+                    while (rs.next()) {
+                        rowsRead++;
+                        lastId = rs.getLong(key);
+                        int target = shards.shardOf(rs.getLong("ROOM_ID"));
+                        if (target == source) {
+                            continue;
+                        }
+                        Object[] row = new Object[columns.size()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        rowsByTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(row);
+                    }
+                }
+
+                for (Map.Entry<Integer, List<Object[]>> entry : rowsByTarget.entrySet()) {
+                    copy(entry.getKey(), table, key, columns, entry.getValue());
+                }
+                int idIndex = columns.indexOf(key.toUpperCase());
+                try (PreparedStatement delete = from.prepareStatement("DELETE FROM " + table + " WHERE " + key + " = ?")) {
+                    for (List<Object[]> rows : rowsByTarget.values()) {
+                        for (Object[] row : rows) {
+                            delete.setObject(1, row[idIndex]);
+                            delete.addBatch();
+                            moved++;
+                        }
+                    }
+                    delete.executeBatch();
+                }
+
+                if (rowsRead < batchSize) {
+                    break;
+                }
+            }
+        }
+        return moved;
+    }
+
+    private void copy(int target, String table, String key, List<String> columns, List<Object[]> rows)
+            throws SQLException {
+        String merge = "MERGE INTO " + table + " (" + String.join(", ", columns) + ") KEY (" + key + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        try (Connection to = dataSources.get(target).getConnection()) {
+            to.setAutoCommit(false);
+            try (PreparedStatement upsert = to.prepareStatement(merge)) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        upsert.setObject(i + 1, row[i]);
+                    }
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+                to.commit();
+            } catch (SQLException e) {
+                to.rollback();
+                throw e;
+            } finally {
+                to.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.hotel.booking.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Соединение базы текущего шарда потока (BookingShards.bind)
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BookingShards.currentShard();
+    }
+}
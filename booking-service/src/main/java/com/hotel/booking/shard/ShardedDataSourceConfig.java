@@ -0,0 +1,157 @@
+package com.hotel.booking.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Профиль sharded: бронирования распределены по нескольким базам по roomId
+ *
+ * Шард 0 - spring.datasource (там же пользователи, схему создает Hibernate или Flyway как обычно),
+ * шарды 1..N-1 - booking.sharding.shards, их схема накатывается миграциями db/migration.
+ * Не совместим с профилем replica: оба подменяют DataSource.
+ */
+@Configuration
+@Profile("sharded")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardedDataSourceConfig {
+
+    // id бронирований шарда k выдаются начиная с k << ID_RANGE_BITS: id уникальны во всех шардах
+    // и не меняются при переносе строки в другой шард
+    static final int ID_RANGE_BITS = 40;
+
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    // Те же миграции, что и у шарда 0 в профиле prod
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String[] migrationLocations;
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(DataSourceProperties dataSourceProperties, ShardingProperties properties) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        HikariDataSource main = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        main.setPoolName("shard-0");
+        dataSources.add(main);
+
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            int index = dataSources.size();
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + index);
+            dataSources.add(dataSource);
+            prepareShard(dataSource, index, migrationLocations);
+        }
+        return new ShardDataSources(dataSources);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BookingShards bookingShards(ShardDataSources dataSources, ShardingProperties properties) {
+        int active = properties.getActiveShards() != null ? properties.getActiveShards() : dataSources.size();
+        if (active < 1 || active > dataSources.size()) {
+            throw new RuntimeException("booking.sharding.active-shards must be between 1 and "
+                    + dataSources.size() + ", got " + active);
+        }
+        if (active == 1) {
+            return BookingShards.single();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        System.out.println("🧩 Bookings sharded by room across " + active + " databases");
+        return new BookingShards(active, Executors.newFixedThreadPool(active, runnable -> {
+            Thread thread = new Thread(runnable, "booking-shard-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Транзакция сервиса начинается раньше, чем становится известен шард (он зависит от roomId
+     * внутри метода), поэтому физическое соединение берется только при первом SQL запросе
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources dataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            targets.put(shard, dataSources.get(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(dataSources.get(0));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Иначе сессия open-in-view держала бы соединение первой транзакции запроса
+     * (и его шард) до конца запроса
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardDataSources dataSources, BookingShards bookingShards,
+                                           ShardingProperties properties, MeterRegistry meterRegistry) {
+        return new ShardRebalancer(dataSources, bookingShards, properties, meterRegistry);
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardRebalancer rebalancer) {
+        return new ShardsEndpoint(rebalancer);
+    }
+
+    private static void prepareShard(DataSource dataSource, int shard, String[] locations) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .load()
+                .migrate();
+
+        long rangeStart = (long) shard << ID_RANGE_BITS;
+        try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement()) {
+            long current;
+            try (ResultSet rs = statement.executeQuery("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                    "WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME = 'BOOKINGS_SEQ'")) {
+                if (!rs.next()) {
+                    throw new RuntimeException("Sequence bookings_seq not found in shard " + shard);
+                }
+                current = rs.getLong(1);
+            }
+            if (current < rangeStart) {
+                // Первое значение - верхняя граница первого блока pooled генератора
+                statement.execute("ALTER SEQUENCE bookings_seq RESTART WITH " + (rangeStart + ID_ALLOCATION_SIZE + 1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to prepare shard " + shard + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.hotel.booking.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки шардирования бронирований (профиль sharded)
+ */
+@Data
+@ConfigurationProperties(prefix = "booking.sharding")
+public class ShardingProperties {
+
+    // Шард 0 - spring.datasource (там же пользователи), здесь шарды 1..N-1
+    private List<Shard> shards = new ArrayList<>();
+
+    // Между скольких шардов распределяются бронирования; пусто - между всеми настроенными.
+    // При уменьшении числа шардов лишние остаются в списке, пока ShardRebalancer не перенесет с них строки
+    private Integer activeShards;
+
+    // Перенести строки в шарды по текущему числу шардов до приема запросов
+    private boolean rebalanceOnStartup = false;
+    private int rebalanceBatchSize = 500;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+    }
+}
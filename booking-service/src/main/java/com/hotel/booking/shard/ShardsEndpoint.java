@@ -0,0 +1,24 @@
+package com.hotel.booking.shard;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * /actuator/shards - число бронирований в каждом шарде и сколько из них ждут переноса
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardRebalancer rebalancer;
+
+    public ShardsEndpoint(ShardRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @ReadOperation
+    public List<ShardRebalancer.ShardStats> shards() {
+        return rebalancer.report();
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotel.booking.shard;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Без профиля sharded все бронирования в одной базе spring.datasource
+ */
+@Configuration
+@Profile("!sharded")
+public class SingleShardConfig {
+
+    @Bean
+    public BookingShards bookingShards() {
+        return BookingShards.single();
+    }
+}
@@ -0,0 +1,51 @@
+package com.hotel.booking.tracing;
+
+import com.hotel.common.tracing.Span;
+import com.hotel.common.tracing.SpanBuffer;
+import com.hotel.common.tracing.TraceContext;
+import feign.Capability;
+import feign.Client;
+
+import java.util.Collection;
+
+/**
+ * Клиентский span на каждый вызов Feign
+ *
+ * id span-а выставляет FeignRequestInterceptor в X-Parent-Span-Id, поэтому серверный span
+ * вызываемого сервиса становится дочерним именно для этого вызова (видны и повторы retry).
+ */
+public class TracingCapability implements Capability {
+
+    private static final String SERVICE = "booking-service";
+
+    private final SpanBuffer spanBuffer;
+
+    public TracingCapability(SpanBuffer spanBuffer) {
+        this.spanBuffer = spanBuffer;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            TraceContext context = TraceContext.current();
+            if (context == null) {
+                return client.execute(request, options);
+            }
+
+            long startEpochMs = System.currentTimeMillis();
+            long start = System.nanoTime();
+            String status = "error";
+            try {
+                feign.Response response = client.execute(request, options);
+                status = String.valueOf(response.status());
+                return response;
+            } finally {
+                Collection<String> spanIds = request.headers().get(TraceContext.PARENT_SPAN_ID_HEADER);
+                String spanId = spanIds != null && !spanIds.isEmpty() ? spanIds.iterator().next() : TraceContext.newId();
+                spanBuffer.record(new Span(context.traceId(), spanId, context.spanId(), SERVICE,
+                        "feign " + request.httpMethod() + " " + request.url(),
+                        startEpochMs, (System.nanoTime() - start) / 1000, status));
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.hotel.booking.waitlist;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Индекс интервалов [start, end] (включительно) для поиска заявок, помещающихся в освободившийся период
+ *
+ * Treap (дерево поиска по (start, id) с кучей по случайному приоритету), в каждом узле хранится
+ * интервал поддерева с наименьшим (end, id). Запрос "интервал целиком внутри [from, to]
+ * с наименьшим концом" - два split по границам start, ответ берется из корня средней части,
+ * затем части склеиваются обратно: ожидаемое время O(log n) на вставку, удаление и запрос.
+ *
+ * Не потокобезопасен, синхронизация на стороне вызывающего кода.
+ */
+public final class IntervalTreap {
+
+    public record Interval(long id, long start, long end) {
+    }
+
+    private static final class Node {
+        final Interval interval;
+        final int priority;
+        Node left;
+        Node right;
+        // Интервал поддерева с наименьшим (end, id)
+        Interval best;
+
+        Node(Interval interval) {
+            this.interval = interval;
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.best = interval;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(long id, long start, long end) {
+        Node node = new Node(new Interval(id, start, end));
+        Node[] parts = split(root, start, id);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    /**
+     * @return false если интервала с таким id и началом в индексе нет
+     */
+    public boolean remove(long id, long start) {
+        Node[] lower = split(root, start, id);
+        Node[] upper = split(lower[1], start, id + 1);
+        boolean removed = upper[0] != null;
+        if (removed) {
+            size--;
+        }
+        root = merge(lower[0], upper[1]);
+        return removed;
+    }
+
+    /**
+     * Интервал, целиком лежащий в [from, to], с наименьшим концом (при равенстве - с меньшим id)
+     *
+     * @return null если такого интервала нет
+     */
+    public Interval earliestEndingWithin(long from, long to) {
+        if (from > to) {
+            return null;
+        }
+        Node[] lower = split(root, from, Long.MIN_VALUE);
+        Node[] upper = split(lower[1], to, Long.MAX_VALUE);
+        Interval best = upper[0] != null ? upper[0].best : null;
+        root = merge(lower[0], merge(upper[0], upper[1]));
+        return best != null && best.end() <= to ? best : null;
+    }
+
+    // [0] - узлы с (start, id) < (start, id) границы, [1] - остальные
+    private static Node[] split(Node node, long start, long id) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (less(node.interval, start, id)) {
+            Node[] parts = split(node.right, start, id);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, id);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    // Все ключи left меньше всех ключей right
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        Interval best = node.interval;
+        if (node.left != null && endsEarlier(node.left.best, best)) {
+            best = node.left.best;
+        }
+        if (node.right != null && endsEarlier(node.right.best, best)) {
+            best = node.right.best;
+        }
+        node.best = best;
+    }
+
+    private static boolean less(Interval interval, long start, long id) {
+        return interval.start() < start || (interval.start() == start && interval.id() < id);
+    }
+
+    private static boolean endsEarlier(Interval a, Interval b) {
+        return a.end() < b.end() || (a.end() == b.end() && a.id() < b.id());
+    }
+}
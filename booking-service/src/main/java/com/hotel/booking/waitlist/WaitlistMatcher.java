@@ -0,0 +1,283 @@
+package com.hotel.booking.waitlist;
+
+import com.hotel.booking.client.HotelServiceClient;
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.RoomInfo;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.WaitlistEntry;
+import com.hotel.booking.events.StayReleasedEvent;
+import com.hotel.booking.repository.WaitlistEntryRepository;
+import com.hotel.booking.service.BookingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Передача освободившихся при отмене дат заявкам из листа ожидания
+ *
+ * Заявки в состоянии WAITING индексируются в памяти по корзинам (отель, тип номера),
+ * в каждой корзине - IntervalTreap по датам (epoch day). Номер отеля H типа T подходит
+ * заявкам корзин (H, T), (H, любой) и (любой, T). После отмены в окне освободившихся дат
+ * выбирается заявка, целиком в нем помещающаяся и заканчивающаяся раньше всех (жадный выбор
+ * по концу дает наибольшее число заселенных заявок), по ней создается бронирование
+ * обычной сагой, и поиск продолжается с дня после ее выезда.
+ *
+ * Индекс - ускоритель поиска, источник истины - таблица waitlist_entries: заявка захватывается
+ * в базе (WAITING -> MATCHING) перед сагой, поэтому при нескольких экземплярах сервиса одна
+ * заявка не исполняется дважды. Индекс перестраивается из базы при старте и раз в reload-interval;
+ * тогда же заявки, пробывшие в MATCHING дольше matching-timeout (экземпляр упал посреди саги,
+ * не прошел fulfill или возврат в WAITING), возвращаются в WAITING.
+ * Сопоставления выполняются по одному в потоке waitlist-matcher, вне потока отмены.
+ */
+@Component
+public class WaitlistMatcher implements DisposableBean {
+
+    static final String OUTCOME_FILLED = "filled";
+    static final String OUTCOME_NO_MATCH = "no-match";
+    static final String OUTCOME_FAILED = "failed";
+
+    private record BucketKey(Long hotelId, String roomType) {
+    }
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final BookingService bookingService;
+    private final HotelServiceClient hotelServiceClient;
+    private final MeterRegistry meterRegistry;
+    private final Duration matchingTimeout;
+    private final ExecutorService matcherThread;
+    private final Counter fulfilled;
+    private final Counter freedNights;
+    private final Counter filledNights;
+
+    // Индекс заявок; все обращения под synchronized (this)
+    private final Map<BucketKey, IntervalTreap> buckets = new HashMap<>();
+    private final Map<Long, WaitlistEntry> indexed = new HashMap<>();
+
+    // Отель и тип номера не меняются, повторные отмены не обращаются к hotel-service
+    private final Map<Long, RoomInfo> rooms = new ConcurrentHashMap<>();
+
+    public WaitlistMatcher(WaitlistEntryRepository waitlistEntryRepository,
+                           BookingService bookingService,
+                           HotelServiceClient hotelServiceClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${booking.waitlist.matching-timeout:PT10M}") Duration matchingTimeout) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.bookingService = bookingService;
+        this.hotelServiceClient = hotelServiceClient;
+        this.meterRegistry = meterRegistry;
+        this.matchingTimeout = matchingTimeout;
+        this.matcherThread = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "waitlist-matcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fulfilled = Counter.builder("booking.waitlist.fulfilled")
+                .description("Waitlist entries turned into bookings")
+                .register(meterRegistry);
+        this.freedNights = Counter.builder("booking.waitlist.freed.nights")
+                .description("Future nights released by cancellations")
+                .register(meterRegistry);
+        this.filledNights = Counter.builder("booking.waitlist.filled.nights")
+                .description("Released nights rebooked from the waitlist")
+                .register(meterRegistry);
+        Gauge.builder("booking.waitlist.waiting", this, WaitlistMatcher::waitingCount)
+                .description("Waitlist entries in the matching index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reload();
+    }
+
+    // Заявки, добавленные или отмененные другими экземплярами сервиса, зависшие и истекшие заявки
+    @Scheduled(initialDelayString = "${booking.waitlist.reload-interval:PT1M}",
+            fixedDelayString = "${booking.waitlist.reload-interval:PT1M}")
+    public void reload() {
+        int recovered = waitlistEntryRepository.recoverStale(LocalDateTime.now().minus(matchingTimeout));
+        int expired = waitlistEntryRepository.expire(LocalDate.now());
+        List<WaitlistEntry> waiting = waitlistEntryRepository.findByStatus(WaitlistEntry.WaitlistStatus.WAITING);
+        synchronized (this) {
+            buckets.clear();
+            indexed.clear();
+            waiting.forEach(this::index);
+        }
+        if (recovered > 0) {
+            System.out.println("⏳ Waitlist: " + recovered + " entries stuck in MATCHING returned to WAITING");
+        }
+        if (expired > 0) {
+            System.out.println("⏳ Waitlist: " + expired + " entries expired");
+        }
+        System.out.println("⏳ Waitlist index rebuilt: " + waiting.size() + " waiting entries");
+    }
+
+    public synchronized void index(WaitlistEntry entry) {
+        if (indexed.putIfAbsent(entry.getId(), entry) != null) {
+            return;
+        }
+        buckets.computeIfAbsent(keyOf(entry), k -> new IntervalTreap())
+                .insert(entry.getId(), entry.getStartDate().toEpochDay(), entry.getEndDate().toEpochDay());
+    }
+
+    public synchronized void unindex(WaitlistEntry entry) {
+        if (indexed.remove(entry.getId()) == null) {
+            return;
+        }
+        BucketKey key = keyOf(entry);
+        IntervalTreap treap = buckets.get(key);
+        treap.remove(entry.getId(), entry.getStartDate().toEpochDay());
+        if (treap.size() == 0) {
+            buckets.remove(key);
+        }
+    }
+
+    // Даты отмененного бронирования освобождены в hotel-service (StayReleaser) и уходят в лист ожидания
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStayReleased(StayReleasedEvent event) {
+        matcherThread.execute(() -> {
+            try {
+                match(event.roomId(), event.startDate(), event.endDate());
+            } catch (RuntimeException e) {
+                System.out.println("❌ Waitlist matching failed for room " + event.roomId() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    void match(Long roomId, LocalDate startDate, LocalDate endDate) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_NO_MATCH;
+        try {
+            // Прошедшие дни уже не продать
+            LocalDate from = startDate.isBefore(LocalDate.now()) ? LocalDate.now() : startDate;
+            if (from.isAfter(endDate)) {
+                return;
+            }
+            freedNights.increment(ChronoUnit.DAYS.between(from, endDate));
+
+            RoomInfo room;
+            try {
+                room = rooms.computeIfAbsent(roomId, hotelServiceClient::getRoomInfo);
+            } catch (RuntimeException e) {
+                outcome = OUTCOME_FAILED;
+                System.out.println("❌ Waitlist: room " + roomId + " info unavailable: " + e.getMessage());
+                return;
+            }
+
+            while (!from.isAfter(endDate)) {
+                Optional<WaitlistEntry> candidate = take(room, from, endDate);
+                if (candidate.isEmpty()) {
+                    return;
+                }
+                WaitlistEntry entry = candidate.get();
+
+                // Заявку уже отменил пользователь или захватил другой экземпляр сервиса
+                if (waitlistEntryRepository.claim(entry.getId(), LocalDateTime.now()) == 0) {
+                    continue;
+                }
+
+                Booking booking;
+                try {
+                    booking = bookingService.createBooking(requestFor(roomId, entry), entry.getUserId(), "waitlist");
+                } catch (RuntimeException e) {
+                    // Номер заняли раньше, чем до него дошла очередь: заявка ждет следующей отмены
+                    waitlistEntryRepository.unclaim(entry.getId());
+                    index(entry);
+                    outcome = OUTCOME_FAILED;
+                    System.out.println("❌ Waitlist entry " + entry.getId() + " not booked: " + e.getMessage());
+                    return;
+                }
+
+                waitlistEntryRepository.fulfill(entry.getId(), booking.getId());
+                fulfilled.increment();
+                filledNights.increment(ChronoUnit.DAYS.between(entry.getStartDate(), entry.getEndDate()));
+                outcome = OUTCOME_FILLED;
+                System.out.println("✅ Waitlist entry " + entry.getId() + " booked: booking " + booking.getId()
+                        + ", room " + roomId + ", user " + entry.getUserId());
+
+                // Даты заезда и выезда заняты включительно
+                from = entry.getEndDate().plusDays(1);
+            }
+        } finally {
+            sample.stop(Timer.builder("booking.waitlist.match")
+                    .description("Waitlist matching after a cancellation")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Подходящая номеру заявка, целиком внутри [from, to], с самым ранним выездом;
+     * найденная заявка удаляется из индекса
+     */
+    private synchronized Optional<WaitlistEntry> take(RoomInfo room, LocalDate from, LocalDate to) {
+        List<BucketKey> keys = new ArrayList<>(3);
+        keys.add(new BucketKey(room.getHotelId(), room.getType()));
+        keys.add(new BucketKey(room.getHotelId(), null));
+        if (room.getType() != null) {
+            keys.add(new BucketKey(null, room.getType()));
+        }
+
+        IntervalTreap.Interval best = null;
+        for (BucketKey key : keys) {
+            IntervalTreap treap = buckets.get(key);
+            if (treap == null) {
+                continue;
+            }
+            IntervalTreap.Interval found = treap.earliestEndingWithin(from.toEpochDay(), to.toEpochDay());
+            if (found != null && (best == null || found.end() < best.end()
+                    || (found.end() == best.end() && found.id() < best.id()))) {
+                best = found;
+            }
+        }
+        if (best == null) {
+            return Optional.empty();
+        }
+        WaitlistEntry entry = indexed.get(best.id());
+        unindex(entry);
+        return Optional.of(entry);
+    }
+
+    private static BookingRequest requestFor(Long roomId, WaitlistEntry entry) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setStartDate(entry.getStartDate());
+        request.setEndDate(entry.getEndDate());
+        request.setAutoSelect(false);
+        return request;
+    }
+
+    private static BucketKey keyOf(WaitlistEntry entry) {
+        return new BucketKey(entry.getHotelId(), entry.getRoomType());
+    }
+
+    private synchronized int waitingCount() {
+        return indexed.size();
+    }
+
+    @Override
+    public void destroy() {
+        matcherThread.shutdown();
+    }
+}
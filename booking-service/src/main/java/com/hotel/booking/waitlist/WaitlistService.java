@@ -0,0 +1,97 @@
+package com.hotel.booking.waitlist;
+
+import com.hotel.booking.dto.WaitlistRequest;
+import com.hotel.booking.entity.WaitlistEntry;
+import com.hotel.booking.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Заявки пользователей в лист ожидания (POST/GET/DELETE /api/waitlist)
+ *
+ * Заявки хранятся в шарде по умолчанию; новая заявка сразу попадает в индекс WaitlistMatcher.
+ */
+@Service
+public class WaitlistService {
+
+    // Как и для обычного бронирования, дней
+    private static final int MAX_WAITLIST_DAYS = 30;
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final WaitlistMatcher waitlistMatcher;
+    private final Counter joined;
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           WaitlistMatcher waitlistMatcher,
+                           MeterRegistry meterRegistry) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.waitlistMatcher = waitlistMatcher;
+        this.joined = Counter.builder("booking.waitlist.joined")
+                .description("Waitlist entries created")
+                .register(meterRegistry);
+    }
+
+    public WaitlistEntry join(WaitlistRequest request, Long userId) {
+        validateRequest(request);
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(userId);
+        entry.setHotelId(request.getHotelId());
+        entry.setRoomType(request.getRoomType() != null ? request.getRoomType().toUpperCase() : null);
+        entry.setStartDate(request.getStartDate());
+        entry.setEndDate(request.getEndDate());
+        entry.setStatus(WaitlistEntry.WaitlistStatus.WAITING);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+
+        waitlistMatcher.index(saved);
+        joined.increment();
+        System.out.println("⏳ Waitlist entry " + saved.getId() + " created for user " + userId
+                + ": hotel=" + saved.getHotelId() + ", type=" + saved.getRoomType()
+                + ", " + saved.getStartDate() + " to " + saved.getEndDate());
+        return saved;
+    }
+
+    public List<WaitlistEntry> getUserEntries(Long userId) {
+        return waitlistEntryRepository.findByUserIdOrderByIdDesc(userId);
+    }
+
+    public void leave(Long id, Long userId) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(id)
+                .filter(e -> e.getUserId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+
+        // Заявку, по которой уже идет бронирование, отменить нельзя: сага завершится сама
+        if (waitlistEntryRepository.transition(id, WaitlistEntry.WaitlistStatus.WAITING,
+                WaitlistEntry.WaitlistStatus.CANCELLED) == 0) {
+            throw new RuntimeException("Waitlist entry is already " + entry.getStatus());
+        }
+        waitlistMatcher.unindex(entry);
+        System.out.println("⏳ Waitlist entry " + id + " cancelled by user " + userId);
+    }
+
+    private void validateRequest(WaitlistRequest request) {
+        if (request.getHotelId() == null && (request.getRoomType() == null || request.getRoomType().isBlank())) {
+            throw new RuntimeException("Hotel ID or room type is required");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new RuntimeException("Start date and end date are required");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new RuntimeException("Start date cannot be after end date");
+        }
+        if (request.getStartDate().isBefore(LocalDate.now())) {
+            throw new RuntimeException("Start date cannot be in the past");
+        }
+        if (request.getStartDate().equals(request.getEndDate())) {
+            throw new RuntimeException("Start date and end date cannot be the same");
+        }
+        if (ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) > MAX_WAITLIST_DAYS) {
+            throw new RuntimeException("Waitlist entry cannot exceed " + MAX_WAITLIST_DAYS + " days");
+        }
+    }
+}
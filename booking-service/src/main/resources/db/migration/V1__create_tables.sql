@@ -0,0 +1,19 @@
+-- Схема booking-service (профиль prod, Hibernate только проверяет ее: ddl-auto=validate)
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255),
+    password   VARCHAR(255),
+    role       VARCHAR(255),
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE bookings (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT,
+    room_id    BIGINT,
+    start_date DATE,
+    end_date   DATE,
+    status     VARCHAR(32),
+    created_at TIMESTAMP(6)
+);
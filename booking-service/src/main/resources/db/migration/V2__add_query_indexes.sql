@@ -0,0 +1,8 @@
+-- Проверка пересечения бронирований номера: room_id = ? AND status IN (...) AND диапазон дат
+CREATE INDEX idx_bookings_room_status_dates ON bookings (room_id, status, start_date, end_date);
+
+-- Бронирования пользователя (GET /api/bookings)
+CREATE INDEX idx_bookings_user ON bookings (user_id);
+
+-- Аутентификация и регистрация по имени пользователя
+CREATE UNIQUE INDEX idx_users_username ON users (username);
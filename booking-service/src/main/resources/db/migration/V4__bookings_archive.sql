@@ -0,0 +1,15 @@
+-- Архив завершенных и отмененных бронирований: строки переносит BookingArchiver,
+-- id сохраняются, поэтому бронирование находится по тому же id и после переноса
+
+CREATE TABLE bookings_archive (
+    id          BIGINT NOT NULL PRIMARY KEY,
+    user_id     BIGINT,
+    room_id     BIGINT,
+    start_date  DATE,
+    end_date    DATE,
+    status      VARCHAR(32),
+    created_at  TIMESTAMP(6),
+    archived_at TIMESTAMP(6)
+);
+
+CREATE INDEX idx_bookings_archive_user ON bookings_archive (user_id);
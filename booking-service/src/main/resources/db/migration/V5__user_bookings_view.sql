@@ -0,0 +1,20 @@
+-- Представление бронирований пользователя для постраничного GET /api/bookings:
+-- узкие строки в порядке (user_id, start_date, booking_id), включая уже архивные бронирования
+
+CREATE TABLE user_bookings (
+    booking_id BIGINT NOT NULL PRIMARY KEY,
+    user_id    BIGINT,
+    room_id    BIGINT,
+    start_date DATE,
+    end_date   DATE,
+    status     VARCHAR(32),
+    archived   BOOLEAN NOT NULL
+);
+
+CREATE INDEX idx_user_bookings_user_start ON user_bookings (user_id, start_date, booking_id);
+
+INSERT INTO user_bookings (booking_id, user_id, room_id, start_date, end_date, status, archived)
+SELECT id, user_id, room_id, start_date, end_date, status, FALSE FROM bookings;
+
+INSERT INTO user_bookings (booking_id, user_id, room_id, start_date, end_date, status, archived)
+SELECT id, user_id, room_id, start_date, end_date, status, TRUE FROM bookings_archive;
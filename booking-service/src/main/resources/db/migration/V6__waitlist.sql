@@ -0,0 +1,17 @@
+-- Лист ожидания: заявки на освобождающиеся номера отеля и/или типа (WaitlistMatcher)
+
+CREATE TABLE waitlist_entries (
+    id         BIGINT NOT NULL PRIMARY KEY,
+    user_id    BIGINT,
+    hotel_id   BIGINT,
+    room_type  VARCHAR(255),
+    start_date DATE,
+    end_date   DATE,
+    status     VARCHAR(32),
+    booking_id BIGINT,
+    created_at TIMESTAMP(6)
+);
+
+CREATE INDEX idx_waitlist_entries_user ON waitlist_entries (user_id);
+
+CREATE SEQUENCE waitlist_entries_seq START WITH 1 INCREMENT BY 50;
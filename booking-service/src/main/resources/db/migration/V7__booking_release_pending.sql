@@ -0,0 +1,6 @@
+-- Отмененное бронирование, даты которого еще не освобождены в hotel-service:
+-- флаг ставится в транзакции отмены и снимается StayReleaser после успешного release-stay
+
+ALTER TABLE bookings ADD COLUMN release_pending BOOLEAN DEFAULT FALSE NOT NULL;
+
+CREATE INDEX idx_bookings_release_pending ON bookings (release_pending);
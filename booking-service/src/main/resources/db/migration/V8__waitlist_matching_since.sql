@@ -0,0 +1,4 @@
+-- Момент захвата заявки под сагу (WAITING -> MATCHING): зависшие в MATCHING заявки
+-- WaitlistMatcher возвращает в WAITING по истечении booking.waitlist.matching-timeout
+
+ALTER TABLE waitlist_entries ADD COLUMN matching_since TIMESTAMP(6);
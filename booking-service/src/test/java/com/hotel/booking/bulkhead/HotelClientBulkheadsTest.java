@@ -0,0 +1,70 @@
+package com.hotel.booking.bulkhead;
+
+import com.hotel.common.concurrency.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelClientBulkheadsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private HotelClientBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        BulkheadProperties.Limits recommend = new BulkheadProperties.Limits();
+        recommend.setInitialLimit(2);
+        recommend.setMinLimit(1);
+        recommend.setMaxLimit(4);
+        properties.getMethods().put("getRecommendedRooms", recommend);
+
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheads = new HotelClientBulkheads(properties, meterRegistry);
+    }
+
+    @Test
+    void testFullBulkheadDoesNotAffectOtherMethods() {
+        bulkheads.acquire("getRecommendedRooms");
+        bulkheads.acquire("getRecommendedRooms");
+
+        assertThrows(BulkheadFullException.class, () -> bulkheads.acquire("getRecommendedRooms"));
+        assertDoesNotThrow(() -> bulkheads.acquire("confirmAvailability"));
+        assertEquals(1.0, meterRegistry.counter("hotel.client.bulkhead.rejected", "method", "getRecommendedRooms").count());
+    }
+
+    @Test
+    void testMetricsRegisteredForAllClientMethods() {
+        assertNotNull(meterRegistry.find("hotel.client.bulkhead.limit").tag("method", "confirmAvailability").gauge());
+        assertNotNull(meterRegistry.find("hotel.client.bulkhead.saturation").tag("method", "releaseRoom").gauge());
+        assertEquals(20, bulkheads.limiter("getRoomInfo").getLimit());
+    }
+
+    @Test
+    void testLimitShrinksOnFailuresAndStaysAboveMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onComplete(1_000_000, true);
+        }
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 100);
+        for (int round = 0; round < 50; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onComplete(1_000_000, false);
+            }
+        }
+        assertTrue(limiter.getLimit() > 10);
+    }
+}
@@ -0,0 +1,160 @@
+package com.hotel.booking.events;
+
+import com.hotel.booking.entity.Booking;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class BookingEventBusTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingEventBus bus;
+    private MockMvc mockMvc;
+
+    // Поток событий без аутентификации: проверяется только доставка
+    @RestController
+    static class StreamController {
+
+        private final BookingEventBus bus;
+
+        StreamController(BookingEventBus bus) {
+            this.bus = bus;
+        }
+
+        @GetMapping("/events/{userId}")
+        SseEmitter events(@PathVariable Long userId) {
+            return bus.subscribe(userId);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bus = new BookingEventBus(meterRegistry, 1);
+        ReflectionTestUtils.setField(bus, "bufferSize", 2);
+        ReflectionTestUtils.setField(bus, "maxSubscribers", 100);
+        ReflectionTestUtils.setField(bus, "maxSubscribersPerUser", 5);
+        ReflectionTestUtils.setField(bus, "timeout", Duration.ofMinutes(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(bus)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.destroy();
+    }
+
+    private MvcResult open(long userId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/events/{userId}", userId)).andReturn();
+        assertTrue(result.getRequest().isAsyncStarted());
+        return result;
+    }
+
+    private void publish(long bookingId, long userId) {
+        bus.onStatusChanged(new BookingStatusChangedEvent(bookingId, userId, 7L, LocalDate.now(),
+                LocalDate.now().plusDays(2), Booking.BookingStatus.CONFIRMED, LocalDateTime.now()));
+    }
+
+    // События пишут потоки booking-events-N, поэтому ответ дочитывается с ожиданием
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected)) {
+            assertTrue(System.nanoTime() < deadline, "no '" + expected + "' in " + content);
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("booking.events.subscribers").gauge().value();
+    }
+
+    @Test
+    void eventIsDeliveredToEveryStreamOfTheUser() throws Exception {
+        MvcResult first = open(1);
+        MvcResult second = open(1);
+        MvcResult otherUser = open(2);
+        assertEquals(3, subscribers());
+
+        publish(100, 1);
+
+        assertTrue(awaitContent(first, "\"bookingId\":100").contains("event:booking-status"));
+        assertTrue(awaitContent(second, "\"bookingId\":100").contains("event:booking-status"));
+        Thread.sleep(50);
+        assertEquals("", otherUser.getResponse().getContentAsString());
+        assertEquals(2, meterRegistry.get("booking.events.published").counter().count());
+    }
+
+    @Test
+    void closedStreamIsRemoved() throws Exception {
+        MvcResult closing = open(1);
+        MvcResult staying = open(1);
+
+        // Клиент закрыл соединение: контейнер завершает асинхронный запрос
+        ((MockAsyncContext) closing.getRequest().getAsyncContext()).complete();
+        assertEquals(1, subscribers());
+
+        publish(100, 1);
+
+        awaitContent(staying, "\"bookingId\":100");
+        assertEquals(1, meterRegistry.get("booking.events.published").counter().count());
+        assertEquals("", closing.getResponse().getContentAsString());
+
+        ((MockAsyncContext) staying.getRequest().getAsyncContext()).complete();
+        assertEquals(0, subscribers());
+        publish(101, 1);
+        assertEquals(1, meterRegistry.get("booking.events.published").counter().count());
+    }
+
+    @Test
+    void slowSubscriberGetsResyncInsteadOfDroppedEvents() throws Exception {
+        MvcResult slow = open(1);
+
+        // Единственный поток отправки занят - клиент не успевает читать
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService senders = (ExecutorService) ReflectionTestUtils.getField(bus, "senders");
+        senders.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        for (long bookingId = 101; bookingId <= 105; bookingId++) {
+            publish(bookingId, 1);
+        }
+        assertEquals(3, meterRegistry.get("booking.events.dropped").counter().count());
+
+        release.countDown();
+        String content = awaitContent(slow, "\"bookingId\":105");
+
+        // Сначала resync, затем только последние bufferSize событий
+        assertTrue(content.contains("event:resync"), content);
+        assertTrue(content.contains("\"bookingId\":104"), content);
+        assertTrue(content.indexOf("event:resync") < content.indexOf("\"bookingId\":104"));
+        for (long droppedId = 101; droppedId <= 103; droppedId++) {
+            assertFalse(content.contains("\"bookingId\":" + droppedId), content);
+        }
+    }
+}
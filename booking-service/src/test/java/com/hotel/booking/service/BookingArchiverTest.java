@@ -0,0 +1,156 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.ArchivedBooking;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.UserBooking;
+import com.hotel.booking.repository.ArchivedBookingRepository;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.UserBookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Пауза после пачки (9999 x время пачки) всегда длиннее max-run-time: каждый проход переносит одну пачку
+@DataJpaTest(properties = {
+        "booking.archive.enabled=false",
+        "booking.archive.batch-size=2",
+        "booking.archive.max-duty-cycle=0.0001",
+        "booking.archive.max-run-time=PT0.2S",
+        "spring.jpa.show-sql=false"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingArchiverTest {
+
+    @SpringBootConfiguration
+    @EntityScan("com.hotel.booking.entity")
+    @EnableJpaRepositories("com.hotel.booking.repository")
+    @Import({BookingArchiver.class, UserBookingView.class, BookingPageCache.class})
+    static class Config {
+
+        @Bean
+        BookingShards bookingShards() {
+            return BookingShards.single();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private BookingArchiver archiver;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private UserBookingRepository userBookingRepository;
+
+    @Autowired
+    private UserBookingView userBookingView;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void clean() {
+        bookingRepository.deleteAll();
+        archivedBookingRepository.deleteAll();
+        userBookingRepository.deleteAll();
+    }
+
+    private Booking booking(long roomId, LocalDate start, LocalDate end, Booking.BookingStatus status, boolean releasePending) {
+        Booking booking = new Booking();
+        booking.setUserId(1L);
+        booking.setRoomId(roomId);
+        booking.setStartDate(start);
+        booking.setEndDate(end);
+        booking.setStatus(status);
+        booking.setReleasePending(releasePending);
+        Booking saved = bookingRepository.save(booking);
+        userBookingView.record(saved);
+        return saved;
+    }
+
+    @Test
+    void movesFinishedAndCancelledBookingsAcrossPasses() {
+        Booking finished1 = booking(1, today.minusDays(10), today.minusDays(5), Booking.BookingStatus.CONFIRMED, false);
+        Booking finished2 = booking(2, today.minusDays(8), today.minusDays(4), Booking.BookingStatus.CONFIRMED, false);
+        Booking unreleased = booking(3, today.plusDays(5), today.plusDays(7), Booking.BookingStatus.CANCELLED, true);
+        Booking finished3 = booking(4, today.minusDays(3), today.minusDays(1), Booking.BookingStatus.CONFIRMED, false);
+        Booking upcoming = booking(5, today.plusDays(1), today.plusDays(3), Booking.BookingStatus.CONFIRMED, false);
+        Booking cancelled1 = booking(6, today.plusDays(2), today.plusDays(4), Booking.BookingStatus.CANCELLED, false);
+        Booking cancelled2 = booking(7, today.plusDays(9), today.plusDays(12), Booking.BookingStatus.CANCELLED, false);
+
+        long started = System.nanoTime();
+        long first = archiver.archive();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Одна пачка за проход, пауза обрезана по max-run-time
+        assertEquals(2, first);
+        assertTrue(elapsedMillis < 2_000, "pass took " + elapsedMillis + " ms");
+
+        // Следующие проходы продолжают с курсора; проход без строк сбрасывает курсор
+        long total = first;
+        int passes = 1;
+        long moved;
+        while ((moved = archiver.archive()) > 0) {
+            total += moved;
+            assertTrue(++passes < 10);
+        }
+        assertEquals(5, total);
+        assertEquals(3, passes);
+
+        assertEquals(
+                Set.of(unreleased.getId(), upcoming.getId()),
+                bookingRepository.findAll().stream().map(Booking::getId).collect(Collectors.toSet()));
+
+        Map<Long, ArchivedBooking> archived = archivedBookingRepository.findAll().stream()
+                .collect(Collectors.toMap(ArchivedBooking::getId, Function.identity()));
+        assertEquals(5, archived.size());
+        for (Booking finished : new Booking[]{finished1, finished2, finished3}) {
+            assertEquals(Booking.BookingStatus.COMPLETED, archived.get(finished.getId()).getStatus());
+            assertEquals(finished.getStartDate(), archived.get(finished.getId()).getStartDate());
+            assertNotNull(archived.get(finished.getId()).getArchivedAt());
+        }
+        assertEquals(Booking.BookingStatus.CANCELLED, archived.get(cancelled1.getId()).getStatus());
+        assertEquals(Booking.BookingStatus.CANCELLED, archived.get(cancelled2.getId()).getStatus());
+
+        Map<Long, UserBooking> view = userBookingRepository.findAll().stream()
+                .collect(Collectors.toMap(UserBooking::getBookingId, Function.identity()));
+        assertTrue(view.get(finished1.getId()).isArchived());
+        assertEquals(Booking.BookingStatus.COMPLETED, view.get(finished1.getId()).getStatus());
+        assertTrue(view.get(cancelled2.getId()).isArchived());
+        assertFalse(view.get(upcoming.getId()).isArchived());
+        assertFalse(view.get(unreleased.getId()).isArchived());
+
+        // Даты освобождены: строка с id меньше прежнего курсора уходит при следующем проходе
+        unreleased.setReleasePending(false);
+        bookingRepository.save(unreleased);
+        assertEquals(1, archiver.archive());
+        assertEquals(Booking.BookingStatus.CANCELLED, archivedBookingRepository.findById(unreleased.getId())
+                .orElseThrow().getStatus());
+        assertEquals(0, archiver.archive());
+    }
+}
@@ -0,0 +1,100 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingPageCacheTest {
+
+    private static final Long USER = 1L;
+    private static final String KEY = "first";
+
+    private final BookingPageCache cache = new BookingPageCache(new SimpleMeterRegistry());
+
+    BookingPageCacheTest() {
+        ReflectionTestUtils.setField(cache, "maxUsers", 100);
+        ReflectionTestUtils.setField(cache, "pagesPerUser", 4);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+    }
+
+    // Номер версии данных в курсоре: по нему видно, из какого чтения страница
+    private static BookingPage page(long version) {
+        return new BookingPage(List.of(), String.valueOf(version));
+    }
+
+    @Test
+    void pageReadBeforeEvictionIsNotCached() {
+        long generation = cache.generation(USER);
+        // Страница прочитана, но до put пришел сброс
+        cache.evict(USER);
+        cache.put(USER, generation, KEY, page(1));
+        assertNull(cache.get(USER, KEY));
+
+        // Новый читатель после сброса получил новое поколение, старое чтение его не перезаписывает
+        long stale = cache.generation(USER);
+        cache.evict(USER);
+        long fresh = cache.generation(USER);
+        assertNotEquals(stale, fresh);
+        cache.put(USER, fresh, KEY, page(2));
+        cache.put(USER, stale, KEY, page(1));
+        assertEquals("2", cache.get(USER, KEY).getNextCursor());
+    }
+
+    @Test
+    void evictionInsideTransactionWaitsForCommit() {
+        cache.put(USER, cache.generation(USER), KEY, page(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(USER);
+            // До commit другие запросы не должны заново закэшировать незафиксированные данные
+            assertNotNull(cache.get(USER, KEY));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNull(cache.get(USER, KEY));
+    }
+
+    @Test
+    void concurrentEvictionNeverLeavesStalePage() throws InterruptedException {
+        AtomicLong version = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // Читатели: поколение, затем "чтение из базы" и put
+        Runnable reader = () -> {
+            while (writing.get()) {
+                long generation = cache.generation(USER);
+                long read = version.get();
+                cache.put(USER, generation, KEY, page(read));
+            }
+        };
+        List<Thread> readers = List.of(new Thread(reader), new Thread(reader), new Thread(reader));
+        readers.forEach(Thread::start);
+
+        // Писатель: изменение "в базе", затем сброс
+        for (int i = 0; i < 20_000; i++) {
+            version.incrementAndGet();
+            cache.evict(USER);
+        }
+        writing.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        BookingPage cached = cache.get(USER, KEY);
+        if (cached != null) {
+            assertEquals(String.valueOf(version.get()), cached.getNextCursor());
+        }
+    }
+}
@@ -3,14 +3,21 @@ package com.hotel.booking.service;
 import com.hotel.booking.client.HotelServiceClient;
 import com.hotel.booking.dto.BookingRequest;
 import com.hotel.booking.entity.Booking;
+import com.hotel.booking.events.BookingStatusChangedEvent;
+import com.hotel.booking.repository.ArchivedBookingRepository;
 import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -22,9 +29,32 @@ class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
     @Mock
     private HotelServiceClient hotelServiceClient;
 
+    @Mock
+    private UserBookingView userBookingView;
+
+    @Mock
+    private BookingPageCache bookingPageCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StayReleaser stayReleaser;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry);
+
+    @Spy
+    private BookingShards bookingShards = BookingShards.single();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -37,7 +67,7 @@ class BookingServiceTest {
 
         when(hotelServiceClient.confirmAvailability(anyLong(), any(), any(), anyString()))
                 .thenReturn(true);
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> {
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(inv -> {
             Booking booking = inv.getArgument(0);
             booking.setId(1L);
             return booking;
@@ -48,6 +78,12 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(Booking.BookingStatus.CONFIRMED, result.getStatus());
         verify(hotelServiceClient).incrementTimesBooked(1L);
+        // Одна запись бронирования, сразу в итоговом статусе
+        verify(bookingRepository).saveAndFlush(any(Booking.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        // Строка представления user_bookings пишется в той же транзакции
+        verify(userBookingView).record(result);
+        verify(eventPublisher).publishEvent(any(BookingStatusChangedEvent.class));
     }
 
     @Test
@@ -59,14 +95,107 @@ class BookingServiceTest {
 
         when(hotelServiceClient.confirmAvailability(anyLong(), any(), any(), anyString()))
                 .thenReturn(false);
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> {
-            Booking booking = inv.getArgument(0);
-            booking.setId(1L);
-            return booking;
-        });
 
         assertThrows(RuntimeException.class, () -> {
             bookingService.createBooking(request, 1L, "testuser");
         });
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(userBookingView, never()).record(any(Booking.class));
+    }
+
+    @Test
+    void testCreateBooking_RecordsStepTimers() {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setStartDate(LocalDate.now().plusDays(1));
+        request.setEndDate(LocalDate.now().plusDays(3));
+
+        when(hotelServiceClient.confirmAvailability(anyLong(), any(), any(), anyString()))
+                .thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking(request, 1L, "testuser"));
+
+        assertEquals(1, meterRegistry.get("booking.saga.step")
+                .tags("step", BookingMetrics.STEP_VALIDATION, "outcome", BookingMetrics.OUTCOME_SUCCESS).timer().count());
+        assertEquals(1, meterRegistry.get("booking.saga.step")
+                .tags("step", BookingMetrics.STEP_CONFIRM_AVAILABILITY, "outcome", BookingMetrics.OUTCOME_CONFLICT).timer().count());
+        assertEquals(1, meterRegistry.get("booking.saga.step")
+                .tags("step", BookingMetrics.STEP_COMPENSATE, "outcome", BookingMetrics.OUTCOME_SUCCESS).timer().count());
+    }
+
+    @Test
+    void testCreateBooking_ConflictBypassesFallback() {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setStartDate(LocalDate.now().plusDays(1));
+        request.setEndDate(LocalDate.now().plusDays(3));
+
+        when(hotelServiceClient.confirmAvailability(anyLong(), any(), any(), anyString()))
+                .thenReturn(false);
+
+        BookingRejectedException rejected = assertThrows(BookingRejectedException.class,
+                () -> bookingService.createBooking(request, 1L, "testuser"));
+        assertEquals(BookingMetrics.OUTCOME_CONFLICT, rejected.getOutcome());
+        // Fallback пропускает отказ как есть: исход conflict, а не fallback
+        assertSame(rejected, assertThrows(BookingRejectedException.class,
+                () -> bookingService.fallbackCreateBooking(request, 1L, "testuser", rejected)));
+    }
+
+    @Test
+    void testCreateBooking_InvalidRequestBypassesFallback() {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setStartDate(LocalDate.now().plusDays(3));
+        request.setEndDate(LocalDate.now().plusDays(1));
+
+        BookingRejectedException rejected = assertThrows(BookingRejectedException.class,
+                () -> bookingService.createBooking(request, 1L, "testuser"));
+
+        assertEquals(BookingMetrics.OUTCOME_INVALID, rejected.getOutcome());
+        verify(hotelServiceClient, never()).confirmAvailability(anyLong(), any(), any(), anyString());
+    }
+
+    @Test
+    void testCreateBooking_HotelFailureGoesToFallbackWithCause() {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setStartDate(LocalDate.now().plusDays(1));
+        request.setEndDate(LocalDate.now().plusDays(3));
+
+        IllegalStateException failure = new IllegalStateException("connection refused");
+        when(hotelServiceClient.confirmAvailability(anyLong(), any(), any(), anyString()))
+                .thenThrow(failure);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(request, 1L, "testuser"));
+        assertFalse(thrown instanceof BookingRejectedException);
+        assertSame(failure, thrown.getCause());
+
+        RuntimeException fallback = assertThrows(RuntimeException.class,
+                () -> bookingService.fallbackCreateBooking(request, 1L, "testuser", thrown));
+        assertEquals("Service temporarily unavailable", fallback.getMessage());
+        assertSame(failure, fallback.getCause().getCause());
+    }
+
+    @Test
+    void testCancelBooking_ReleasesStayAfterCommit() {
+        Booking booking = new Booking();
+        booking.setId(7L);
+        booking.setUserId(1L);
+        booking.setRoomId(3L);
+        booking.setStartDate(LocalDate.now().plusDays(1));
+        booking.setEndDate(LocalDate.now().plusDays(3));
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        when(bookingRepository.findById(7L)).thenReturn(Optional.of(booking));
+
+        bookingService.cancelBooking(7L, 1L);
+
+        assertEquals(Booking.BookingStatus.CANCELLED, booking.getStatus());
+        // Флаг пишется вместе с отменой; hotel-service вызывается только после commit
+        assertTrue(booking.isReleasePending());
+        verify(bookingRepository).save(booking);
+        verify(stayReleaser).releaseAfterCommit(booking);
+        verify(hotelServiceClient, never()).confirmAvailability(anyLong(), any(), any(), anyString());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.client.HotelServiceClient;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.events.StayReleasedEvent;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StayReleaserTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final HotelServiceClient hotelServiceClient = mock(HotelServiceClient.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StayReleaser releaser;
+
+    @BeforeEach
+    void setUp() {
+        TransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        releaser = new StayReleaser(bookingRepository, hotelServiceClient, BookingShards.single(),
+                transactionManager, eventPublisher, meterRegistry, 100);
+    }
+
+    private static Booking cancelled() {
+        Booking booking = new Booking();
+        booking.setId(7L);
+        booking.setRoomId(3L);
+        booking.setStartDate(LocalDate.of(2030, 1, 10));
+        booking.setEndDate(LocalDate.of(2030, 1, 12));
+        booking.setStatus(Booking.BookingStatus.CANCELLED);
+        booking.setReleasePending(true);
+        return booking;
+    }
+
+    @Test
+    void releasesAndClearsFlag() {
+        Booking booking = cancelled();
+        when(bookingRepository.lockReleasePending(7L)).thenReturn(Optional.of(booking));
+
+        assertTrue(releaser.release(0, 7L));
+
+        verify(hotelServiceClient).releaseStay(3L, booking.getStartDate(), booking.getEndDate());
+        assertFalse(booking.isReleasePending());
+        verify(eventPublisher).publishEvent(new StayReleasedEvent(7L, 3L, booking.getStartDate(), booking.getEndDate()));
+        verify(transactionManager).commit(any());
+        assertEquals(1, meterRegistry.get("booking.release.released").counter().count());
+    }
+
+    @Test
+    void failedReleaseKeepsFlagAndIsRetried() {
+        Booking booking = cancelled();
+        when(bookingRepository.lockReleasePending(7L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findReleasePendingIds(any())).thenReturn(List.of(7L));
+        doThrow(new RuntimeException("hotel-service unavailable"))
+                .doNothing()
+                .when(hotelServiceClient).releaseStay(anyLong(), any(), any());
+
+        assertFalse(releaser.release(0, 7L));
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher, never()).publishEvent(any());
+        assertEquals(1, meterRegistry.get("booking.release.failed").counter().count());
+
+        assertTrue(booking.isReleasePending());
+
+        // Повтор находит бронирование по флагу и освобождает даты
+        releaser.releasePending();
+        assertFalse(booking.isReleasePending());
+        assertEquals(0, meterRegistry.get("booking.release.pending").gauge().value());
+        verify(hotelServiceClient, times(2)).releaseStay(anyLong(), any(), any());
+    }
+
+    @Test
+    void alreadyReleasedIsNotReleasedTwice() {
+        when(bookingRepository.lockReleasePending(7L)).thenReturn(Optional.empty());
+
+        assertTrue(releaser.release(0, 7L));
+
+        verifyNoInteractions(hotelServiceClient);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,129 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingPage;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.UserBooking;
+import com.hotel.booking.repository.UserBookingRepository;
+import com.hotel.booking.shard.BookingShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBookingViewTest {
+
+    @SpringBootConfiguration
+    @EntityScan("com.hotel.booking.entity")
+    @EnableJpaRepositories(basePackageClasses = UserBookingRepository.class)
+    @Import({UserBookingView.class, BookingPageCache.class})
+    static class Config {
+
+        @Bean
+        BookingShards bookingShards() {
+            return BookingShards.single();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final Set<Booking.BookingStatus> ALL = EnumSet.allOf(Booking.BookingStatus.class);
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 1);
+
+    @Autowired
+    private UserBookingView view;
+
+    @Autowired
+    private UserBookingRepository userBookingRepository;
+
+    @BeforeEach
+    void clean() {
+        userBookingRepository.deleteAll();
+    }
+
+    private void record(long id, long userId, LocalDate start) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUserId(userId);
+        booking.setRoomId(1L);
+        booking.setStartDate(start);
+        booking.setEndDate(start.plusDays(2));
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        view.record(booking);
+    }
+
+    private List<Long> readAll(long userId, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            BookingPage page = view.loadPage(userId, cursor, limit, ALL, null, null, true);
+            assertTrue(page.getItems().size() <= limit);
+            page.getItems().stream().map(UserBooking::getBookingId).forEach(ids::add);
+            cursor = page.getNextCursor();
+            assertTrue(++pages < 20);
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void pagesThroughEqualStartDatesByBookingId() {
+        // Четыре заезда в один день: граница страницы проходит внутри одной даты
+        record(3, 1, DAY);
+        record(5, 1, DAY);
+        record(1, 1, DAY);
+        record(6, 1, DAY);
+        record(2, 1, DAY.minusDays(1));
+        record(7, 1, DAY.plusDays(2));
+        record(4, 1, DAY.plusDays(2));
+        record(8, 2, DAY);
+
+        List<Long> expected = List.of(2L, 1L, 3L, 5L, 6L, 4L, 7L);
+        for (int limit = 1; limit <= 8; limit++) {
+            assertEquals(expected, readAll(1, limit), "limit " + limit);
+        }
+
+        // Страница ровно до последней строки - без курсора
+        assertNull(view.loadPage(1L, null, expected.size(), ALL, null, null, true).getNextCursor());
+    }
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        UserBookingView.Cursor cursor = new UserBookingView.Cursor(DAY, 42L);
+        assertEquals(cursor, UserBookingView.Cursor.decode(cursor.encode()));
+
+        for (String invalid : List.of("", "not base64!", encode("2030-03-01"), encode("2030-13-01_5"),
+                encode("2030-03-01_x"), encode("_5"))) {
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> view.loadPage(1L, invalid, 10, ALL, null, null, true), invalid);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package com.hotel.booking.shard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JumpConsistentHashTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void testSingleBucketTakesAllKeys() {
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(0, JumpConsistentHash.bucket(key, 1));
+        }
+    }
+
+    @Test
+    void testKeysAreSpreadEvenly() {
+        int buckets = 4;
+        int[] counts = new int[buckets];
+        for (long key = 1; key <= KEYS; key++) {
+            counts[JumpConsistentHash.bucket(key, buckets)]++;
+        }
+        for (int count : counts) {
+            assertEquals(KEYS / buckets, count, KEYS / buckets * 0.05);
+        }
+    }
+
+    @Test
+    void testAddingBucketMovesKeysOnlyToNewBucket() {
+        int moved = 0;
+        for (long key = 1; key <= KEYS; key++) {
+            int before = JumpConsistentHash.bucket(key, 3);
+            int after = JumpConsistentHash.bucket(key, 4);
+            if (before != after) {
+                assertEquals(3, after);
+                moved++;
+            }
+        }
+        // Переезжает примерно четверть ключей
+        assertEquals(KEYS / 4, moved, KEYS / 4 * 0.05);
+    }
+}
@@ -0,0 +1,188 @@
+package com.hotel.booking.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRebalancerTest {
+
+    private static final int BOOKINGS = 200;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final BookingShards shards = new BookingShards(2, executor);
+    private FailingDataSource shard0;
+    private HikariDataSource shard1;
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String name = "rebalance_" + System.nanoTime();
+        shard0 = new FailingDataSource();
+        shard0.setJdbcUrl("jdbc:h2:mem:" + name + "_0;DB_CLOSE_DELAY=-1");
+        shard1 = new HikariDataSource();
+        shard1.setJdbcUrl("jdbc:h2:mem:" + name + "_1;DB_CLOSE_DELAY=-1");
+        for (HikariDataSource dataSource : List.of(shard0, shard1)) {
+            try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement()) {
+                statement.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, user_id BIGINT, room_id BIGINT, "
+                        + "start_date DATE, end_date DATE, status VARCHAR(20))");
+                statement.execute("CREATE TABLE user_bookings (booking_id BIGINT PRIMARY KEY, user_id BIGINT, "
+                        + "room_id BIGINT, start_date DATE, end_date DATE, status VARCHAR(20), archived BOOLEAN)");
+            }
+        }
+
+        ShardingProperties properties = new ShardingProperties();
+        properties.setRebalanceBatchSize(7);
+        rebalancer = new ShardRebalancer(new ShardDataSources(List.of(shard0, shard1)), shards, properties,
+                new SimpleMeterRegistry());
+
+        // Было шардом до добавления второго: все строки в шарде 0
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        try (Connection conn = shard0.getConnection();
+             PreparedStatement booking = conn.prepareStatement("INSERT INTO bookings VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement view = conn.prepareStatement("INSERT INTO user_bookings VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= BOOKINGS; id++) {
+                long roomId = id % 37;
+                Date from = Date.valueOf(start.plusDays(id));
+                Date to = Date.valueOf(start.plusDays(id + 2));
+                booking.setLong(1, id);
+                booking.setLong(2, id % 5);
+                booking.setLong(3, roomId);
+                booking.setDate(4, from);
+                booking.setDate(5, to);
+                booking.setString(6, "CONFIRMED");
+                booking.addBatch();
+                view.setLong(1, id);
+                view.setLong(2, id % 5);
+                view.setLong(3, roomId);
+                view.setDate(4, from);
+                view.setDate(5, to);
+                view.setString(6, "CONFIRMED");
+                view.setBoolean(7, false);
+                view.addBatch();
+            }
+            booking.executeBatch();
+            view.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        shard0.close();
+        shard1.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void movesRowsToTheirShards() throws SQLException {
+        long moved = rebalancer.rebalance();
+
+        assertPlacedExactlyOnce("bookings", "id");
+        assertPlacedExactlyOnce("user_bookings", "booking_id");
+        assertEquals(rows(shard1, "bookings", "id").size(), moved);
+        assertTrue(moved > 0 && moved < BOOKINGS);
+        assertEquals(0, rebalancer.rebalance());
+        rebalancer.report().forEach(stats -> assertEquals(0, stats.misplaced()));
+    }
+
+    @Test
+    void interruptedRebalanceCanBeRepeated() throws SQLException {
+        // Вторая пачка скопирована в шард 1, но удаление из шарда 0 обрывается
+        shard0.failOnDelete(2);
+        assertThrows(RuntimeException.class, () -> rebalancer.rebalance());
+
+        Map<Long, Integer> copies = new HashMap<>();
+        for (HikariDataSource shard : List.of(shard0, shard1)) {
+            for (Map.Entry<Long, Long> row : rows(shard, "bookings", "id").entrySet()) {
+                copies.merge(row.getKey(), 1, Integer::sum);
+            }
+        }
+        assertEquals(BOOKINGS, copies.size());
+        assertTrue(copies.containsValue(2), "interrupted batch should be left in both shards");
+
+        shard0.failOnDelete(0);
+        rebalancer.rebalance();
+
+        assertPlacedExactlyOnce("bookings", "id");
+        assertPlacedExactlyOnce("user_bookings", "booking_id");
+    }
+
+    // Каждая строка ровно в одном шарде - в шарде своего номера
+    private void assertPlacedExactlyOnce(String table, String key) throws SQLException {
+        Map<Long, Long> all = new HashMap<>();
+        List<HikariDataSource> dataSources = List.of(shard0, shard1);
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            for (Map.Entry<Long, Long> row : rows(dataSources.get(shard), table, key).entrySet()) {
+                assertNull(all.put(row.getKey(), row.getValue()), table + " " + row.getKey() + " is duplicated");
+                assertEquals(shard, shards.shardOf(row.getValue()), table + " " + row.getKey() + " is misplaced");
+            }
+        }
+        assertEquals(BOOKINGS, all.size());
+        for (long id = 1; id <= BOOKINGS; id++) {
+            assertEquals(id % 37, all.get(id));
+        }
+    }
+
+    // id -> room_id
+    private static Map<Long, Long> rows(HikariDataSource dataSource, String table, String key) throws SQLException {
+        Map<Long, Long> rows = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+             ResultSet rs = conn.createStatement().executeQuery("SELECT " + key + ", room_id FROM " + table)) {
+            while (rs.next()) {
+                rows.put(rs.getLong(1), rs.getLong(2));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Пул, в котором n-е удаление из bookings обрывается ошибкой
+     */
+    private static class FailingDataSource extends HikariDataSource {
+
+        private final AtomicInteger deletes = new AtomicInteger();
+        private volatile int failAt;
+
+        void failOnDelete(int n) {
+            deletes.set(0);
+            failAt = n;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement")
+                                && ((String) args[0]).startsWith("DELETE FROM bookings")
+                                && deletes.incrementAndGet() == failAt) {
+                            throw new SQLException("Connection lost");
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.hotel.booking.waitlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreapTest {
+
+    @Test
+    void testFindsOnlyIntervalsInsideWindow() {
+        IntervalTreap treap = new IntervalTreap();
+        treap.insert(1, 5, 12);
+        treap.insert(2, 8, 9);
+        treap.insert(3, 3, 6);
+
+        // [3, 6] начинается раньше окна, [5, 12] заканчивается позже
+        assertEquals(2, treap.earliestEndingWithin(4, 10).id());
+        assertNull(treap.earliestEndingWithin(10, 20));
+        assertEquals(3, treap.earliestEndingWithin(3, 6).id());
+    }
+
+    @Test
+    void testEqualEndsPreferEarlierEntry() {
+        IntervalTreap treap = new IntervalTreap();
+        treap.insert(7, 2, 4);
+        treap.insert(5, 3, 4);
+
+        assertEquals(5, treap.earliestEndingWithin(1, 10).id());
+    }
+
+    @Test
+    void testRemove() {
+        IntervalTreap treap = new IntervalTreap();
+        treap.insert(1, 1, 2);
+        treap.insert(2, 1, 3);
+
+        assertTrue(treap.remove(1, 1));
+        assertFalse(treap.remove(1, 1));
+        assertFalse(treap.remove(2, 5));
+        assertEquals(1, treap.size());
+        assertEquals(2, treap.earliestEndingWithin(0, 10).id());
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTreap treap = new IntervalTreap();
+        List<IntervalTreap.Interval> intervals = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            long start = random.nextInt(365);
+            long end = start + 1 + random.nextInt(30);
+            treap.insert(id, start, end);
+            intervals.add(new IntervalTreap.Interval(id, start, end));
+        }
+        for (int i = 0; i < 500; i++) {
+            IntervalTreap.Interval removed = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(treap.remove(removed.id(), removed.start()));
+        }
+
+        for (int query = 0; query < 1000; query++) {
+            long from = random.nextInt(365);
+            long to = from + random.nextInt(40);
+            IntervalTreap.Interval expected = intervals.stream()
+                    .filter(interval -> interval.start() >= from && interval.end() <= to)
+                    .min(Comparator.comparingLong(IntervalTreap.Interval::end)
+                            .thenComparingLong(IntervalTreap.Interval::id))
+                    .orElse(null);
+            assertEquals(expected, treap.earliestEndingWithin(from, to));
+        }
+        assertEquals(intervals.size(), treap.size());
+    }
+}
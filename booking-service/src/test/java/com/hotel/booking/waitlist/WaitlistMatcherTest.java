@@ -0,0 +1,203 @@
+package com.hotel.booking.waitlist;
+
+import com.hotel.booking.client.HotelServiceClient;
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.RoomInfo;
+import com.hotel.booking.dto.WaitlistRequest;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.WaitlistEntry;
+import com.hotel.booking.entity.WaitlistEntry.WaitlistStatus;
+import com.hotel.booking.repository.WaitlistEntryRepository;
+import com.hotel.booking.service.BookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "booking.waitlist.matching-timeout=PT5M"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WaitlistMatcherTest {
+
+    @SpringBootConfiguration
+    @EntityScan("com.hotel.booking.entity")
+    @EnableJpaRepositories(basePackageClasses = WaitlistEntryRepository.class)
+    @Import({WaitlistMatcher.class, WaitlistService.class})
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final Long ROOM = 5L;
+    private static final Long HOTEL = 1L;
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private HotelServiceClient hotelServiceClient;
+
+    @Autowired
+    private WaitlistMatcher matcher;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistEntryRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        matcher.reload();
+        RoomInfo room = new RoomInfo();
+        room.setId(ROOM);
+        room.setHotelId(HOTEL);
+        room.setType("STANDARD");
+        when(hotelServiceClient.getRoomInfo(ROOM)).thenReturn(room);
+    }
+
+    private WaitlistEntry entry(LocalDate start, LocalDate end, WaitlistStatus status, LocalDateTime matchingSince) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(100L);
+        entry.setHotelId(HOTEL);
+        entry.setStartDate(start);
+        entry.setEndDate(end);
+        entry.setStatus(status);
+        entry.setMatchingSince(matchingSince);
+        return repository.save(entry);
+    }
+
+    private WaitlistEntry waiting(LocalDate start, LocalDate end) {
+        WaitlistEntry saved = entry(start, end, WaitlistStatus.WAITING, null);
+        matcher.index(saved);
+        return saved;
+    }
+
+    private static Booking booking(long id) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        return booking;
+    }
+
+    private WaitlistEntry reloaded(WaitlistEntry entry) {
+        return repository.findById(entry.getId()).orElseThrow();
+    }
+
+    private double indexed() {
+        return meterRegistry.get("booking.waitlist.waiting").gauge().value();
+    }
+
+    @Test
+    void freedDatesAreFilledGreedilyByEarliestCheckout() {
+        WaitlistEntry longStay = waiting(START, START.plusDays(5));
+        WaitlistEntry early = waiting(START, START.plusDays(2));
+        WaitlistEntry late = waiting(START.plusDays(3), START.plusDays(4));
+        when(bookingService.createBooking(any(), eq(100L), eq("waitlist"))).thenReturn(booking(71), booking(72));
+
+        matcher.match(ROOM, START, START.plusDays(5));
+
+        assertEquals(WaitlistStatus.FULFILLED, reloaded(early).getStatus());
+        assertEquals(71L, reloaded(early).getBookingId());
+        assertEquals(WaitlistStatus.FULFILLED, reloaded(late).getStatus());
+        assertEquals(72L, reloaded(late).getBookingId());
+        assertEquals(WaitlistStatus.WAITING, reloaded(longStay).getStatus());
+        assertEquals(1.0, indexed());
+        verify(bookingService).createBooking(argThat((BookingRequest r) -> ROOM.equals(r.getRoomId())
+                && r.getStartDate().equals(START) && r.getEndDate().equals(START.plusDays(2))), eq(100L), eq("waitlist"));
+    }
+
+    @Test
+    void failedSagaReturnsEntryToWaiting() {
+        WaitlistEntry entry = waiting(START, START.plusDays(2));
+        when(bookingService.createBooking(any(), any(), any())).thenThrow(new RuntimeException("Room is not available"));
+
+        matcher.match(ROOM, START, START.plusDays(2));
+
+        WaitlistEntry after = reloaded(entry);
+        assertEquals(WaitlistStatus.WAITING, after.getStatus());
+        assertNull(after.getMatchingSince());
+        assertEquals(1.0, indexed());
+    }
+
+    @Test
+    void staleMatchingEntriesAreRecoveredOnReload() {
+        WaitlistEntry stale = entry(START, START.plusDays(2), WaitlistStatus.MATCHING, LocalDateTime.now().minusMinutes(30));
+        WaitlistEntry legacy = entry(START, START.plusDays(2), WaitlistStatus.MATCHING, null);
+        WaitlistEntry inProgress = entry(START, START.plusDays(2), WaitlistStatus.MATCHING, LocalDateTime.now());
+
+        matcher.reload();
+
+        assertEquals(WaitlistStatus.WAITING, reloaded(stale).getStatus());
+        assertNull(reloaded(stale).getMatchingSince());
+        assertEquals(WaitlistStatus.WAITING, reloaded(legacy).getStatus());
+        assertEquals(WaitlistStatus.MATCHING, reloaded(inProgress).getStatus());
+        assertEquals(2.0, indexed());
+
+        // Вернувшаяся заявка снова может быть отменена пользователем
+        waitlistService.leave(stale.getId(), 100L);
+        assertEquals(WaitlistStatus.CANCELLED, reloaded(stale).getStatus());
+        assertEquals(1.0, indexed());
+    }
+
+    @Test
+    void claimedEntryIsNotMatchedTwice() {
+        WaitlistEntry entry = waiting(START, START.plusDays(2));
+        // Заявку уже захватил другой экземпляр сервиса
+        assertEquals(1, repository.claim(entry.getId(), LocalDateTime.now()));
+
+        matcher.match(ROOM, START, START.plusDays(2));
+
+        verifyNoInteractions(bookingService);
+        assertNotNull(reloaded(entry).getMatchingSince());
+    }
+
+    @Test
+    void entryBeingMatchedCannotBeLeft() {
+        WaitlistEntry entry = entry(START, START.plusDays(2), WaitlistStatus.MATCHING, LocalDateTime.now());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> waitlistService.leave(entry.getId(), 100L));
+        assertTrue(e.getMessage().contains("MATCHING"));
+        assertThrows(RuntimeException.class, () -> waitlistService.leave(entry.getId(), 999L));
+    }
+
+    @Test
+    void joinedEntryIsIndexedWithUpperCaseType() {
+        WaitlistRequest request = new WaitlistRequest();
+        request.setRoomType("standard");
+        request.setStartDate(START);
+        request.setEndDate(START.plusDays(2));
+
+        WaitlistEntry saved = waitlistService.join(request, 100L);
+
+        assertEquals("STANDARD", saved.getRoomType());
+        assertEquals(1.0, indexed());
+        assertEquals(List.of(saved.getId()), waitlistService.getUserEntries(100L).stream().map(WaitlistEntry::getId).toList());
+    }
+}
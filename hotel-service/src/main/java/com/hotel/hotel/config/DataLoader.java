@@ -2,67 +2,96 @@ package com.hotel.hotel.config;
 
 import com.hotel.hotel.entity.Hotel;
 import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.repository.BookingRepository;
 import com.hotel.hotel.repository.HotelRepository;
 import com.hotel.hotel.repository.RoomRepository;
+import com.hotel.hotel.snapshot.CatalogSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class DataLoader implements CommandLineRunner {
 
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final CatalogSnapshot catalogSnapshot;
+
+    // В профиле prod база файловая: данные не очищаются, начальные данные загружаются только в пустую базу
+    @Value("${data-loader.reset-on-startup:true}")
+    private boolean resetOnStartup;
 
     @Override
     public void run(String... args) throws Exception {
-        // Очищаем базу
-        roomRepository.deleteAll();
-        hotelRepository.deleteAll();
+        if (!resetOnStartup && hotelRepository.count() > 0) {
+            System.out.println("ℹ️ Existing data found, skipping initial data load");
+            return;
+        }
+
+        // Снимок каталога (POST /actuator/snapshot) заменяет начальные данные; поврежденный снимок пропускается
+        if (catalogSnapshot.exists()) {
+            try {
+                catalogSnapshot.restore();
+                return;
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to restore snapshot " + catalogSnapshot.getPath() + ": " + e.getMessage()
+                        + ", loading initial data");
+            }
+        }
+
+        // Очищаем базу: по одному DELETE на таблицу вместо загрузки и удаления каждой строки
+        bookingRepository.deleteAllInBatch();
+        roomRepository.deleteAllInBatch();
+        hotelRepository.deleteAllInBatch();
 
         // Создаем отели
         Hotel grandHotel = new Hotel();
         grandHotel.setName("Grand Hotel");
         grandHotel.setAddress("Moscow, Red Square 1");
-        grandHotel = hotelRepository.save(grandHotel);
 
         Hotel luxuryResort = new Hotel();
         luxuryResort.setName("Luxury Resort");
         luxuryResort.setAddress("Sochi, Beach Avenue 25");
-        luxuryResort = hotelRepository.save(luxuryResort);
 
         Hotel businessHotel = new Hotel();
         businessHotel.setName("Business Hotel");
         businessHotel.setAddress("St. Petersburg, Nevsky Prospect 50");
-        businessHotel = hotelRepository.save(businessHotel);
 
         // Создаем номера для Grand Hotel
-        createRoom(grandHotel, "101");
-        createRoom(grandHotel, "102");
-        createRoom(grandHotel, "201");
-        createRoom(grandHotel, "202");
-        createRoom(grandHotel, "301");
+        createRoom(grandHotel, "101", "STANDARD");
+        createRoom(grandHotel, "102", "STANDARD");
+        createRoom(grandHotel, "201", "STANDARD");
+        createRoom(grandHotel, "202", "DELUXE");
+        createRoom(grandHotel, "301", "SUITE");
 
         // Создаем номера для Luxury Resort
-        createRoom(luxuryResort, "Suite-1");
-        createRoom(luxuryResort, "Suite-2");
-        createRoom(luxuryResort, "Standard-1");
+        createRoom(luxuryResort, "Suite-1", "SUITE");
+        createRoom(luxuryResort, "Suite-2", "SUITE");
+        createRoom(luxuryResort, "Standard-1", "STANDARD");
 
         // Создаем номера для Business Hotel
-        createRoom(businessHotel, "Executive-101");
-        createRoom(businessHotel, "Executive-102");
-        createRoom(businessHotel, "Conference-201");
+        createRoom(businessHotel, "Executive-101", "DELUXE");
+        createRoom(businessHotel, "Executive-102", "DELUXE");
+        createRoom(businessHotel, "Conference-201", "CONFERENCE");
+
+        // Отели и номера (cascade) сохраняются в одной транзакции пакетными INSERT
+        hotelRepository.saveAll(List.of(grandHotel, luxuryResort, businessHotel));
 
         System.out.println("✅ Initial data loaded successfully!");
     }
 
-    private void createRoom(Hotel hotel, String number) {
+    private void createRoom(Hotel hotel, String number, String type) {
         Room room = new Room();
         room.setNumber(number);
+        room.setType(type);
         room.setAvailable(true);
         room.setTimesBooked(0);
         room.setHotel(hotel);
-        roomRepository.save(room);
+        hotel.getRooms().add(room);
     }
 }
\ No newline at end of file
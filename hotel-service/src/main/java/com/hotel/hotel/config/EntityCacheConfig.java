@@ -0,0 +1,65 @@
+package com.hotel.hotel.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Второй уровень кэша Hibernate в памяти процесса (JCache + Ehcache 3)
+ *
+ * Все регионы (сущности Room и Hotel, коллекция Hotel.rooms, кэш запросов) создаются здесь
+ * с ограничением по числу записей из hotel.cache.regions. Регион, которого нет в настройках,
+ * останавливает запуск (missing_cache_strategy = fail): неограниченный кэш по умолчанию не создается.
+ *
+ * CacheManager у каждого контекста свой (уникальный URI): менеджер провайдера по умолчанию
+ * общий на всю JVM, и второй контекст (например, в тестах) не смог бы создать те же регионы.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+public class EntityCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("urn:hotel-entity-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+
+        properties.getRegions().forEach((name, region) -> {
+            CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(region.getMaxEntries()));
+            if (region.getTtl() != null) {
+                builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(region.getTtl()));
+            } else if (region.getTti() != null) {
+                builder = builder.withExpiry(ExpiryPolicyBuilder.timeToIdleExpiration(region.getTti()));
+            }
+
+            cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(builder.build()));
+            System.out.println("🗄️ Entity cache region '" + name + "': max " + region.getMaxEntries() + " entries" +
+                    (region.getTtl() != null ? ", ttl " + region.getTtl() : "") +
+                    (region.getTtl() == null && region.getTti() != null ? ", tti " + region.getTti() : ""));
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
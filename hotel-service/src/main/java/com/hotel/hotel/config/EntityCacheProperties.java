@@ -0,0 +1,28 @@
+package com.hotel.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Регионы второго уровня кэша Hibernate (hotel.cache.regions.<имя региона>.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "hotel.cache")
+public class EntityCacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        // Максимум записей в heap; при переполнении Ehcache вытесняет редко используемые
+        private long maxEntries = 1000;
+        // Время жизни записи с момента записи; пусто - без ограничения
+        private Duration ttl;
+        // Время жизни записи с последнего обращения; используется, если ttl не задан
+        private Duration tti;
+    }
+}
@@ -0,0 +1,95 @@
+package com.hotel.hotel.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Приоритет шагов саги бронирования над чтением каталога
+ *
+ * Шаги саги (confirm-availability, release, release-stay, increment-bookings) booking-service
+ * вызывает напрямую, минуя gateway, поэтому с чтением каталога они конкурируют только здесь -
+ * за потоки сервера и соединения с базой. Чтение (GET/HEAD) отклоняется с 503, когда одновременных
+ * запросов уже read-share от max-in-flight; изменяющие запросы и чтение на priority-paths
+ * (сведения о номере для booking-service) не отклоняются и всегда находят оставшийся запас.
+ * Публичное чтение вроде /api/rooms/recommend в priority-paths не входит: иначе клиенты
+ * через gateway обходили бы ограничение.
+ *
+ * Стоит после TraceFilter и DeadlineFilter: отклоненные запросы тоже попадают в трассу.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 12)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int readLimit;
+    private final List<String> priorityPaths;
+    private final Counter shed;
+
+    public LoadSheddingFilter(@Value("${hotel.load-shedding.max-in-flight:200}") int maxInFlight,
+                              @Value("${hotel.load-shedding.read-share:0.8}") double readShare,
+                              @Value("${hotel.load-shedding.priority-paths:/api/rooms/*/info}")
+                              List<String> priorityPaths,
+                              MeterRegistry meterRegistry) {
+        this.readLimit = Math.max(1, (int) (maxInFlight * readShare));
+        this.priorityPaths = priorityPaths;
+        this.shed = Counter.builder("hotel.load.shed")
+                .description("Catalog reads rejected to keep capacity for booking saga steps")
+                .register(meterRegistry);
+        Gauge.builder("hotel.load.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests currently processed by hotel-service")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        int current = inFlight.incrementAndGet();
+        try {
+            if (read && current > readLimit && !isPriority(request.getRequestURI())) {
+                shed.increment();
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Service overloaded, please retry\"}");
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean isPriority(String path) {
+        return priorityPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotel.hotel.config;
+
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий доступ к той же базе, что и JPA (профиль reactive)
+ *
+ * R2DBC подключается к той же in-memory базе hoteldb, поэтому схема и данные общие:
+ * таблицы создает Hibernate, изменения идут через JPA, а чтение - через DatabaseClient.
+ * ConnectionFactory намеренно не регистрируется как bean: при его наличии Spring Boot
+ * не создает JDBC DataSource, и JPA перестал бы работать.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDataConfig {
+
+    private ConnectionFactory connectionFactory;
+
+    @Bean
+    public DatabaseClient databaseClient(@Value("${hotel.reactive.r2dbc-url}") String url,
+                                         @Value("${spring.datasource.username}") String username,
+                                         @Value("${spring.datasource.password:}") String password) {
+        System.out.println("⚡ R2DBC connection factory: " + url);
+        connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (connectionFactory instanceof Closeable closeable) {
+            Mono.from(closeable.close()).block();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.hotel.hotel.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.server.WebFilter;
+
+import java.util.Collections;
+
+/**
+ * Безопасность для реактивного стека (профиль reactive)
+ *
+ * Аналог SecurityConfig + UserHeaderFilter: пользователь и роль берутся из заголовков,
+ * которые выставляет gateway. Права проверяются по URL, так как @PreAuthorize
+ * на реактивных методах требует отдельной настройки method security.
+ */
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchange -> exchange
+                        // Внутренние endpoints для booking-service
+                        .pathMatchers(
+                                "/api/rooms/*/confirm-availability",
+                                "/api/rooms/*/release",
+                                "/api/rooms/*/increment-bookings",
+                                "/api/rooms/*/info",
+                                "/api/rooms/*/release-stay",
+                                "/api/hotels/*/room-types/*/confirm-availability"
+                        ).permitAll()
+                        .pathMatchers("/actuator/health", "/actuator/info", "/actuator/metrics/**", "/actuator/traces/**").permitAll()
+                        .pathMatchers("/actuator/jfr/**", "/actuator/snapshot/**").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.POST, "/api/hotels", "/api/rooms").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.PUT, "/api/rooms/*/availability").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.GET, "/api/hotels", "/api/hotels/*/availability", "/api/rooms", "/api/rooms/**").hasAnyRole("USER", "ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(userHeaderFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    private WebFilter userHeaderFilter() {
+        return (exchange, chain) -> {
+            String username = exchange.getRequest().getHeaders().getFirst("X-User-Name");
+            String role = exchange.getRequest().getHeaders().getFirst("X-User-Role");
+
+            if (username == null || role == null) {
+                return chain.filter(exchange);
+            }
+
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                    username,
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+            );
+            return chain.filter(exchange)
+                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth));
+        };
+    }
+}
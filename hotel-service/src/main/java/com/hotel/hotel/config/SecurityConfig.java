@@ -2,6 +2,7 @@ package com.hotel.hotel.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -11,6 +12,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
+@Profile("!reactive")
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
@@ -32,8 +34,14 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/rooms/*/confirm-availability",
                                 "/api/rooms/*/release",
-                                "/api/rooms/*/increment-bookings"
+                                "/api/rooms/*/increment-bookings",
+                                "/api/rooms/*/info",
+                                "/api/rooms/*/release-stay",
+                                "/api/hotels/*/room-types/*/confirm-availability"
                         ).permitAll()
+                        // Метрики и health для мониторинга (порт сервиса не публикуется через gateway)
+                        .requestMatchers("/actuator/health", "/actuator/info", "/actuator/metrics/**", "/actuator/traces/**").permitAll()
+                        .requestMatchers("/actuator/jfr/**", "/actuator/snapshot/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(userHeaderFilter, org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
@@ -1,5 +1,6 @@
 package com.hotel.hotel.controller;
 
+import com.hotel.common.deadline.Deadline;
 import com.hotel.hotel.dto.HotelDTO;
 import com.hotel.hotel.dto.RoomDTO;
 import com.hotel.hotel.dto.RoomRequestDTO;
@@ -8,6 +9,7 @@ import com.hotel.hotel.entity.Room;
 import com.hotel.hotel.mapper.HotelMapper;
 import com.hotel.hotel.service.HotelService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +26,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class HotelController {
@@ -252,7 +255,10 @@ public class HotelController {
             System.out.println("❌ Error getting recommended rooms: " + e.getMessage());
             Map<String, String> errorResponse = Map.of("error", e.getMessage());
 
-            if (e.getMessage().contains("invalid date") ||
+            // Дедлайн запроса истек: вызывающий уже не ждет ответа
+            if (Deadline.isExceeded(e)) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+            } else if (e.getMessage().contains("invalid date") ||
                     e.getMessage().contains("Invalid date") ||
                     e.getMessage().contains("неверная дата")) {
                 return ResponseEntity.badRequest().body(errorResponse);
@@ -310,7 +316,10 @@ public class HotelController {
             System.out.println("❌ Error confirming availability: " + e.getMessage());
             Map<String, String> errorResponse = Map.of("error", e.getMessage());
 
-            if (e.getMessage().contains("not available") ||
+            // Дедлайн запроса истек: вызывающий уже не ждет ответа
+            if (Deadline.isExceeded(e)) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+            } else if (e.getMessage().contains("not available") ||
                     e.getMessage().contains("already booked") ||
                     e.getMessage().contains("недоступна")) {
                 return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
@@ -375,6 +384,148 @@ public class HotelController {
         }
     }
 
+    // Свободные номера отеля по типам на все ночи периода (счетчики в памяти, без запроса к базе)
+    @GetMapping("/hotels/{hotelId}/availability")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getAvailabilityByType(
+            @PathVariable Long hotelId,
+            @RequestParam(required = false) String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        System.out.println("🏨 GET /hotels/" + hotelId + "/availability - Type " + type + ", from " + startDate + " to " + endDate);
+
+        try {
+            if (startDate.isBefore(LocalDate.now())) {
+                Map<String, String> errorResponse = Map.of("error", "Start date cannot be in the past");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+            if (endDate.isBefore(startDate)) {
+                Map<String, String> errorResponse = Map.of("error", "End date cannot be before start date");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            Map<String, Integer> freeRooms = hotelService.getAvailabilityByType(hotelId, type, startDate, endDate);
+            return ResponseEntity.ok(Map.of(
+                    "hotelId", hotelId,
+                    "startDate", startDate,
+                    "endDate", endDate,
+                    "freeRooms", freeRooms));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error getting availability by type: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+
+            if (e.getMessage().contains("Invalid")) {
+                return ResponseEntity.badRequest().body(errorResponse);
+            } else {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        }
+    }
+
+    // Бронирование по типу: номер выбирается при подтверждении; пустой ответ - свободных номеров типа нет
+    @PostMapping("/hotels/{hotelId}/room-types/{type}/confirm-availability")
+    public ResponseEntity<?> confirmRoomType(
+            @PathVariable Long hotelId,
+            @PathVariable String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader("X-Request-Id") String requestId) {
+        System.out.println("🏨 POST /hotels/" + hotelId + "/room-types/" + type + "/confirm-availability - Request: " + requestId);
+
+        try {
+            if (requestId == null || requestId.trim().isEmpty()) {
+                Map<String, String> errorResponse = Map.of("error", "Request ID is required");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+            if (startDate.isBefore(LocalDate.now())) {
+                Map<String, String> errorResponse = Map.of("error", "Start date cannot be in the past");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+            if (endDate.isBefore(startDate)) {
+                Map<String, String> errorResponse = Map.of("error", "End date cannot be before start date");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            Room room = hotelService.confirmRoomType(hotelId, type, startDate, endDate, requestId);
+            if (room == null) {
+                return ResponseEntity.ok().build();
+            }
+            return ResponseEntity.ok(hotelMapper.toRoomDTO(room));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error confirming room type: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+
+            // Дедлайн запроса истек: вызывающий уже не ждет ответа
+            if (Deadline.isExceeded(e)) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+            } else if (e.getMessage().contains("not found") ||
+                    e.getMessage().contains("не найден")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            } else {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        }
+    }
+
+    // Отмена бронирования: удержание номера на эти даты снимается
+    @PostMapping("/rooms/{id}/release-stay")
+    public ResponseEntity<?> releaseStay(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        System.out.println("🏨 POST /rooms/" + id + "/release-stay - From " + startDate + " to " + endDate);
+
+        try {
+            hotelService.releaseStay(id, startDate, endDate);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error releasing stay: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    // Снятие номера с продажи на ремонт (available=false) и возврат в продажу
+    @PutMapping("/rooms/{id}/availability")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setRoomAvailable(@PathVariable Long id, @RequestParam boolean available) {
+        System.out.println("🏨 PUT /rooms/" + id + "/availability - " + available);
+
+        try {
+            return ResponseEntity.ok(hotelMapper.toRoomDTO(hotelService.setRoomAvailable(id, available)));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error changing room availability: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+
+            if (e.getMessage().contains("not found") ||
+                    e.getMessage().contains("не найден")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            } else {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        }
+    }
+
+    // Внутренний endpoint для booking-service: отель и тип номера
+    @GetMapping("/rooms/{id}/info")
+    public ResponseEntity<?> getRoomInfo(@PathVariable Long id) {
+        System.out.println("🏨 GET /rooms/" + id + "/info");
+
+        try {
+            return ResponseEntity.ok(hotelMapper.toRoomDTO(hotelService.getRoom(id)));
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error getting room info: " + e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+
+            if (e.getMessage().contains("not found") ||
+                    e.getMessage().contains("не найден")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            } else {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        }
+    }
+
     @PostMapping("/rooms/{id}/increment-bookings")
     public ResponseEntity<?> incrementTimesBooked(@PathVariable Long id) {
         System.out.println("🏨 POST /rooms/" + id + "/increment-bookings");
@@ -0,0 +1,251 @@
+package com.hotel.hotel.controller;
+
+import com.hotel.hotel.dto.HotelDTO;
+import com.hotel.hotel.dto.RoomDTO;
+import com.hotel.hotel.dto.RoomRequestDTO;
+import com.hotel.hotel.entity.Hotel;
+import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.mapper.HotelMapper;
+import com.hotel.hotel.repository.ReactiveCatalogRepository;
+import com.hotel.hotel.service.HotelService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Реактивный вариант HotelController (профиль reactive)
+ *
+ * Чтение каталога идет через R2DBC и не занимает поток на время запроса к базе.
+ * Списки отдаются потоком: при Accept: application/x-ndjson каждый номер пишется отдельной
+ * строкой с учетом backpressure клиента. Изменяющие операции используют тот же HotelService
+ * (JPA) и выполняются на boundedElastic, чтобы не блокировать event loop.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class ReactiveHotelController {
+
+    private final HotelService hotelService;
+    private final HotelMapper hotelMapper;
+    private final ReactiveCatalogRepository catalogRepository;
+
+    @GetMapping(value = "/hotels", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<HotelDTO> getAllHotels() {
+        System.out.println("🏨 GET /hotels (reactive) - Getting all hotels");
+        return catalogRepository.findAllHotelsWithRooms();
+    }
+
+    @GetMapping(value = "/rooms", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<RoomDTO> getAllRooms() {
+        System.out.println("🏨 GET /rooms (reactive) - Getting all rooms");
+        return catalogRepository.findByAvailableTrue();
+    }
+
+    @GetMapping(value = "/rooms/available", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<?>> getAvailableRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        System.out.println("🏨 GET /rooms/available (reactive) - From " + startDate + " to " + endDate);
+
+        String error = validateDates(startDate, endDate);
+        if (error != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", error)));
+        }
+        return Mono.just(ResponseEntity.ok(catalogRepository.findAvailableRooms(startDate, endDate)));
+    }
+
+    @GetMapping(value = "/rooms/recommend", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<?>> getRecommendedRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        System.out.println("🏨 GET /rooms/recommend (reactive) - From " + startDate + " to " + endDate);
+
+        String error = validateDates(startDate, endDate);
+        if (error != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", error)));
+        }
+        return Mono.just(ResponseEntity.ok(catalogRepository.findRecommendedRooms(startDate, endDate)));
+    }
+
+    @PostMapping("/hotels")
+    public Mono<ResponseEntity<?>> createHotel(@RequestBody Hotel hotel) {
+        System.out.println("🏨 POST /hotels (reactive) - Creating hotel: " + hotel.getName());
+        return blocking(() -> ResponseEntity.ok(hotelService.createHotel(hotel)), "Failed to create hotel");
+    }
+
+    @PostMapping("/rooms")
+    public Mono<ResponseEntity<?>> createRoom(@RequestBody RoomRequestDTO roomRequest) {
+        System.out.println("🏨 POST /rooms (reactive) - Creating room: " + roomRequest.getNumber() + " for hotel: " + roomRequest.getHotelId());
+
+        if (roomRequest.getHotelId() == null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Hotel ID is required")));
+        }
+        if (roomRequest.getNumber() == null || roomRequest.getNumber().trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Room number is required")));
+        }
+        return blocking(() -> ResponseEntity.ok(hotelMapper.toRoomDTO(hotelService.createRoomFromDTO(roomRequest))),
+                "Failed to create room");
+    }
+
+    @PostMapping("/rooms/{id}/confirm-availability")
+    public Mono<ResponseEntity<?>> confirmAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader("X-Request-Id") String requestId) {
+        System.out.println("🏨 POST /rooms/" + id + "/confirm-availability (reactive) - Request: " + requestId);
+
+        if (requestId.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Request ID is required")));
+        }
+        String error = validateDates(startDate, endDate);
+        if (error != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", error)));
+        }
+        return blocking(() -> ResponseEntity.ok(hotelService.confirmAvailability(id, startDate, endDate, requestId)),
+                "Failed to confirm room availability");
+    }
+
+    @PostMapping("/rooms/{id}/release")
+    public Mono<ResponseEntity<?>> releaseRoom(@PathVariable Long id,
+                                               @RequestHeader("X-Request-Id") String requestId) {
+        System.out.println("🏨 POST /rooms/" + id + "/release (reactive) - Request: " + requestId);
+
+        if (requestId.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Request ID is required")));
+        }
+        return blocking(() -> {
+            hotelService.releaseRoom(id, requestId);
+            return ResponseEntity.ok().build();
+        }, "Failed to release room");
+    }
+
+    @GetMapping("/hotels/{hotelId}/availability")
+    public Mono<ResponseEntity<?>> getAvailabilityByType(
+            @PathVariable Long hotelId,
+            @RequestParam(required = false) String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        System.out.println("🏨 GET /hotels/" + hotelId + "/availability (reactive) - Type " + type);
+
+        String error = validateDates(startDate, endDate);
+        if (error != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", error)));
+        }
+        // Обычно ответ из счетчиков в памяти, но после смены дня они перестраиваются из базы
+        return blocking(() -> ResponseEntity.ok(Map.of(
+                "hotelId", hotelId,
+                "startDate", startDate,
+                "endDate", endDate,
+                "freeRooms", hotelService.getAvailabilityByType(hotelId, type, startDate, endDate))),
+                "Failed to get availability");
+    }
+
+    @PostMapping("/hotels/{hotelId}/room-types/{type}/confirm-availability")
+    public Mono<ResponseEntity<?>> confirmRoomType(
+            @PathVariable Long hotelId,
+            @PathVariable String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader("X-Request-Id") String requestId) {
+        System.out.println("🏨 POST /hotels/" + hotelId + "/room-types/" + type + "/confirm-availability (reactive) - Request: " + requestId);
+
+        if (requestId.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Request ID is required")));
+        }
+        String error = validateDates(startDate, endDate);
+        if (error != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", error)));
+        }
+        return blocking(() -> {
+            Room room = hotelService.confirmRoomType(hotelId, type, startDate, endDate, requestId);
+            return room == null ? ResponseEntity.ok().build() : ResponseEntity.ok(hotelMapper.toRoomDTO(room));
+        }, "Failed to confirm room type availability");
+    }
+
+    @PostMapping("/rooms/{id}/release-stay")
+    public Mono<ResponseEntity<?>> releaseStay(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        System.out.println("🏨 POST /rooms/" + id + "/release-stay (reactive)");
+        return blocking(() -> {
+            hotelService.releaseStay(id, startDate, endDate);
+            return ResponseEntity.ok().build();
+        }, "Failed to release stay");
+    }
+
+    @PutMapping("/rooms/{id}/availability")
+    public Mono<ResponseEntity<?>> setRoomAvailable(@PathVariable Long id, @RequestParam boolean available) {
+        System.out.println("🏨 PUT /rooms/" + id + "/availability (reactive) - " + available);
+        return blocking(() -> ResponseEntity.ok(hotelMapper.toRoomDTO(hotelService.setRoomAvailable(id, available))),
+                "Failed to change room availability");
+    }
+
+    @GetMapping("/rooms/{id}/info")
+    public Mono<ResponseEntity<?>> getRoomInfo(@PathVariable Long id) {
+        System.out.println("🏨 GET /rooms/" + id + "/info (reactive)");
+        return blocking(() -> ResponseEntity.ok(hotelMapper.toRoomDTO(hotelService.getRoom(id))), "Failed to get room info");
+    }
+
+    @PostMapping("/rooms/{id}/increment-bookings")
+    public Mono<ResponseEntity<?>> incrementTimesBooked(@PathVariable Long id) {
+        System.out.println("🏨 POST /rooms/" + id + "/increment-bookings (reactive)");
+        return blocking(() -> {
+            hotelService.incrementTimesBooked(id);
+            return ResponseEntity.ok().build();
+        }, "Failed to increment bookings counter");
+    }
+
+    private String validateDates(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isBefore(LocalDate.now())) {
+            return "Start date cannot be in the past";
+        }
+        if (endDate.isBefore(startDate)) {
+            return "End date cannot be before start date";
+        }
+        return null;
+    }
+
+    /**
+     * Вызов блокирующего JPA кода вне event loop с теми же кодами ошибок, что в HotelController
+     */
+    private Mono<ResponseEntity<?>> blocking(Callable<ResponseEntity<?>> action, String fallbackMessage) {
+        return Mono.fromCallable(action)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(RuntimeException.class, e -> {
+                    System.out.println("❌ Error: " + e.getMessage());
+                    return Mono.just(errorResponse(e, fallbackMessage));
+                });
+    }
+
+    private ResponseEntity<?> errorResponse(RuntimeException e, String fallbackMessage) {
+        String message = e.getMessage();
+        if (message == null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", fallbackMessage));
+        }
+        Map<String, String> errorResponse = Map.of("error", message);
+
+        if (message.contains("already exists") || message.contains("duplicate") || message.contains("уже существует")) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        } else if (message.contains("not found") || message.contains("не найден")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } else if (message.contains("invalid") || message.contains("Invalid") || message.contains("неверный")) {
+            return ResponseEntity.badRequest().body(errorResponse);
+        } else {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.hotel.hotel.deadline;
+
+import com.hotel.common.deadline.Deadline;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+
+/**
+ * JpaTransactionManager с таймаутом транзакции не длиннее остатка дедлайна запроса
+ *
+ * Spring передает таймаут транзакции каждому запросу JPA (jakarta.persistence.query.timeout),
+ * а перед следующим запросом проверяет, не истек ли он (TransactionTimedOutException), поэтому
+ * работа в базе прекращается вместе с дедлайном. Транзакция с исчерпанным бюджетом не начинается.
+ */
+public class DeadlineAwareTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        return limitToDeadline(super.determineTimeout(definition));
+    }
+
+    // Общая часть с DeadlineConfig.ReplicaDeadlineTransactionManager
+    static int limitToDeadline(int timeout) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return timeout;
+        }
+        long remaining = deadline.remaining();
+        if (remaining <= 0) {
+            throw new TransactionTimedOutException("Deadline exceeded before transaction start");
+        }
+        // Таймаут транзакции - в секундах, округление вверх
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? seconds : Math.min(timeout, seconds);
+    }
+}
@@ -0,0 +1,57 @@
+package com.hotel.hotel.deadline;
+
+import com.hotel.common.replica.ReplicaAwareTransactionManager;
+import com.hotel.common.replica.ReplicaRouting;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionManager;
+
+/**
+ * Менеджер транзакций JPA с учетом дедлайна вместо стандартного Spring Boot
+ *
+ * В профиле replica - наследник ReplicaAwareTransactionManager с тем же таймаутом по дедлайну.
+ */
+@Configuration
+public class DeadlineConfig {
+
+    @Configuration
+    @Profile("!replica")
+    static class Default {
+
+        @Bean
+        public DeadlineAwareTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+            DeadlineAwareTransactionManager transactionManager = new DeadlineAwareTransactionManager();
+            customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+            return transactionManager;
+        }
+    }
+
+    @Configuration
+    @Profile("replica")
+    static class Replica {
+
+        @Bean
+        public ReplicaAwareTransactionManager transactionManager(ReplicaRouting routing,
+                                                                 ObjectProvider<TransactionManagerCustomizers> customizers) {
+            ReplicaAwareTransactionManager transactionManager = new ReplicaDeadlineTransactionManager(routing);
+            customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+            return transactionManager;
+        }
+    }
+
+    static class ReplicaDeadlineTransactionManager extends ReplicaAwareTransactionManager {
+
+        ReplicaDeadlineTransactionManager(ReplicaRouting routing) {
+            super(routing);
+        }
+
+        @Override
+        protected int determineTimeout(TransactionDefinition definition) {
+            return DeadlineAwareTransactionManager.limitToDeadline(super.determineTimeout(definition));
+        }
+    }
+}
@@ -9,4 +9,5 @@ public class RoomDTO {
     private Boolean available;
     private Integer timesBooked;
     private Long hotelId; // Только ID отеля вместо полного объекта
+    private String type;
 }
\ No newline at end of file
@@ -4,12 +4,27 @@ import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
 
+/**
+ * Удержание номера на даты, подтвержденное саге бронирования (confirm-availability)
+ *
+ * По этим строкам запросы доступности исключают занятые номера; снимается
+ * компенсацией саги (release) или отменой бронирования (release-stay).
+ *
+ * CONFIRMED - номер занят на эти даты; CANCELLED - удержание снято; COMPLETED - проживание
+ * закончилось (HoldPurger). Запросы доступности смотрят только CONFIRMED, поэтому прошедшие
+ * удержания переводятся в COMPLETED и вместе со снятыми удаляются по истечении хранения.
+ */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_room_status_dates", columnList = "room_id, status, start_date, end_date"),
+        @Index(name = "idx_bookings_request", columnList = "request_id"),
+        @Index(name = "idx_bookings_status_end", columnList = "status, end_date")
+})
 @Data
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     private Long roomId;
@@ -20,6 +35,9 @@ public class Booking {
     private LocalDate startDate;
     private LocalDate endDate;
 
+    // X-Request-Id саги, подтвердившей удержание
+    private String requestId;
+
     public enum BookingStatus {
         PENDING, CONFIRMED, CANCELLED, COMPLETED
     }
@@ -0,0 +1,90 @@
+package com.hotel.hotel.inventory;
+
+/**
+ * Число свободных номеров по дням: прибавление к отрезку дней и минимум на отрезке
+ *
+ * Дерево отрезков с отложенным прибавлением: в узле хранится минимум поддерева
+ * с учетом прибавлений, еще не спущенных в потомков. Оба действия - O(log n).
+ * Дни - индексы 0..size-1, отрезки включительно.
+ *
+ * Не потокобезопасно, синхронизация на стороне RoomInventory.
+ */
+final class FreeCountTree {
+
+    private final int size;
+    private final int[] min;
+    private final int[] pending;
+
+    /**
+     * @param size  число дней
+     * @param value начальное значение каждого дня
+     */
+    FreeCountTree(int size, int value) {
+        this.size = size;
+        this.min = new int[4 * size];
+        this.pending = new int[4 * size];
+        fill(1, 0, size - 1, value);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(int from, int to, int delta) {
+        add(1, 0, size - 1, from, to, delta);
+    }
+
+    int min(int from, int to) {
+        return min(1, 0, size - 1, from, to);
+    }
+
+    private void fill(int node, int lo, int hi, int value) {
+        min[node] = value;
+        if (lo == hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        fill(2 * node, lo, mid, value);
+        fill(2 * node + 1, mid + 1, hi, value);
+    }
+
+    private void add(int node, int lo, int hi, int from, int to, int delta) {
+        if (to < lo || hi < from) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            apply(node, delta);
+            return;
+        }
+        push(node);
+        int mid = (lo + hi) >>> 1;
+        add(2 * node, lo, mid, from, to, delta);
+        add(2 * node + 1, mid + 1, hi, from, to, delta);
+        min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+    }
+
+    private int min(int node, int lo, int hi, int from, int to) {
+        if (to < lo || hi < from) {
+            return Integer.MAX_VALUE;
+        }
+        if (from <= lo && hi <= to) {
+            return min[node];
+        }
+        push(node);
+        int mid = (lo + hi) >>> 1;
+        return Math.min(min(2 * node, lo, mid, from, to), min(2 * node + 1, mid + 1, hi, from, to));
+    }
+
+    private void apply(int node, int delta) {
+        min[node] += delta;
+        pending[node] += delta;
+    }
+
+    private void push(int node) {
+        if (pending[node] != 0) {
+            apply(2 * node, pending[node]);
+            apply(2 * node + 1, pending[node]);
+            pending[node] = 0;
+        }
+    }
+}
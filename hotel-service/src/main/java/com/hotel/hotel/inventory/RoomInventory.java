@@ -0,0 +1,278 @@
+package com.hotel.hotel.inventory;
+
+import com.hotel.hotel.entity.Booking;
+import com.hotel.hotel.repository.BookingRepository;
+import com.hotel.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Число свободных номеров каждого типа каждого отеля по дням, на horizon-days вперед
+ *
+ * Для (отель, тип) хранится FreeCountTree: день - число номеров в продаже (available)
+ * минус удержания на этот день. "Есть ли номер типа T на даты [a, b]" - минимум по отрезку
+ * за O(log n) без запроса к базе. Удержания меняют счетчики сразу после commit (reserve/release),
+ * изменение состава номеров (новый номер, снятие с продажи) перестраивает счетчики
+ * своего типа из базы. Смена дня перестраивает все счетчики при первом обращении.
+ *
+ * Транзакция удержания и поправка счетчиков выполняются вместе под read lock (withHoldsLocked),
+ * перестроение - под write lock: запрос перестроения видит в базе ровно те удержания,
+ * поправки которых уже применены, и ни одно удержание не учитывается дважды и не теряется.
+ */
+@Component
+public class RoomInventory {
+
+    private record TypeKey(Long hotelId, String type) {
+    }
+
+    // Размер IN (...) при чтении удержаний
+    private static final int HOLDS_CHUNK = 1000;
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+
+    private final Map<TypeKey, FreeCountTree> trees = new ConcurrentHashMap<>();
+    // Изменения удержаний вместе с поправкой счетчиков - под read lock (поправка еще и под монитором дерева),
+    // перестроение (запрос к базе и замена деревьев) - под write lock
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile LocalDate baseDate;
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${hotel.inventory.horizon-days:365}")
+    private int horizonDays;
+
+    public RoomInventory(RoomRepository roomRepository, BookingRepository bookingRepository, MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        Gauge.builder("hotel.inventory.types", trees, Map::size)
+                .description("Hotel room types with per-day free counters")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    /**
+     * Все счетчики из базы
+     */
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            LocalDate today = LocalDate.now(clock);
+            Map<TypeKey, List<Long>> roomsByType = new HashMap<>();
+            for (Object[] row : roomRepository.findSellableRoomKeys()) {
+                roomsByType.computeIfAbsent(new TypeKey((Long) row[1], (String) row[2]), k -> new ArrayList<>())
+                        .add((Long) row[0]);
+            }
+            Map<TypeKey, FreeCountTree> rebuilt = new HashMap<>();
+            roomsByType.forEach((key, roomIds) -> rebuilt.put(key, build(roomIds, today)));
+
+            trees.clear();
+            trees.putAll(rebuilt);
+            baseDate = today;
+            System.out.println("📊 Room inventory rebuilt: " + rebuilt.size() + " room types, "
+                    + horizonDays + " days from " + today);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Счетчики одного типа из базы (после изменения состава номеров); в транзакции - после ее commit
+     */
+    public void rebuild(Long hotelId, String type) {
+        if (type == null) {
+            return;
+        }
+        runAfterCommit(() -> {
+            if (!current()) {
+                return;
+            }
+            rebuildLock.writeLock().lock();
+            try {
+                TypeKey key = new TypeKey(hotelId, type);
+                List<Long> roomIds = roomRepository.findSellableRoomIds(hotelId, type);
+                if (roomIds.isEmpty()) {
+                    trees.remove(key);
+                } else {
+                    trees.put(key, build(roomIds, baseDate));
+                }
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Изменение удержаний: транзакция и следующие за ее commit reserve/release под одним read lock
+     *
+     * Перестроение ждет завершения action, а новые удержания - завершения перестроения.
+     */
+    public <T> T withHoldsLocked(Supplier<T> action) {
+        current();
+        rebuildLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Поправки счетчиков; вызываются внутри withHoldsLocked после commit удержания или его снятия
+    public void reserve(Long hotelId, String type, LocalDate startDate, LocalDate endDate) {
+        add(hotelId, type, startDate, endDate, -1);
+    }
+
+    public void release(Long hotelId, String type, LocalDate startDate, LocalDate endDate) {
+        add(hotelId, type, startDate, endDate, 1);
+    }
+
+    /**
+     * Сколько номеров типа свободно во все дни [startDate, endDate]
+     *
+     * @return пусто, если даты за пределами горизонта счетчиков или счетчики еще не построены
+     */
+    public OptionalInt freeRooms(Long hotelId, String type, LocalDate startDate, LocalDate endDate) {
+        if (!current()) {
+            return OptionalInt.empty();
+        }
+        int from = dayIndex(startDate);
+        int to = dayIndex(endDate);
+        if (from < 0 || to >= horizonDays) {
+            return OptionalInt.empty();
+        }
+        FreeCountTree tree = trees.get(new TypeKey(hotelId, type));
+        if (tree == null) {
+            return OptionalInt.of(0);
+        }
+        synchronized (tree) {
+            return OptionalInt.of(Math.max(0, tree.min(from, to)));
+        }
+    }
+
+    /**
+     * Свободные номера на даты по всем типам отеля
+     */
+    public Map<String, Integer> freeRoomsByType(Long hotelId, LocalDate startDate, LocalDate endDate) {
+        Map<String, Integer> result = new TreeMap<>();
+        for (TypeKey key : trees.keySet()) {
+            if (key.hotelId().equals(hotelId)) {
+                freeRooms(hotelId, key.type(), startDate, endDate)
+                        .ifPresent(free -> result.put(key.type(), free));
+            }
+        }
+        return result;
+    }
+
+    // Счетчики построены и покрывают все дни [startDate, endDate]
+    public boolean isTracked(LocalDate startDate, LocalDate endDate) {
+        return current() && dayIndex(startDate) >= 0 && dayIndex(endDate) < horizonDays;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    // Смена дня здесь не проверяется: перестроение под write lock невозможно изнутри read lock
+    private void add(Long hotelId, String type, LocalDate startDate, LocalDate endDate, int delta) {
+        if (type == null || baseDate == null) {
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            FreeCountTree tree = trees.get(new TypeKey(hotelId, type));
+            // Прошедшие дни и дни за горизонтом не учитываются
+            int from = Math.max(0, dayIndex(startDate));
+            int to = Math.min(horizonDays - 1, dayIndex(endDate));
+            if (tree == null || from > to) {
+                return;
+            }
+            synchronized (tree) {
+                tree.add(from, to, delta);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // false - счетчики еще не построены (до ApplicationReadyEvent)
+    private boolean current() {
+        LocalDate base = baseDate;
+        if (base == null) {
+            return false;
+        }
+        if (!base.equals(LocalDate.now(clock))) {
+            rollOver();
+        }
+        return true;
+    }
+
+    // Смену дня замечают сразу несколько потоков; перестраивает только первый получивший write lock
+    private void rollOver() {
+        rebuildLock.writeLock().lock();
+        try {
+            if (!LocalDate.now(clock).equals(baseDate)) {
+                rebuild();
+            }
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private FreeCountTree build(List<Long> roomIds, LocalDate from) {
+        FreeCountTree tree = new FreeCountTree(horizonDays, roomIds.size());
+        for (int i = 0; i < roomIds.size(); i += HOLDS_CHUNK) {
+            List<Long> chunk = roomIds.subList(i, Math.min(roomIds.size(), i + HOLDS_CHUNK));
+            for (Booking hold : bookingRepository.findActiveHolds(chunk, from)) {
+                int start = Math.max(0, (int) ChronoUnit.DAYS.between(from, hold.getStartDate()));
+                int end = (int) Math.min(horizonDays - 1, ChronoUnit.DAYS.between(from, hold.getEndDate()));
+                if (start <= end) {
+                    tree.add(start, end, -1);
+                }
+            }
+        }
+        return tree;
+    }
+
+    private int dayIndex(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(baseDate, date);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
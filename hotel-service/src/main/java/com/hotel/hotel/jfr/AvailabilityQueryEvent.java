@@ -0,0 +1,37 @@
+package com.hotel.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Запрос свободных номеров на даты (поиск, рекомендации, проверка при подтверждении)
+ */
+@Name("com.hotel.hotel.AvailabilityQuery")
+@Label("Availability Query")
+@Category({"Hotel Booking", "Hotel Service"})
+@Description("Query for rooms free in a date range")
+@StackTrace(false)
+public class AvailabilityQueryEvent extends Event {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Start Date")
+    public String startDate;
+
+    @Label("End Date")
+    public String endDate;
+
+    @Label("Nights")
+    public long nights;
+
+    @Label("Rooms Found")
+    public int roomsFound;
+
+    @Label("Outcome")
+    public String outcome;
+}
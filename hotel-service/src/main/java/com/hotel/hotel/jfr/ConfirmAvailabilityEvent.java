@@ -0,0 +1,37 @@
+package com.hotel.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Подтверждение доступности номера для саги бронирования (включая ожидание блокировки номера)
+ */
+@Name("com.hotel.hotel.ConfirmAvailability")
+@Label("Confirm Availability")
+@Category({"Hotel Booking", "Hotel Service"})
+@Description("Room availability confirmation requested by booking-service")
+@StackTrace(false)
+public class ConfirmAvailabilityEvent extends Event {
+
+    @Label("Room Id")
+    public long roomId;
+
+    @Label("Start Date")
+    public String startDate;
+
+    @Label("End Date")
+    public String endDate;
+
+    @Label("Nights")
+    public long nights;
+
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -35,6 +35,7 @@ public class HotelMapper {
         dto.setAvailable(room.getAvailable());
         dto.setTimesBooked(room.getTimesBooked());
         dto.setHotelId(room.getHotel() != null ? room.getHotel().getId() : null);
+        dto.setType(room.getType());
         return dto;
     }
 
@@ -0,0 +1,41 @@
+package com.hotel.hotel.repository;
+
+import com.hotel.hotel.entity.Booking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    Optional<Booking> findFirstByRequestIdAndStatus(String requestId, Booking.BookingStatus status);
+
+    List<Booking> findByRoomIdAndStatusAndStartDateAndEndDate(Long roomId, Booking.BookingStatus status,
+                                                             LocalDate startDate, LocalDate endDate);
+
+    // Удержания номеров, еще не закончившиеся к дате from - для построения RoomInventory
+    @Query("SELECT b FROM Booking b WHERE b.status = 'CONFIRMED' AND b.endDate >= :from AND b.roomId IN :roomIds")
+    List<Booking> findActiveHolds(@Param("roomIds") List<Long> roomIds, @Param("from") LocalDate from);
+
+    // Пачка удержаний со статусом status, закончившихся до before - для HoldPurger
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.endDate < :before ORDER BY b.id")
+    List<Long> findIdsEndingBefore(@Param("status") Booking.BookingStatus status,
+                                   @Param("before") LocalDate before, Pageable pageable);
+
+    // Статус проверяется повторно: удержание могло быть снято после выборки пачки
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to WHERE b.id IN :ids AND b.status = :from")
+    int updateStatus(@Param("ids") List<Long> ids, @Param("from") Booking.BookingStatus from,
+                     @Param("to") Booking.BookingStatus to);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    int deleteByIdsAndStatus(@Param("ids") List<Long> ids, @Param("status") Booking.BookingStatus status);
+}
@@ -0,0 +1,106 @@
+package com.hotel.hotel.repository;
+
+import com.hotel.hotel.dto.HotelDTO;
+import com.hotel.hotel.dto.RoomDTO;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Неблокирующие запросы чтения каталога (профиль reactive)
+ *
+ * SQL повторяет JPQL из RoomRepository по тем же таблицам. Строки отдаются потоком
+ * по мере запроса подписчика, поэтому большой список номеров не собирается в памяти целиком.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveCatalogRepository {
+
+    private static final String ROOM_COLUMNS = "r.id, r.number, r.available, r.times_booked, r.hotel_id, r.type";
+
+    private static final String NOT_BOOKED =
+            "r.available = TRUE AND NOT EXISTS " +
+            "(SELECT 1 FROM bookings b WHERE b.room_id = r.id AND b.status = 'CONFIRMED' " +
+            "AND b.start_date <= :endDate AND b.end_date >= :startDate)";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<RoomDTO> findByAvailableTrue() {
+        return databaseClient.sql("SELECT " + ROOM_COLUMNS + " FROM rooms r WHERE r.available = TRUE ORDER BY r.id")
+                .map(ReactiveCatalogRepository::toRoomDTO)
+                .all();
+    }
+
+    public Flux<RoomDTO> findAvailableRooms(LocalDate startDate, LocalDate endDate) {
+        return databaseClient.sql("SELECT " + ROOM_COLUMNS + " FROM rooms r WHERE " + NOT_BOOKED + " ORDER BY r.id")
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .map(ReactiveCatalogRepository::toRoomDTO)
+                .all();
+    }
+
+    public Flux<RoomDTO> findRecommendedRooms(LocalDate startDate, LocalDate endDate) {
+        return databaseClient.sql("SELECT " + ROOM_COLUMNS + " FROM rooms r WHERE " + NOT_BOOKED +
+                        " ORDER BY r.times_booked ASC, r.id ASC")
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .map(ReactiveCatalogRepository::toRoomDTO)
+                .all();
+    }
+
+    /**
+     * Отели вместе с номерами одним запросом: строки упорядочены по отелю
+     * и собираются в HotelDTO по мере поступления
+     */
+    public Flux<HotelDTO> findAllHotelsWithRooms() {
+        return databaseClient.sql("SELECT h.id AS h_id, h.name AS h_name, h.address AS h_address, " + ROOM_COLUMNS +
+                        " FROM hotels h LEFT JOIN rooms r ON r.hotel_id = h.id ORDER BY h.id, r.id")
+                .map(row -> new HotelRow(
+                        row.get("h_id", Long.class),
+                        row.get("h_name", String.class),
+                        row.get("h_address", String.class),
+                        row.get("id", Long.class) != null ? toRoomDTO(row) : null))
+                .all()
+                .bufferUntilChanged(HotelRow::hotelId)
+                .map(ReactiveCatalogRepository::toHotelDTO);
+    }
+
+    private static RoomDTO toRoomDTO(Readable row) {
+        RoomDTO dto = new RoomDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setNumber(row.get("number", String.class));
+        dto.setAvailable(row.get("available", Boolean.class));
+        dto.setTimesBooked(row.get("times_booked", Integer.class));
+        dto.setHotelId(row.get("hotel_id", Long.class));
+        dto.setType(row.get("type", String.class));
+        return dto;
+    }
+
+    private static HotelDTO toHotelDTO(List<HotelRow> rows) {
+        HotelRow first = rows.get(0);
+        HotelDTO dto = new HotelDTO();
+        dto.setId(first.hotelId());
+        dto.setName(first.name());
+        dto.setAddress(first.address());
+
+        List<RoomDTO> rooms = new ArrayList<>(rows.size());
+        rows.stream()
+                .map(HotelRow::room)
+                .filter(Objects::nonNull)
+                .forEach(rooms::add);
+        dto.setRooms(rooms);
+        return dto;
+    }
+
+    private record HotelRow(Long hotelId, String name, String address, RoomDTO room) {
+    }
+}
@@ -3,30 +3,53 @@ package com.hotel.hotel.repository;
 import com.hotel.hotel.entity.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
+    // Пересечение дат записано как start <= :endDate AND end >= :startDate (то же, что три BETWEEN),
+    // а NOT EXISTS коррелирован по room_id - занятость каждого номера проверяется по индексу
+    // idx_bookings_room_status_dates, а не полным просмотром bookings.
+    // Результаты запросов кэшируются (кэш запросов Hibernate) до первой записи в rooms или bookings
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Room> findByAvailableTrue();
 
-    @Query("SELECT r FROM Room r WHERE r.available = true AND r.id NOT IN " +
-            "(SELECT b.roomId FROM Booking b WHERE b.status = 'CONFIRMED' AND " +
-            "((b.startDate BETWEEN :startDate AND :endDate) OR " +
-            "(b.endDate BETWEEN :startDate AND :endDate) OR " +
-            "(:startDate BETWEEN b.startDate AND b.endDate)))")
+    @Query("SELECT r FROM Room r WHERE r.available = true AND NOT EXISTS " +
+            "(SELECT b.id FROM Booking b WHERE b.roomId = r.id AND b.status = 'CONFIRMED' " +
+            "AND b.startDate <= :endDate AND b.endDate >= :startDate)")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Room> findAvailableRooms(@Param("startDate") LocalDate startDate,
                                   @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT r FROM Room r WHERE r.available = true AND r.id NOT IN " +
-            "(SELECT b.roomId FROM Booking b WHERE b.status = 'CONFIRMED' AND " +
-            "((b.startDate BETWEEN :startDate AND :endDate) OR " +
-            "(b.endDate BETWEEN :startDate AND :endDate) OR " +
-            "(:startDate BETWEEN b.startDate AND b.endDate))) " +
+    @Query("SELECT r FROM Room r WHERE r.available = true AND NOT EXISTS " +
+            "(SELECT b.id FROM Booking b WHERE b.roomId = r.id AND b.status = 'CONFIRMED' " +
+            "AND b.startDate <= :endDate AND b.endDate >= :startDate) " +
             "ORDER BY r.timesBooked ASC, r.id ASC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Room> findRecommendedRooms(@Param("startDate") LocalDate startDate,
                                     @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+
+    // Номер заданного типа для бронирования по типу: наименее загруженный из свободных на даты
+    @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId AND r.type = :type AND r.available = true " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.roomId = r.id AND b.status = 'CONFIRMED' " +
+            "AND b.startDate <= :endDate AND b.endDate >= :startDate) " +
+            "ORDER BY r.timesBooked ASC, r.id ASC")
+    List<Room> findAvailableRoomsOfType(@Param("hotelId") Long hotelId,
+                                        @Param("type") String type,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+
+    // Номера в продаже (id, id отеля, тип) без загрузки сущностей - для RoomInventory
+    @Query("SELECT r.id, r.hotel.id, r.type FROM Room r WHERE r.available = true AND r.type IS NOT NULL")
+    List<Object[]> findSellableRoomKeys();
+
+    @Query("SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId AND r.type = :type AND r.available = true")
+    List<Long> findSellableRoomIds(@Param("hotelId") Long hotelId, @Param("type") String type);
+}
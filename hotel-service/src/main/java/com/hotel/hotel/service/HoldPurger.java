@@ -0,0 +1,145 @@
+package com.hotel.hotel.service;
+
+import com.hotel.hotel.entity.Booking;
+import com.hotel.hotel.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Завершение и удаление прошедших удержаний номеров
+ *
+ * Запросы доступности проверяют занятость через NOT EXISTS по bookings, поэтому таблица
+ * не должна расти вместе с историей. Удержания, чьи даты прошли, переводятся из CONFIRMED
+ * в COMPLETED; завершенные и снятые (CANCELLED) удаляются, когда с даты выезда прошло
+ * retention. Историю бронирований хранит booking-service (bookings_archive).
+ *
+ * Пачки по batch-size строк, каждая - своей короткой транзакцией; проход не дольше
+ * max-run-time, в собственном потоке hold-purger.
+ */
+@Component
+public class HoldPurger implements DisposableBean {
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter completed;
+    private final Counter purged;
+    private final ScheduledExecutorService purgerThread;
+
+    @Value("${hotel.holds.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hotel.holds.purge.initial-delay:PT1M}")
+    private Duration initialDelay;
+
+    @Value("${hotel.holds.purge.interval:PT1H}")
+    private Duration interval;
+
+    @Value("${hotel.holds.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${hotel.holds.purge.retention:P30D}")
+    private Period retention;
+
+    @Value("${hotel.holds.purge.max-run-time:PT10S}")
+    private Duration maxRunTime;
+
+    public HoldPurger(BookingRepository bookingRepository, PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgerThread = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hold-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completed = Counter.builder("hotel.holds.completed")
+                .description("Room holds whose stay has ended, moved to COMPLETED")
+                .register(meterRegistry);
+        this.purged = Counter.builder("hotel.holds.purged")
+                .description("Completed and cancelled room holds deleted after retention")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        purgerThread.scheduleWithFixedDelay(() -> {
+            try {
+                purge();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Hold purge run failed: " + e.getMessage());
+            }
+        }, initialDelay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Один проход, не дольше max-run-time
+     *
+     * @return число завершенных и удаленных удержаний
+     */
+    public long purge() {
+        LocalDate today = LocalDate.now();
+        LocalDate expired = today.minus(retention);
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+
+        long completedHolds = inBatches(Booking.BookingStatus.CONFIRMED, today, deadline,
+                ids -> bookingRepository.updateStatus(ids, Booking.BookingStatus.CONFIRMED,
+                        Booking.BookingStatus.COMPLETED));
+        completed.increment(completedHolds);
+
+        long purgedHolds = 0;
+        for (Booking.BookingStatus status : new Booking.BookingStatus[]{
+                Booking.BookingStatus.COMPLETED, Booking.BookingStatus.CANCELLED}) {
+            purgedHolds += inBatches(status, expired, deadline,
+                    ids -> bookingRepository.deleteByIdsAndStatus(ids, status));
+        }
+        purged.increment(purgedHolds);
+
+        if (completedHolds + purgedHolds > 0) {
+            System.out.println("🧹 Room holds: " + completedHolds + " completed, " + purgedHolds + " purged");
+        }
+        return completedHolds + purgedHolds;
+    }
+
+    // Выбранные строки уходят из выборки (меняют статус или удаляются), поэтому курсор не нужен
+    private long inBatches(Booking.BookingStatus status, LocalDate endingBefore, long deadline,
+                           ToIntFunction<List<Long>> action) {
+        long total = 0;
+        while (System.nanoTime() < deadline) {
+            Integer changed = transactionTemplate.execute(tx -> {
+                List<Long> ids = bookingRepository.findIdsEndingBefore(status, endingBefore,
+                        PageRequest.of(0, batchSize));
+                return ids.isEmpty() ? null : action.applyAsInt(ids);
+            });
+            if (changed == null) {
+                break;
+            }
+            total += changed;
+        }
+        return total;
+    }
+
+    @Override
+    public void destroy() {
+        purgerThread.shutdownNow();
+    }
+}
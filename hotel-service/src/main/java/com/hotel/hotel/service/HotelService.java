@@ -1,16 +1,36 @@
 package com.hotel.hotel.service;
 
+import com.hotel.common.deadline.Deadline;
+import com.hotel.common.deadline.DeadlineExceededException;
 import com.hotel.hotel.dto.RoomRequestDTO;
+import com.hotel.hotel.entity.Booking;
 import com.hotel.hotel.entity.Hotel;
 import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.inventory.RoomInventory;
+import com.hotel.hotel.repository.BookingRepository;
 import com.hotel.hotel.repository.HotelRepository;
 import com.hotel.hotel.repository.RoomRepository;
+import com.hotel.hotel.jfr.AvailabilityQueryEvent;
+import com.hotel.hotel.jfr.ConfirmAvailabilityEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -18,11 +38,58 @@ public class HotelService {
 
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomInventory roomInventory;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_CONFLICT = "conflict";
+    private static final String OUTCOME_DUPLICATE = "duplicate";
+    private static final String OUTCOME_NOT_FOUND = "not-found";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String OUTCOME_DEADLINE_EXCEEDED = "deadline-exceeded";
+
+    private final Map<String, Timer> stepTimers = new ConcurrentHashMap<>();
+
+    // Блокировки по номеру вместо synchronized на всем сервисе: подтверждения разных номеров
+    // не мешают друг другу, а ReentrantLock не "прикалывает" virtual thread к carrier-потоку
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] roomLocks = createLocks();
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private ReentrantLock lockFor(Long roomId) {
+        return roomLocks[Math.floorMod(roomId.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Ожидание блокировки не дольше дедлайна запроса: за ним может стоять очередь подтверждений того же номера
+    private static boolean acquire(ReentrantLock lock) {
+        long remaining = Deadline.remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            lock.lock();
+            return true;
+        }
+        try {
+            return lock.tryLock(remaining, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for room lock");
+        }
+    }
 
     public Hotel createHotel(Hotel hotel) {
         return hotelRepository.save(hotel);
     }
 
+    // В профиле replica читается с реплики, если она отстает не больше replica.max-lag.catalog
+    @Transactional(readOnly = true, label = "replica:catalog")
     public List<Hotel> getAllHotels() {
         return hotelRepository.findAll();
     }
@@ -47,7 +114,7 @@ public class HotelService {
         // Создаем комнату
         Room room = new Room();
         room.setNumber(roomRequest.getNumber());
-        room.setType(roomRequest.getType());
+        room.setType(roomType(roomRequest.getType()));
         room.setPrice(roomRequest.getPrice());
         room.setDescription(roomRequest.getDescription());
         room.setAvailable(roomRequest.getAvailable() != null ? roomRequest.getAvailable() : true);
@@ -55,6 +122,7 @@ public class HotelService {
         room.setHotel(hotel); // Устанавливаем связь с отелем
 
         Room savedRoom = roomRepository.save(room);
+        roomInventory.rebuild(hotel.getId(), savedRoom.getType());
 
         System.out.println("✅ Room created successfully:");
         System.out.println("   - Room ID: " + savedRoom.getId());
@@ -71,9 +139,11 @@ public class HotelService {
 
         // Устанавливаем связь
         room.setHotel(hotel);
+        room.setType(roomType(room.getType()));
 
         // Сохраняем комнату
         Room savedRoom = roomRepository.save(room);
+        roomInventory.rebuild(hotelId, savedRoom.getType());
 
         // Добавляем комнату в список отеля (для корректной работы при получении)
         hotel.getRooms().add(savedRoom);
@@ -85,60 +155,280 @@ public class HotelService {
         return savedRoom;
     }
 
+    // Номер по id для booking-service (отель и тип номера для листа ожидания); id отеля берется без загрузки отеля
+    @Transactional(readOnly = true)
+    public Room getRoom(Long roomId) {
+        return roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+    }
+
+    // Снятие номера с продажи (ремонт) и возврат в продажу; счетчики типа перестраиваются после commit
+    @Transactional
+    public Room setRoomAvailable(Long roomId, boolean available) {
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+            room.setAvailable(available);
+            Room saved = roomRepository.save(room);
+            roomInventory.rebuild(saved.getHotel().getId(), saved.getType());
+            System.out.println("🛠️ Room " + roomId + (available ? " returned to sale" : " taken out of sale"));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Свободные номера отеля по типам на все дни [startDate, endDate] из счетчиков RoomInventory
+     *
+     * @param type null - все типы отеля
+     */
+    public Map<String, Integer> getAvailabilityByType(Long hotelId, String type, LocalDate startDate, LocalDate endDate) {
+        if (!roomInventory.isTracked(startDate, endDate)) {
+            throw new RuntimeException("Invalid date range: availability is tracked "
+                    + roomInventory.getHorizonDays() + " days ahead");
+        }
+        if (type == null) {
+            return roomInventory.freeRoomsByType(hotelId, startDate, endDate);
+        }
+        String roomType = roomType(type);
+        return Map.of(roomType, roomInventory.freeRooms(hotelId, roomType, startDate, endDate).orElse(0));
+    }
+
+    @Transactional(readOnly = true, label = "replica:catalog")
     public List<Room> getAllRooms() {
         return roomRepository.findByAvailableTrue();
     }
 
+    @Transactional(readOnly = true, label = "replica:catalog")
     public List<Room> getAvailableRooms(LocalDate startDate, LocalDate endDate) {
-        return roomRepository.findAvailableRooms(startDate, endDate);
+        return queryAvailability("available", startDate, endDate,
+                () -> roomRepository.findAvailableRooms(startDate, endDate));
     }
 
+    @Transactional(readOnly = true, label = "replica:catalog")
     public List<Room> getRecommendedRooms(LocalDate startDate, LocalDate endDate) {
-        return roomRepository.findRecommendedRooms(startDate, endDate);
+        return queryAvailability("recommended", startDate, endDate,
+                () -> roomRepository.findRecommendedRooms(startDate, endDate));
     }
 
-    @Transactional
-    public synchronized boolean confirmAvailability(Long roomId, LocalDate startDate, LocalDate endDate, String requestId) {
-        // Проверка идемпотентности
-        if (isRequestProcessed(requestId)) {
-            return true;
+    // JFR событие на запрос доступности; поля заполняются только если событие будет записано
+    private List<Room> queryAvailability(String query, LocalDate startDate, LocalDate endDate, Supplier<List<Room>> action) {
+        AvailabilityQueryEvent event = new AvailabilityQueryEvent();
+        event.begin();
+        List<Room> rooms = null;
+        try {
+            rooms = action.get();
+            return rooms;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = query;
+                event.startDate = String.valueOf(startDate);
+                event.endDate = String.valueOf(endDate);
+                event.nights = startDate != null && endDate != null ? ChronoUnit.DAYS.between(startDate, endDate) : 0;
+                event.roomsFound = rooms != null ? rooms.size() : 0;
+                event.outcome = rooms != null ? OUTCOME_SUCCESS : OUTCOME_ERROR;
+                event.commit();
+            }
         }
+    }
 
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        if (!room.getAvailable()) {
-            return false;
+    // Блокировка номера держится до commit удержания, чтобы параллельное подтверждение того же номера
+    // уже видело его в базе: транзакция открывается внутри блокировки, а не на методе
+    public boolean confirmAvailability(Long roomId, LocalDate startDate, LocalDate endDate, String requestId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ConfirmAvailabilityEvent event = new ConfirmAvailabilityEvent();
+        event.begin();
+        String outcome = OUTCOME_ERROR;
+        ReentrantLock lock = lockFor(roomId);
+        Timer.Sample lockWait = Timer.start(meterRegistry);
+        if (!acquire(lock)) {
+            lockWait.stop(stepTimer("lock-wait", OUTCOME_DEADLINE_EXCEEDED));
+            sample.stop(stepTimer("confirm-availability", OUTCOME_DEADLINE_EXCEEDED));
+            throw new DeadlineExceededException("Deadline exceeded waiting for room " + roomId + " lock");
         }
+        lockWait.stop(stepTimer("lock-wait", OUTCOME_SUCCESS));
+        try {
+            // Проверка идемпотентности
+            if (isRequestProcessed(requestId)) {
+                outcome = OUTCOME_DUPLICATE;
+                return true;
+            }
+
+            // Удержание и поправка счетчиков - вместе, чтобы перестроение RoomInventory не попало между ними
+            Room held = roomInventory.withHoldsLocked(() -> holdRoom(roomId, startDate, endDate, requestId));
+
+            if (held == null) {
+                outcome = OUTCOME_CONFLICT;
+                return false;
+            }
 
-        // Проверка доступности на даты
-        List<Room> availableRooms = roomRepository.findAvailableRooms(startDate, endDate);
-        boolean isAvailable = availableRooms.stream()
-                .anyMatch(r -> r.getId().equals(roomId));
-
-        if (isAvailable) {
             markRequestProcessed(requestId);
+            outcome = OUTCOME_SUCCESS;
+            return true;
+        } finally {
+            lock.unlock();
+            sample.stop(stepTimer("confirm-availability", outcome));
+            event.end();
+            if (event.shouldCommit()) {
+                event.roomId = roomId;
+                event.startDate = String.valueOf(startDate);
+                event.endDate = String.valueOf(endDate);
+                event.nights = ChronoUnit.DAYS.between(startDate, endDate);
+                event.requestId = requestId;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
+    }
 
-        return isAvailable;
+    // Номер свободен на даты - удерживается; null - занят или снят с продажи
+    private Room holdRoom(Long roomId, LocalDate startDate, LocalDate endDate, String requestId) {
+        Room held = new TransactionTemplate(transactionManager).execute(status -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+
+            if (!room.getAvailable()) {
+                return null;
+            }
+
+            // Проверка доступности на даты
+            List<Room> availableRooms = queryAvailability("confirm-check", startDate, endDate,
+                    () -> roomRepository.findAvailableRooms(startDate, endDate));
+            boolean isAvailable = availableRooms.stream()
+                    .anyMatch(r -> r.getId().equals(roomId));
+            if (!isAvailable) {
+                return null;
+            }
+
+            // Удержание номера на даты: следующие проверки доступности его уже не предложат
+            Booking hold = new Booking();
+            hold.setRoomId(roomId);
+            hold.setStatus(Booking.BookingStatus.CONFIRMED);
+            hold.setStartDate(startDate);
+            hold.setEndDate(endDate);
+            hold.setRequestId(requestId);
+            bookingRepository.save(hold);
+            return room;
+        });
+        if (held != null) {
+            roomInventory.reserve(held.getHotel().getId(), held.getType(), startDate, endDate);
+        }
+        return held;
     }
 
-    @Transactional
-    public void releaseRoom(Long roomId, String requestId) {
-        // Компенсирующее действие - снятие блокировки
-        if (!isRequestProcessed(requestId)) {
-            return;
+    /**
+     * Подтверждение бронирования по типу номера: конкретный номер выбирается только здесь
+     *
+     * Счетчики RoomInventory отсекают запрос без свободных номеров без обращения к базе;
+     * иначе номера типа перебираются от наименее загруженного, первый подтвержденный удерживается.
+     *
+     * @return удержанный номер или null, если свободных номеров типа на даты нет
+     */
+    public Room confirmRoomType(Long hotelId, String type, LocalDate startDate, LocalDate endDate, String requestId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            // Повтор запроса: номер уже выбран
+            Optional<Booking> existing = bookingRepository.findFirstByRequestIdAndStatus(requestId, Booking.BookingStatus.CONFIRMED);
+            if (existing.isPresent()) {
+                outcome = OUTCOME_DUPLICATE;
+                return getRoom(existing.get().getRoomId());
+            }
+
+            String roomType = roomType(type);
+            OptionalInt free = roomInventory.freeRooms(hotelId, roomType, startDate, endDate);
+            if (free.isPresent() && free.getAsInt() == 0) {
+                outcome = OUTCOME_CONFLICT;
+                return null;
+            }
+
+            for (Room candidate : roomRepository.findAvailableRoomsOfType(hotelId, roomType, startDate, endDate)) {
+                Deadline.check("confirming room " + candidate.getId());
+                if (confirmAvailability(candidate.getId(), startDate, endDate, requestId)) {
+                    outcome = OUTCOME_SUCCESS;
+                    return candidate;
+                }
+            }
+            outcome = OUTCOME_CONFLICT;
+            return null;
+        } finally {
+            sample.stop(stepTimer("confirm-room-type", outcome));
         }
+    }
 
+    public void releaseRoom(Long roomId, String requestId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Компенсирующее действие - снятие удержания
         removeProcessedRequest(requestId);
+        int released = releaseHolds(() -> bookingRepository
+                .findFirstByRequestIdAndStatus(requestId, Booking.BookingStatus.CONFIRMED)
+                .map(List::of)
+                .orElse(List.of()));
+        sample.stop(stepTimer("compensate", released > 0 ? OUTCOME_SUCCESS : OUTCOME_NOT_FOUND));
+    }
+
+    // Бронирование отменено: даты номера снова в продаже
+    public void releaseStay(Long roomId, LocalDate startDate, LocalDate endDate) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int released = releaseHolds(() -> bookingRepository.findByRoomIdAndStatusAndStartDateAndEndDate(
+                roomId, Booking.BookingStatus.CONFIRMED, startDate, endDate));
+        sample.stop(stepTimer("release-stay", released > 0 ? OUTCOME_SUCCESS : OUTCOME_NOT_FOUND));
+    }
+
+    // Удержание снимается условным UPDATE: из параллельных снятий одного удержания
+    // (повтор компенсации, отмена) номер в счетчики возвращает только то, чей UPDATE изменил строку
+    private int releaseHolds(Supplier<List<Booking>> holds) {
+        List<Booking> released = roomInventory.withHoldsLocked(() -> {
+            List<Booking> cancelled = new TransactionTemplate(transactionManager).execute(status ->
+                    holds.get().stream()
+                            .filter(hold -> bookingRepository.updateStatus(List.of(hold.getId()),
+                                    Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.CANCELLED) == 1)
+                            .toList());
+            for (Booking hold : cancelled) {
+                Room room = getRoom(hold.getRoomId());
+                roomInventory.release(room.getHotel().getId(), room.getType(), hold.getStartDate(), hold.getEndDate());
+            }
+            return cancelled;
+        });
+        released.forEach(hold -> removeProcessedRequest(hold.getRequestId()));
+        return released.size();
     }
 
     @Transactional
     public void incrementTimesBooked(Long roomId) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-        room.setTimesBooked(room.getTimesBooked() + 1);
-        roomRepository.save(room);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+            room.setTimesBooked(room.getTimesBooked() + 1);
+            roomRepository.save(room);
+            outcome = OUTCOME_SUCCESS;
+        } finally {
+            sample.stop(stepTimer("increment", outcome));
+        }
+    }
+
+    // Тип номера хранится и ищется в верхнем регистре: счетчики RoomInventory и поиск по типу
+    // не должны зависеть от того, как тип ввел администратор
+    private static String roomType(String type) {
+        return type != null ? type.toUpperCase() : null;
+    }
+
+    // Серверная сторона шагов саги бронирования; общие шаги называются как в booking.saga.step
+    // (confirm-availability, increment, compensate), lock-wait, confirm-room-type и release-stay - только здесь
+    private Timer stepTimer(String step, String outcome) {
+        return stepTimers.computeIfAbsent(step + '|' + outcome, key -> Timer.builder("hotel.saga.step")
+                .description("Hotel-side step of the booking saga")
+                .tag("step", step)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
     }
 
     private boolean isRequestProcessed(String requestId) {
@@ -152,11 +442,13 @@ public class HotelService {
     }
 
     private void removeProcessedRequest(String requestId) {
-        ProcessedRequests.remove(requestId);
+        if (requestId != null) {
+            ProcessedRequests.remove(requestId);
+        }
     }
 
     private static class ProcessedRequests {
-        private static final java.util.Set<String> requests = java.util.Collections.synchronizedSet(new java.util.HashSet<>());
+        private static final Set<String> requests = ConcurrentHashMap.newKeySet();
 
         public static boolean contains(String requestId) {
             return requests.contains(requestId);
@@ -0,0 +1,310 @@
+package com.hotel.hotel.snapshot;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * Двоичный снимок каталога (отели, номера) и удержаний номеров
+ *
+ * Формат (SnapshotWriter): заголовок (magic, версия, время, число строк каждой таблицы),
+ * строки таблиц hotels, rooms, bookings подряд и CRC32C всего предшествующего содержимого
+ * в конце. Снимок пишется в одной REPEATABLE READ транзакции и атомарно заменяет предыдущий. Восстановление читает файл через mmap (MappedSnapshotReader)
+ * и вставляет строки JDBC пакетами в одной транзакции, минуя JPA: время старта
+ * определяется скоростью чтения файла и пакетной записи, а не числом обращений к базе.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final int INSERT_BATCH = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${hotel.snapshot.path:./data/hotel-catalog.snapshot}")
+    private Path path;
+
+    @Value("${hotel.snapshot.dump-on-shutdown:false}")
+    private boolean dumpOnShutdown;
+
+    public record Summary(String path, long createdAt, long hotels, long rooms, long bookings, long bytes, long millis) {
+    }
+
+    public CatalogSnapshot(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        // Собственный JdbcTemplate: fetch size для потокового чтения таблиц не влияет на остальной код
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionManager = transactionManager;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private String absolute() {
+        return path.toAbsolutePath().toString();
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    /**
+     * Заголовок существующего снимка без чтения строк
+     */
+    public Summary describe() throws IOException {
+        try (MappedSnapshotReader reader = new MappedSnapshotReader(path)) {
+            long createdAt = readHeader(reader);
+            return new Summary(absolute(), createdAt, reader.readLong(), reader.readLong(), reader.readLong(), reader.size(), 0);
+        }
+    }
+
+    /**
+     * Записать снимок текущего состояния в hotel.snapshot.path
+     */
+    public synchronized Summary dump() throws IOException {
+        long start = System.nanoTime();
+        long createdAt = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Согласованное состояние трех таблиц; не readOnly, чтобы в профиле replica читалась основная база
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        long[] counts;
+        try {
+            counts = transaction.execute(status -> {
+                try {
+                    return writeTables(createdAt);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Summary summary = new Summary(absolute(), createdAt, counts[0], counts[1], counts[2], Files.size(path),
+                (System.nanoTime() - start) / 1_000_000);
+        System.out.println("💾 Catalog snapshot written: " + summary);
+        return summary;
+    }
+
+    /**
+     * Заменить содержимое hotels, rooms и bookings строками снимка
+     *
+     * Поврежденный или чужой файл - IOException до изменения базы; ошибка вставки откатывает транзакцию.
+     */
+    public synchronized Summary restore() throws IOException {
+        long start = System.nanoTime();
+        try (MappedSnapshotReader reader = new MappedSnapshotReader(path)) {
+            if (reader.size() < SnapshotWriter.HEADER_BYTES + SnapshotWriter.TRAILER_BYTES) {
+                throw new IOException("Snapshot " + path + " is truncated (" + reader.size() + " bytes)");
+            }
+            long dataEnd = reader.size() - SnapshotWriter.TRAILER_BYTES;
+            reader.seek(dataEnd);
+            long expected = reader.readLong();
+            if (reader.checksum(dataEnd) != expected) {
+                throw new IOException("Snapshot " + path + " checksum mismatch");
+            }
+            reader.seek(0);
+            long createdAt = readHeader(reader);
+            long hotels = reader.readLong();
+            long rooms = reader.readLong();
+            long bookings = reader.readLong();
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                        try {
+                            replaceTables(connection, reader, hotels, rooms, bookings);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    }));
+
+            Summary summary = new Summary(absolute(), createdAt, hotels, rooms, bookings, reader.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            System.out.println("📦 Catalog restored from snapshot: " + summary);
+            return summary;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void dumpOnShutdown() {
+        if (!dumpOnShutdown) {
+            return;
+        }
+        try {
+            dump();
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to write catalog snapshot on shutdown: " + e.getMessage());
+        }
+    }
+
+    private long[] writeTables(long createdAt) throws IOException {
+        long hotels = count("hotels");
+        long rooms = count("rooms");
+        long bookings = count("bookings");
+        try (SnapshotWriter writer = new SnapshotWriter(path, createdAt, hotels, rooms, bookings)) {
+            DataOutput out = writer.output();
+            writeRows(hotels, "SELECT id, name, address FROM hotels ORDER BY id", rs ->
+                    SnapshotWriter.writeHotel(out, rs.getLong(1), rs.getString(2), rs.getString(3)));
+            writeRows(rooms, "SELECT id, hotel_id, number, available, times_booked, type, price, description "
+                    + "FROM rooms ORDER BY id", rs ->
+                    SnapshotWriter.writeRoom(out, rs.getLong(1), rs.getLong(2), rs.getString(3),
+                            rs.getObject(4, Boolean.class), rs.getObject(5, Integer.class), rs.getString(6),
+                            rs.getObject(7, Double.class), rs.getString(8)));
+            writeRows(bookings, "SELECT id, room_id, status, start_date, end_date, request_id "
+                    + "FROM bookings ORDER BY id", rs ->
+                    SnapshotWriter.writeBooking(out, rs.getLong(1), rs.getLong(2), rs.getString(3),
+                            rs.getObject(4, LocalDate.class), rs.getObject(5, LocalDate.class), rs.getString(6)));
+            writer.commit();
+        }
+        return new long[]{hotels, rooms, bookings};
+    }
+
+    private void replaceTables(Connection connection, MappedSnapshotReader reader,
+                               long hotels, long rooms, long bookings) throws SQLException, IOException {
+        try (var statement = connection.createStatement()) {
+            // Удержания ссылаются на номера только по id, номера на отели - внешним ключом
+            statement.executeUpdate("DELETE FROM bookings");
+            statement.executeUpdate("DELETE FROM rooms");
+            statement.executeUpdate("DELETE FROM hotels");
+        }
+
+        insertRows(connection, reader, hotels, "INSERT INTO hotels (id, name, address) VALUES (?, ?, ?)", insert -> {
+            insert.setLong(1, reader.readLong());
+            insert.setString(2, reader.readString());
+            insert.setString(3, reader.readString());
+        });
+        insertRows(connection, reader, rooms, "INSERT INTO rooms (id, hotel_id, number, available, times_booked, "
+                + "type, price, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", insert -> {
+            insert.setLong(1, reader.readLong());
+            insert.setLong(2, reader.readLong());
+            insert.setString(3, reader.readString());
+            byte available = reader.readByte();
+            if (available < 0) {
+                insert.setNull(4, Types.BOOLEAN);
+            } else {
+                insert.setBoolean(4, available == 1);
+            }
+            boolean hasTimesBooked = reader.readByte() != 0;
+            int timesBooked = reader.readInt();
+            if (hasTimesBooked) {
+                insert.setInt(5, timesBooked);
+            } else {
+                insert.setNull(5, Types.INTEGER);
+            }
+            insert.setString(6, reader.readString());
+            boolean hasPrice = reader.readByte() != 0;
+            double price = reader.readDouble();
+            if (hasPrice) {
+                insert.setDouble(7, price);
+            } else {
+                insert.setNull(7, Types.DOUBLE);
+            }
+            insert.setString(8, reader.readString());
+        });
+        insertRows(connection, reader, bookings, "INSERT INTO bookings (id, room_id, status, start_date, end_date, "
+                + "request_id) VALUES (?, ?, ?, ?, ?, ?)", insert -> {
+            insert.setLong(1, reader.readLong());
+            insert.setLong(2, reader.readLong());
+            insert.setString(3, reader.readString());
+            insert.setDate(4, readDate(reader));
+            insert.setDate(5, readDate(reader));
+            insert.setString(6, reader.readString());
+        });
+
+        // Pooled optimizer: значение sequence - верхняя граница пула (см. V3__pooled_id_sequences.sql)
+        try (var statement = connection.createStatement()) {
+            for (String table : new String[]{"hotels", "rooms", "bookings"}) {
+                statement.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH "
+                        + "(SELECT COALESCE(MAX(id), 0) + 51 FROM " + table + ")");
+            }
+        }
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private interface RowReader {
+        void read(PreparedStatement insert) throws SQLException, IOException;
+    }
+
+    private void writeRows(long expected, String sql, RowWriter writer) throws IOException {
+        long[] written = {0};
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // Число строк в заголовке посчитано в той же транзакции
+        if (written[0] != expected) {
+            throw new IOException("Row count changed during snapshot: expected " + expected + ", got " + written[0]);
+        }
+    }
+
+    private static void insertRows(Connection connection, MappedSnapshotReader reader, long rows, String sql,
+                                   RowReader rowReader) throws SQLException, IOException {
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long row = 1; row <= rows; row++) {
+                rowReader.read(insert);
+                insert.addBatch();
+                if (row % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static long readHeader(MappedSnapshotReader reader) throws IOException {
+        if (reader.readInt() != SnapshotWriter.MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = reader.readInt();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        return reader.readLong();
+    }
+
+    private static Date readDate(MappedSnapshotReader reader) throws IOException {
+        long epochDay = reader.readLong();
+        return epochDay == SnapshotWriter.NO_DATE ? null : Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+}
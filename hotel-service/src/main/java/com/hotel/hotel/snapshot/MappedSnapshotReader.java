@@ -0,0 +1,127 @@
+package com.hotel.hotel.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Последовательное чтение файла снимка через memory-mapped окна
+ *
+ * Одно отображение ограничено 2 ГБ, поэтому файл читается окнами по WINDOW байт;
+ * когда до конца окна остается меньше, чем нужно очередному значению, окно
+ * переотображается с текущей позиции. Данные не копируются в heap целиком.
+ */
+class MappedSnapshotReader implements AutoCloseable {
+
+    static final long WINDOW = 256L * 1024 * 1024;
+    // Самое длинное значение - строка VARCHAR(255) в UTF-8 с длиной
+    static final int MAX_VALUE_BYTES = 4 + 255 * 4;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long window;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+
+    MappedSnapshotReader(Path file) throws IOException {
+        this(file, WINDOW);
+    }
+
+    // Окно меньше WINDOW - чтобы проверить переход через границу окна на небольшом файле
+    MappedSnapshotReader(Path file, long window) throws IOException {
+        if (window < MAX_VALUE_BYTES) {
+            throw new IllegalArgumentException("Window must fit the longest value: " + window);
+        }
+        this.window = window;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long position() {
+        return windowStart + buffer.position();
+    }
+
+    /**
+     * CRC32C всех байт до offset; позиция чтения не меняется
+     */
+    long checksum(long offset) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long start = 0; start < offset; start += window) {
+            long length = Math.min(window, offset - start);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+        }
+        return crc.getValue();
+    }
+
+    void seek(long offset) throws IOException {
+        map(offset);
+    }
+
+    byte readByte() throws IOException {
+        ensure(1);
+        return buffer.get();
+    }
+
+    int readInt() throws IOException {
+        ensure(4);
+        return buffer.getInt();
+    }
+
+    long readLong() throws IOException {
+        ensure(8);
+        return buffer.getLong();
+    }
+
+    double readDouble() throws IOException {
+        ensure(8);
+        return buffer.getDouble();
+    }
+
+    String readString() throws IOException {
+        ensure(4);
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_VALUE_BYTES) {
+            throw new IOException("Corrupted snapshot: string of " + length + " bytes at " + position());
+        }
+        ensure(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        long position = position();
+        if (position + bytes > size) {
+            throw new IOException("Corrupted snapshot: unexpected end of file at " + position,
+                    new BufferUnderflowException());
+        }
+        map(position);
+    }
+
+    private void map(long offset) throws IOException {
+        long length = Math.min(window, size - offset);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        windowStart = offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
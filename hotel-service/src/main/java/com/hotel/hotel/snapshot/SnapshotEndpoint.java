@@ -0,0 +1,50 @@
+package com.hotel.hotel.snapshot;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Снимок каталога для быстрого перезапуска (только ADMIN)
+ *
+ * POST /actuator/snapshot - записать снимок в hotel.snapshot.path
+ * GET  /actuator/snapshot - заголовок текущего снимка
+ *
+ * Восстановление только при старте (DataLoader): на работающем сервисе оно разошлось бы
+ * с кэшами Hibernate и счетчиками RoomInventory.
+ */
+@Component
+@Endpoint(id = "snapshot")
+public class SnapshotEndpoint {
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    public SnapshotEndpoint(CatalogSnapshot catalogSnapshot) {
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("path", catalogSnapshot.getPath().toAbsolutePath().toString());
+        status.put("exists", catalogSnapshot.exists());
+        if (catalogSnapshot.exists()) {
+            try {
+                status.put("snapshot", catalogSnapshot.describe());
+            } catch (IOException e) {
+                status.put("error", e.getMessage());
+            }
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public CatalogSnapshot.Summary dump() throws IOException {
+        return catalogSnapshot.dump();
+    }
+}
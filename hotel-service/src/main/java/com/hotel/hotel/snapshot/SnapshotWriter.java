@@ -0,0 +1,132 @@
+package com.hotel.hotel.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Запись файла снимка каталога (формат читает CatalogSnapshot.restore)
+ *
+ * Заголовок пишется в конструкторе, поэтому число строк каждой таблицы известно заранее;
+ * строки - hotels, rooms, bookings именно в этом порядке. Файл пишется во временный
+ * рядом с целевым и заменяет его только в commit(); close() без commit() удаляет временный.
+ * Статические write* кодируют одну строку в любой DataOutput: так секцию можно собрать
+ * отдельно (например, параллельно) и дописать через append.
+ */
+public class SnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x48435331; // "HCS1"
+    static final int VERSION = 1;
+    // magic, version, createdAt, hotels, rooms, bookings
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 * 3;
+    static final int TRAILER_BYTES = 8;
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Path target;
+    private final Path temp;
+    private final FileOutputStream file;
+    private final CRC32C crc = new CRC32C();
+    private final DataOutputStream out;
+    private boolean committed;
+
+    public SnapshotWriter(Path target, long createdAt, long hotels, long rooms, long bookings) throws IOException {
+        this.target = target.toAbsolutePath();
+        Files.createDirectories(this.target.getParent());
+        this.temp = this.target.resolveSibling(this.target.getFileName() + ".tmp");
+        this.file = new FileOutputStream(temp.toFile());
+        this.out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 20));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(createdAt);
+        out.writeLong(hotels);
+        out.writeLong(rooms);
+        out.writeLong(bookings);
+    }
+
+    public DataOutput output() {
+        return out;
+    }
+
+    /**
+     * Дописать строки, ранее закодированные write* в отдельный файл
+     */
+    public void append(Path records) throws IOException {
+        Files.copy(records, out);
+    }
+
+    public void append(byte[] records, int length) throws IOException {
+        out.write(records, 0, length);
+    }
+
+    /**
+     * Контрольная сумма, сброс на диск и атомарная замена целевого файла
+     */
+    public void commit() throws IOException {
+        out.flush();
+        // Контрольная сумма пишется мимо CheckedOutputStream
+        file.write(ByteBuffer.allocate(TRAILER_BYTES).putLong(crc.getValue()).array());
+        file.getChannel().force(true);
+        file.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            file.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static void writeHotel(DataOutput out, long id, String name, String address) throws IOException {
+        out.writeLong(id);
+        writeString(out, name);
+        writeString(out, address);
+    }
+
+    public static void writeRoom(DataOutput out, long id, long hotelId, String number, Boolean available,
+                                 Integer timesBooked, String type, Double price, String description) throws IOException {
+        out.writeLong(id);
+        out.writeLong(hotelId);
+        writeString(out, number);
+        out.writeByte(available == null ? -1 : available ? 1 : 0);
+        out.writeBoolean(timesBooked != null);
+        out.writeInt(timesBooked != null ? timesBooked : 0);
+        writeString(out, type);
+        out.writeBoolean(price != null);
+        out.writeDouble(price != null ? price : 0);
+        writeString(out, description);
+    }
+
+    public static void writeBooking(DataOutput out, long id, long roomId, String status, LocalDate startDate,
+                                    LocalDate endDate, String requestId) throws IOException {
+        out.writeLong(id);
+        out.writeLong(roomId);
+        writeString(out, status);
+        out.writeLong(startDate != null ? startDate.toEpochDay() : NO_DATE);
+        out.writeLong(endDate != null ? endDate.toEpochDay() : NO_DATE);
+        writeString(out, requestId);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
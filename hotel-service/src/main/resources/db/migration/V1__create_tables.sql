@@ -0,0 +1,27 @@
+-- Схема hotel-service (профиль prod, Hibernate только проверяет ее: ddl-auto=validate)
+
+CREATE TABLE hotels (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255),
+    address VARCHAR(255)
+);
+
+CREATE TABLE rooms (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    number       VARCHAR(255),
+    available    BOOLEAN,
+    times_booked INTEGER,
+    type         VARCHAR(255),
+    price        DOUBLE PRECISION,
+    description  VARCHAR(255),
+    hotel_id     BIGINT,
+    CONSTRAINT fk_rooms_hotel FOREIGN KEY (hotel_id) REFERENCES hotels (id)
+);
+
+CREATE TABLE bookings (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_id    BIGINT,
+    status     VARCHAR(32),
+    start_date DATE,
+    end_date   DATE
+);
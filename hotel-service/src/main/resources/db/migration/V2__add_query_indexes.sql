@@ -0,0 +1,5 @@
+-- Свободные номера отеля (hotel_id = ? AND available)
+CREATE INDEX idx_rooms_hotel_available ON rooms (hotel_id, available);
+
+-- Проверка занятости номера в запросах доступности: NOT EXISTS по room_id, status и датам
+CREATE INDEX idx_bookings_room_status_dates ON bookings (room_id, status, start_date, end_date);
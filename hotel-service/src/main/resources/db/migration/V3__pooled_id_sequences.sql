@@ -0,0 +1,16 @@
+-- id выдаются Hibernate из sequence пулами по 50 (allocationSize) вместо IDENTITY,
+-- поэтому INSERT откладывается до flush и уходит JDBC пакетами.
+-- Pooled optimizer считает значение sequence верхней границей пула:
+-- первое значение должно быть не меньше MAX(id) + 50, иначе пул пересечется с существующими строками.
+
+ALTER TABLE hotels ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE hotels_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE hotels_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM hotels);
+
+ALTER TABLE rooms ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE rooms_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE rooms_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM rooms);
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM bookings);
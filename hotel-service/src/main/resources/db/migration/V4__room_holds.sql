@@ -0,0 +1,6 @@
+-- Удержания номеров сагой бронирования: confirm-availability пишет строку в bookings,
+-- release снимает ее по X-Request-Id
+
+ALTER TABLE bookings ADD COLUMN request_id VARCHAR(255);
+
+CREATE INDEX idx_bookings_request ON bookings (request_id);
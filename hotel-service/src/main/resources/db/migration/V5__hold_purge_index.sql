@@ -0,0 +1,3 @@
+-- HoldPurger выбирает закончившиеся удержания по статусу и дате выезда
+
+CREATE INDEX idx_bookings_status_end ON bookings (status, end_date);
@@ -0,0 +1,3 @@
+-- Тип номера хранится в верхнем регистре (так его ищут RoomInventory и подтверждение по типу)
+
+UPDATE rooms SET type = UPPER(type) WHERE type <> UPPER(type);
@@ -0,0 +1,90 @@
+package com.hotel.hotel.config;
+
+import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheConfigTest {
+
+    @SpringBootConfiguration
+    @EntityScan("com.hotel.hotel.entity")
+    @EnableJpaRepositories(basePackageClasses = RoomRepository.class)
+    @Import(EntityCacheConfig.class)
+    static class Config {
+    }
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager entityCacheManager;
+
+    @Autowired
+    private EntityCacheProperties properties;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testRoomIsServedFromSecondLevelCache() {
+        Room room = new Room();
+        room.setNumber("101");
+        room.setType("STANDARD");
+        room.setPrice(100.0);
+        Long id = roomRepository.save(room).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        // Каждый вызов репозитория - отдельный EntityManager: первый читает базу, второй - кэш
+        roomRepository.findById(id).orElseThrow();
+        Room cached = roomRepository.findById(id).orElseThrow();
+
+        assertEquals("101", cached.getNumber());
+        assertTrue(entityManagerFactory.getCache().contains(Room.class, id));
+        assertEquals(1, statistics.getDomainDataRegionStatistics("rooms").getMissCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("rooms").getHitCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testAnotherContextGetsItsOwnCacheManager() {
+        EntityCacheConfig config = new EntityCacheConfig();
+
+        try (CacheManager other = config.entityCacheManager(properties)) {
+            assertNotSame(entityCacheManager, other);
+            assertNotNull(other.getCache("rooms"));
+        }
+
+        // Закрытие чужого менеджера не трогает регионы этого контекста
+        assertFalse(entityCacheManager.isClosed());
+        assertNotNull(entityCacheManager.getCache("rooms"));
+    }
+}
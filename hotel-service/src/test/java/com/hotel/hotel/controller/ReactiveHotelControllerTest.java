@@ -0,0 +1,129 @@
+package com.hotel.hotel.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hotel.hotel.config.ReactiveDataConfig;
+import com.hotel.hotel.mapper.HotelMapper;
+import com.hotel.hotel.repository.ReactiveCatalogRepository;
+import com.hotel.hotel.service.HotelService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JSON реактивного каталога (R2DBC) совпадает с ответами servlet-контроллера (JPA)
+ *
+ * Оба контроллера работают над одной in-memory базой: servlet - через контекст приложения,
+ * реактивный - через DatabaseClient, созданный так же, как в профиле reactive.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+class ReactiveHotelControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HotelMapper hotelMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReactiveDataConfig reactiveDataConfig = new ReactiveDataConfig();
+    private WebTestClient servlet;
+    private WebTestClient reactive;
+
+    @BeforeEach
+    void setUp() {
+        servlet = MockMvcWebTestClient.bindTo(mockMvc)
+                .defaultHeader("X-User-Name", "admin")
+                .defaultHeader("X-User-Role", "ADMIN")
+                .build();
+        ReactiveCatalogRepository catalogRepository = new ReactiveCatalogRepository(
+                reactiveDataConfig.databaseClient("r2dbc:h2:mem:///hoteldb", "sa", ""));
+        reactive = WebTestClient.bindToController(
+                new ReactiveHotelController(hotelService, hotelMapper, catalogRepository)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveDataConfig.close();
+    }
+
+    private JsonNode get(WebTestClient client, String uri) throws Exception {
+        byte[] body = client.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+        return sortedById(objectMapper.readTree(body));
+    }
+
+    // Порядок номеров внутри отеля JPA не гарантирует - сравниваем списки упорядоченными по id
+    private static JsonNode sortedById(JsonNode node) {
+        if (node instanceof ArrayNode array) {
+            List<JsonNode> items = new ArrayList<>();
+            array.forEach(item -> items.add(sortedById(item)));
+            if (items.stream().allMatch(item -> item.has("id"))) {
+                items.sort(Comparator.comparingLong(item -> item.get("id").asLong()));
+            }
+            ArrayNode sorted = array.arrayNode();
+            sorted.addAll(items);
+            return sorted;
+        }
+        if (node instanceof ObjectNode object) {
+            object.fields().forEachRemaining(field -> field.setValue(sortedById(field.getValue())));
+        }
+        return node;
+    }
+
+    @Test
+    void catalogJsonMatchesServletEndpoints() throws Exception {
+        Long hotelId = get(servlet, "/api/hotels").get(0).get("id").asLong();
+        servlet.post().uri("/api/rooms")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("hotelId", hotelId, "number", "R-" + System.nanoTime(), "type", "suite"))
+                .exchange()
+                .expectStatus().isOk();
+
+        LocalDate start = LocalDate.now().plusDays(30);
+        String dates = "?startDate=" + start + "&endDate=" + start.plusDays(3);
+        for (String uri : List.of("/api/hotels", "/api/rooms", "/api/rooms/available" + dates, "/api/rooms/recommend" + dates)) {
+            JsonNode expected = get(servlet, uri);
+            assertFalse(expected.isEmpty(), uri);
+            assertEquals(expected, get(reactive, uri), uri);
+        }
+
+        // Тип номера есть в обоих ответах
+        JsonNode rooms = get(reactive, "/api/rooms");
+        boolean typed = false;
+        for (JsonNode room : rooms) {
+            typed |= "SUITE".equals(room.path("type").asText());
+        }
+        assertTrue(typed);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hotel.hotel.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeCountTreeTest {
+
+    @Test
+    void rangeAddAndMinMatchPlainArray() {
+        Random random = new Random(42);
+        for (int size : new int[]{1, 2, 7, 64, 365}) {
+            FreeCountTree tree = new FreeCountTree(size, 5);
+            int[] days = new int[size];
+            Arrays.fill(days, 5);
+            assertEquals(size, tree.size());
+
+            for (int op = 0; op < 2_000; op++) {
+                int from = random.nextInt(size);
+                int to = from + random.nextInt(size - from);
+                if (random.nextBoolean()) {
+                    int delta = random.nextInt(5) - 2;
+                    tree.add(from, to, delta);
+                    for (int day = from; day <= to; day++) {
+                        days[day] += delta;
+                    }
+                } else {
+                    assertEquals(Arrays.stream(days, from, to + 1).min().getAsInt(), tree.min(from, to),
+                            "size " + size + ", [" + from + ", " + to + "]");
+                }
+            }
+        }
+    }
+
+    @Test
+    void pendingAddIsPushedToPartlyCoveredChildren() {
+        FreeCountTree tree = new FreeCountTree(8, 3);
+        // Весь корень: прибавление остается отложенным в корне
+        tree.add(0, 7, -1);
+        // Частичное прибавление спускает отложенное в потомков
+        tree.add(2, 3, -2);
+        tree.add(3, 6, 1);
+
+        assertEquals(2, tree.min(0, 1));
+        assertEquals(0, tree.min(2, 2));
+        assertEquals(1, tree.min(3, 3));
+        assertEquals(3, tree.min(4, 6));
+        assertEquals(2, tree.min(7, 7));
+        assertEquals(0, tree.min(0, 7));
+    }
+}
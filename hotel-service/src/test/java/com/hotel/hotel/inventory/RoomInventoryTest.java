@@ -0,0 +1,174 @@
+package com.hotel.hotel.inventory;
+
+import com.hotel.hotel.entity.Booking;
+import com.hotel.hotel.repository.BookingRepository;
+import com.hotel.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomInventoryTest {
+
+    private static final Long HOTEL = 1L;
+    private static final String STANDARD = "STANDARD";
+    private static final LocalDate TODAY = LocalDate.of(2030, 5, 1);
+
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    // Удержания "в базе"
+    private final List<Booking> holds = new CopyOnWriteArrayList<>();
+    private RoomInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findSellableRoomKeys()).thenReturn(List.of(
+                new Object[]{10L, HOTEL, STANDARD},
+                new Object[]{11L, HOTEL, STANDARD},
+                new Object[]{12L, HOTEL, STANDARD},
+                new Object[]{20L, HOTEL, "SUITE"}));
+        when(roomRepository.findSellableRoomIds(HOTEL, STANDARD)).thenReturn(List.of(10L, 11L, 12L));
+        when(bookingRepository.findActiveHolds(anyList(), any())).thenAnswer(invocation -> {
+            Collection<Long> roomIds = invocation.getArgument(0);
+            LocalDate from = invocation.getArgument(1);
+            return holds.stream()
+                    .filter(hold -> roomIds.contains(hold.getRoomId()) && !hold.getEndDate().isBefore(from))
+                    .toList();
+        });
+
+        inventory = new RoomInventory(roomRepository, bookingRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(inventory, "horizonDays", 30);
+        inventory.setClock(clockAt(TODAY));
+    }
+
+    private static Clock clockAt(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private Booking hold(long roomId, LocalDate start, LocalDate end) {
+        Booking hold = new Booking();
+        hold.setRoomId(roomId);
+        hold.setStatus(Booking.BookingStatus.CONFIRMED);
+        hold.setStartDate(start);
+        hold.setEndDate(end);
+        holds.add(hold);
+        return hold;
+    }
+
+    private int free(LocalDate start, LocalDate end) {
+        return inventory.freeRooms(HOTEL, STANDARD, start, end).orElseThrow();
+    }
+
+    @Test
+    void countsHoldsFromDatabaseAndAppliesDeltas() {
+        assertEquals(OptionalInt.empty(), inventory.freeRooms(HOTEL, STANDARD, TODAY, TODAY.plusDays(1)));
+
+        hold(10, TODAY.plusDays(2), TODAY.plusDays(4));
+        hold(11, TODAY.minusDays(5), TODAY.minusDays(1));
+        inventory.rebuild();
+
+        assertEquals(3, free(TODAY, TODAY.plusDays(1)));
+        assertEquals(2, free(TODAY, TODAY.plusDays(2)));
+        assertEquals(1, inventory.freeRooms(HOTEL, "SUITE", TODAY, TODAY).orElseThrow());
+        assertEquals(0, inventory.freeRooms(HOTEL, "PENTHOUSE", TODAY, TODAY).orElseThrow());
+
+        inventory.reserve(HOTEL, STANDARD, TODAY, TODAY.plusDays(1));
+        assertEquals(2, free(TODAY, TODAY.plusDays(1)));
+        inventory.release(HOTEL, STANDARD, TODAY, TODAY.plusDays(1));
+        assertEquals(3, free(TODAY, TODAY.plusDays(1)));
+
+        // Даты вне горизонта - ответа нет, решает база
+        assertFalse(inventory.freeRooms(HOTEL, STANDARD, TODAY.minusDays(1), TODAY).isPresent());
+        assertFalse(inventory.freeRooms(HOTEL, STANDARD, TODAY, TODAY.plusDays(30)).isPresent());
+        assertEquals(Map.of(STANDARD, 2, "SUITE", 1),
+                inventory.freeRoomsByType(HOTEL, TODAY, TODAY.plusDays(3)));
+    }
+
+    @Test
+    void typeRebuildWaitsForHoldInProgress() throws Exception {
+        inventory.rebuild();
+        LocalDate start = TODAY.plusDays(1);
+        LocalDate end = TODAY.plusDays(2);
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            // Удержание зафиксировано в базе, поправка счетчиков еще не применена
+            Future<?> holding = threads.submit(() -> inventory.withHoldsLocked(() -> {
+                hold(10, start, end);
+                committed.countDown();
+                await(finish);
+                inventory.reserve(HOTEL, STANDARD, start, end);
+                return null;
+            }));
+            assertTrue(committed.await(5, TimeUnit.SECONDS));
+
+            Future<?> rebuild = threads.submit(() -> inventory.rebuild(HOTEL, STANDARD));
+            Thread.sleep(200);
+            assertFalse(rebuild.isDone(), "rebuild must wait for the hold's counter update");
+
+            finish.countDown();
+            holding.get(5, TimeUnit.SECONDS);
+            rebuild.get(5, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdownNow();
+        }
+
+        // Удержание учтено ровно один раз
+        assertEquals(2, free(start, end));
+    }
+
+    @Test
+    void dayRolloverRebuildsOnce() throws Exception {
+        hold(10, TODAY.plusDays(1), TODAY.plusDays(2));
+        inventory.rebuild();
+        assertEquals(3, free(TODAY, TODAY));
+
+        LocalDate tomorrow = TODAY.plusDays(1);
+        inventory.setClock(clockAt(tomorrow));
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(threads.submit(() -> free(tomorrow, tomorrow)));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(2, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        verify(roomRepository, times(2)).findSellableRoomKeys();
+        // Вчерашний день ушел из счетчиков, последний день горизонта сдвинулся
+        assertFalse(inventory.freeRooms(HOTEL, STANDARD, TODAY, tomorrow).isPresent());
+        assertEquals(3, free(tomorrow.plusDays(29), tomorrow.plusDays(29)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
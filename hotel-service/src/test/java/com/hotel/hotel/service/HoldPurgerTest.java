@@ -0,0 +1,106 @@
+package com.hotel.hotel.service;
+
+import com.hotel.hotel.entity.Booking;
+import com.hotel.hotel.repository.BookingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "hotel.holds.purge.enabled=false",
+        "hotel.holds.purge.batch-size=2",
+        "hotel.holds.purge.retention=P30D",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.show-sql=false"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HoldPurgerTest {
+
+    @SpringBootConfiguration
+    @EntityScan("com.hotel.hotel.entity")
+    @EnableJpaRepositories(basePackageClasses = BookingRepository.class)
+    @Import(HoldPurger.class)
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private HoldPurger purger;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void clean() {
+        bookingRepository.deleteAll();
+    }
+
+    private Booking hold(long roomId, LocalDate start, LocalDate end, Booking.BookingStatus status) {
+        Booking hold = new Booking();
+        hold.setRoomId(roomId);
+        hold.setStartDate(start);
+        hold.setEndDate(end);
+        hold.setStatus(status);
+        hold.setRequestId("r" + roomId);
+        return bookingRepository.save(hold);
+    }
+
+    @Test
+    void completesEndedHoldsAndPurgesAfterRetention() {
+        Booking ended1 = hold(1, today.minusDays(5), today.minusDays(2), Booking.BookingStatus.CONFIRMED);
+        Booking ended2 = hold(2, today.minusDays(4), today.minusDays(1), Booking.BookingStatus.CONFIRMED);
+        Booking ended3 = hold(3, today.minusDays(3), today.minusDays(1), Booking.BookingStatus.CONFIRMED);
+        Booking checkoutToday = hold(4, today.minusDays(2), today, Booking.BookingStatus.CONFIRMED);
+        Booking upcoming = hold(5, today.plusDays(1), today.plusDays(3), Booking.BookingStatus.CONFIRMED);
+        Booking oldCompleted = hold(6, today.minusDays(40), today.minusDays(35), Booking.BookingStatus.COMPLETED);
+        Booking oldCancelled = hold(7, today.minusDays(45), today.minusDays(31), Booking.BookingStatus.CANCELLED);
+        Booking recentCancelled = hold(8, today.plusDays(2), today.plusDays(4), Booking.BookingStatus.CANCELLED);
+
+        // Пачки по 2 строки: три завершенных удержания требуют двух пачек
+        assertEquals(5, purger.purge());
+
+        Map<Long, Booking> holds = bookingRepository.findAll().stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        assertEquals(6, holds.size());
+        for (Booking ended : new Booking[]{ended1, ended2, ended3}) {
+            assertEquals(Booking.BookingStatus.COMPLETED, holds.get(ended.getId()).getStatus());
+        }
+        assertEquals(Booking.BookingStatus.CONFIRMED, holds.get(checkoutToday.getId()).getStatus());
+        assertEquals(Booking.BookingStatus.CONFIRMED, holds.get(upcoming.getId()).getStatus());
+        assertEquals(Booking.BookingStatus.CANCELLED, holds.get(recentCancelled.getId()).getStatus());
+        assertFalse(holds.containsKey(oldCompleted.getId()));
+        assertFalse(holds.containsKey(oldCancelled.getId()));
+
+        assertEquals(3, meterRegistry.get("hotel.holds.completed").counter().count());
+        assertEquals(2, meterRegistry.get("hotel.holds.purged").counter().count());
+
+        // Повторный проход ничего не меняет
+        assertEquals(0, purger.purge());
+    }
+}
@@ -0,0 +1,154 @@
+package com.hotel.hotel.snapshot;
+
+import com.hotel.hotel.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.show-sql=false"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogSnapshotTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) {
+        registry.add("hotel.snapshot.path", () -> dir.resolve("catalog.snapshot").toString());
+    }
+
+    @SpringBootConfiguration
+    @EntityScan("com.hotel.hotel.entity")
+    @EnableJpaRepositories(basePackageClasses = BookingRepository.class)
+    @Import(CatalogSnapshot.class)
+    static class Config {
+    }
+
+    @Autowired
+    private CatalogSnapshot snapshot;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM rooms");
+        jdbcTemplate.update("DELETE FROM hotels");
+        jdbcTemplate.update("INSERT INTO hotels (id, name, address) VALUES (1, 'Гранд', 'Невский, 1'), (2, 'Без адреса', NULL)");
+        jdbcTemplate.update("INSERT INTO rooms (id, hotel_id, number, available, times_booked, type, price, description) "
+                + "VALUES (10, 1, '101', TRUE, 3, 'DOUBLE', 4500.5, 'Вид на канал'), "
+                + "(11, 1, '102', FALSE, 0, 'SINGLE', 2000.0, ''), "
+                + "(12, 2, NULL, NULL, NULL, NULL, NULL, NULL)");
+        jdbcTemplate.update("INSERT INTO bookings (id, room_id, status, start_date, end_date, request_id) "
+                + "VALUES (100, 10, 'CONFIRMED', DATE '2030-01-01', DATE '2030-01-05', 'req-1'), "
+                + "(101, 12, NULL, NULL, NULL, NULL)");
+    }
+
+    private Map<String, List<Map<String, Object>>> tables() {
+        return Map.of(
+                "hotels", jdbcTemplate.queryForList("SELECT id, name, address FROM hotels ORDER BY id"),
+                "rooms", jdbcTemplate.queryForList("SELECT id, hotel_id, number, available, times_booked, type, price, "
+                        + "description FROM rooms ORDER BY id"),
+                "bookings", jdbcTemplate.queryForList("SELECT id, room_id, status, start_date, end_date, request_id "
+                        + "FROM bookings ORDER BY id"));
+    }
+
+    private void changeCatalog() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE id = 100");
+        jdbcTemplate.update("UPDATE rooms SET price = 1.0, description = 'changed' WHERE id = 10");
+        jdbcTemplate.update("INSERT INTO hotels (id, name, address) VALUES (3, 'Новый', 'Литейный, 5')");
+    }
+
+    @Test
+    void restoresDumpedRowsIncludingNulls() throws IOException {
+        Map<String, List<Map<String, Object>>> dumped = tables();
+        CatalogSnapshot.Summary written = snapshot.dump();
+        assertEquals(2, written.hotels());
+        assertEquals(3, written.rooms());
+        assertEquals(2, written.bookings());
+        assertEquals(written.createdAt(), snapshot.describe().createdAt());
+
+        changeCatalog();
+        CatalogSnapshot.Summary restored = snapshot.restore();
+
+        assertEquals(written.createdAt(), restored.createdAt());
+        assertEquals(dumped, tables());
+        Map<String, Object> emptyRoom = tables().get("rooms").get(2);
+        assertNull(emptyRoom.get("AVAILABLE"));
+        assertNull(emptyRoom.get("TIMES_BOOKED"));
+        assertNull(emptyRoom.get("PRICE"));
+
+        // Sequence продолжается после восстановленных id
+        Long nextHotelId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR hotels_seq", Long.class);
+        assertTrue(nextHotelId > 2);
+    }
+
+    @Test
+    void truncatedSnapshotLeavesDatabaseUntouched() throws IOException {
+        snapshot.dump();
+        byte[] bytes = Files.readAllBytes(snapshot.getPath());
+        changeCatalog();
+        Map<String, List<Map<String, Object>>> current = tables();
+
+        Files.write(snapshot.getPath(), Arrays.copyOf(bytes, SnapshotWriter.HEADER_BYTES));
+        IOException tooShort = assertThrows(IOException.class, () -> snapshot.restore());
+        assertTrue(tooShort.getMessage().contains("truncated"));
+
+        // Обрыв посреди строк: трейлер читается из данных, контрольная сумма не сходится
+        Files.write(snapshot.getPath(), Arrays.copyOf(bytes, bytes.length - 20));
+        IOException cut = assertThrows(IOException.class, () -> snapshot.restore());
+        assertTrue(cut.getMessage().contains("checksum mismatch"));
+
+        assertEquals(current, tables());
+    }
+
+    @Test
+    void corruptedSnapshotLeavesDatabaseUntouched() throws IOException {
+        snapshot.dump();
+        byte[] bytes = Files.readAllBytes(snapshot.getPath());
+        changeCatalog();
+        Map<String, List<Map<String, Object>>> current = tables();
+
+        byte[] corruptedRow = bytes.clone();
+        corruptedRow[SnapshotWriter.HEADER_BYTES + 3] ^= 0x01;
+        Files.write(snapshot.getPath(), corruptedRow);
+        assertThrows(IOException.class, () -> snapshot.restore());
+
+        byte[] corruptedCrc = bytes.clone();
+        corruptedCrc[bytes.length - 1] ^= 0x01;
+        Files.write(snapshot.getPath(), corruptedCrc);
+        IOException e = assertThrows(IOException.class, () -> snapshot.restore());
+        assertTrue(e.getMessage().contains("checksum mismatch"));
+
+        assertEquals(current, tables());
+
+        // Целый файл по-прежнему восстанавливается
+        Files.write(snapshot.getPath(), bytes);
+        snapshot.restore();
+        assertEquals(2, tables().get("hotels").size());
+    }
+}
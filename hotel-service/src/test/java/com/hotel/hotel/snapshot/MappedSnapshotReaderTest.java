@@ -0,0 +1,83 @@
+package com.hotel.hotel.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSnapshotReaderTest {
+
+    private static final int HOTELS = 100;
+
+    @TempDir
+    Path dir;
+
+    // Длины строк 0..254 и null: значения ложатся на границы окна в разных местах
+    private static String name(int i) {
+        return i % 10 == 0 ? null : "Отель-" + "x".repeat((i * 37) % 240);
+    }
+
+    private Path writeHotels() throws IOException {
+        Path file = dir.resolve("hotels.snapshot");
+        try (SnapshotWriter writer = new SnapshotWriter(file, 42L, HOTELS, 0, 0)) {
+            for (int i = 1; i <= HOTELS; i++) {
+                SnapshotWriter.writeHotel(writer.output(), i, name(i), "Адрес " + i);
+            }
+            writer.commit();
+        }
+        return file;
+    }
+
+    @Test
+    void readsValuesAcrossWindowBoundaries() throws IOException {
+        Path file = writeHotels();
+        assertTrue(Files.size(file) > 10L * MappedSnapshotReader.MAX_VALUE_BYTES);
+
+        try (MappedSnapshotReader reader = new MappedSnapshotReader(file, MappedSnapshotReader.MAX_VALUE_BYTES)) {
+            assertEquals(SnapshotWriter.MAGIC, reader.readInt());
+            assertEquals(SnapshotWriter.VERSION, reader.readInt());
+            assertEquals(42L, reader.readLong());
+            assertEquals(HOTELS, reader.readLong());
+            assertEquals(0, reader.readLong());
+            assertEquals(0, reader.readLong());
+            for (int i = 1; i <= HOTELS; i++) {
+                assertEquals(i, reader.readLong());
+                assertEquals(name(i), reader.readString());
+                assertEquals("Адрес " + i, reader.readString());
+            }
+            long dataEnd = reader.position();
+            assertEquals(reader.size() - SnapshotWriter.TRAILER_BYTES, dataEnd);
+            long trailer = reader.readLong();
+
+            // Контрольная сумма по малым окнам та же, что по одному отображению
+            assertEquals(trailer, reader.checksum(dataEnd));
+            try (MappedSnapshotReader whole = new MappedSnapshotReader(file)) {
+                assertEquals(trailer, whole.checksum(dataEnd));
+            }
+
+            IOException eof = assertThrows(IOException.class, reader::readByte);
+            assertTrue(eof.getMessage().contains("unexpected end of file"));
+        }
+    }
+
+    @Test
+    void rejectsImpossibleStringLength() throws IOException {
+        Path file = dir.resolve("corrupted.snapshot");
+        try (SnapshotWriter writer = new SnapshotWriter(file, 0, 1, 0, 0)) {
+            writer.output().writeLong(1);
+            writer.output().writeInt(MappedSnapshotReader.MAX_VALUE_BYTES + 1);
+            writer.commit();
+        }
+
+        try (MappedSnapshotReader reader = new MappedSnapshotReader(file)) {
+            reader.seek(SnapshotWriter.HEADER_BYTES);
+            assertEquals(1, reader.readLong());
+            IOException e = assertThrows(IOException.class, reader::readString);
+            assertTrue(e.getMessage().startsWith("Corrupted snapshot"));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.hotel.loadtest;
+
+import com.hotel.booking.entity.User;
+import com.hotel.booking.repository.UserRepository;
+import com.hotel.booking.util.JwtUtil;
+import com.hotel.hotel.entity.Hotel;
+import com.hotel.hotel.entity.Room;
+import com.hotel.hotel.repository.HotelRepository;
+import com.hotel.hotel.repository.RoomRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Начальные данные для нагрузки: отели, номера и пользователи с готовыми токенами
+ *
+ * Данные пишутся напрямую через репозитории сервисов, а не через API: заполнение
+ * не должно зависеть от rate limiting и не должно попадать в измерения.
+ */
+final class DataSeeder {
+
+    static final String PASSWORD = "loadtest123";
+
+    private static final String[] ROOM_TYPES = {"STANDARD", "DELUXE", "SUITE"};
+
+    private DataSeeder() {
+    }
+
+    record SeededUser(String username, String token) {
+    }
+
+    record SeedResult(List<Long> roomIds, List<SeededUser> users) {
+    }
+
+    static SeedResult seed(ServiceStack stack, LoadTestOptions options) {
+        List<Long> roomIds = seedCatalog(stack.hotelContext(), options, new Random(options.seed()));
+        List<SeededUser> users = seedUsers(stack.bookingContext(), options);
+        System.out.println("🌱 Seeded " + options.hotels() + " hotels, " + roomIds.size() + " rooms, "
+                + users.size() + " users");
+        return new SeedResult(roomIds, users);
+    }
+
+    private static List<Long> seedCatalog(ConfigurableApplicationContext hotelContext, LoadTestOptions options, Random random) {
+        HotelRepository hotelRepository = hotelContext.getBean(HotelRepository.class);
+        RoomRepository roomRepository = hotelContext.getBean(RoomRepository.class);
+
+        List<Room> rooms = new ArrayList<>();
+        for (int h = 1; h <= options.hotels(); h++) {
+            Hotel hotel = new Hotel();
+            hotel.setName("Load Test Hotel " + h);
+            hotel.setAddress("City " + h % 10 + ", Street " + h);
+            hotel = hotelRepository.save(hotel);
+
+            for (int r = 1; r <= options.roomsPerHotel(); r++) {
+                Room room = new Room();
+                room.setNumber(String.valueOf(100 * (1 + r / 10) + r % 10));
+                room.setType(ROOM_TYPES[random.nextInt(ROOM_TYPES.length)]);
+                room.setPrice(3000.0 + random.nextInt(20) * 500);
+                room.setDescription("Load test room");
+                room.setAvailable(true);
+                room.setTimesBooked(0);
+                room.setHotel(hotel);
+                rooms.add(room);
+            }
+        }
+        roomRepository.saveAll(rooms);
+
+        return roomRepository.findByAvailableTrue().stream()
+                .map(Room::getId)
+                .toList();
+    }
+
+    private static List<SeededUser> seedUsers(ConfigurableApplicationContext bookingContext, LoadTestOptions options) {
+        UserRepository userRepository = bookingContext.getBean(UserRepository.class);
+        JwtUtil jwtUtil = bookingContext.getBean(JwtUtil.class);
+        // Один хеш на всех: BCrypt намеренно медленный, а пароль у всех одинаковый
+        String passwordHash = bookingContext.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<User> users = new ArrayList<>(options.users());
+        for (int i = 1; i <= options.users(); i++) {
+            User user = new User();
+            user.setUsername("lt-user-" + i);
+            user.setPassword(passwordHash);
+            user.setRole("USER");
+            users.add(user);
+        }
+        return userRepository.saveAll(users).stream()
+                .map(user -> new SeededUser(user.getUsername(), jwtUtil.generateToken(user.getUsername(), user.getRole())))
+                .toList();
+    }
+}
@@ -0,0 +1,558 @@
+package com.hotel.loadtest;
+
+import com.hotel.booking.shard.JumpConsistentHash;
+import com.hotel.hotel.snapshot.SnapshotWriter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Генератор больших наборов данных для замеров на данных, похожих на боевые
+ *
+ * Отели, номера и удержания hotel-service пишутся пакетными INSERT прямо в его базу
+ * (--hotel-url) или в файл снимка каталога (--hotel-snapshot, восстанавливается при старте
+ * hotel-service); пользователи, бронирования, архив и user_bookings - в базы booking-service
+ * (--booking-urls, бронирование в шарде своего номера). Схема должна быть создана заранее:
+ * один запуск сервиса с профилем prod (Flyway) на тех же файлах базы.
+ *
+ * Распределения: размер отеля логнормальный, популярность отелей и активность пользователей -
+ * Zipf, дни заезда - сезон, праздники и выходные, типы и цены номеров зависят от категории
+ * отеля и города. Бронирования одного номера не пересекаются; если за ROOM_ATTEMPTS попыток
+ * свободного номера нет, бронирование сохраняется отмененным.
+ *
+ * mvn -Pdataset -pl load-test -am verify -Ddataset.args="--hotels=100000 --rooms=5000000
+ *   --bookings=50000000 --hotel-url=jdbc:h2:file:/data/hoteldb --booking-urls=jdbc:h2:file:/data/bookingdb"
+ */
+public class DatasetGenerator {
+
+    static final String PASSWORD = "dataset123";
+
+    private static final String[] ROOM_TYPES = {"STANDARD", "DELUXE", "SUITE", "CONFERENCE"};
+    private static final String[] ROOM_DESCRIPTIONS = {"Standard double room", "Deluxe room with city view",
+            "Suite with living room", "Conference hall"};
+    private static final double[] BASE_PRICE = {3000, 6000, 12000, 20000};
+    // Доли типов номеров и множитель цены по категории отеля (2..5 звезд)
+    private static final double[][] TYPE_MIX = {
+            {0.90, 0.10, 0.00, 0.00},
+            {0.70, 0.25, 0.05, 0.00},
+            {0.55, 0.30, 0.13, 0.02},
+            {0.40, 0.35, 0.20, 0.05}};
+    private static final double[] STARS_PRICE = {0.6, 1.0, 1.6, 2.8};
+
+    private static final double MAINTENANCE_RATE = 0.02;
+    private static final double CANCEL_RATE = 0.07;
+    private static final double PENDING_RATE = 0.01;
+    private static final int ROOM_ATTEMPTS = 6;
+    private static final int MAX_EXTRA_NIGHTS = 13;
+    private static final int ROOMS_PER_FLOOR = 20;
+    private static final int USERS_CHUNK = 50_000;
+
+    private static final String[] HOTEL_SQL = {
+            "INSERT INTO hotels (id, name, address) VALUES (?, ?, ?)",
+            "INSERT INTO rooms (id, hotel_id, number, available, times_booked, type, price, description) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            "INSERT INTO bookings (id, room_id, status, start_date, end_date, request_id) VALUES (?, ?, ?, ?, ?, ?)"};
+    private static final int HOTELS = 0;
+    private static final int ROOMS = 1;
+    private static final int HOLDS = 2;
+
+    private static final String[] BOOKING_SQL = {
+            "INSERT INTO bookings (id, user_id, room_id, start_date, end_date, status, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            "INSERT INTO bookings_archive (id, user_id, room_id, start_date, end_date, status, created_at, archived_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            "INSERT INTO user_bookings (booking_id, user_id, room_id, start_date, end_date, status, archived) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)"};
+    private static final int BOOKINGS = 0;
+    private static final int ARCHIVE = 1;
+    private static final int USER_BOOKINGS = 2;
+
+    private final DatasetOptions options;
+    private final DatasetPlan plan;
+    private final double[] checkInCdf;
+    private final double[] userCdf;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder archived = new LongAdder();
+
+    /**
+     * Строки одной части: номера и удержания в формате снимка (только для --hotel-snapshot)
+     */
+    private record PartitionResult(byte[] rooms, int roomsLength, byte[] holds, int holdsLength) {
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+    }
+
+    DatasetGenerator(DatasetOptions options) {
+        this.options = options;
+        this.plan = DatasetPlan.create(options);
+        this.checkInCdf = Distributions.checkInCdf(options.from(), options.days());
+        this.userCdf = Distributions.zipfCdf(options.users(), options.userSkew());
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetOptions options = DatasetOptions.parse(args);
+        new DatasetGenerator(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        System.out.println("🧮 Dataset plan: " + plan.hotels + " hotels, " + options.rooms() + " rooms, "
+                + plan.totalBookings + " bookings (" + options.bookings() + " requested), " + options.users()
+                + " users, " + plan.partitions.size() + " partitions, seed " + options.seed());
+        prepareDatabases();
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dataset-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progress.scheduleAtFixedRate(() -> System.out.printf("📊 %,d rows written (%,.0f rows/s)%n",
+                written.sum(), written.sum() / seconds(start)), 5, 5, TimeUnit.SECONDS);
+        try {
+            if (!options.bookingUrls().isEmpty()) {
+                writeUsers(executor);
+            }
+            if (options.hotelSnapshot() != null) {
+                generateWithSnapshot(executor);
+            } else {
+                generate(executor, null, null);
+            }
+            restartSequences();
+        } finally {
+            progress.shutdownNow();
+            executor.shutdownNow();
+        }
+
+        System.out.printf("✅ Dataset written in %.1f s: %d hotels, %d rooms, %d bookings (%d cancelled, %d archived), "
+                        + "%d users, %,.0f rows/s%n",
+                seconds(start), plan.hotels, options.rooms(), plan.totalBookings, cancelled.sum(), archived.sum(),
+                options.bookingUrls().isEmpty() ? 0 : options.users(), written.sum() / seconds(start));
+    }
+
+    /**
+     * Части генерируются параллельно, результаты забираются по порядку: строки снимка
+     * должны идти по возрастанию id. В работе не больше двух частей на поток.
+     */
+    private void generate(ExecutorService executor, SnapshotWriter snapshot, OutputStream holds) throws Exception {
+        Deque<Future<PartitionResult>> window = new ArrayDeque<>();
+        Iterator<DatasetPlan.Partition> partitions = plan.partitions.iterator();
+        while (partitions.hasNext() || !window.isEmpty()) {
+            while (partitions.hasNext() && window.size() < options.threads() * 2) {
+                DatasetPlan.Partition partition = partitions.next();
+                window.add(executor.submit(() -> generatePartition(partition, snapshot != null)));
+            }
+            PartitionResult result = window.poll().get();
+            if (snapshot != null) {
+                snapshot.append(result.rooms(), result.roomsLength());
+                holds.write(result.holds(), 0, result.holdsLength());
+            }
+        }
+    }
+
+    /**
+     * Удержания всех частей сначала пишутся во временный файл: в снимке они идут после всех номеров
+     */
+    private void generateWithSnapshot(ExecutorService executor) throws Exception {
+        Path target = Path.of(options.hotelSnapshot()).toAbsolutePath();
+        Path holdsFile = target.resolveSibling(target.getFileName() + ".holds.tmp");
+        try (SnapshotWriter snapshot = new SnapshotWriter(target, System.currentTimeMillis(),
+                plan.hotels, options.rooms(), plan.totalBookings)) {
+            for (int h = 0; h < plan.hotels; h++) {
+                SnapshotWriter.writeHotel(snapshot.output(), h + 1, plan.hotelName(h), plan.hotelAddress(h));
+            }
+            written.add(plan.hotels);
+            try (OutputStream holds = new BufferedOutputStream(Files.newOutputStream(holdsFile), 1 << 20)) {
+                generate(executor, snapshot, holds);
+            }
+            snapshot.append(holdsFile);
+            snapshot.commit();
+        } finally {
+            Files.deleteIfExists(holdsFile);
+        }
+        System.out.println("💾 Snapshot written to " + target + " (" + Files.size(target) + " bytes)");
+    }
+
+    private PartitionResult generatePartition(DatasetPlan.Partition partition, boolean toSnapshot) throws Exception {
+        Buffer rooms = toSnapshot ? new Buffer() : null;
+        Buffer holds = toSnapshot ? new Buffer() : null;
+        List<JdbcBatchWriter> writers = new ArrayList<>();
+        try {
+            JdbcBatchWriter hotelDb = null;
+            if (options.hotelUrl() != null) {
+                hotelDb = new JdbcBatchWriter(options.hotelUrl(), options, written, HOTEL_SQL);
+                writers.add(hotelDb);
+            }
+            JdbcBatchWriter[] shards = new JdbcBatchWriter[options.bookingUrls().size()];
+            for (int shard = 0; shard < shards.length; shard++) {
+                shards[shard] = new JdbcBatchWriter(options.bookingUrls().get(shard), options, written, BOOKING_SQL);
+                writers.add(shards[shard]);
+            }
+
+            DataOutputStream roomsOut = toSnapshot ? new DataOutputStream(rooms) : null;
+            DataOutputStream holdsOut = toSnapshot ? new DataOutputStream(holds) : null;
+            for (int h = partition.fromHotel(); h < partition.toHotel(); h++) {
+                generateHotel(h, hotelDb, shards, roomsOut, holdsOut);
+            }
+            for (JdbcBatchWriter writer : writers) {
+                writer.commit();
+            }
+        } finally {
+            for (JdbcBatchWriter writer : writers) {
+                writer.close();
+            }
+        }
+        if (!toSnapshot) {
+            return new PartitionResult(null, 0, null, 0);
+        }
+        return new PartitionResult(rooms.bytes(), rooms.size(), holds.bytes(), holds.size());
+    }
+
+    private void generateHotel(int h, JdbcBatchWriter hotelDb, JdbcBatchWriter[] shards,
+                               DataOutputStream roomsOut, DataOutputStream holdsOut) throws SQLException, IOException {
+        SplittableRandom random = Distributions.random(options.seed(), Distributions.GENERATE, h + 1);
+        long hotelId = h + 1;
+        int stars = plan.stars[h] - 2;
+        int roomCount = plan.rooms[h];
+
+        byte[] types = new byte[roomCount];
+        double[] prices = new double[roomCount];
+        boolean[] available = new boolean[roomCount];
+        for (int r = 0; r < roomCount; r++) {
+            types[r] = (byte) pick(TYPE_MIX[stars], random);
+            double price = BASE_PRICE[types[r]] * STARS_PRICE[stars] * DatasetPlan.CITY_PRICE[plan.city[h]]
+                    * (0.85 + 0.3 * random.nextDouble());
+            prices[r] = Math.round(price / 100) * 100.0;
+            available[r] = random.nextDouble() >= MAINTENANCE_RATE;
+        }
+
+        // Бронирования генерируются до записи номеров: times_booked номера - число его бронирований
+        int bookingCount = plan.bookings[h];
+        int[] bookingRoom = new int[bookingCount];
+        int[] checkIn = new int[bookingCount];
+        byte[] nights = new byte[bookingCount];
+        byte[] status = new byte[bookingCount];
+        int[] user = new int[bookingCount];
+        long[] createdAt = new long[bookingCount];
+        int[] timesBooked = new int[roomCount];
+        long[][] occupied = new long[roomCount][];
+        int horizon = options.days() + MAX_EXTRA_NIGHTS + 1;
+        int today = (int) (options.today().toEpochDay() - options.from().toEpochDay());
+
+        for (int b = 0; b < bookingCount; b++) {
+            int day = Distributions.sample(checkInCdf, random);
+            int stay = 1 + Distributions.geometric(random, 0.35, MAX_EXTRA_NIGHTS);
+            int room = -1;
+            for (int attempt = 0; attempt < ROOM_ATTEMPTS && room < 0; attempt++) {
+                int candidate = random.nextInt(roomCount);
+                if (available[candidate] && isFree(occupied[candidate], day, stay)) {
+                    room = candidate;
+                }
+            }
+            boolean isCancelled = room < 0 || random.nextDouble() < CANCEL_RATE;
+            if (room < 0) {
+                room = random.nextInt(roomCount);
+            }
+            if (isCancelled) {
+                status[b] = 2;
+            } else {
+                if (occupied[room] == null) {
+                    occupied[room] = new long[(horizon + 63) / 64];
+                }
+                occupy(occupied[room], day, stay);
+                timesBooked[room]++;
+                status[b] = (byte) (day + stay > today && random.nextDouble() < PENDING_RATE ? 1 : 0);
+            }
+            bookingRoom[b] = room;
+            checkIn[b] = day;
+            nights[b] = (byte) stay;
+            user[b] = Distributions.sample(userCdf, random) + 1;
+            // Бронируют в среднем за 25 дней до заезда
+            long leadDays = Distributions.geometric(random, 1 / 25.0, 365);
+            createdAt[b] = (options.from().toEpochDay() + day - leadDays) * 86_400 + random.nextInt(86_400);
+        }
+
+        if (hotelDb != null) {
+            PreparedStatement insert = hotelDb.statement(HOTELS);
+            insert.setLong(1, hotelId);
+            insert.setString(2, plan.hotelName(h));
+            insert.setString(3, plan.hotelAddress(h));
+            hotelDb.add(HOTELS);
+        }
+        for (int r = 0; r < roomCount; r++) {
+            long roomId = plan.firstRoomId[h] + r;
+            String number = String.valueOf((1 + r / ROOMS_PER_FLOOR) * 100 + r % ROOMS_PER_FLOOR + 1);
+            if (hotelDb != null) {
+                PreparedStatement insert = hotelDb.statement(ROOMS);
+                insert.setLong(1, roomId);
+                insert.setLong(2, hotelId);
+                insert.setString(3, number);
+                insert.setBoolean(4, available[r]);
+                insert.setInt(5, timesBooked[r]);
+                insert.setString(6, ROOM_TYPES[types[r]]);
+                insert.setDouble(7, prices[r]);
+                insert.setString(8, ROOM_DESCRIPTIONS[types[r]]);
+                hotelDb.add(ROOMS);
+            }
+            if (roomsOut != null) {
+                SnapshotWriter.writeRoom(roomsOut, roomId, hotelId, number, available[r], timesBooked[r],
+                        ROOM_TYPES[types[r]], prices[r], ROOM_DESCRIPTIONS[types[r]]);
+                written.increment();
+            }
+        }
+
+        for (int b = 0; b < bookingCount; b++) {
+            long bookingId = plan.firstBookingId[h] + b;
+            long roomId = plan.firstRoomId[h] + bookingRoom[b];
+            LocalDate startDate = options.from().plusDays(checkIn[b]);
+            LocalDate endDate = startDate.plusDays(nights[b]);
+            String holdStatus = status[b] == 2 ? "CANCELLED" : "CONFIRMED";
+            String requestId = "dataset-" + bookingId;
+            if (status[b] == 2) {
+                cancelled.increment();
+            }
+
+            if (hotelDb != null) {
+                PreparedStatement insert = hotelDb.statement(HOLDS);
+                insert.setLong(1, bookingId);
+                insert.setLong(2, roomId);
+                insert.setString(3, holdStatus);
+                insert.setDate(4, Date.valueOf(startDate));
+                insert.setDate(5, Date.valueOf(endDate));
+                insert.setString(6, requestId);
+                hotelDb.add(HOLDS);
+            }
+            if (holdsOut != null) {
+                SnapshotWriter.writeBooking(holdsOut, bookingId, roomId, holdStatus, startDate, endDate, requestId);
+                written.increment();
+            }
+            if (shards.length > 0) {
+                writeBooking(shards[JumpConsistentHash.bucket(roomId, shards.length)], bookingId, user[b], roomId,
+                        startDate, endDate, status[b], createdAt[b]);
+            }
+        }
+    }
+
+    /**
+     * Завершившиеся до today бронирования сразу лежат в архиве, как после работы BookingArchiver
+     */
+    private void writeBooking(JdbcBatchWriter shard, long bookingId, long userId, long roomId, LocalDate startDate,
+                              LocalDate endDate, byte status, long createdAtSeconds) throws SQLException {
+        boolean isArchived = endDate.isBefore(options.today());
+        String bookingStatus = switch (status) {
+            case 1 -> "PENDING";
+            case 2 -> "CANCELLED";
+            default -> isArchived ? "COMPLETED" : "CONFIRMED";
+        };
+        Timestamp created = Timestamp.valueOf(LocalDateTime.ofEpochSecond(createdAtSeconds, 0, ZoneOffset.UTC));
+
+        PreparedStatement insert = shard.statement(isArchived ? ARCHIVE : BOOKINGS);
+        insert.setLong(1, bookingId);
+        insert.setLong(2, userId);
+        insert.setLong(3, roomId);
+        insert.setDate(4, Date.valueOf(startDate));
+        insert.setDate(5, Date.valueOf(endDate));
+        insert.setString(6, bookingStatus);
+        insert.setTimestamp(7, created);
+        if (isArchived) {
+            insert.setTimestamp(8, Timestamp.valueOf(endDate.plusDays(1).atTime(3, 0)));
+            shard.add(ARCHIVE);
+            archived.increment();
+        } else {
+            shard.add(BOOKINGS);
+        }
+
+        PreparedStatement view = shard.statement(USER_BOOKINGS);
+        view.setLong(1, bookingId);
+        view.setLong(2, userId);
+        view.setLong(3, roomId);
+        view.setDate(4, Date.valueOf(startDate));
+        view.setDate(5, Date.valueOf(endDate));
+        view.setString(6, bookingStatus);
+        view.setBoolean(7, isArchived);
+        shard.add(USER_BOOKINGS);
+    }
+
+    /**
+     * Пользователи в шарде 0; один BCrypt хеш на всех - хеширование намеренно медленное
+     */
+    private void writeUsers(ExecutorService executor) throws Exception {
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        String url = options.bookingUrls().get(0);
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 1; from <= options.users(); from += USERS_CHUNK) {
+            int first = from;
+            int last = (int) Math.min((long) from + USERS_CHUNK - 1, options.users());
+            chunks.add(executor.submit(() -> {
+                try (JdbcBatchWriter writer = new JdbcBatchWriter(url, options, written,
+                        "INSERT INTO users (id, username, password, role, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                    for (int id = first; id <= last; id++) {
+                        SplittableRandom random = Distributions.random(options.seed(), Distributions.USERS, id);
+                        PreparedStatement insert = writer.statement(0);
+                        insert.setLong(1, id);
+                        insert.setString(2, "dataset-user-" + id);
+                        insert.setString(3, passwordHash);
+                        insert.setString(4, "USER");
+                        insert.setTimestamp(5, Timestamp.valueOf(options.from()
+                                .minusDays(random.nextInt(options.days())).atTime(random.nextInt(24), 0)));
+                        writer.add(0);
+                    }
+                    writer.commit();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> chunk : chunks) {
+            chunk.get();
+        }
+        System.out.println("👥 " + options.users() + " users written (password " + PASSWORD + ")");
+    }
+
+    private void prepareDatabases() throws SQLException {
+        if (options.hotelUrl() != null) {
+            prepare(options.hotelUrl(), "bookings", "rooms", "hotels");
+        }
+        for (int shard = 0; shard < options.bookingUrls().size(); shard++) {
+            if (shard == 0) {
+                prepare(options.bookingUrls().get(shard), "user_bookings", "bookings_archive", "bookings",
+                        "waitlist_entries", "users");
+            } else {
+                prepare(options.bookingUrls().get(shard), "user_bookings", "bookings_archive", "bookings");
+            }
+        }
+    }
+
+    /**
+     * Таблицы должны существовать и быть пустыми, с --clear=true существующие строки удаляются
+     */
+    private void prepare(String url, String... tables) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, options.jdbcUser(), options.jdbcPassword());
+             Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                long rows;
+                try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rs.next();
+                    rows = rs.getLong(1);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Table " + table + " is not available in " + url
+                            + ": start the service once with the prod profile to create the schema", e);
+                }
+                if (rows > 0 && !options.clear()) {
+                    throw new IllegalStateException("Table " + table + " in " + url + " has " + rows
+                            + " rows, rerun with --clear=true to replace them");
+                }
+                if (rows > 0) {
+                    statement.executeUpdate("DELETE FROM " + table);
+                    System.out.println("🧹 Deleted " + rows + " rows from " + table + " in " + url);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pooled optimizer: значение sequence - верхняя граница пула, поэтому MAX(id) + 51;
+     * sequence шардов booking-service не опускается ниже их диапазона id
+     */
+    private void restartSequences() throws SQLException {
+        if (options.hotelUrl() != null) {
+            restart(options.hotelUrl(), "hotels_seq", "hotels");
+            restart(options.hotelUrl(), "rooms_seq", "rooms");
+            restart(options.hotelUrl(), "bookings_seq", "bookings");
+        }
+        for (int shard = 0; shard < options.bookingUrls().size(); shard++) {
+            String url = options.bookingUrls().get(shard);
+            restart(url, "bookings_seq", "bookings", "bookings_archive");
+            if (shard == 0) {
+                restart(url, "users_seq", "users");
+            }
+        }
+    }
+
+    private void restart(String url, String sequence, String... tables) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, options.jdbcUser(), options.jdbcPassword());
+             Statement statement = connection.createStatement()) {
+            long next = 0;
+            try (ResultSet rs = statement.executeQuery("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                    + "WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME = '" + sequence.toUpperCase() + "'")) {
+                if (rs.next()) {
+                    next = rs.getLong(1);
+                }
+            }
+            for (String table : tables) {
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 51 FROM " + table)) {
+                    rs.next();
+                    next = Math.max(next, rs.getLong(1));
+                }
+            }
+            statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+        }
+    }
+
+    private static int pick(double[] weights, SplittableRandom random) {
+        double value = random.nextDouble();
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isFree(long[] occupied, int day, int nights) {
+        if (occupied == null) {
+            return true;
+        }
+        for (int d = day; d < day + nights; d++) {
+            if ((occupied[d >>> 6] & (1L << d)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void occupy(long[] occupied, int day, int nights) {
+        for (int d = day; d < day + nights; d++) {
+            occupied[d >>> 6] |= 1L << d;
+        }
+    }
+
+    private static double seconds(long startNanos) {
+        return Math.max(0.001, (System.nanoTime() - startNanos) / 1e9);
+    }
+}
@@ -0,0 +1,113 @@
+package com.hotel.loadtest;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Параметры генератора данных из аргументов командной строки (--key=value)
+ *
+ * @param hotels         число отелей
+ * @param rooms          число номеров всего (размер отеля - логнормальный, не меньше одного номера)
+ * @param bookings       число бронирований всего; популярные отели ограничены загрузкой номеров
+ * @param users          число пользователей booking-service
+ * @param seed           seed: одинаковые параметры дают одинаковые данные при любом числе потоков
+ * @param from           первый день горизонта заездов
+ * @param days           длина горизонта в днях
+ * @param today          граница прошлого: бронирования, завершившиеся раньше, лежат в архиве
+ * @param hotelSkew      показатель Zipf популярности отелей
+ * @param userSkew       показатель Zipf активности пользователей
+ * @param hotelUrl       JDBC URL базы hotel-service (схема должна существовать)
+ * @param hotelSnapshot  файл снимка каталога hotel-service (вместо hotelUrl)
+ * @param bookingUrls    JDBC URL баз booking-service, по одному на шард в порядке booking.sharding.shards
+ * @param jdbcUser       пользователь баз
+ * @param jdbcPassword   пароль баз
+ * @param clear          удалить существующие строки перед записью
+ * @param threads        потоки генерации и записи
+ * @param batchSize      строк в одном JDBC batch
+ */
+record DatasetOptions(int hotels,
+                      long rooms,
+                      long bookings,
+                      int users,
+                      long seed,
+                      LocalDate from,
+                      int days,
+                      LocalDate today,
+                      double hotelSkew,
+                      double userSkew,
+                      String hotelUrl,
+                      String hotelSnapshot,
+                      List<String> bookingUrls,
+                      String jdbcUser,
+                      String jdbcPassword,
+                      boolean clear,
+                      int threads,
+                      int batchSize) {
+
+    static DatasetOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LocalDate from = LocalDate.parse(values.getOrDefault("from", "2025-01-01"));
+        int days = Integer.parseInt(values.getOrDefault("days", "730"));
+        DatasetOptions options = new DatasetOptions(
+                Integer.parseInt(values.getOrDefault("hotels", "1000")),
+                Long.parseLong(values.getOrDefault("rooms", "50000")),
+                Long.parseLong(values.getOrDefault("bookings", "500000")),
+                Integer.parseInt(values.getOrDefault("users", "100000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                from,
+                days,
+                LocalDate.parse(values.getOrDefault("today", from.plusDays(days / 2).toString())),
+                Double.parseDouble(values.getOrDefault("hotel-skew", "1.0")),
+                Double.parseDouble(values.getOrDefault("user-skew", "0.8")),
+                values.get("hotel-url"),
+                values.get("hotel-snapshot"),
+                Arrays.stream(values.getOrDefault("booking-urls", "").split(","))
+                        .map(String::trim)
+                        .filter(url -> !url.isEmpty())
+                        .toList(),
+                values.getOrDefault("jdbc-user", "sa"),
+                values.getOrDefault("jdbc-password", ""),
+                Boolean.parseBoolean(values.getOrDefault("clear", "false")),
+                Integer.parseInt(values.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(values.getOrDefault("batch-size", "1000")));
+
+        values.keySet().removeAll(Set.of("hotels", "rooms", "bookings", "users", "seed", "from", "days", "today",
+                "hotel-skew", "user-skew", "hotel-url", "hotel-snapshot", "booking-urls", "jdbc-user",
+                "jdbc-password", "clear", "threads", "batch-size"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        if (hotels < 1 || rooms < hotels) {
+            throw new IllegalArgumentException("Need at least one room per hotel: hotels=" + hotels + ", rooms=" + rooms);
+        }
+        if (rooms > Integer.MAX_VALUE || days < 1 || bookings < 0 || users < 1) {
+            throw new IllegalArgumentException("Invalid dataset size");
+        }
+        if (hotelUrl != null && hotelSnapshot != null) {
+            throw new IllegalArgumentException("Use either --hotel-url or --hotel-snapshot");
+        }
+        if (hotelUrl == null && hotelSnapshot == null && bookingUrls.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to write: set --hotel-url, --hotel-snapshot and/or --booking-urls");
+        }
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("threads and batch-size must be positive");
+        }
+    }
+}
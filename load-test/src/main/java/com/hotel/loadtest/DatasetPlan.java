@@ -0,0 +1,185 @@
+package com.hotel.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Раскладка набора данных по отелям до генерации строк
+ *
+ * Для каждого отеля заранее известны категория, город, число номеров и бронирований,
+ * а значит и диапазоны их id: отели генерируются независимо (параллельно), а id
+ * совпадают с тем, что выдал бы последовательный проход. Размер отеля логнормальный
+ * и растет с категорией; спрос - Zipf по случайной перестановке отелей, умноженный
+ * на число номеров и ограниченный MAX_OCCUPANCY (излишек уходит менее популярным).
+ */
+final class DatasetPlan {
+
+    static final String[] CITIES = {"Moscow", "St. Petersburg", "Sochi", "Kazan", "Kaliningrad",
+            "Yekaterinburg", "Novosibirsk", "Nizhny Novgorod", "Vladivostok", "Samara",
+            "Krasnodar", "Irkutsk", "Murmansk", "Yaroslavl", "Suzdal"};
+    // Цена номера в городе относительно базовой
+    static final double[] CITY_PRICE = {1.6, 1.4, 1.5, 1.0, 1.1, 1.0, 0.9, 0.95, 1.2, 0.85, 1.05, 0.9, 1.0, 0.85, 0.9};
+
+    // Средняя длительность проживания (1 + геометрическое с p = 0.35)
+    static final double MEAN_NIGHTS = 1 + (1 - 0.35) / 0.35;
+    static final double MAX_OCCUPANCY = 0.7;
+    // Строк (номера + бронирования) в одной части параллельной генерации
+    private static final long PARTITION_ROWS = 100_000;
+
+    record Partition(int index, int fromHotel, int toHotel) {
+    }
+
+    final int hotels;
+    final byte[] stars;
+    final short[] city;
+    final int[] rooms;
+    final int[] bookings;
+    final long[] firstRoomId;
+    final long[] firstBookingId;
+    long totalBookings;
+    final List<Partition> partitions = new ArrayList<>();
+
+    private DatasetPlan(int hotels) {
+        this.hotels = hotels;
+        this.stars = new byte[hotels];
+        this.city = new short[hotels];
+        this.rooms = new int[hotels];
+        this.bookings = new int[hotels];
+        this.firstRoomId = new long[hotels];
+        this.firstBookingId = new long[hotels];
+    }
+
+    static DatasetPlan create(DatasetOptions options) {
+        DatasetPlan plan = new DatasetPlan(options.hotels());
+        double[] cityCdf = Distributions.zipfCdf(CITIES.length, 1.0);
+        double[] sizeWeights = new double[options.hotels()];
+        for (int h = 0; h < options.hotels(); h++) {
+            SplittableRandom random = Distributions.random(options.seed(), Distributions.PLAN, h + 1);
+            double category = random.nextDouble();
+            plan.stars[h] = (byte) (category < 0.15 ? 2 : category < 0.55 ? 3 : category < 0.85 ? 4 : 5);
+            plan.city[h] = (short) Distributions.sample(cityCdf, random);
+            double starsFactor = switch (plan.stars[h]) {
+                case 2 -> 0.6;
+                case 3 -> 1.0;
+                case 4 -> 1.5;
+                default -> 2.0;
+            };
+            sizeWeights[h] = Math.exp(0.7 * random.nextGaussian()) * starsFactor;
+        }
+
+        // По одному номеру каждому отелю, остальные - пропорционально размеру
+        long[] extraRooms = Distributions.apportion(sizeWeights, options.rooms() - options.hotels());
+        long roomId = 1;
+        for (int h = 0; h < options.hotels(); h++) {
+            plan.rooms[h] = (int) (1 + extraRooms[h]);
+            plan.firstRoomId[h] = roomId;
+            roomId += plan.rooms[h];
+        }
+
+        plan.totalBookings = plan.allocateBookings(options);
+        long bookingId = 1;
+        for (int h = 0; h < options.hotels(); h++) {
+            plan.firstBookingId[h] = bookingId;
+            bookingId += plan.bookings[h];
+        }
+
+        plan.split();
+        return plan;
+    }
+
+    String hotelName(int h) {
+        String prefix = switch (stars[h]) {
+            case 2 -> "Hostel";
+            case 3 -> "Hotel";
+            case 4 -> "Park Hotel";
+            default -> "Grand Resort";
+        };
+        return prefix + " " + CITIES[city[h]] + " " + (h + 1);
+    }
+
+    String hotelAddress(int h) {
+        return CITIES[city[h]] + ", Street " + (h % 500 + 1) + ", " + (h / 500 + 1);
+    }
+
+    /**
+     * Бронирования пропорционально спросу с ограничением по вместимости (water-filling)
+     */
+    private long allocateBookings(DatasetOptions options) {
+        int n = options.hotels();
+        // Ранг популярности - случайная перестановка, иначе популярность совпадала бы с порядком id
+        int[] rank = new int[n];
+        for (int h = 0; h < n; h++) {
+            rank[h] = h;
+        }
+        SplittableRandom shuffle = Distributions.random(options.seed(), Distributions.PLAN, 0);
+        for (int i = n - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            int swap = rank[i];
+            rank[i] = rank[j];
+            rank[j] = swap;
+        }
+
+        double[] demand = new double[n];
+        double[] capacity = new double[n];
+        for (int h = 0; h < n; h++) {
+            demand[h] = rooms[h] / Math.pow(rank[h] + 1, options.hotelSkew());
+            capacity[h] = rooms[h] * options.days() * MAX_OCCUPANCY / MEAN_NIGHTS;
+        }
+
+        double[] allocation = new double[n];
+        boolean[] capped = new boolean[n];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            double remaining = options.bookings();
+            double demandLeft = 0;
+            for (int h = 0; h < n; h++) {
+                if (capped[h]) {
+                    remaining -= capacity[h];
+                } else {
+                    demandLeft += demand[h];
+                }
+            }
+            if (demandLeft == 0 || remaining <= 0) {
+                break;
+            }
+            for (int h = 0; h < n; h++) {
+                if (capped[h]) {
+                    continue;
+                }
+                allocation[h] = remaining * demand[h] / demandLeft;
+                if (allocation[h] > capacity[h]) {
+                    allocation[h] = capacity[h];
+                    capped[h] = true;
+                    changed = true;
+                }
+            }
+        }
+
+        double allocated = 0;
+        for (double value : allocation) {
+            allocated += value;
+        }
+        // Если спрос превышает вместимость всех отелей, бронирований будет меньше запрошенного
+        long total = Math.min(options.bookings(), (long) Math.floor(allocated));
+        long[] shares = Distributions.apportion(allocation, total);
+        for (int h = 0; h < n; h++) {
+            bookings[h] = (int) shares[h];
+        }
+        return total;
+    }
+
+    private void split() {
+        int from = 0;
+        long rows = 0;
+        for (int h = 0; h < hotels; h++) {
+            rows += rooms[h] + bookings[h];
+            if (rows >= PARTITION_ROWS || h == hotels - 1) {
+                partitions.add(new Partition(partitions.size(), from, h + 1));
+                from = h + 1;
+                rows = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.hotel.loadtest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Распределения генератора данных
+ *
+ * Все выборки - по накопленным весам (CDF) и двоичному поиску. Генератор случайных чисел
+ * каждого объекта создается из seed и ключа объекта, а не берется из общего потока:
+ * результат не зависит от порядка обработки и числа потоков.
+ */
+final class Distributions {
+
+    // Потоки случайных чисел одного объекта для разных целей
+    static final int PLAN = 1;
+    static final int GENERATE = 2;
+    static final int USERS = 3;
+
+    private Distributions() {
+    }
+
+    static SplittableRandom random(long seed, int stream, long key) {
+        return new SplittableRandom(mix(mix(seed ^ stream * 0x9E3779B97F4A7C15L) + key));
+    }
+
+    /**
+     * Накопленные веса Zipf: вес ранга r (с нуля) пропорционален 1 / (r + 1)^s
+     */
+    static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        return normalize(cdf, sum);
+    }
+
+    /**
+     * Популярность дня заезда: сезон (пик в июле), новогодние и майские праздники,
+     * заезды чаще в пятницу и субботу
+     */
+    static double[] checkInCdf(LocalDate from, int days) {
+        double[] cdf = new double[days];
+        double sum = 0;
+        for (int day = 0; day < days; day++) {
+            LocalDate date = from.plusDays(day);
+            double weight = 1 + 0.5 * Math.cos(2 * Math.PI * (date.getDayOfYear() - 196) / 365.0);
+            if ((date.getMonth() == Month.DECEMBER && date.getDayOfMonth() >= 28)
+                    || (date.getMonth() == Month.JANUARY && date.getDayOfMonth() <= 8)) {
+                weight *= 1.8;
+            } else if (date.getMonth() == Month.MAY && date.getDayOfMonth() <= 10) {
+                weight *= 1.5;
+            }
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.FRIDAY) {
+                weight *= 1.4;
+            } else if (dayOfWeek == DayOfWeek.SATURDAY) {
+                weight *= 1.2;
+            } else if (dayOfWeek == DayOfWeek.SUNDAY) {
+                weight *= 0.8;
+            }
+            sum += weight;
+            cdf[day] = sum;
+        }
+        return normalize(cdf, sum);
+    }
+
+    static int sample(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int position = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(position, cdf.length - 1);
+    }
+
+    /**
+     * Целые доли total пропорционально весам, в сумме ровно total (накопленное округление)
+     */
+    static long[] apportion(double[] weights, long total) {
+        double sum = 0;
+        for (double weight : weights) {
+            sum += weight;
+        }
+        long[] shares = new long[weights.length];
+        double accumulated = 0;
+        long previous = 0;
+        for (int i = 0; i < weights.length; i++) {
+            accumulated += weights[i];
+            long current = i == weights.length - 1 ? total : Math.round(total * (accumulated / sum));
+            shares[i] = current - previous;
+            previous = current;
+        }
+        return shares;
+    }
+
+    /**
+     * Геометрическое число неудач до успеха с вероятностью p, не больше max
+     */
+    static int geometric(SplittableRandom random, double p, int max) {
+        int value = (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+        return Math.min(value, max);
+    }
+
+    private static double[] normalize(double[] cdf, double sum) {
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hotel.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Латентность и коды ответов одного endpoint-а
+ *
+ * Латентность считается от запланированного момента отправки (а не от фактического),
+ * поэтому задержки генератора и очереди не скрывают деградацию (coordinated omission).
+ */
+final class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param outcome HTTP статус или тип ошибки клиента (timeout, io, dropped)
+     */
+    void record(long latencyNanos, String outcome) {
+        latency.recordValue(Math.min(MAX_LATENCY_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+        outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+    }
+
+    void recordDropped() {
+        outcomes.computeIfAbsent("dropped", o -> new LongAdder()).increment();
+    }
+
+    String name() {
+        return name;
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latency.getMaxValue() / 1000.0;
+    }
+
+    double meanMillis() {
+        return latency.getMean() / 1000.0;
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> result = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> result.put(outcome, count.sum()));
+        return result;
+    }
+}
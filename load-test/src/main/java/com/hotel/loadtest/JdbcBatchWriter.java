@@ -0,0 +1,74 @@
+package com.hotel.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пакетная вставка в несколько таблиц одного соединения
+ *
+ * Пакеты выполняются в порядке объявления запросов: строки таблицы, на которую ссылается
+ * внешний ключ, объявляются раньше и попадают в базу первыми.
+ */
+final class JdbcBatchWriter implements AutoCloseable {
+
+    private final Connection connection;
+    private final PreparedStatement[] statements;
+    private final int[] pending;
+    private final int batchSize;
+    private final LongAdder written;
+
+    JdbcBatchWriter(String url, DatasetOptions options, LongAdder written, String... sql) throws SQLException {
+        this.connection = DriverManager.getConnection(url, options.jdbcUser(), options.jdbcPassword());
+        this.connection.setAutoCommit(false);
+        this.statements = new PreparedStatement[sql.length];
+        for (int i = 0; i < sql.length; i++) {
+            statements[i] = connection.prepareStatement(sql[i]);
+        }
+        this.pending = new int[sql.length];
+        this.batchSize = options.batchSize();
+        this.written = written;
+    }
+
+    PreparedStatement statement(int index) {
+        return statements[index];
+    }
+
+    /**
+     * Добавить заполненную строку запроса index в пакет
+     */
+    void add(int index) throws SQLException {
+        statements[index].addBatch();
+        if (++pending[index] >= batchSize) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        for (int i = 0; i < statements.length; i++) {
+            if (pending[i] > 0) {
+                statements[i].executeBatch();
+                written.add(pending[i]);
+                pending[i] = 0;
+            }
+        }
+    }
+
+    void commit() throws SQLException {
+        flush();
+        connection.commit();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            for (PreparedStatement statement : statements) {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.hotel.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Нагрузочный тест всей системы в одном процессе
+ *
+ * Запускает Eureka, gateway, hotel-service и booking-service на случайных портах,
+ * заполняет данные и подает открытую нагрузку через gateway. Результат - throughput и
+ * перцентили задержки по каждой операции (таблица в консоли и JSON отчет).
+ *
+ * mvn -Ploadtest -pl load-test -am verify -Dloadtest.args="--rate=200 --duration=60s"
+ */
+public class LoadTestApplication {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        PrintStream console = System.out;
+        if (options.quiet()) {
+            // Сервисы пишут в System.out на каждый запрос - это исказило бы результаты
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        console.println("🚀 Starting services (virtual threads: " + options.virtualThreads() + ")");
+        Map<String, EndpointStats> stats;
+        try (ServiceStack stack = ServiceStack.start(options)) {
+            DataSeeder.SeedResult seed = DataSeeder.seed(stack, options);
+            console.println("🏁 Gateway " + stack.gatewayUrl() + ", " + seed.roomIds().size() + " rooms, "
+                    + seed.users().size() + " users; warmup " + options.warmup().toSeconds() + " s, measuring "
+                    + options.duration().toSeconds() + " s at " + options.rate() + " req/s");
+            stats = new Workload(options, stack.gatewayUrl(), seed).run();
+        } finally {
+            System.setOut(console);
+        }
+
+        printTable(console, options, stats);
+        writeReport(options, stats);
+        console.println("📄 Report written to " + options.report());
+        // Потоки Eureka клиента и Netty не все являются daemon
+        System.exit(0);
+    }
+
+    private static void printTable(PrintStream out, LoadTestOptions options, Map<String, EndpointStats> stats) {
+        double seconds = options.duration().toMillis() / 1000.0;
+        out.println();
+        out.printf("%-10s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes");
+        stats.values().stream()
+                .filter(endpoint -> !endpoint.outcomes().isEmpty())
+                .forEach(endpoint -> out.printf("%-10s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                        endpoint.name(),
+                        endpoint.count(),
+                        endpoint.count() / seconds,
+                        endpoint.percentileMillis(50),
+                        endpoint.percentileMillis(90),
+                        endpoint.percentileMillis(99),
+                        endpoint.percentileMillis(99.9),
+                        endpoint.maxMillis(),
+                        endpoint.outcomes()));
+        long total = stats.values().stream().mapToLong(EndpointStats::count).sum();
+        out.printf("%-10s %8d %9.1f%n", "total", total, total / seconds);
+    }
+
+    private static void writeReport(LoadTestOptions options, Map<String, EndpointStats> stats) throws IOException {
+        double seconds = options.duration().toMillis() / 1000.0;
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.values().stream()
+                .filter(endpoint -> !endpoint.outcomes().isEmpty())
+                .forEach(endpoint -> {
+                    Map<String, Object> latency = new LinkedHashMap<>();
+                    for (double percentile : PERCENTILES) {
+                        latency.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                                endpoint.percentileMillis(percentile));
+                    }
+                    latency.put("max", endpoint.maxMillis());
+                    latency.put("mean", endpoint.meanMillis());
+
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("count", endpoint.count());
+                    result.put("throughput", endpoint.count() / seconds);
+                    result.put("latencyMillis", latency);
+                    result.put("outcomes", endpoint.outcomes());
+                    endpoints.put(endpoint.name(), result);
+                });
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("rate", options.rate());
+        parameters.put("durationSeconds", options.duration().toSeconds());
+        parameters.put("warmupSeconds", options.warmup().toSeconds());
+        parameters.put("users", options.users());
+        parameters.put("hotels", options.hotels());
+        parameters.put("roomsPerHotel", options.roomsPerHotel());
+        parameters.put("mix", options.mix());
+        parameters.put("virtualThreads", options.virtualThreads());
+        parameters.put("productionLimits", options.productionLimits());
+        parameters.put("seed", options.seed());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("parameters", parameters);
+        report.put("endpoints", endpoints);
+
+        Path path = Path.of(options.report());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(path.toFile(), report);
+    }
+}
@@ -0,0 +1,101 @@
+package com.hotel.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Параметры нагрузочного теста из аргументов командной строки (--key=value)
+ *
+ * @param rate             средняя интенсивность поступления запросов (в секунду), поток Пуассона
+ * @param duration         длительность измерения
+ * @param warmup           прогрев перед измерением, результаты не учитываются
+ * @param users            число заранее созданных пользователей
+ * @param hotels           число отелей, добавляемых к данным DataLoader
+ * @param roomsPerHotel    номеров в каждом отеле
+ * @param mix              веса операций (search, catalog, book, cancel, auth, register)
+ * @param maxInFlight      предел незавершенных запросов, сверх него запрос считается отброшенным клиентом
+ * @param virtualThreads   запуск booking/hotel на virtual threads; только JDK 21+, на более старом JDK
+ *                         флаг отклоняется, чтобы отчет не выдавал platform threads за virtual
+ * @param productionLimits оставить лимиты gateway из application.yml (иначе per-user лимиты снимаются)
+ * @param seed             seed генератора нагрузки
+ * @param report           путь для JSON отчета
+ * @param quiet            подавлять System.out сервисов во время теста
+ */
+record LoadTestOptions(double rate,
+                       Duration duration,
+                       Duration warmup,
+                       int users,
+                       int hotels,
+                       int roomsPerHotel,
+                       Map<String, Integer> mix,
+                       int maxInFlight,
+                       boolean virtualThreads,
+                       boolean productionLimits,
+                       long seed,
+                       String report,
+                       boolean quiet) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("rate", "100")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Integer.parseInt(values.getOrDefault("hotels", "20")),
+                Integer.parseInt(values.getOrDefault("rooms-per-hotel", "25")),
+                mix(values.getOrDefault("mix", "search:55,catalog:5,book:20,cancel:8,auth:7,register:5")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "5000")),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Boolean.parseBoolean(values.getOrDefault("production-limits", "false")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("report", "target/loadtest-report.json"),
+                Boolean.parseBoolean(values.getOrDefault("quiet", "true")));
+
+        values.keySet().removeAll(Set.of("rate", "duration", "warmup", "users", "hotels", "rooms-per-hotel",
+                "mix", "max-in-flight", "virtual-threads", "production-limits", "seed", "report", "quiet"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.virtualThreads() && Runtime.version().feature() < 21) {
+            throw new IllegalArgumentException("--virtual-threads=true requires JDK 21+, running on JDK "
+                    + Runtime.version().feature());
+        }
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            weights.put(entry[0].trim(), Integer.parseInt(entry[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,236 @@
+package com.hotel.loadtest;
+
+import com.hotel.booking.BookingServiceApplication;
+import com.hotel.eureka.EurekaServerApplication;
+import com.hotel.gateway.GatewayApplication;
+import com.hotel.hotel.HotelServiceApplication;
+import com.netflix.discovery.Jersey3DiscoveryClientOptionalArgs;
+import com.netflix.discovery.shared.transport.jersey3.Jersey3TransportClientFactories;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Все четыре сервиса в одной JVM на случайных портах
+ *
+ * У каждого приложения свой Spring контекст и свой application.yml (из его jar или target/classes),
+ * поверх которого задаются случайный порт, адрес Eureka и ускоренные интервалы обнаружения.
+ * Так как classpath общий, в каждом контексте отключаются чужие auto-configuration
+ * (gateway в servlet сервисах, JPA и security в gateway и т.д.).
+ */
+final class ServiceStack implements AutoCloseable {
+
+    private static final String R2DBC_EXCLUDES =
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration," +
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration";
+
+    private static final String JPA_EXCLUDES =
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration," +
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration," +
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration";
+
+    private static final String SERVLET_SECURITY_EXCLUDES =
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration," +
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration," +
+            "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration," +
+            "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration";
+
+    private static final String REACTIVE_SECURITY_EXCLUDES =
+            "org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration," +
+            "org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration," +
+            "org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration";
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    private ConfigurableApplicationContext hotelContext;
+    private ConfigurableApplicationContext bookingContext;
+    private int gatewayPort;
+
+    static ServiceStack start(LoadTestOptions options) {
+        ServiceStack stack = new ServiceStack();
+        try {
+            stack.startAll(options);
+            return stack;
+        } catch (RuntimeException e) {
+            stack.close();
+            throw e;
+        }
+    }
+
+    private void startAll(LoadTestOptions options) {
+        // Порт Eureka нужен заранее: сервер должен узнать себя в defaultZone, иначе будет реплицировать сам на себя
+        int eurekaPort = freePort();
+        String eurekaUrl = "http://localhost:" + eurekaPort + "/eureka/";
+        run(EurekaServerApplication.class, WebApplicationType.SERVLET, Map.of(
+                "server.port", String.valueOf(eurekaPort),
+                "eureka.client.service-url.defaultZone", eurekaUrl,
+                "eureka.instance.hostname", "localhost",
+                "spring.autoconfigure.exclude", String.join(",", R2DBC_EXCLUDES, JPA_EXCLUDES, SERVLET_SECURITY_EXCLUDES),
+                "eureka.server.enable-self-preservation", "false",
+                "eureka.server.use-read-only-response-cache", "false",
+                "eureka.server.response-cache-update-interval-ms", "500"));
+
+        Map<String, String> hotelProperties = new LinkedHashMap<>(discovery(eurekaUrl));
+        hotelProperties.put("spring.threads.virtual.enabled", String.valueOf(options.virtualThreads()));
+        hotelContext = run(HotelServiceApplication.class, WebApplicationType.SERVLET, hotelProperties);
+
+        Map<String, String> bookingProperties = new LinkedHashMap<>(discovery(eurekaUrl));
+        bookingProperties.put("spring.autoconfigure.exclude", R2DBC_EXCLUDES);
+        bookingProperties.put("spring.threads.virtual.enabled", String.valueOf(options.virtualThreads()));
+        bookingProperties.put("spring.cloud.loadbalancer.cache.ttl", "2s");
+        bookingContext = run(BookingServiceApplication.class, WebApplicationType.SERVLET, bookingProperties);
+
+        Map<String, String> gatewayProperties = new LinkedHashMap<>(discovery(eurekaUrl));
+        gatewayProperties.put("spring.autoconfigure.exclude", String.join(",", R2DBC_EXCLUDES, JPA_EXCLUDES, REACTIVE_SECURITY_EXCLUDES));
+        gatewayProperties.put("spring.cloud.gateway.enabled", "true");
+        gatewayProperties.put("booking.service.url", "http://localhost:" + port(bookingContext));
+        gatewayProperties.put("hotel.service.url", "http://localhost:" + port(hotelContext));
+        if (!options.productionLimits()) {
+            // Лимиты на пользователя/IP рассчитаны на живых клиентов, а не на генератор нагрузки с одного адреса
+            gatewayProperties.put("gateway.rate-limit.user.replenish-rate", "1000000");
+            gatewayProperties.put("gateway.rate-limit.user.burst-capacity", "1000000");
+            gatewayProperties.put("gateway.rate-limit.route.replenish-rate", "1000000");
+            gatewayProperties.put("gateway.rate-limit.route.burst-capacity", "1000000");
+        }
+        ConfigurableApplicationContext gateway = run(GatewayApplication.class, WebApplicationType.REACTIVE, gatewayProperties);
+        gatewayPort = port(gateway);
+
+        awaitDiscovery(bookingContext, "hotel-service");
+    }
+
+    private ConfigurableApplicationContext run(Class<?> application, WebApplicationType type, Map<String, String> overrides) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.config.location", configLocation(application));
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "WARN");
+        // DEBUG уровни из application.yml gateway-я
+        properties.put("logging.level.com.hotel.gateway", "WARN");
+        properties.put("logging.level.org.springframework.cloud.gateway", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.put("spring.jpa.show-sql", "false");
+        if (type == WebApplicationType.SERVLET) {
+            properties.put("spring.cloud.gateway.enabled", "false");
+        }
+        properties.putAll(overrides);
+
+        long start = System.nanoTime();
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(application)
+                .web(type)
+                .bannerMode(Banner.Mode.OFF);
+        if (application != EurekaServerApplication.class) {
+            // Jersey из eureka-server на общем classpath отключает RestTemplate транспорт клиента Eureka,
+            // поэтому клиентам нужен тот же Jersey транспорт, что создает EurekaServerAutoConfiguration
+            builder.initializers(context -> {
+                context.getBeanFactory().registerSingleton("jersey3TransportClientFactories",
+                        Jersey3TransportClientFactories.getInstance());
+                context.getBeanFactory().registerSingleton("jersey3DiscoveryClientOptionalArgs",
+                        new Jersey3DiscoveryClientOptionalArgs());
+            });
+        }
+        ConfigurableApplicationContext context = builder
+                // Аргументы командной строки имеют приоритет над application.yml сервиса
+                .run(properties.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+        contexts.add(context);
+        System.out.println("🚀 " + application.getSimpleName() + " started on port " + port(context)
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return context;
+    }
+
+    private static Map<String, String> discovery(String eurekaUrl) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("eureka.client.service-url.defaultZone", eurekaUrl);
+        properties.put("eureka.client.registry-fetch-interval-seconds", "1");
+        properties.put("eureka.client.initial-instance-info-replication-interval-seconds", "1");
+        properties.put("eureka.client.instance-info-replication-interval-seconds", "1");
+        properties.put("eureka.instance.lease-renewal-interval-in-seconds", "1");
+        properties.put("eureka.instance.hostname", "localhost");
+        properties.put("eureka.instance.prefer-ip-address", "false");
+        return properties;
+    }
+
+    /**
+     * application.yml именно этого приложения: на общем classpath classpath:application.yml
+     * указывал бы на файл первого попавшегося модуля
+     */
+    private static String configLocation(Class<?> application) {
+        URL location = application.getProtectionDomain().getCodeSource().getLocation();
+        String path = location.toString();
+        if (path.endsWith(".jar")) {
+            return "jar:" + path + "!/application.yml";
+        }
+        return path + (path.endsWith("/") ? "" : "/") + "application.yml";
+    }
+
+    private static void awaitDiscovery(ConfigurableApplicationContext context, String serviceId) {
+        DiscoveryClient discoveryClient = context.getBean(DiscoveryClient.class);
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (discoveryClient.getInstances(serviceId).isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(serviceId + " was not discovered within 60 s");
+            }
+            sleep(200);
+        }
+        System.out.println("🔎 " + serviceId + " discovered: " + discoveryClient.getInstances(serviceId).get(0).getUri());
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("No free port for Eureka", e);
+        }
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for discovery", e);
+        }
+    }
+
+    ConfigurableApplicationContext hotelContext() {
+        return hotelContext;
+    }
+
+    ConfigurableApplicationContext bookingContext() {
+        return bookingContext;
+    }
+
+    String gatewayUrl() {
+        return "http://localhost:" + gatewayPort;
+    }
+
+    @Override
+    public void close() {
+        List<ConfigurableApplicationContext> reversed = new ArrayList<>(contexts);
+        Collections.reverse(reversed);
+        for (ConfigurableApplicationContext context : reversed) {
+            try {
+                context.close();
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Failed to stop context: " + e.getMessage());
+            }
+        }
+        contexts.clear();
+    }
+}
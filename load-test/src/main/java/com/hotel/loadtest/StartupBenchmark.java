@@ -0,0 +1,198 @@
+package com.hotel.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время до первого ответа и память каждого сервиса в разных режимах запуска
+ *
+ * Каждый сервис запускается отдельным процессом из target/ модуля (сборка mvn -Paot package),
+ * замеряется время от старта процесса до первого HTTP ответа и RSS процесса в этот момент.
+ * Режимы: jvm - обычный запуск, cds - AppCDS архив app.jsa, aot - Spring AOT,
+ * aot-cds - AOT и архив app-aot.jsa, native - исполняемый файл native image (mvn -Pnative native:compile).
+ * Режим пропускается, если для модуля нет нужного артефакта.
+ *
+ * mvn -Pstartup -pl load-test verify -Dstartup.args="--runs=5 --modules=hotel-service,booking-service"
+ */
+public class StartupBenchmark {
+
+    private static final List<String> ALL_MODES = List.of("jvm", "cds", "aot", "aot-cds", "native");
+    private static final List<String> ALL_MODULES = List.of("eureka-server", "api-gateway", "hotel-service", "booking-service");
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    record Sample(long firstResponseMillis, long rssKb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path root = Path.of(options.getOrDefault("root", "..")).toAbsolutePath().normalize();
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        List<String> modules = list(options.getOrDefault("modules", String.join(",", ALL_MODULES)));
+        List<String> modes = list(options.getOrDefault("modes", String.join(",", ALL_MODES)));
+        Path report = Path.of(options.getOrDefault("report", "target/startup-report.json"));
+        Path logs = report.toAbsolutePath().getParent().resolve("startup-logs");
+        Files.createDirectories(logs);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%-16s %-8s %5s %12s %12s %10s%n", "module", "mode", "runs", "p50 ttfr ms", "min ttfr ms", "p50 RSS MB");
+        for (String module : modules) {
+            Path target = root.resolve(module).resolve("target");
+            Map<String, Object> moduleResults = new LinkedHashMap<>();
+            for (String mode : modes) {
+                List<String> command = command(target, module, mode);
+                if (command == null) {
+                    System.out.printf("%-16s %-8s %5s%n", module, mode, "skip");
+                    continue;
+                }
+                List<Sample> samples = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    samples.add(measure(command, target, module, logs.resolve(module + "-" + mode + "-" + run + ".log")));
+                }
+                long[] millis = samples.stream().mapToLong(Sample::firstResponseMillis).sorted().toArray();
+                long[] rss = samples.stream().mapToLong(Sample::rssKb).sorted().toArray();
+                System.out.printf("%-16s %-8s %5d %12d %12d %10.1f%n",
+                        module, mode, runs, median(millis), millis[0], median(rss) / 1024.0);
+
+                Map<String, Object> modeResult = new LinkedHashMap<>();
+                modeResult.put("firstResponseMillis", millis);
+                modeResult.put("rssKb", rss);
+                moduleResults.put(mode, modeResult);
+            }
+            results.put(module, moduleResults);
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("timestamp", Instant.now().toString());
+        document.put("java", System.getProperty("java.version"));
+        document.put("runs", runs);
+        document.put("modules", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), document);
+        System.out.println("📄 Report written to " + report);
+    }
+
+    /**
+     * @return команда запуска или null, если модуль не собран для этого режима
+     */
+    private static List<String> command(Path target, String module, String mode) {
+        Path jar = target.resolve(module + "-1.0.0.jar");
+        // Без lib/ рядом jar собран без профиля aot и не запускается через -jar
+        boolean jvmBuild = Files.exists(jar) && Files.isDirectory(target.resolve("lib"));
+        String java = ProcessHandle.current().info().command().orElse("java");
+        return switch (mode) {
+            case "jvm" -> jvmBuild ? List.of(java, "-jar", jar.toString()) : null;
+            case "cds" -> jvmBuild && Files.exists(target.resolve("app.jsa"))
+                    ? List.of(java, "-XX:SharedArchiveFile=app.jsa", "-jar", jar.toString()) : null;
+            // app-aot.jsa создается только для модулей, прошедших process-aot
+            case "aot" -> jvmBuild && Files.exists(target.resolve("app-aot.jsa"))
+                    ? List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString()) : null;
+            case "aot-cds" -> jvmBuild && Files.exists(target.resolve("app-aot.jsa"))
+                    ? List.of(java, "-XX:SharedArchiveFile=app-aot.jsa", "-Dspring.aot.enabled=true", "-jar", jar.toString()) : null;
+            case "native" -> Files.isExecutable(target.resolve(module)) ? List.of(target.resolve(module).toString()) : null;
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+    }
+
+    private static Sample measure(List<String> baseCommand, Path target, String module, Path log)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(baseCommand);
+        command.add("--server.port=" + port);
+        if (!module.equals("eureka-server")) {
+            // Бины Eureka клиента в AOT режиме зафиксированы при сборке, поэтому клиент не выключается,
+            // а только не обращается к серверу - одинаково во всех режимах
+            command.add("--eureka.client.register-with-eureka=false");
+            command.add("--eureka.client.fetch-registry=false");
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(target.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            // Любой HTTP ответ (в том числе 401/404) означает, что сервис принимает запросы
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(1))
+                    .build();
+            long deadline = start + START_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(module + " exited with code " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(module + " did not respond within " + START_TIMEOUT + ", see " + log);
+                }
+                try {
+                    HTTP.send(request, HttpResponse.BodyHandlers.discarding());
+                    break;
+                } catch (IOException e) {
+                    Thread.sleep(10);
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new Sample(millis, rssKb(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(15, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,236 @@
+package com.hotel.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки через gateway
+ *
+ * Запросы поступают потоком Пуассона с заданной средней интенсивностью независимо от того,
+ * успевает ли система отвечать (в отличие от закрытой модели с фиксированным числом клиентов).
+ * Операция каждого запроса выбирается по весам из --mix.
+ */
+final class Workload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final String gatewayUrl;
+    private final DataSeeder.SeedResult seed;
+    private final Random random;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HttpClient httpClient;
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+
+    private final Queue<Booked> bookings = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong registeredUsers = new AtomicLong();
+
+    private record Booked(DataSeeder.SeededUser user, long bookingId) {
+    }
+
+    Workload(LoadTestOptions options, String gatewayUrl, DataSeeder.SeedResult seed) {
+        this.options = options;
+        this.gatewayUrl = gatewayUrl;
+        this.seed = seed;
+        this.random = new Random(options.seed());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+
+        operations = options.mix().keySet().toArray(String[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (!List.of("search", "catalog", "book", "cancel", "auth", "register").contains(operations[i])) {
+                throw new IllegalArgumentException("Unknown operation in mix: " + operations[i]);
+            }
+            total += options.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new EndpointStats(operations[i]));
+        }
+        stats.putIfAbsent("book", new EndpointStats("book"));
+    }
+
+    /**
+     * @return статистика по операциям за время измерения (без прогрева)
+     */
+    Map<String, EndpointStats> run() {
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+
+        long next = start;
+        while (next < end) {
+            long now = System.nanoTime();
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+            }
+            dispatch(next, next >= measureStart);
+            next += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+        }
+
+        awaitCompletion();
+        executor.shutdownNow();
+        return stats;
+    }
+
+    private void dispatch(long intendedStart, boolean measured) {
+        String operation = pickOperation();
+        Booked toCancel = null;
+        if (operation.equals("cancel")) {
+            toCancel = bookings.poll();
+            if (toCancel == null) {
+                // Отменять пока нечего - бронируем, чтобы сохранить интенсивность
+                operation = "book";
+            }
+        }
+
+        EndpointStats endpoint = stats.get(operation);
+        if (inFlight.get() >= options.maxInFlight()) {
+            if (measured) {
+                endpoint.recordDropped();
+            }
+            return;
+        }
+
+        DataSeeder.SeededUser user = toCancel != null ? toCancel.user() : randomUser();
+        HttpRequest request = buildRequest(operation, user, toCancel);
+        boolean isBooking = operation.equals("book");
+
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    long latency = System.nanoTime() - intendedStart;
+                    String outcome = response != null ? String.valueOf(response.statusCode()) : errorOutcome(error);
+                    if (measured) {
+                        endpoint.record(latency, outcome);
+                    }
+                    if (isBooking && response != null && response.statusCode() == 200) {
+                        rememberBooking(user, response.body());
+                    }
+                });
+    }
+
+    private HttpRequest buildRequest(String operation, DataSeeder.SeededUser user, Booked toCancel) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT);
+        switch (operation) {
+            case "search" -> {
+                LocalDate start = randomStartDate();
+                builder.uri(uri("/api/rooms/available?startDate=" + start + "&endDate=" + start.plusDays(randomNights())))
+                        .header("Authorization", "Bearer " + user.token())
+                        .GET();
+            }
+            case "catalog" -> builder.uri(uri("/api/hotels"))
+                    .header("Authorization", "Bearer " + user.token())
+                    .GET();
+            case "book" -> {
+                LocalDate start = randomStartDate();
+                long roomId = seed.roomIds().get(random.nextInt(seed.roomIds().size()));
+                builder.uri(uri("/api/booking"))
+                        .header("Authorization", "Bearer " + user.token())
+                        .header("Content-Type", "application/json")
+                        .POST(json(Map.of("roomId", roomId, "startDate", start.toString(),
+                                "endDate", start.plusDays(randomNights()).toString())));
+            }
+            case "cancel" -> builder.uri(uri("/api/booking/" + toCancel.bookingId()))
+                    .header("Authorization", "Bearer " + user.token())
+                    .DELETE();
+            case "auth" -> builder.uri(uri("/api/user/auth"))
+                    .header("Content-Type", "application/json")
+                    .POST(json(Map.of("username", user.username(), "password", DataSeeder.PASSWORD)));
+            case "register" -> builder.uri(uri("/api/user/register"))
+                    .header("Content-Type", "application/json")
+                    .POST(json(Map.of("username", "lt-new-" + registeredUsers.incrementAndGet(),
+                            "password", DataSeeder.PASSWORD)));
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        return builder.build();
+    }
+
+    private void rememberBooking(DataSeeder.SeededUser user, String body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).get("id");
+            if (id != null) {
+                bookings.add(new Booked(user, id.asLong()));
+            }
+        } catch (Exception e) {
+            // Ответ без id - отменять нечего
+        }
+    }
+
+    private void awaitCompletion() {
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    private String pickOperation() {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private DataSeeder.SeededUser randomUser() {
+        return seed.users().get(random.nextInt(seed.users().size()));
+    }
+
+    private LocalDate randomStartDate() {
+        return LocalDate.now().plusDays(1 + random.nextInt(120));
+    }
+
+    private int randomNights() {
+        return 1 + random.nextInt(5);
+    }
+
+    private URI uri(String path) {
+        return URI.create(gatewayUrl + path);
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize request body", e);
+        }
+    }
+
+    private static String errorOutcome(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException ? "timeout" : "io-error";
+    }
+}
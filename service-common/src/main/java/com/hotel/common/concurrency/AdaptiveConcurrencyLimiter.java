@@ -0,0 +1,131 @@
+package com.hotel.common.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных вызовов одного backend-а (gradient алгоритм)
+ *
+ * Лимит подстраивается по отношению "долгого" среднего RTT к текущему:
+ * пока задержка не растет, лимит увеличивается на sqrt(limit), при росте очереди
+ * на стороне backend-а (текущий RTT выше долгого) лимит уменьшается пропорционально.
+ * Ошибки и таймауты уменьшают лимит мультипликативно.
+ *
+ * Используется ConcurrencyLimitFilter в gateway (по backend-у) и bulkhead-ами
+ * booking-service (по методу hotel-service).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        // Например, запись бронирований - может занимать весь лимит
+        CRITICAL,
+        // Например, чтение каталога - отбрасывается раньше, оставляя запас для CRITICAL
+        NORMAL
+    }
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double normalShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRtt;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.0);
+    }
+
+    /**
+     * @param normalShare доля лимита, доступная вызовам с приоритетом NORMAL
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double normalShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.normalShare = normalShare;
+    }
+
+    /**
+     * @return true если вызов можно выполнить; после завершения обязательно вызвать onComplete или onIgnore
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(Priority.CRITICAL);
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        double allowed = priority == Priority.CRITICAL ? limit : limit * normalShare;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Завершение вызова
+     *
+     * @param rttNanos время ответа backend-а
+     * @param dropped  ответ 5xx / ошибка соединения / таймаут - признак перегрузки
+     */
+    public void onComplete(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current, dropped);
+    }
+
+    /**
+     * Вызов отменен клиентом или не состоялся (например, исчерпан дедлайн) - RTT не показателен,
+     * только освобождаем место
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = limit * BACKOFF_RATIO;
+        } else {
+            samples++;
+            double window = Math.min(samples, LONG_WINDOW);
+            longRtt = samples == 1 ? rttNanos : longRtt + (rttNanos - longRtt) / window;
+
+            // Лимит не используется полностью - увеличивать его бессмысленно
+            if (inFlightAtCompletion < limit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / Math.max(1, rttNanos)));
+            double queueSize = Math.sqrt(limit);
+            newLimit = limit * gradient + queueSize;
+            newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+
+            // Если backend восстановился после перегрузки, длинное окно догоняет его медленно
+            if (rttNanos < longRtt) {
+                longRtt = longRtt * 0.95 + rttNanos * 0.05;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Доля занятого лимита: 1 - новые вызовы отклоняются
+    public double getSaturation() {
+        return inFlight.get() / limit;
+    }
+}
@@ -0,0 +1,102 @@
+package com.hotel.common.deadline;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Дедлайн текущего запроса (на время обработки в потоке запроса)
+ *
+ * Бюджет приходит в заголовке X-Request-Timeout-Ms: оставшееся время в миллисекундах,
+ * а не абсолютный момент, поэтому часы сервисов сверять не нужно - каждый сервис отсчитывает
+ * его от получения запроса и передает дальше уже остаток. Без заголовка дедлайна нет.
+ * В hotel-service транзакции JPA получают остаток бюджета как таймаут (DeadlineAwareTransactionManager).
+ */
+public final class Deadline {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    static Deadline open(long timeoutMillis) {
+        Deadline deadline = new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Остаток бюджета текущего запроса в миллисекундах; без дедлайна - Long.MAX_VALUE
+     */
+    public static long remainingMillis() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? deadline.remaining() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Бросить DeadlineExceededException, если бюджет запроса уже исчерпан
+     */
+    public static void check(String operation) {
+        if (remainingMillis() <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded before " + operation);
+        }
+    }
+
+    /**
+     * Ошибка из-за дедлайна: проверка бюджета, таймаут транзакции или запроса к базе
+     */
+    public static boolean isExceeded(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException
+                    || cause instanceof TransactionTimedOutException
+                    || cause instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Выполнить действие вне дедлайна запроса
+     *
+     * Для компенсаций: снятие удержания в hotel-service должно дойти и тогда,
+     * когда вызывающий уже не ждет ответа.
+     */
+    public static <T> T detached(Supplier<T> action) {
+        Deadline deadline = CURRENT.get();
+        CURRENT.remove();
+        try {
+            return action.get();
+        } finally {
+            if (deadline != null) {
+                CURRENT.set(deadline);
+            }
+        }
+    }
+
+    public static void detached(Runnable action) {
+        detached(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public long remaining() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
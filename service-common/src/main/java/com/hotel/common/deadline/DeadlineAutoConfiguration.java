@@ -0,0 +1,26 @@
+package com.hotel.common.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Дедлайн запроса из X-Request-Timeout-Ms для servlet-сервисов
+ *
+ * Реактивный профиль hotel-service и gateway фильтр не получают: дедлайн хранится в ThreadLocal
+ * потока запроса, а gateway сам выставляет заголовок своим DeadlineFilter.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DeadlineAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DeadlineFilter deadlineFilter(@Value("${deadline.max-timeout:PT30S}") Duration maxTimeout) {
+        return new DeadlineFilter(maxTimeout);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotel.common.deadline;
+
+/**
+ * Бюджет времени запроса исчерпан: вызывающий уже не ждет результата
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotel.common.deadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Дедлайн запроса из заголовка X-Request-Timeout-Ms (выставляет gateway или вызывающий сервис)
+ *
+ * Запрос с уже исчерпанным бюджетом отклоняется с 504 до какой-либо работы. Бюджет
+ * ограничен deadline.max-timeout, чтобы клиент не мог снять ограничения retry и таймаутов.
+ * Регистрируется DeadlineAutoConfiguration только в servlet-приложениях.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final long maxTimeoutMillis;
+
+    public DeadlineFilter(Duration maxTimeout) {
+        this.maxTimeoutMillis = maxTimeout.toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String header = request.getHeader(Deadline.TIMEOUT_HEADER);
+        if (header == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long timeoutMillis;
+        try {
+            timeoutMillis = Math.min(Long.parseLong(header.trim()), maxTimeoutMillis);
+        } catch (NumberFormatException e) {
+            System.out.println("⚠️ Invalid " + Deadline.TIMEOUT_HEADER + " header ignored: " + header);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            System.out.println("⏱️ Deadline already exceeded: " + request.getMethod() + " " + request.getRequestURI());
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Deadline exceeded\"}");
+            return;
+        }
+
+        Deadline.open(timeoutMillis);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.close();
+        }
+    }
+}
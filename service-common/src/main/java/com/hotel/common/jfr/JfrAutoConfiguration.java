@@ -0,0 +1,32 @@
+package com.hotel.common.jfr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * /actuator/jfr для сервиса (доступ ограничивает сам сервис) и, на virtual threads,
+ * монитор их pinning-а
+ */
+@AutoConfiguration
+@ConditionalOnClass(Endpoint.class)
+public class JfrAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JfrEndpoint jfrEndpoint(@Value("${spring.application.name:application}") String service) {
+        return new JfrEndpoint(service);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(meterRegistry);
+    }
+}
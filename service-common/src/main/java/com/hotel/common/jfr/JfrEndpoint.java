@@ -0,0 +1,153 @@
+package com.hotel.common.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Управление ограниченной JFR записью (только ADMIN: SecurityConfig сервисов, JfrAccessFilter в gateway)
+ *
+ * POST   /actuator/jfr        - начать запись {"durationSeconds": 300, "settings": "profile"}
+ * GET    /actuator/jfr        - состояние записи
+ * GET    /actuator/jfr/dump   - скачать .jfr (во время записи или после остановки)
+ * DELETE /actuator/jfr        - остановить запись
+ *
+ * Запись ограничена по времени (jfr.recording.max-duration) и размеру (jfr.recording.max-size-mb),
+ * поэтому забытая запись не заполнит диск. Без записи события сервиса почти ничего не стоят:
+ * поля заполняются только при shouldCommit(). События сервисов (@StackTrace(false), без @Threshold)
+ * включены по умолчанию, поэтому попадают в запись с любыми settings.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint implements DisposableBean {
+
+    private final String service;
+
+    @Value("${jfr.recording.max-duration:PT30M}")
+    private Duration maxDuration;
+
+    @Value("${jfr.recording.default-duration:PT5M}")
+    private Duration defaultDuration;
+
+    @Value("${jfr.recording.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${jfr.recording.settings:profile}")
+    private String defaultSettings;
+
+    private Recording recording;
+    private Path lastDump;
+
+    public JfrEndpoint(String service) {
+        this.service = service;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("service", service);
+        status.put("state", recording != null ? recording.getState().name() : "NONE");
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("startTime", String.valueOf(recording.getStartTime()));
+            status.put("duration", String.valueOf(recording.getDuration()));
+            status.put("maxSizeBytes", recording.getMaxSize());
+            status.put("sizeBytes", recording.getSize());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long durationSeconds, @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new InvalidEndpointRequestException("Recording is already running", "Recording is already running");
+        }
+        closeRecording();
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : defaultSettings);
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException("Unknown JFR settings: " + settings, "Unknown JFR settings");
+        }
+
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : defaultDuration;
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            duration = maxDuration;
+        }
+
+        recording = new Recording(configuration);
+        recording.setName(service + "-" + System.currentTimeMillis());
+        recording.setToDisk(true);
+        recording.setDuration(duration);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.start();
+        System.out.println("🎥 JFR recording started: " + recording.getName() + " for " + duration);
+        return status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            System.out.println("⏹️ JFR recording stopped: " + recording.getName());
+        }
+        return status();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource dump(@Selector String action) throws IOException {
+        if (!"dump".equals(action)) {
+            return null;
+        }
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new InvalidEndpointRequestException("No recording to dump", "No recording to dump");
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile(service + "-", ".jfr");
+        recording.dump(lastDump);
+        return new FileSystemResource(lastDump);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        closeRecording();
+        deleteLastDump();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void deleteLastDump() {
+        if (lastDump != null) {
+            try {
+                Files.deleteIfExists(lastDump);
+            } catch (IOException e) {
+                System.out.println("⚠️ Failed to delete JFR dump " + lastDump + ": " + e.getMessage());
+            }
+            lastDump = null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.hotel.common.jfr;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Обнаружение pinning-а virtual threads
+ *
+ * Работает только в режиме spring.threads.virtual.enabled=true (JDK 21+).
+ * Через JFR подписывается на событие jdk.VirtualThreadPinned и пишет в лог место,
+ * где virtual thread заблокировался, удерживая carrier-поток (synchronized, native вызов).
+ * Количество таких блокировок доступно в метрике jvm.threads.virtual.pinned.
+ * Регистрируется JfrAutoConfiguration.
+ */
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+    private static final int STACK_DEPTH = 5;
+
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("jvm.threads.virtual.pinned", this, VirtualThreadPinningMonitor::getPinnedCount)
+                .description("Virtual thread pinning events longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (Runtime.version().feature() < 21) {
+            System.out.println("⚠️ Virtual threads requested, but JDK " + Runtime.version().feature()
+                    + " does not support them - running on platform threads");
+            return;
+        }
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(THRESHOLD).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        System.out.println("🧵 Virtual threads enabled, pinning monitor started (threshold " + THRESHOLD.toMillis() + " ms)");
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long count = pinnedCount.incrementAndGet();
+        StringBuilder frames = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            event.getStackTrace().getFrames().stream()
+                    .limit(STACK_DEPTH)
+                    .map(RecordedFrame::getMethod)
+                    .forEach(method -> frames.append("\n   at ")
+                            .append(method.getType().getName()).append('.').append(method.getName()));
+        }
+        System.out.println("📌 Virtual thread pinned for " + event.getDuration().toMillis() + " ms (total " + count + ")" + frames);
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hotel.common.replica;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * HibernateJpaDialect, выбирающий базу до того, как транзакция получит соединение
+ *
+ * Маршрут выставляется перед началом транзакции Hibernate (она сразу берет соединение
+ * для setAutoCommit(false)) и восстанавливается при ее завершении, поэтому вложенные
+ * REQUIRES_NEW транзакции получают свой маршрут. Сессия, читающая с реплики, не кладет
+ * сущности во второй уровень кэша: устаревшие строки реплики не должны попасть в общий кэш.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    private final ReplicaRouting routing;
+
+    public ReplicaAwareJpaDialect(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        ReplicaRouting.Route previousRoute = ReplicaRouting.current();
+        ReplicaRouting.Route route = routing.decide(ReplicaAwareTransactionManager.beginningDefinition(definition));
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+
+        ReplicaRouting.set(route);
+        if (route == ReplicaRouting.Route.REPLICA) {
+            session.setCacheMode(CacheMode.GET);
+        }
+        try {
+            Object transactionData = super.beginTransaction(entityManager, definition);
+            return new RoutedTransactionData(transactionData, previousRoute, session, previousCacheMode);
+        } catch (RuntimeException | SQLException e) {
+            restore(previousRoute, session, previousCacheMode);
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(@Nullable Object transactionData) {
+        if (transactionData instanceof RoutedTransactionData routed) {
+            try {
+                super.cleanupTransaction(routed.delegate());
+            } finally {
+                restore(routed.previousRoute(), routed.session(), routed.previousCacheMode());
+            }
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private static void restore(ReplicaRouting.Route route, Session session, CacheMode cacheMode) {
+        ReplicaRouting.set(route == ReplicaRouting.Route.PRIMARY ? null : route);
+        if (session.isOpen()) {
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    private record RoutedTransactionData(Object delegate, ReplicaRouting.Route previousRoute,
+                                         Session session, CacheMode previousCacheMode) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.hotel.common.replica;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * JpaTransactionManager с ReplicaAwareJpaDialect
+ *
+ * В JpaDialect.beginTransaction приходит обертка над описанием транзакции без меток
+ * (@Transactional(label = ...)), поэтому исходное описание доступно диалекту на время doBegin.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    private static final ThreadLocal<TransactionDefinition> BEGINNING = new ThreadLocal<>();
+
+    private final ReplicaRouting routing;
+
+    public ReplicaAwareTransactionManager(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // Иначе остался бы диалект EntityManagerFactory
+        setJpaDialect(new ReplicaAwareJpaDialect(routing));
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        BEGINNING.set(definition);
+        try {
+            super.doBegin(transaction, definition);
+        } finally {
+            BEGINNING.remove();
+        }
+    }
+
+    static TransactionDefinition beginningDefinition(TransactionDefinition fallback) {
+        TransactionDefinition definition = BEGINNING.get();
+        return definition != null ? definition : fallback;
+    }
+}
@@ -0,0 +1,108 @@
+package com.hotel.common.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.api.Trigger;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Профиль replica: чтение с реплики по меткам транзакций replica:*, запись - в основную базу
+ *
+ * Вместо одного DataSource регистрируются основная база (spring.datasource.*), реплика
+ * (replica.*) и маршрутизирующий DataSource над ними, который используют JPA и Flyway.
+ * Автоконфигурация выполняется раньше стандартных DataSource и JPA. Сервис может объявить
+ * свой менеджер транзакций - наследник ReplicaAwareTransactionManager.
+ */
+@AutoConfiguration(before = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ConditionalOnClass({HikariDataSource.class, HibernateJpaDialect.class, Trigger.class})
+@Profile("replica")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        if (properties.getUrl() == null) {
+            throw new RuntimeException("replica.url must be set for the replica profile");
+        }
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReplicaRouting.Route.PRIMARY, primary,
+                ReplicaRouting.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        return routing;
+    }
+
+    @Bean
+    public ReplicaSync replicaSync(@Qualifier("primaryDataSource") DataSource primary,
+                                   @Qualifier("replicaDataSource") DataSource replica,
+                                   ReplicaProperties properties, MeterRegistry meterRegistry) {
+        return new ReplicaSync(primary, replica, properties, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaRouting replicaRouting(ReplicaProperties properties, ReplicaSync replicaSync,
+                                         MeterRegistry meterRegistry) {
+        return new ReplicaRouting(properties, replicaSync, meterRegistry);
+    }
+
+    /**
+     * По умолчанию сессия держит соединение до своего закрытия, а при open-in-view это весь
+     * запрос: следующая транзакция того же запроса получила бы соединение первой, в том числе
+     * запись - соединение реплики. Здесь соединение отдается после каждой транзакции.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TransactionManager.class)
+    public ReplicaAwareTransactionManager transactionManager(
+            ReplicaRouting routing, ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager(routing);
+        customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
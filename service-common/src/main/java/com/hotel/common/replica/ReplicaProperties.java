@@ -0,0 +1,33 @@
+package com.hotel.common.replica;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки реплики для чтения (профиль replica)
+ */
+@Data
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaProperties {
+
+    // Вторая встроенная база, которую ReplicaSync держит в синхронизации с основной
+    private String url;
+    private String username = "sa";
+    private String password = "";
+
+    // Допустимое отставание реплики по имени политики из метки транзакции "replica:<имя>"
+    private Map<String, Duration> maxLag = new LinkedHashMap<>();
+    // Для политик без настройки и для read-only транзакций без метки (если routeAllReadOnly)
+    private Duration defaultMaxLag = Duration.ofSeconds(1);
+
+    // false - на реплику идут только транзакции с меткой replica:*; true - любые readOnly,
+    // включая неявные read-only транзакции Spring Data (findById, findByUsername и т.п.)
+    private boolean routeAllReadOnly = false;
+
+    private Duration syncInterval = Duration.ofMillis(50);
+    private int syncBatchSize = 1000;
+}
@@ -0,0 +1,98 @@
+package com.hotel.common.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Выбор базы для транзакции: основная или реплика
+ *
+ * Решение принимается один раз при начале транзакции (ReplicaAwareJpaDialect) и хранится
+ * в ThreadLocal до ее завершения; ReplicaRoutingDataSource отдает соединение выбранной базы.
+ * Реплика используется только для readOnly транзакций и только пока ее отставание
+ * не превышает допустимое для политики, иначе чтение уходит на основную базу.
+ */
+public class ReplicaRouting {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    // @Transactional(readOnly = true, label = "replica:catalog") - политика catalog из replica.max-lag
+    public static final String LABEL_PREFIX = "replica:";
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+
+    private final ReplicaProperties properties;
+    private final ReplicaSync replicaSync;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ReplicaRouting(ReplicaProperties properties, ReplicaSync replicaSync, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.replicaSync = replicaSync;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static Route current() {
+        Route route = CURRENT.get();
+        return route != null ? route : Route.PRIMARY;
+    }
+
+    static void set(Route route) {
+        if (route == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(route);
+        }
+    }
+
+    /**
+     * Маршрут для новой транзакции
+     */
+    public Route decide(TransactionDefinition definition) {
+        if (!definition.isReadOnly()) {
+            return Route.PRIMARY;
+        }
+
+        String policy = policyOf(definition);
+        if (policy == null && !properties.isRouteAllReadOnly()) {
+            return Route.PRIMARY;
+        }
+
+        String policyName = policy != null ? policy : "default";
+        Duration maxLag = policy != null
+                ? properties.getMaxLag().getOrDefault(policy, properties.getDefaultMaxLag())
+                : properties.getDefaultMaxLag();
+        if (replicaSync.currentLag().compareTo(maxLag) > 0) {
+            counter(policyName, "primary-lagging").increment();
+            return Route.PRIMARY;
+        }
+        counter(policyName, "replica").increment();
+        return Route.REPLICA;
+    }
+
+    private static String policyOf(TransactionDefinition definition) {
+        if (definition instanceof TransactionAttribute attribute) {
+            for (String label : attribute.getLabels()) {
+                if (label.startsWith(LABEL_PREFIX)) {
+                    return label.substring(LABEL_PREFIX.length());
+                }
+            }
+        }
+        return null;
+    }
+
+    private Counter counter(String policy, String target) {
+        return counters.computeIfAbsent(policy + '|' + target, key -> Counter.builder("replica.routing")
+                .description("Read-only transactions by chosen database")
+                .tag("policy", policy)
+                .tag("target", target)
+                .register(meterRegistry));
+    }
+}
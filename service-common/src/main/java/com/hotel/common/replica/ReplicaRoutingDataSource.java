@@ -0,0 +1,14 @@
+package com.hotel.common.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Соединение основной базы или реплики по маршруту текущей транзакции
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReplicaRouting.current();
+    }
+}
@@ -0,0 +1,315 @@
+package com.hotel.common.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Синхронизация реплики с основной базой (обе - встроенные H2)
+ *
+ * При старте реплика пересоздается снимком таблиц основной базы (SCRIPT), затем на основной
+ * базе ставятся триггеры ReplicationLogTrigger. Фоновый поток каждые replica.sync-interval
+ * забирает ключи из replication_log, читает актуальные строки основной базы и применяет их
+ * к реплике (MERGE, либо DELETE если строки больше нет) одной транзакцией.
+ *
+ * Отставание считается с начала последнего прохода, после которого журнал был пуст:
+ * все, что было зафиксировано до этого момента, на реплике уже есть.
+ */
+public class ReplicaSync implements SmartLifecycle {
+
+    static final String LOG_TABLE = "REPLICATION_LOG";
+
+    private static final Set<String> EXCLUDED_TABLES = Set.of(LOG_TABLE, "FLYWAY_SCHEMA_HISTORY");
+    private static final int KEYS_PER_SELECT = 500;
+    private static final Duration NOT_SYNCED = Duration.ofDays(1);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private final Counter appliedRows;
+    private final Counter syncErrors;
+
+    // Таблица -> столбец первичного ключа
+    private final Map<String, String> tables = new LinkedHashMap<>();
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+    private volatile long caughtUpAtNanos;
+
+    public ReplicaSync(DataSource primary, DataSource replica, ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.properties = properties;
+        this.appliedRows = Counter.builder("replica.sync.rows")
+                .description("Rows copied from the primary database to the replica")
+                .register(meterRegistry);
+        this.syncErrors = Counter.builder("replica.sync.errors")
+                .register(meterRegistry);
+        TimeGauge.builder("replica.lag", this, TimeUnit.NANOSECONDS, sync -> sync.currentLag().toNanos())
+                .description("Upper bound of replica staleness")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Верхняя граница отставания реплики; пока синхронизация не запущена - бесконечность
+     */
+    public Duration currentLag() {
+        if (!running) {
+            return NOT_SYNCED;
+        }
+        return Duration.ofNanos(System.nanoTime() - caughtUpAtNanos);
+    }
+
+    @Override
+    public void start() {
+        try {
+            discoverTables();
+            createSnapshot();
+            installTriggers();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to initialize read replica: " + e.getMessage(), e);
+        }
+
+        caughtUpAtNanos = System.nanoTime();
+        running = true;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(1, properties.getSyncInterval().toMillis());
+        executor.scheduleWithFixedDelay(this::syncSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        System.out.println("🪞 Read replica in sync, tables " + tables.keySet() + ", interval " + intervalMs + " ms");
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Раньше веб-сервера (его фаза Integer.MAX_VALUE - 1): запросы приходят к готовой реплике
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void discoverTables() throws SQLException {
+        try (Connection conn = primary.getConnection();
+             ResultSet rs = conn.createStatement().executeQuery(
+                     "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+                     "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME")) {
+            while (rs.next()) {
+                String table = rs.getString(1);
+                if (EXCLUDED_TABLES.contains(table)) {
+                    continue;
+                }
+                String keyColumn = primaryKeyColumn(conn, "PUBLIC", table);
+                if (keyColumn == null) {
+                    System.out.println("⚠️ Table " + table + " has no single-column primary key, not replicated");
+                    continue;
+                }
+                tables.put(table, keyColumn);
+            }
+        }
+    }
+
+    private void createSnapshot() throws SQLException {
+        try (Connection source = primary.getConnection();
+             Connection target = replica.getConnection();
+             Statement targetStatement = target.createStatement()) {
+            source.createStatement().execute("CREATE TABLE IF NOT EXISTS " + LOG_TABLE + " (" +
+                    "seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "table_name VARCHAR(128) NOT NULL, " +
+                    "row_key VARCHAR(255) NOT NULL, " +
+                    "logged_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            // Снимок ниже содержит все, что записано до сих пор
+            source.createStatement().execute("DELETE FROM " + LOG_TABLE);
+
+            targetStatement.execute("DROP ALL OBJECTS");
+            if (!tables.isEmpty()) {
+                try (ResultSet script = source.createStatement().executeQuery(
+                        "SCRIPT NOPASSWORDS NOSETTINGS TABLE " + String.join(", ",
+                                tables.keySet().stream().map(table -> '"' + table + '"').toList()))) {
+                    while (script.next()) {
+                        String sql = script.getString(1);
+                        if (sql.startsWith("--") || sql.startsWith("CREATE USER")) {
+                            continue;
+                        }
+                        targetStatement.execute(sql);
+                    }
+                }
+            }
+
+            // Триггеры из снимка на реплике не нужны, а строки применяются в произвольном порядке таблиц
+            List<String> triggers = new ArrayList<>();
+            try (ResultSet rs = targetStatement.executeQuery(
+                    "SELECT TRIGGER_NAME FROM INFORMATION_SCHEMA.TRIGGERS WHERE TRIGGER_SCHEMA = 'PUBLIC'")) {
+                while (rs.next()) {
+                    triggers.add(rs.getString(1));
+                }
+            }
+            for (String trigger : triggers) {
+                targetStatement.execute("DROP TRIGGER \"" + trigger + "\"");
+            }
+            targetStatement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+    }
+
+    private void installTriggers() throws SQLException {
+        try (Connection conn = primary.getConnection(); Statement statement = conn.createStatement()) {
+            for (String table : tables.keySet()) {
+                statement.execute("CREATE TRIGGER IF NOT EXISTS \"REPL_" + table + "\" " +
+                        "AFTER INSERT, UPDATE, DELETE ON \"" + table + "\" FOR EACH ROW " +
+                        "CALL '" + ReplicationLogTrigger.class.getName() + "'");
+            }
+        }
+    }
+
+    private void syncSafely() {
+        try {
+            syncOnce();
+        } catch (Exception e) {
+            syncErrors.increment();
+            System.out.println("⚠️ Replica sync failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Один проход: журнал разбирается пачками, пока не окажется пуст
+     */
+    void syncOnce() throws SQLException {
+        long passStartNanos = System.nanoTime();
+        try (Connection source = primary.getConnection(); Connection target = replica.getConnection()) {
+            target.setAutoCommit(false);
+            while (true) {
+                List<Long> sequences = new ArrayList<>();
+                Map<String, Set<String>> changedKeys = new LinkedHashMap<>();
+                try (PreparedStatement select = source.prepareStatement(
+                        "SELECT seq, table_name, row_key FROM " + LOG_TABLE + " ORDER BY seq LIMIT ?")) {
+                    select.setInt(1, properties.getSyncBatchSize());
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            sequences.add(rs.getLong(1));
+                            changedKeys.computeIfAbsent(rs.getString(2), t -> new LinkedHashSet<>()).add(rs.getString(3));
+                        }
+                    }
+                }
+                if (sequences.isEmpty()) {
+                    break;
+                }
+
+                for (Map.Entry<String, Set<String>> entry : changedKeys.entrySet()) {
+                    String keyColumn = tables.get(entry.getKey());
+                    if (keyColumn != null) {
+                        applyRows(source, target, entry.getKey(), keyColumn, new ArrayList<>(entry.getValue()));
+                    }
+                }
+                target.commit();
+
+                // Удаляются только разобранные записи: строки с меньшим seq могли быть еще не зафиксированы
+                try (PreparedStatement delete = source.prepareStatement("DELETE FROM " + LOG_TABLE + " WHERE seq = ?")) {
+                    for (Long seq : sequences) {
+                        delete.setLong(1, seq);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+                if (sequences.size() < properties.getSyncBatchSize()) {
+                    break;
+                }
+            }
+        }
+        caughtUpAtNanos = passStartNanos;
+    }
+
+    private void applyRows(Connection source, Connection target, String table, String keyColumn,
+                           List<String> keys) throws SQLException {
+        for (int from = 0; from < keys.size(); from += KEYS_PER_SELECT) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + KEYS_PER_SELECT));
+            Set<String> present = new LinkedHashSet<>();
+
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement select = source.prepareStatement(
+                    "SELECT * FROM \"" + table + "\" WHERE \"" + keyColumn + "\" IN (" + placeholders + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    select.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = select.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int columnCount = meta.getColumnCount();
+                    List<String> columns = new ArrayList<>(columnCount);
+                    for (int i = 1; i <= columnCount; i++) {
+                        columns.add('"' + meta.getColumnName(i) + '"');
+                    }
+                    String merge = "MERGE INTO \"" + table + "\" (" + String.join(", ", columns) + ") KEY (\"" +
+                            keyColumn + "\") VALUES (" + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+                    try (PreparedStatement upsert = target.prepareStatement(merge)) {
+                        while (rs.next()) {
+                            for (int i = 1; i <= columnCount; i++) {
+                                upsert.setObject(i, rs.getObject(i));
+                            }
+                            upsert.addBatch();
+                            present.add(rs.getString(keyColumn));
+                        }
+                        upsert.executeBatch();
+                    }
+                }
+            }
+
+            try (PreparedStatement delete = target.prepareStatement(
+                    "DELETE FROM \"" + table + "\" WHERE \"" + keyColumn + "\" = ?")) {
+                for (String key : chunk) {
+                    if (!present.contains(key)) {
+                        delete.setString(1, key);
+                        delete.addBatch();
+                    }
+                }
+                delete.executeBatch();
+            }
+            appliedRows.increment(chunk.size());
+        }
+    }
+
+    /**
+     * Столбец первичного ключа таблицы или null, если ключ отсутствует или составной
+     */
+    static String primaryKeyColumn(Connection conn, String schema, String table) throws SQLException {
+        String column = null;
+        try (ResultSet keys = conn.getMetaData().getPrimaryKeys(null, schema, table)) {
+            while (keys.next()) {
+                if (column != null) {
+                    return null;
+                }
+                column = keys.getString("COLUMN_NAME");
+            }
+        }
+        return column;
+    }
+}
@@ -0,0 +1,56 @@
+package com.hotel.common.replica;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * H2 триггер основной базы: ключ каждой измененной строки пишется в replication_log
+ *
+ * Запись идет через соединение самой транзакции, поэтому при откате исчезает вместе
+ * с изменением. Значения строк не копируются: ReplicaSync читает актуальную строку по ключу.
+ */
+public class ReplicationLogTrigger implements Trigger {
+
+    private String tableName;
+    private int keyIndex = -1;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        this.tableName = tableName;
+        String keyColumn = ReplicaSync.primaryKeyColumn(conn, schemaName, tableName);
+        if (keyColumn == null) {
+            throw new SQLException("Table " + tableName + " has no single-column primary key");
+        }
+        try (ResultSet columns = conn.getMetaData().getColumns(null, schemaName, tableName, keyColumn)) {
+            if (!columns.next()) {
+                throw new SQLException("Primary key column " + keyColumn + " not found in " + tableName);
+            }
+            keyIndex = columns.getInt("ORDINAL_POSITION") - 1;
+        }
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO " + ReplicaSync.LOG_TABLE + " (table_name, row_key) VALUES (?, ?)")) {
+            if (newRow != null) {
+                log(insert, newRow[keyIndex]);
+            }
+            // Изменение ключа (или удаление): старую строку на реплике тоже нужно убрать
+            if (oldRow != null && (newRow == null || !oldRow[keyIndex].equals(newRow[keyIndex]))) {
+                log(insert, oldRow[keyIndex]);
+            }
+        }
+    }
+
+    private void log(PreparedStatement insert, Object key) throws SQLException {
+        insert.setString(1, tableName);
+        insert.setString(2, String.valueOf(key));
+        insert.executeUpdate();
+    }
+}
@@ -0,0 +1,35 @@
+package com.hotel.common.tracing;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.Map;
+
+/**
+ * Завершенный участок обработки запроса
+ *
+ * @param parentId       span вызывающего сервиса (null у корневого span-а в gateway)
+ * @param startEpochMs   начало, мс от эпохи - для упорядочивания span-ов разных сервисов
+ * @param durationMicros длительность
+ * @param status         HTTP статус или "error"
+ * @param tags           дополнительные сведения (например, X-Request-Id клиента в корневом span-е)
+ *
+ * Формат JSON общий для всех сервисов (camelCase, несмотря на SNAKE_CASE в booking-service),
+ * gateway собирает из них одну трассу.
+ */
+@JsonNaming(PropertyNamingStrategies.LowerCamelCaseStrategy.class)
+public record Span(String traceId,
+                   String spanId,
+                   String parentId,
+                   String service,
+                   String name,
+                   long startEpochMs,
+                   long durationMicros,
+                   String status,
+                   Map<String, String> tags) {
+
+    public Span(String traceId, String spanId, String parentId, String service, String name,
+                long startEpochMs, long durationMicros, String status) {
+        this(traceId, spanId, parentId, service, name, startEpochMs, durationMicros, status, Map.of());
+    }
+}
@@ -0,0 +1,103 @@
+package com.hotel.common.tracing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограниченный буфер span-ов последних трасс
+ *
+ * Хранит не более max-traces трасс (самые старые вытесняются) и не более
+ * max-spans-per-trace span-ов в каждой, поэтому память не растет под нагрузкой.
+ */
+public class SpanBuffer {
+
+    private final Map<String, Trace> traces = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+
+    public SpanBuffer(int maxTraces, int maxSpansPerTrace) {
+        this.maxTraces = maxTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+    }
+
+    public void record(Span span) {
+        Trace trace = traces.get(span.traceId());
+        if (trace == null) {
+            Trace created = new Trace(span.traceId());
+            trace = traces.putIfAbsent(span.traceId(), created);
+            if (trace == null) {
+                trace = created;
+                insertionOrder.add(span.traceId());
+                if (size.incrementAndGet() > maxTraces) {
+                    evictOldest();
+                }
+            }
+        }
+        trace.add(span, maxSpansPerTrace);
+    }
+
+    /**
+     * @return limit самых долгих трасс из буфера
+     */
+    public List<TraceView> slowest(int limit) {
+        return traces.values().stream()
+                .sorted(Comparator.comparingLong(Trace::durationMicros).reversed())
+                .limit(limit)
+                .map(Trace::view)
+                .toList();
+    }
+
+    /**
+     * @return трассы с указанными id (отсутствующие в буфере пропускаются)
+     */
+    public List<TraceView> find(String... traceIds) {
+        return Arrays.stream(traceIds)
+                .map(traces::get)
+                .filter(Objects::nonNull)
+                .map(Trace::view)
+                .toList();
+    }
+
+    private void evictOldest() {
+        String oldest = insertionOrder.poll();
+        if (oldest != null && traces.remove(oldest) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    private static final class Trace {
+        private final String traceId;
+        private final List<Span> spans = new ArrayList<>();
+        private volatile long durationMicros;
+
+        Trace(String traceId) {
+            this.traceId = traceId;
+        }
+
+        synchronized void add(Span span, int maxSpans) {
+            if (spans.size() < maxSpans) {
+                spans.add(span);
+            }
+            durationMicros = Math.max(durationMicros, span.durationMicros());
+        }
+
+        long durationMicros() {
+            return durationMicros;
+        }
+
+        synchronized TraceView view() {
+            return new TraceView(traceId, durationMicros, List.copyOf(spans));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hotel.common.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Трасса и span текущего запроса (на время обработки в потоке запроса)
+ */
+public final class TraceContext {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+    public static final String PARENT_SPAN_ID_HEADER = "X-Parent-Span-Id";
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final String spanId;
+
+    private TraceContext(String traceId, String spanId) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+    }
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    static TraceContext open(String traceId) {
+        TraceContext context = new TraceContext(traceId, newId());
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    public static String newId() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+}
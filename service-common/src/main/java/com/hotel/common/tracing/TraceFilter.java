@@ -0,0 +1,60 @@
+package com.hotel.common.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Серверный span на каждый входящий запрос
+ *
+ * traceId берется из заголовка X-Trace-Id, который выставляет gateway (или вызывающий сервис);
+ * без него запрос начинает собственную трассу. Стоит раньше security, чтобы учитывать и отказы.
+ * Реактивные приложения (gateway, профиль reactive hotel-service) этим фильтром не трассируются.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TraceFilter extends OncePerRequestFilter {
+
+    private final String service;
+    private final SpanBuffer spanBuffer;
+
+    public TraceFilter(String service, SpanBuffer spanBuffer) {
+        this.service = service;
+        this.spanBuffer = spanBuffer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String traceId = request.getHeader(TraceContext.TRACE_ID_HEADER);
+        TraceContext context = TraceContext.open(traceId != null ? traceId : TraceContext.newId());
+        response.setHeader(TraceContext.TRACE_ID_HEADER, context.traceId());
+
+        long startEpochMs = System.currentTimeMillis();
+        long start = System.nanoTime();
+        String status = "error";
+        try {
+            filterChain.doFilter(request, response);
+            status = String.valueOf(response.getStatus());
+        } finally {
+            TraceContext.close();
+            spanBuffer.record(new Span(context.traceId(), context.spanId(),
+                    request.getHeader(TraceContext.PARENT_SPAN_ID_HEADER), service,
+                    request.getMethod() + " " + request.getRequestURI(),
+                    startEpochMs, (System.nanoTime() - start) / 1000, status));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.hotel.common.tracing;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+
+/**
+ * Трасса для /actuator/traces: span-ы одного traceId, записанные этим сервисом
+ *
+ * @param durationMicros длительность самого долгого span-а трассы
+ */
+@JsonNaming(PropertyNamingStrategies.LowerCamelCaseStrategy.class)
+public record TraceView(String traceId, long durationMicros, List<Span> spans) {
+}
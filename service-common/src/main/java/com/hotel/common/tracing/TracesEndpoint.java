@@ -0,0 +1,32 @@
+package com.hotel.common.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * /actuator/traces - самые долгие трассы из буфера (?limit=N)
+ * или конкретные трассы (?ids=a,b), так их собирает gateway
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private final SpanBuffer spanBuffer;
+
+    public TracesEndpoint(SpanBuffer spanBuffer) {
+        this.spanBuffer = spanBuffer;
+    }
+
+    @ReadOperation
+    public List<TraceView> traces(@Nullable Integer limit, @Nullable String ids) {
+        if (ids != null && !ids.isBlank()) {
+            return spanBuffer.find(ids.split(","));
+        }
+        return spanBuffer.slowest(Math.min(MAX_LIMIT, limit != null ? limit : DEFAULT_LIMIT));
+    }
+}
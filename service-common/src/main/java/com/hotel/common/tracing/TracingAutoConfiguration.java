@@ -0,0 +1,40 @@
+package com.hotel.common.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Трассировка запросов: буфер span-ов сервиса, серверный span и /actuator/traces
+ *
+ * Серверный span и /actuator/traces - только для servlet-приложений: у gateway свой реактивный
+ * TraceFilter, открывающий трассу, и свой /actuator/traces, собирающий span-ы backend-ов.
+ */
+@AutoConfiguration
+public class TracingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SpanBuffer spanBuffer(@Value("${tracing.buffer.max-traces:10000}") int maxTraces,
+                                 @Value("${tracing.buffer.max-spans-per-trace:64}") int maxSpansPerTrace) {
+        return new SpanBuffer(maxTraces, maxSpansPerTrace);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletTracing {
+
+        @Bean
+        public TraceFilter traceFilter(@Value("${spring.application.name}") String service, SpanBuffer spanBuffer) {
+            return new TraceFilter(service, spanBuffer);
+        }
+
+        @Bean
+        public TracesEndpoint tracesEndpoint(SpanBuffer spanBuffer) {
+            return new TracesEndpoint(spanBuffer);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hotel.common.concurrency;
+
+import com.hotel.common.concurrency.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 1_000_000L;
+    private static final long SLOW = 20_000_000L;
+
+    // Лимит занят полностью, один вызов завершается - иначе лимит не меняется
+    private static void saturatedCall(AdaptiveConcurrencyLimiter limiter, long rttNanos, boolean dropped) {
+        while (limiter.tryAcquire()) {
+            // занимаем весь лимит
+        }
+        limiter.onComplete(rttNanos, dropped);
+    }
+
+    @Test
+    void testLimitGrowsWhileRttIsSteady() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200);
+
+        for (int i = 0; i < 20; i++) {
+            saturatedCall(limiter, FAST, false);
+        }
+
+        assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onComplete(FAST, false);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenRttRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 200);
+        for (int i = 0; i < 10; i++) {
+            saturatedCall(limiter, FAST, false);
+        }
+        int warmedUp = limiter.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            saturatedCall(limiter, SLOW, false);
+        }
+
+        assertTrue(limiter.getLimit() < warmedUp, warmedUp + " -> " + limiter.getLimit());
+    }
+
+    @Test
+    void testDropBacksOffMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 5, 200);
+
+        saturatedCall(limiter, FAST, true);
+
+        assertEquals(90, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 40);
+        for (int i = 0; i < 200; i++) {
+            saturatedCall(limiter, FAST, false);
+        }
+        assertEquals(40, limiter.getLimit());
+
+        for (int i = 0; i < 200; i++) {
+            saturatedCall(limiter, FAST, true);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testNormalPriorityGetsOnlyItsShare() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 100, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Priority.NORMAL));
+        }
+        assertFalse(limiter.tryAcquire(Priority.NORMAL));
+
+        // Остаток лимита доступен только критичным вызовам
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+        }
+        assertFalse(limiter.tryAcquire(Priority.CRITICAL));
+        assertEquals(1.0, limiter.getSaturation(), 1e-9);
+    }
+
+    @Test
+    void testIgnoreReleasesSlotWithoutChangingLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.onIgnore();
+
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+    }
+}
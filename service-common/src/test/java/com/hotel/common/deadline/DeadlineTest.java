@@ -0,0 +1,59 @@
+package com.hotel.common.deadline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineTest {
+
+    @AfterEach
+    void tearDown() {
+        Deadline.close();
+    }
+
+    @Test
+    void testNoDeadlineMeansUnlimitedBudget() {
+        assertNull(Deadline.current());
+        assertEquals(Long.MAX_VALUE, Deadline.remainingMillis());
+        assertDoesNotThrow(() -> Deadline.check("call"));
+    }
+
+    @Test
+    void testRemainingBudgetShrinks() throws InterruptedException {
+        Deadline.open(1000);
+        long before = Deadline.remainingMillis();
+        Thread.sleep(20);
+        long after = Deadline.remainingMillis();
+
+        assertTrue(before <= 1000);
+        assertTrue(after < before);
+    }
+
+    @Test
+    void testExpiredDeadlineFailsCheck() {
+        Deadline.open(0);
+
+        assertEquals(0, Deadline.remainingMillis());
+        DeadlineExceededException e = assertThrows(DeadlineExceededException.class, () -> Deadline.check("confirm"));
+        assertTrue(e.getMessage().contains("confirm"));
+    }
+
+    @Test
+    void testDetachedRunsWithoutDeadlineAndRestoresIt() {
+        Deadline deadline = Deadline.open(0);
+
+        long inside = Deadline.detached(Deadline::remainingMillis);
+
+        assertEquals(Long.MAX_VALUE, inside);
+        assertSame(deadline, Deadline.current());
+    }
+
+    @Test
+    void testIsExceededLooksThroughCauses() {
+        assertTrue(Deadline.isExceeded(new RuntimeException(new QueryTimeoutException("timeout"))));
+        assertTrue(Deadline.isExceeded(new DeadlineExceededException("budget")));
+        assertFalse(Deadline.isExceeded(new IllegalStateException("conflict")));
+    }
+}
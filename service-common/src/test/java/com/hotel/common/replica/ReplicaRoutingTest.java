@@ -0,0 +1,132 @@
+package com.hotel.common.replica;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.stereotype.Service;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_test_primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "replica.url=jdbc:h2:mem:replica_test_replica;DB_CLOSE_DELAY=-1",
+        "replica.sync-interval=20ms",
+        "replica.max-lag.test=500ms"})
+@ActiveProfiles("replica")
+@DirtiesContext
+class ReplicaRoutingTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ReplicaRoutingTest.class)
+    @EnableJpaRepositories(basePackageClasses = ReplicaRoutingTest.class, considerNestedRepositories = true)
+    @Import(Reader.class)
+    static class Config {
+    }
+
+    @Entity
+    @Table(name = "replica_items")
+    public static class Item {
+        @Id
+        @GeneratedValue
+        Long id;
+        String name;
+    }
+
+    public interface ItemRepository extends JpaRepository<Item, Long> {
+    }
+
+    @Service
+    public static class Reader {
+
+        private final ItemRepository repository;
+
+        public Reader(ItemRepository repository) {
+            this.repository = repository;
+        }
+
+        // Имя и база, с которой оно прочитано
+        @Transactional(readOnly = true, label = "replica:test")
+        public String[] readFromReplica(Long id) {
+            return read(id);
+        }
+
+        @Transactional(readOnly = true)
+        public String[] readUnlabelled(Long id) {
+            return read(id);
+        }
+
+        private String[] read(Long id) {
+            String name = repository.findById(id).map(item -> item.name).orElse(null);
+            return new String[]{name, ReplicaRouting.current().name()};
+        }
+    }
+
+    @Autowired
+    private ItemRepository repository;
+
+    @Autowired
+    private Reader reader;
+
+    @Autowired
+    private ReplicaSync replicaSync;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private void awaitLagBelow(Duration lag) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (replicaSync.currentLag().compareTo(lag) >= 0) {
+            assertTrue(System.nanoTime() < deadline, "replica did not catch up, lag " + replicaSync.currentLag());
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void labelledReadUsesReplicaOnceItCaughtUp() throws Exception {
+        Item item = new Item();
+        item.name = "written";
+        Long id = repository.save(item).id;
+
+        // Отставание отсчитывается от начала прохода, который застал журнал пустым
+        Thread.sleep(100);
+        awaitLagBelow(Duration.ofMillis(100));
+
+        assertArrayEquals(new String[]{"written", "REPLICA"}, reader.readFromReplica(id));
+
+        // Правка только на реплике видна меткой replica:test и не видна остальным чтениям
+        try (Connection connection = replicaDataSource.getConnection();
+             PreparedStatement update = connection.prepareStatement("UPDATE replica_items SET name = ? WHERE id = ?")) {
+            update.setString(1, "replica-only");
+            update.setLong(2, id);
+            assertEquals(1, update.executeUpdate());
+        }
+        assertArrayEquals(new String[]{"replica-only", "REPLICA"}, reader.readFromReplica(id));
+        assertArrayEquals(new String[]{"written", "PRIMARY"}, reader.readUnlabelled(id));
+
+        // Реплика перестала догонять основную базу: чтение возвращается на основную
+        replicaSync.stop();
+        assertArrayEquals(new String[]{"written", "PRIMARY"}, reader.readFromReplica(id));
+    }
+}